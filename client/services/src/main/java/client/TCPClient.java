@@ -5,16 +5,33 @@ import action.Action;
 import io.deeplay.camp.Main;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.deeplay.camp.protocol.BinaryProtocol;
 import request.RequestResponse;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+/**
+ * Connection of the client to the reversi server.
+ * <p>
+ * With the binary protocol enabled the client negotiates it right after connecting. Moves then travel as three-byte
+ * frames and board states as compact board frames, which are turned back into the usual text responses before they
+ * reach the view, so the rest of the client works the same with either protocol.
+ * </p>
+ * <p>
+ * The binary protocol saves the server its text encoding and the network its bytes; the client still parses every
+ * board response as text. At one board per move that costs the client nothing noticeable.
+ * </p>
+ */
 public class TCPClient implements Client {
 
     private final ExecutorService executor = Executors.newCachedThreadPool();
@@ -22,8 +39,11 @@ public class TCPClient implements Client {
     private String serverIp;
     private int serverPort;
     private Socket socket;
-    private BufferedWriter writer;
-    private BufferedReader reader;
+    private final boolean binaryProtocol;
+    private final CountDownLatch negotiated = new CountDownLatch(1);
+    private volatile boolean binary;
+    private OutputStream writer;
+    private InputStream reader;
     public static String splitRegex = "::";
     public Action action;
 
@@ -32,28 +52,47 @@ public class TCPClient implements Client {
     }
 
     public TCPClient(String serverIp, int serverPort) throws IOException {
+        this(serverIp, serverPort, false);
+    }
+
+    public TCPClient(String serverIp, int serverPort, boolean binaryProtocol) throws IOException {
         this.serverIp = serverIp;
         this.serverPort = serverPort;
+        this.binaryProtocol = binaryProtocol;
         initializeResources();
         getResponse();
     }
 
     private void initializeResources() throws IOException {
         socket = new Socket(serverIp, serverPort);
-        writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
-        reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        writer = new BufferedOutputStream(socket.getOutputStream());
+        reader = new BufferedInputStream(socket.getInputStream());
+        if (binaryProtocol) {
+            writeLine(BinaryProtocol.NEGOTIATE);
+        } else {
+            negotiated.countDown();
+        }
     }
 
     @Override
     public void sendRequest(RequestResponse requestResponse) {
+        send(requestResponse.toString());
+    }
+
+    private void send(String request) {
         new Thread(() -> {
             try {
-                logger.info("Server request: " + requestResponse);
-                writer.write(requestResponse.toString());
-                writer.newLine();
-                writer.flush();
+                logger.info("Server request: " + request);
+                negotiated.await();
+                if (binary) {
+                    writeFrame(encodeRequest(request));
+                } else {
+                    writeLine(request);
+                }
             } catch (IOException e) {
-                logger.error("Failed to send request: " + requestResponse, e);
+                logger.error("Failed to send request: " + request, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }).start();
     }
@@ -62,8 +101,17 @@ public class TCPClient implements Client {
         new Thread(() -> {
             String serverResponse;
             try {
-                while ((serverResponse = reader.readLine()) != null) {
+                while ((serverResponse = readResponse()) != null) {
                     logger.info("Server response: " + serverResponse);
+                    if (!binary && serverResponse.equals(BinaryProtocol.ACCEPTED)) {
+                        binary = true;
+                        negotiated.countDown();
+                        continue;
+                    }
+                    if (serverResponse.equals("ping")) {
+                        send("pong");
+                        continue;
+                    }
                     String command = serverResponse.split(splitRegex)[0];
                     switch (command) {
                         case "login":
@@ -81,6 +129,7 @@ public class TCPClient implements Client {
                         case "session":
                         case "move":
                         case "board-after-move":
+                        case "board-delta":
                         case "session-ggg":
                         case "game-status":
                             String finalServerResponse1 = serverResponse;
@@ -93,4 +142,42 @@ public class TCPClient implements Client {
             }
         }).start();
     }
-}
\ No newline at end of file
+
+    private ByteBuffer encodeRequest(String request) {
+        String[] parts = request.split(" ");
+        if (parts.length == 2 && parts[0].equals("game-move")) {
+            if (parts[1].equals("null")) return BinaryProtocol.encodeMove(BinaryProtocol.PASS);
+            int square = BinaryProtocol.squareOf(parts[1]);
+            if (square >= 0) return BinaryProtocol.encodeMove(square);
+        }
+        return BinaryProtocol.encodeText(request);
+    }
+
+    private String readResponse() throws IOException {
+        if (binary) {
+            ByteBuffer frame = BinaryProtocol.readFrame(reader);
+            return frame == null ? null : BinaryProtocol.decodeMessage(frame);
+        }
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = reader.read()) != '\n') {
+            if (b < 0) return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+            if (b != '\r') line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeLine(String line) throws IOException {
+        synchronized (writer) {
+            writer.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            writer.flush();
+        }
+    }
+
+    private void writeFrame(ByteBuffer frame) throws IOException {
+        synchronized (writer) {
+            writer.write(frame.array(), frame.position(), frame.remaining());
+            writer.flush();
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class TCPClientFactory {
         Properties config = LoadServerProperties.loadConfig();
         String serverIp = config.getProperty("server.ip");
         int serverPort = Integer.parseInt(config.getProperty("server.port"));
-        return new TCPClient(serverIp, serverPort);
+        boolean binaryProtocol = "binary".equals(config.getProperty("client.protocol", "text"));
+        return new TCPClient(serverIp, serverPort, binaryProtocol);
     }
 }
@@ -71,12 +71,17 @@ public class GameView implements Observer {
 
     private long validMoves = 1;
 
+    private long markedSquares;
+
+    private final Button[] squares = new Button[64];
+
     public GameView() {
         singleton = ChatString.getInstance();
     }
 
     @FXML
     public void initialize() {
+        indexSquares();
         animation();
         singleton.registerObserver(this);
         modelManager = MainMenuView.getModelManager();
@@ -85,6 +90,16 @@ public class GameView implements Observer {
         greenTimer = createTimer(greenTimerText, () -> greenTimeLeft--, () -> greenTimeLeft);
     }
 
+    private void indexSquares() {
+        for (Node node : mainBoard.getChildren()) {
+            if (node instanceof Button) {
+                Integer row = GridPane.getRowIndex(node);
+                Integer column = GridPane.getColumnIndex(node);
+                squares[(row == null ? 0 : row) * 8 + (column == null ? 0 : column)] = (Button) node;
+            }
+        }
+    }
+
     private void animation() {
         for (Node node : mainBoard.getChildren()) {
             if (node instanceof Button) {
@@ -164,57 +179,64 @@ public class GameView implements Observer {
     public void updateBoard(String boardState) {
         char[] boardArray = boardState.replaceAll(" ", "").toCharArray();
         System.out.println(boardState);
+        markedSquares = 0;
         for (int i = 0; i < boardArray.length; i++) {
-            int row = i / 8;
-            int col = i % 8;
-            Button button = (Button) getNodeByRowColumnIndex(row, col, mainBoard);
-
-            if (button != null) {
-                switch (boardArray[i]) {
-                    case '*':
-                        Circle redCircle = new Circle(30, Color.rgb(255, 0, 0, 0.2));
-                        redCircle.setStyle(
-                                "             -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.5), 5, 0.3, 1, 1);"
-                        );
-                        button.setGraphic(redCircle);
-                        button.setStyle("-fx-background-color: transparent;");
-                        break;
-                    case '.':
-                        button.setGraphic(null); // Пустая клетка
-                        button.setStyle("-fx-background-color: transparent;");
-                        break;
-                    case 'X':
-                        Circle blackCircle = new Circle(30, Color.BLACK);
-                        blackCircle.setStyle("-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.75), 10, 0.5, 2, 2);" +
-                                "-fx-fill: linear-gradient(from 0% 0% to 100% 100%, " +
-                                "rgba(255, 255, 255, 0.5), rgba(0, 0, 0, 1));" +
-                                "-fx-stroke: #000000;" +
-                                "-fx-stroke-width: 1;");
-                        button.setGraphic(blackCircle);
-                        button.setStyle("-fx-background-color: transparent;");
-                        break;
-                    case '0':
-                        Circle whiteCircle = new Circle(30, Color.WHITE);
-                        button.setGraphic(whiteCircle);
-                        whiteCircle.setStyle("-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.75), 10, 0.5, 2, 2);" +
-                                        "-fx-fill: linear-gradient(from 0% 0% to 100% 100%, " +
-                                        "rgba(255, 255, 255, 1), rgba(100, 100, 100, 0.5));" +
-                                        "-fx-stroke: #000000;" +
-                                        "-fx-stroke-width: 1;"
-                        );
-                        break;
-                }
-            }
+            if (boardArray[i] == '*') markedSquares |= 1L << i;
+            drawSquare(i, boardArray[i]);
         }
     }
 
-    private Button getNodeByRowColumnIndex(final int row, final int column, GridPane gridPane) {
-        for (javafx.scene.Node node : gridPane.getChildren()) {
-            if (GridPane.getRowIndex(node) == row && GridPane.getColumnIndex(node) == column) {
-                return (Button) node;
-            }
+    public void applyDelta(int square, char colour, long flipped, long marked) {
+        long turned = square >= 0 ? flipped | 1L << square : flipped;
+        for (long rest = markedSquares & ~marked & ~turned; rest != 0; rest &= rest - 1) {
+            drawSquare(Long.numberOfTrailingZeros(rest), '.');
+        }
+        for (long rest = turned; rest != 0; rest &= rest - 1) {
+            drawSquare(Long.numberOfTrailingZeros(rest), colour);
+        }
+        for (long rest = marked & ~markedSquares; rest != 0; rest &= rest - 1) {
+            drawSquare(Long.numberOfTrailingZeros(rest), '*');
+        }
+        markedSquares = marked;
+    }
+
+    private void drawSquare(int square, char cell) {
+        Button button = squares[square];
+        if (button == null) return;
+        switch (cell) {
+            case '*':
+                Circle redCircle = new Circle(30, Color.rgb(255, 0, 0, 0.2));
+                redCircle.setStyle(
+                        "             -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.5), 5, 0.3, 1, 1);"
+                );
+                button.setGraphic(redCircle);
+                button.setStyle("-fx-background-color: transparent;");
+                break;
+            case '.':
+                button.setGraphic(null); // Пустая клетка
+                button.setStyle("-fx-background-color: transparent;");
+                break;
+            case 'X':
+                Circle blackCircle = new Circle(30, Color.BLACK);
+                blackCircle.setStyle("-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.75), 10, 0.5, 2, 2);" +
+                        "-fx-fill: linear-gradient(from 0% 0% to 100% 100%, " +
+                        "rgba(255, 255, 255, 0.5), rgba(0, 0, 0, 1));" +
+                        "-fx-stroke: #000000;" +
+                        "-fx-stroke-width: 1;");
+                button.setGraphic(blackCircle);
+                button.setStyle("-fx-background-color: transparent;");
+                break;
+            case '0':
+                Circle whiteCircle = new Circle(30, Color.WHITE);
+                button.setGraphic(whiteCircle);
+                whiteCircle.setStyle("-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.75), 10, 0.5, 2, 2);" +
+                                "-fx-fill: linear-gradient(from 0% 0% to 100% 100%, " +
+                                "rgba(255, 255, 255, 1), rgba(100, 100, 100, 0.5));" +
+                                "-fx-stroke: #000000;" +
+                                "-fx-stroke-width: 1;"
+                );
+                break;
         }
-        return null;
     }
 
     public void tileClick(ActionEvent actionEvent) {
@@ -261,17 +283,23 @@ public class GameView implements Observer {
                     validMoves = Long.parseLong(newString.split("::")[4]);
                 }
 
-                int currentPlayerId = extractCurrentPlayerId(newString);
-
-                    if (currentPlayerId == 1) {
-                        greenTimeLeft = 120;
-                        startRedTimer();
-                        stopGreenTimer();
-                    } else {
-                        redTimeLeft = 120;
-                        startGreenTimer();
-                        stopRedTimer();
-                    }
+                switchTimers(extractCurrentPlayerId(newString));
+                break;
+            case "board-delta":
+                String[] delta = newString.split(splitRegex);
+                int square = delta[1].equals("null") ? -1 : Integer.parseInt(delta[1]);
+                char colour = delta[2].charAt(0);
+                long flipped = Long.parseLong(delta[3]);
+                long marked = Long.parseLong(delta[6]);
+                Platform.runLater(() -> applyDelta(square, colour, flipped, marked));
+
+                String[] deltaScores = delta[4].split(" ");
+                redScore = Integer.parseInt(deltaScores[0]);
+                greenScore = Integer.parseInt(deltaScores[1]);
+                updateScores(redScore, greenScore);
+                validMoves = Long.parseLong(delta[5]);
+
+                switchTimers(extractCurrentPlayerId(newString));
                 break;
             case "game-status":
                 handleGameFinishedResponse(newString); // Вызов метода обработки завершения игры
@@ -286,6 +314,18 @@ public class GameView implements Observer {
         }
     }
 
+    private void switchTimers(int currentPlayerId) {
+        if (currentPlayerId == 1) {
+            greenTimeLeft = 120;
+            startRedTimer();
+            stopGreenTimer();
+        } else {
+            redTimeLeft = 120;
+            startGreenTimer();
+            stopRedTimer();
+        }
+    }
+
     private void updateScores(int redScore, int greenScore) {
         Platform.runLater(() -> {
             redScoreText.setText(String.valueOf(redScore));
@@ -1,5 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
+import io.deeplay.camp.handlers.main.Command;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 
 import java.io.IOException;
@@ -18,16 +20,16 @@ public interface CommandHandler {
     /**
      * Handles a command received from the client.
      * <p>
-     * This method processes the given command message and performs the necessary actions using the provided
+     * This method processes the given command and performs the necessary actions using the provided
      * MainHandler. It can throw IOException, SQLException, or InterruptedException, which should be handled
      * appropriately by the caller.
      * </p>
      *
-     * @param message     The command message received from the client.
+     * @param command     The parsed command received from the client.
      * @param mainHandler The handler managing the client connection and game context.
      * @throws IOException          If an I/O error occurs during command processing.
      * @throws SQLException         If a SQL error occurs during command processing.
      * @throws InterruptedException If the thread is interrupted during command processing.
      */
-    void handle(String message, MainHandler mainHandler) throws IOException, SQLException, InterruptedException;
+    void handle(Command command, MainHandler mainHandler) throws IOException, SQLException, InterruptedException;
 }
\ No newline at end of file
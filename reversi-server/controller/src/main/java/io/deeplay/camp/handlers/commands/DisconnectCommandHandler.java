@@ -1,7 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
-import io.deeplay.camp.managers.SessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,7 +18,6 @@ import java.io.IOException;
 public class DisconnectCommandHandler implements CommandHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(DisconnectCommandHandler.class);
-    private static final String OPPONENT_DISCONNECT_MESSAGE = "opponent-disconnect";
 
     /**
      * Handles the disconnect command.
@@ -28,16 +27,16 @@ public class DisconnectCommandHandler implements CommandHandler {
      * handles any unexpected errors that may occur.
      * </p>
      *
-     * @param message     the message received from the client, should not be null or empty
+     * @param command     the command received from the client, should not be null or empty
      * @param mainHandler the main handler managing the session, should not be null
      * @throws IOException if an unexpected error occurs during the handling process
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException {
         // Validate input parameters
-        if (message == null || message.isEmpty()) {
-            logger.error("Message is null or empty");
-            throw new IllegalArgumentException("Message cannot be null or empty");
+        if (command == null) {
+            logger.error("Command is null");
+            throw new IllegalArgumentException("Command cannot be null");
         }
 
         if (mainHandler == null) {
@@ -48,14 +47,10 @@ public class DisconnectCommandHandler implements CommandHandler {
         logger.info("Handling disconnect command for sessionId: {}", mainHandler.getSession().getSessionId());
 
         try {
-            // Close the connection with the client
-            mainHandler.closeConnection();
+            // Close the connection with the client; this notifies the opponent and forfeits the game
+            mainHandler.closeGracefully();
             logger.info("Connection closed for sessionId: {}", mainHandler.getSession().getSessionId());
 
-            // Notify the opponent about the disconnection
-            SessionManager.getInstance().sendMessageToOpponent(mainHandler, mainHandler.getSession(), OPPONENT_DISCONNECT_MESSAGE);
-            logger.info("Opponent notified about disconnection for sessionId: {}", mainHandler.getSession().getSessionId());
-
         } catch (Exception e) {
             logger.error("Unexpected error occurred while handling disconnect command", e);
             throw new IOException("Unexpected error occurred", e);
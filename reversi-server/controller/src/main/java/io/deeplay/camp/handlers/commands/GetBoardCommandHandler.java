@@ -1,6 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.dto.BoardDTO;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.managers.SessionManager;
 import org.slf4j.Logger;
@@ -30,18 +31,18 @@ public class GetBoardCommandHandler implements CommandHandler {
      * handles any unexpected errors that may occur.
      * </p>
      *
-     * @param message     the message received from the client, should not be null or empty
+     * @param command     the command received from the client, should not be null or empty
      * @param mainHandler the main handler managing the session, should not be null
      * @throws IOException          if an unexpected error occurs during the handling process
      * @throws SQLException         if a database access error occurs
      * @throws InterruptedException if the thread is interrupted while handling the command
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
         // Validate input parameters
-        if (message == null || message.isEmpty()) {
-            logger.error("Message is null or empty");
-            throw new IllegalArgumentException("Message cannot be null or empty");
+        if (command == null) {
+            logger.error("Command is null");
+            throw new IllegalArgumentException("Command cannot be null");
         }
 
         if (mainHandler == null) {
@@ -2,6 +2,7 @@ package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.ChatMessage;
 import io.deeplay.camp.chat.ChatService;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,17 +33,17 @@ public class GetMessagesCommandHandler implements CommandHandler {
      * unexpected errors that may occur.
      * </p>
      *
-     * @param message     the message received from the client, should not be null or empty
+     * @param command     the command received from the client, should not be null or empty
      * @param mainHandler the main handler managing the session, should not be null
      * @throws IOException  if an unexpected error occurs during the handling process
      * @throws SQLException if a database access error occurs
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
         // Validate input parameters
-        if (message == null || message.isEmpty()) {
-            logger.error("Message is null or empty");
-            throw new IllegalArgumentException("Message cannot be null or empty");
+        if (command == null) {
+            logger.error("Command is null");
+            throw new IllegalArgumentException("Command cannot be null");
         }
 
         if (mainHandler == null) {
@@ -1,5 +1,6 @@
 package io.deeplay.camp.handlers.commands;
 
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,18 +28,18 @@ public class GetValidMovesCommandHandler implements CommandHandler {
      * the process and handles any unexpected errors that may occur.
      * </p>
      *
-     * @param message     the message received from the client, should not be null
+     * @param command     the command received from the client, should not be null
      * @param mainHandler the main handler managing the session, should not be null
      * @throws IOException          if an unexpected error occurs during the handling process
      * @throws SQLException         if a database access error occurs
      * @throws InterruptedException if the thread is interrupted while handling the command
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
         // Validate input parameters
-        if (message == null || mainHandler == null) {
-            logger.error("Message or MainHandler is null");
-            throw new IllegalArgumentException("Message or MainHandler cannot be null");
+        if (command == null || mainHandler == null) {
+            logger.error("Command or MainHandler is null");
+            throw new IllegalArgumentException("Command or MainHandler cannot be null");
         }
 
         logger.info("Handling get valid moves command for sessionId: {}", mainHandler.getSession().getSessionId());
@@ -0,0 +1,30 @@
+package io.deeplay.camp.handlers.commands;
+
+import io.deeplay.camp.handlers.main.Command;
+import io.deeplay.camp.handlers.main.CommandType;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.ConnectionReaper;
+
+/**
+ * Handler for processing heartbeat commands.
+ * <p>
+ * A {@code ping} from the client is answered with {@code pong}, so the client can tell that the server is still
+ * there. A {@code pong} answers a ping of the server and needs no reply; like every command, receiving it already
+ * marks the client as alive for the {@link ConnectionReaper}.
+ * </p>
+ */
+public class HeartbeatCommandHandler implements CommandHandler {
+
+    /**
+     * Handles the heartbeat command.
+     *
+     * @param command     the command received from the client, should not be null
+     * @param mainHandler the main handler managing the session, should not be null
+     */
+    @Override
+    public void handle(Command command, MainHandler mainHandler) {
+        if (command.getType() == CommandType.PING) {
+            mainHandler.sendMessageToClient(ConnectionReaper.PONG);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.user.UserService;
 import io.deeplay.camp.token.RefreshTokenService;
@@ -39,28 +40,27 @@ public class LoginCommandHandler implements CommandHandler {
      * the process and handles any unexpected errors that may occur.
      * </p>
      *
-     * @param message     the message received from the client, should not be null
+     * @param command     the command received from the client, should not be null
      * @param mainHandler the main handler managing the session, should not be null
      * @throws IOException  if an unexpected error occurs during the handling process
      * @throws SQLException if a database access error occurs
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
         // Validate input parameters
-        if (message == null || mainHandler == null) {
-            logger.error("Message or MainHandler is null");
-            throw new IllegalArgumentException("Message or MainHandler cannot be null");
+        if (command == null || mainHandler == null) {
+            logger.error("Command or MainHandler is null");
+            throw new IllegalArgumentException("Command or MainHandler cannot be null");
         }
 
-        String[] parts = message.split(MainHandler.splitRegex);
-        if (parts.length < 3) {
-            logger.error("Invalid message format: {}", message);
+        if (command.getArgumentCount() < 2) {
+            logger.error("Invalid message format: {}", command);
             mainHandler.sendMessageToClient("Invalid message format");
             return;
         }
 
-        String username = parts[1];
-        String password = parts[2];
+        String username = command.getArgument(0);
+        String password = command.getArgument(1);
 
         try {
             Optional<User> optionalUser = userService.getUserByUsername(username);
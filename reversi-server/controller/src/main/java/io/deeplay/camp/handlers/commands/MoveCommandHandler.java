@@ -1,22 +1,21 @@
 package io.deeplay.camp.handlers.commands;
 
-import io.deeplay.camp.dto.BoardDTO;
+import io.deeplay.camp.clock.GameClock;
 import io.deeplay.camp.entity.GameSession;
-import io.deeplay.camp.enums.GameStatus;
-import io.deeplay.camp.board.BoardService;
 import io.deeplay.camp.bot.BotStrategy;
 import io.deeplay.camp.bot.RandomBot;
-import io.deeplay.camp.game.GameService;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.SessionActor;
 import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.protocol.BoardDelta;
+import io.deeplay.camp.protocol.BoardFrame;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CommandHandler for processing game moves.
@@ -25,11 +24,18 @@ import java.util.Objects;
  * checks if it's the player's turn, processes the move, updates the game state, and sends the updated
  * board state to the client. It also handles bot moves and checks for game win conditions.
  * </p>
+ * <p>
+ * In timed games the handler drives the session's {@link GameClock}: every move or pass presses the clock, both
+ * players are sent the remaining times, and a side that has run out of time loses when it next acts.
+ * </p>
+ * <p>
+ * Moves run on the {@link SessionActor} of the session, so they are applied to the board logic the actor keeps for
+ * the whole game, without locks and without rebuilding it from the session board on every move.
+ * </p>
  */
 public class MoveCommandHandler implements CommandHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(MoveCommandHandler.class);
-    private List<String> gameLogs = new ArrayList<>();
 
     /**
      * Handles the move command.
@@ -39,13 +45,13 @@ public class MoveCommandHandler implements CommandHandler {
      * and checks for game win conditions.
      * </p>
      *
-     * @param message     the message received from the client, should not be null
+     * @param command     the command received from the client, should not be null
      * @param mainHandler the main handler managing the session, should not be null
      * @throws IOException  if an unexpected error occurs during the handling process
      * @throws SQLException if a database access error occurs
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
         logger.info("Handling move command");
 
         if (!isValidSession(mainHandler)) return;
@@ -58,22 +64,30 @@ public class MoveCommandHandler implements CommandHandler {
 
         if (!isPlayerTurn(mainHandler, session, playerNumber)) return;
 
-        String move = getMoveFromMessage(message, mainHandler, session);
-        if (move == null) {
+        if (isOutOfTime(mainHandler, session, playerNumber)) return;
+
+        if (command.getArgumentCount() < 1) {
             mainHandler.sendMessageToClient("Invalid move format.");
             logger.warn("Invalid move format from user {}", mainHandler.getUser().getId());
             return;
-        } else if (move.equals("skip")){
+        }
+        int move = command.getMove();
+        long previousBlack = session.getBoard().getBlackChips();
+        long previousWhite = session.getBoard().getWhiteChips();
+        if (move == Command.PASS) {
+            skipMove(mainHandler, session);
             if (!session.getPlayer2().getIsBot()) {
+                pressClock(mainHandler, session);
                 SessionManager.getInstance().getSession(mainHandler.getSession().getSessionId()).setCurrentPlayerId(3 - getPlayerNumber(mainHandler, session));
                 mainHandler.getGameLogic().display(3 - getPlayerNumber(mainHandler, session), mainHandler.getBoardLogic());
             }
             return;
         }
 
-        boolean moveMade = mainHandler.getGameLogic().moveMade(mainHandler.getUser(), playerNumber, mainHandler.getBoardLogic(), move);
+        boolean moveMade = move != Command.NO_MOVE && mainHandler.getGameLogic().moveMade(mainHandler.getUser(),
+                playerNumber, mainHandler.getBoardLogic(), move % 8, move / 8);
         if (moveMade) {
-            handleSuccessfulMove(mainHandler, session, playerNumber);
+            handleSuccessfulMove(mainHandler, session, playerNumber, previousBlack, previousWhite);
         } else {
             mainHandler.sendMessageToClient(mainHandler.getUser().getId() + ": Invalid move.");
         }
@@ -108,16 +122,16 @@ public class MoveCommandHandler implements CommandHandler {
     /**
      * Initializes the game logic.
      * <p>
-     * This method sets up the game logic and board logic for the session.
+     * This method points the handler at the game logic and board logic the session's actor keeps.
      * </p>
      *
      * @param mainHandler the main handler managing the session, should not be null
      * @param session     the game session, should not be null
      */
     private void initializeGameLogic(MainHandler mainHandler, GameSession session) {
-        var newBoardLogic = new BoardService(session.getBoard());
-        mainHandler.setGameLogic(new GameService(newBoardLogic));
-        mainHandler.setBoardLogic(newBoardLogic);
+        SessionActor actor = SessionManager.getInstance().getActor(session.getSessionId());
+        mainHandler.setBoardLogic(actor.getBoardLogic());
+        mainHandler.setGameLogic(actor.getGameLogic());
     }
 
     /**
@@ -168,30 +182,24 @@ public class MoveCommandHandler implements CommandHandler {
     }
 
     /**
-     * Extracts the move from the message.
+     * Handles a pass.
      * <p>
-     * This method parses the move command from the received message.
+     * This method sends the unchanged board state to the client and lets the bot move in a bot game.
      * </p>
      *
-     * @param message the message received from the client, should not be null
-     * @return the move command, or null if the message format is invalid
+     * @param mainHandler the main handler managing the session, should not be null
+     * @param session     the game session, should not be null
      */
-    private String getMoveFromMessage(String message, MainHandler mainHandler, GameSession session) throws IOException, SQLException {
-        String[] messageParts = message.split(" ");
-        if (messageParts.length < 2) {
-            return null;
-        } else if (Objects.equals(messageParts[1], "null")) {
-            sendBoardStateToClient(mainHandler, session, getPlayerNumber(mainHandler, session));
-            logger.info("Player " + getPlayerNumber(mainHandler, session) + " skip move");
-
-            if (session.getPlayer2().getIsBot()) {
-                handleBotMove(mainHandler, session);
-            }
+    private void skipMove(MainHandler mainHandler, GameSession session) throws IOException, SQLException {
+        var board = session.getBoard();
+        sendBoardStateToClient(mainHandler, session, getPlayerNumber(mainHandler, session), board.getBlackChips(),
+                board.getWhiteChips());
+        logger.info("Player " + getPlayerNumber(mainHandler, session) + " skip move");
 
-            return "skip";
+        if (session.getPlayer2().getIsBot()) {
+            pressClock(mainHandler, session);
+            handleBotMove(mainHandler, session);
         }
-        
-        return messageParts[1];
     }
 
     /**
@@ -204,19 +212,23 @@ public class MoveCommandHandler implements CommandHandler {
      * @param mainHandler the main handler managing the session, should not be null
      * @param session     the game session, should not be null
      * @param playerNumber the player number
+     * @param previousBlack the black chips before the move
+     * @param previousWhite the white chips before the move
      * @throws IOException  if an unexpected error occurs during the handling process
      * @throws SQLException if a database access error occurs
      */
-    private void handleSuccessfulMove(MainHandler mainHandler, GameSession session, int playerNumber) throws IOException, SQLException {
+    private void handleSuccessfulMove(MainHandler mainHandler, GameSession session, int playerNumber,
+                                      long previousBlack, long previousWhite) throws IOException, SQLException {
         logger.info(mainHandler.getUser().getId() + ": Move made successfully.");
         updateSessionBoard(mainHandler, session);
 
-        sendBoardStateToClient(mainHandler, session, playerNumber);
+        sendBoardStateToClient(mainHandler, session, playerNumber, previousBlack, previousWhite);
 
         if (mainHandler.getGameLogic().checkForWin()) {
             handleWin(mainHandler, session);
         } else {
             session.setCurrentPlayerId(playerNumber == 1 ? session.getPlayer2().getId() : session.getPlayer1().getId());
+            pressClock(mainHandler, session);
             if (session.getPlayer2().getIsBot()) {
                 handleBotMove(mainHandler, session);
             }
@@ -246,47 +258,46 @@ public class MoveCommandHandler implements CommandHandler {
     /**
      * Sends the updated board state to the client.
      * <p>
-     * This method sends the current board state to the client.
+     * This method sends the change the move made to the board, as a {@link BoardDelta} against the chips before the
+     * move, to both players. Clients get a full board only when they ask for it.
      * </p>
      *
-     * @param mainHandler the main handler managing the session, should not be null
-     * @param session     the game session, should not be null
-     * @param playerNumber the player number
+     * @param mainHandler   the main handler managing the session, should not be null
+     * @param session       the game session, should not be null
+     * @param playerNumber  the player number
+     * @param previousBlack the black chips before the move
+     * @param previousWhite the white chips before the move
      * @throws IOException if an unexpected error occurs during the sending process
      */
-    private void sendBoardStateToClient(MainHandler mainHandler, GameSession session, int playerNumber) throws IOException {
-        var userId = mainHandler.getUser().getId();
-        var boardDTO = new BoardDTO(session.getBoard());
-        String boardDTOState = boardDTO.boardToClient();
-        String score = mainHandler.getBoardLogic().score()[0] + " " + mainHandler.getBoardLogic().score()[1];
-        String validMoves = Long.toString(mainHandler.getBoardLogic().getValidMoves(3 - playerNumber));
+    private void sendBoardStateToClient(MainHandler mainHandler, GameSession session, int playerNumber,
+                                        long previousBlack, long previousWhite) throws IOException {
+        var boardLogic = mainHandler.getBoardLogic();
+        long blackChips = session.getBoard().getBlackChips();
+        long whiteChips = session.getBoard().getWhiteChips();
+        int[] score = boardLogic.score();
+        long validMoves = boardLogic.getValidMoves(3 - playerNumber);
         var newCurrentPlayer = playerNumber == 1 ? session.getPlayer2().getId() : session.getPlayer1().getId();
-        String boardState;
-        
+
         if (session.getPlayer2().getIsBot()) {
             SessionManager.getInstance().getSession(session.getSessionId()).setCurrentPlayerId(newCurrentPlayer);
-            boardState = mainHandler.getBoardLogic().getBoardStateDTO(getPlayerNumber(mainHandler, session));
-        } else {
-            boardState = mainHandler.getBoardLogic().getBoardStateDTO(3 - getPlayerNumber(mainHandler, session));
+            long humanMoves = boardLogic.getValidMoves(getPlayerNumber(mainHandler, session));
+            var board = new BoardFrame(blackChips, whiteChips, validMoves, humanMoves, score[0], score[1], newCurrentPlayer);
+            var delta = BoardDelta.between(previousBlack, previousWhite, board);
+            session.addLog(delta.toText());
+            mainHandler.sendBoardToClient(delta);
+            return;
         }
 
-        String msg;
-        
-        if (!session.getPlayer2().getIsBot()) {
-            gameLogs.add("board-after-move::" + boardDTOState + "::" + score + "::" + validMoves + "::" + newCurrentPlayer);
-            msg = "board-after-move::" + boardDTOState + "::" + score + "::" + validMoves + "::" + newCurrentPlayer;
-        } else {
-            gameLogs.add("board-after-move::" + boardState + "::" + score + "::" + validMoves + "::" + newCurrentPlayer);
-            msg = "board-after-move::" + boardState + "::" + score + "::" + validMoves + "::" + newCurrentPlayer;
-        }
+        var moverBoard = new BoardFrame(blackChips, whiteChips, validMoves, 0, score[0], score[1], newCurrentPlayer);
+        var moverDelta = BoardDelta.between(previousBlack, previousWhite, moverBoard);
+        session.addLog(moverDelta.toText());
+        mainHandler.sendBoardToClient(moverDelta);
 
-        mainHandler.sendMessageToClient(msg);
-        
-        if (!session.getPlayer2().getIsBot()) {
-            gameLogs.add("board-after-move::" + boardState + "::" + score + "::" + validMoves + "::" + newCurrentPlayer);
-            msg = "board-after-move::" + boardState + "::" + score + "::" + validMoves + "::" + newCurrentPlayer;
-            SessionManager.getInstance().sendMessageToOpponent(mainHandler, session, msg);
-        }
+        long opponentMoves = boardLogic.getValidMoves(3 - getPlayerNumber(mainHandler, session));
+        var opponentBoard = new BoardFrame(blackChips, whiteChips, validMoves, opponentMoves, score[0], score[1],
+                newCurrentPlayer);
+        SessionManager.getInstance().sendBoardToOpponent(mainHandler, session,
+                BoardDelta.between(previousBlack, previousWhite, opponentBoard));
     }
 
     /**
@@ -302,8 +313,9 @@ public class MoveCommandHandler implements CommandHandler {
      * @throws SQLException if a database access error occurs
      */
     private void handleWin(MainHandler mainHandler, GameSession session) throws IOException, SQLException {
+        if (session.getClock() != null) session.getClock().stop();
+        if (!session.markFinished()) return;
         mainHandler.getGameLogic().displayEndGame(mainHandler.getBoardLogic());
-        session.setGameState(GameStatus.FINISHED);
         String msgWin = "game-status::finished";
 
         if (!session.getPlayer2().getIsBot()) {
@@ -313,7 +325,6 @@ public class MoveCommandHandler implements CommandHandler {
         }
 
         boolean playerWon = getPlayerNumber(mainHandler, session) == mainHandler.getBoardLogic().checkForWin().getUserIdWinner();
-        mainHandler.getSession().setLog(gameLogs);
         SessionManager.getInstance().finishedSession(mainHandler, playerWon);
     }
 
@@ -330,14 +341,20 @@ public class MoveCommandHandler implements CommandHandler {
      */
     private void handleBotMove(MainHandler mainHandler, GameSession session) throws IOException, SQLException {
         BotStrategy bot = new RandomBot(2, "Bot");
-        var newBoardLogicForBot = new BoardService(session.getBoard());
-        mainHandler.setGameLogic(new GameService(newBoardLogicForBot));
-        mainHandler.setBoardLogic(newBoardLogicForBot);
+        var newBoardLogicForBot = mainHandler.getBoardLogic();
+
+        GameClock clock = session.getClock();
+        long budgetNanos = clock == null ? Long.MAX_VALUE : clock.getMoveBudgetNanos(bot.id,
+                GameClock.estimateMovesLeft(newBoardLogicForBot.getBlackChips(), newBoardLogicForBot.getWhiteChips()));
+        var move = bot.getMakeMove(bot.id, newBoardLogicForBot, budgetNanos);
 
-        var move = bot.getMakeMove(bot.id, newBoardLogicForBot);
+        if (isOutOfTime(mainHandler, session, bot.id)) return;
         
+        long previousBlack = session.getBoard().getBlackChips();
+        long previousWhite = session.getBoard().getWhiteChips();
         if (move == null) {
-            sendBoardStateToClient(mainHandler, session, bot.id);
+            sendBoardStateToClient(mainHandler, session, bot.id, previousBlack, previousWhite);
+            pressClock(mainHandler, session);
             return;
         }
         
@@ -345,12 +362,82 @@ public class MoveCommandHandler implements CommandHandler {
 
         updateSessionBoard(mainHandler, session);
 
-        sendBoardStateToClient(mainHandler, session, bot.id);
+        sendBoardStateToClient(mainHandler, session, bot.id, previousBlack, previousWhite);
 
         if (mainHandler.getBoardLogic().checkForWin().isGameFinished()) {
             handleWin(mainHandler, session);
+        } else {
+            pressClock(mainHandler, session);
         }
 
         mainHandler.getGameLogic().display(1, newBoardLogicForBot);
     }
+
+    /**
+     * Ends the game if a side has run out of time.
+     * <p>
+     * The side that flagged loses, whatever the position on the board. A player who stops moving is flagged by the
+     * {@link SessionManager}'s clock callback; this check catches a move that arrives before that callback runs.
+     * </p>
+     *
+     * @param mainHandler the main handler managing the session, should not be null
+     * @param session     the game session, should not be null
+     * @param side        the side to check, 1 or 2
+     * @return true if the side has flagged and the game was finished, false otherwise
+     * @throws IOException  if an unexpected error occurs during the handling process
+     * @throws SQLException if a database access error occurs
+     */
+    private boolean isOutOfTime(MainHandler mainHandler, GameSession session, int side) throws IOException, SQLException {
+        GameClock clock = session.getClock();
+        if (clock == null || !clock.isFlagged(side)) return false;
+
+        clock.stop();
+        if (!session.markFinished()) return true;
+        logger.info("Side {} ran out of time in session {}", side, session.getSessionId());
+        String msgTimeout = "game-status::finished";
+
+        if (!session.getPlayer2().getIsBot()) {
+            SessionManager.getInstance().sendMessageToAllInSession(mainHandler, "Player " + side + " ran out of time.");
+            SessionManager.getInstance().sendMessageToAllInSession(mainHandler, msgTimeout);
+        } else {
+            mainHandler.sendMessageToClient("Player " + side + " ran out of time.");
+            mainHandler.sendMessageToClient(msgTimeout);
+        }
+
+        boolean playerWon = getPlayerNumber(mainHandler, session) != side;
+        SessionManager.getInstance().finishedSession(mainHandler, playerWon);
+        return true;
+    }
+
+    /**
+     * Presses the clock after a move or pass and sends the remaining times to the players.
+     *
+     * @param mainHandler the main handler managing the session, should not be null
+     * @param session     the game session, should not be null
+     */
+    private void pressClock(MainHandler mainHandler, GameSession session) {
+        GameClock clock = session.getClock();
+        if (clock == null) return;
+
+        clock.press();
+        SessionManager.getInstance().watchClock(session);
+        String msg = "clock::" + remainingMillis(clock, 1) + "::" + remainingMillis(clock, 2) + "::" + clock.getRunningSide();
+        if (!session.getPlayer2().getIsBot()) {
+            SessionManager.getInstance().sendMessageToAllInSession(mainHandler, msg);
+        } else {
+            mainHandler.sendMessageToClient(msg);
+        }
+    }
+
+    /**
+     * Gets the remaining time of a side for the clock message.
+     *
+     * @param clock the clock of the game, should not be null
+     * @param side  the side, 1 or 2
+     * @return the remaining milliseconds, or -1 if only single moves are timed
+     */
+    private long remainingMillis(GameClock clock, int side) {
+        if (!clock.getTimeControl().hasGameClock()) return -1;
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(clock.getRemainingNanos(side), 0));
+    }
 }
\ No newline at end of file
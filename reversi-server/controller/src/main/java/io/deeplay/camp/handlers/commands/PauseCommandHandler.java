@@ -3,6 +3,7 @@ package io.deeplay.camp.handlers.commands;
 import io.deeplay.camp.entity.GameSession;
 import io.deeplay.camp.entity.User;
 import io.deeplay.camp.enums.GameStatus;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.managers.SessionManager;
 import org.slf4j.Logger;
@@ -30,11 +31,11 @@ public class PauseCommandHandler implements CommandHandler {
      * and an error message will be sent to the client.
      * </p>
      *
-     * @param message     The command message.
+     * @param command     The parsed command.
      * @param mainHandler The main handler managing the session.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) {
+    public void handle(Command command, MainHandler mainHandler) {
         logger.info("Handling pause command");
 
         try {
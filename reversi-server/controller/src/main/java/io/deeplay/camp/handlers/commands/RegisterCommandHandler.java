@@ -1,6 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.user.UserService;
 import io.deeplay.camp.password.PasswordService;
@@ -34,24 +35,24 @@ public class RegisterCommandHandler implements CommandHandler {
      * In case of errors, appropriate messages are sent to the client.
      * </p>
      *
-     * @param message     The command message.
+     * @param command     The parsed command.
      * @param mainHandler The main handler managing the session.
      * @throws IOException  If an I/O error occurs.
      * @throws SQLException If a SQL error occurs.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
         logger.info("Handling register command");
 
-        String[] parts = message.split(MainHandler.splitRegex);
-        if (parts.length < 4) {
+        if (command.getArgumentCount() < 3) {
             String errorMsg = "Invalid message format. Expected: register::username::password::userPhoto";
             logger.warn(errorMsg);
             mainHandler.sendMessageToClient(errorMsg);
             return;
         }
 
-        if (!userService.isUsernameUnique(parts[1])) {
+        String username = command.getArgument(0);
+        if (!userService.isUsernameUnique(username)) {
             String errorMsg = "Not unique username.";
             logger.warn(errorMsg);
             mainHandler.sendMessageToClient(errorMsg);
@@ -59,9 +60,8 @@ public class RegisterCommandHandler implements CommandHandler {
         }
 
         try {
-            String username = parts[1];
-            String password = parts[2];
-            String userPhoto = parts[3];
+            String password = command.getArgument(1);
+            String userPhoto = command.getArgument(2);
 
             User user = new User(0, username, PasswordService.hashPassword(password), 0, 0, userPhoto);
             int userId = userService.addUser(user);
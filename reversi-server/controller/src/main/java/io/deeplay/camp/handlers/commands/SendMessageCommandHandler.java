@@ -2,6 +2,7 @@ package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.ChatMessage;
 import io.deeplay.camp.chat.ChatService;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.managers.SessionManager;
 import org.slf4j.Logger;
@@ -32,17 +33,17 @@ public class SendMessageCommandHandler implements CommandHandler {
      * In case of errors, appropriate messages are sent to the client and the error is logged.
      * </p>
      *
-     * @param message     The command message.
+     * @param command     The parsed command.
      * @param mainHandler The main handler managing the session.
      * @throws IOException  If an I/O error occurs.
      * @throws SQLException If a SQL error occurs.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
         logger.info("Handling send message command");
 
-        String[] parts = message.split(MainHandler.splitRegex, 2);
-        if (parts.length < 2) {
+        String chatMessage = command.getText();
+        if (chatMessage == null) {
             String errorMsg = "Invalid message format.";
             logger.warn(errorMsg);
             mainHandler.sendMessageToClient(errorMsg);
@@ -50,7 +51,6 @@ public class SendMessageCommandHandler implements CommandHandler {
         }
 
         try {
-            String chatMessage = parts[1];
             chatService.addMessage(mainHandler.getUser(), chatMessage);
             mainHandler.sendMessageToClient("Message sent successfully.");
 
@@ -63,7 +63,7 @@ public class SendMessageCommandHandler implements CommandHandler {
                         .append(" ").append(chatMessageItem.getMessage());
             }
 
-            SessionManager.getInstance().sendMessageToAll(response.toString());
+            SessionManager.getInstance().sendChatToAll(response.toString());
             logger.info("Chat message sent to all successfully.");
         } catch (SQLException e) {
             logger.warn("Error handling send message command");
@@ -1,6 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.SessionMessage;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.managers.SessionManager;
 import org.slf4j.Logger;
@@ -29,14 +30,14 @@ public class SendSessionChatCommandHandler implements CommandHandler {
      * in the session. In case of errors, appropriate messages are sent to the client and the error is logged.
      * </p>
      *
-     * @param message     The command message.
+     * @param command     The parsed command.
      * @param mainHandler The main handler managing the session.
      * @throws IOException            If an I/O error occurs.
      * @throws SQLException           If a SQL error occurs.
      * @throws InterruptedException   If the thread is interrupted.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
         logger.info("Handling send session chat command");
 
         if (mainHandler.getSession() == null) {
@@ -46,15 +47,15 @@ public class SendSessionChatCommandHandler implements CommandHandler {
             return;
         }
 
-        String[] parts = message.split(MainHandler.splitRegex, 2);
-        if (parts.length < 2) {
+        String chatMessage = command.getText();
+        if (chatMessage == null) {
             String errorMsg = "Invalid message format.";
             logger.warn(errorMsg);
             mainHandler.sendMessageToClient(errorMsg);
             return;
         }
 
-        SessionManager.getInstance().sendSessionMessage(mainHandler, parts[1]);
+        SessionManager.getInstance().sendSessionMessage(mainHandler, chatMessage);
         List<SessionMessage> sessionChat = mainHandler.getSession().getSessionChat();
 
         StringBuilder sb = new StringBuilder();
@@ -63,7 +64,7 @@ public class SendSessionChatCommandHandler implements CommandHandler {
         }
 
         String msg = "send-message-session-chat" + sb.toString();
-        SessionManager.getInstance().sendMessageToAllInSession(mainHandler, msg);
+        SessionManager.getInstance().sendChatToAllInSession(mainHandler, msg);
 
         logger.info("Session chat message sent successfully.");
     }
@@ -1,6 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.token.JwtService;
 import io.deeplay.camp.user.UserService;
@@ -32,24 +33,23 @@ public class SessionStartCommandHandler implements CommandHandler {
      * In case of errors, appropriate messages are sent to the client and the error is logged.
      * </p>
      *
-     * @param message     The message containing the JWT token.
+     * @param command     The command carrying the JWT token.
      * @param mainHandler The main handler managing the session.
      * @throws IOException  If an I/O error occurs.
      * @throws SQLException If a SQL error occurs.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
         logger.info("Handling session start command");
 
-        String[] parts = message.split(MainHandler.splitRegex);
-        if (parts.length < 2) {
+        if (command.getArgumentCount() < 1) {
             String errorMsg = "Invalid message format. Expected: session-start::jwtToken";
             logger.warn(errorMsg);
             mainHandler.sendMessageToClient(errorMsg);
             return;
         }
 
-        String jwtToken = parts[1];
+        String jwtToken = command.getArgument(0);
         String username = jwtService.extractUsername(jwtToken);
 
         Optional<User> optionalUser = userService.getUserByUsername(username);
@@ -1,15 +1,19 @@
 package io.deeplay.camp.handlers.commands;
 
-import io.deeplay.camp.enums.GameStatus;
-import io.deeplay.camp.board.BoardService;
-import io.deeplay.camp.game.GameService;
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.Matchmaker;
+import io.deeplay.camp.managers.SessionActor;
 import io.deeplay.camp.managers.SessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * CommandHandler for starting a game.
@@ -22,72 +26,107 @@ import java.util.Objects;
 public class StartCommandHandler implements CommandHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(StartCommandHandler.class);
-    private static final int MAX_WAIT_TIME_MS = 300000; // Maximum wait time in milliseconds
 
     /**
      * Handles the command to start a game.
      * <p>
      * This method checks if the user is logged in, finds or creates a game session, sets up the game logic, and notifies
      * the player about the start of the game. In case of errors, appropriate messages are sent to the client and the error
-     * is logged.
+     * is logged. A player waiting for an opponent does not hold a thread: the {@link Matchmaker} completes a future
+     * when it pairs the player, and the game is set up by a callback on that future, or the player is told the search
+     * failed if nobody was found in time. The callback hands the set-up to the session's actor, so it cannot overlap
+     * the first move of the opponent.
      * </p>
      *
-     * @param message     The command message.
+     * @param command     The parsed command.
      * @param mainHandler The main handler managing the session.
-     * @throws IOException          If an I/O error occurs.
-     * @throws InterruptedException If the thread is interrupted.
+     * @throws IOException If an I/O error occurs.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, InterruptedException {
+    public void handle(Command command, MainHandler mainHandler) throws IOException {
         if (!mainHandler.isLogin()) {
             mainHandler.sendMessageToClient("Please login or register.");
             return;
         }
 
         logger.info("User {} is attempting to start a game.", mainHandler.getUser().getId());
-        var msg = message.split(" ");
-        var isBot = false;
-        if (msg.length > 1) {
-            if (Objects.equals(msg[1], "--bot")) isBot = true;
-        }
-
-        var result = SessionManager.getInstance().findOrCreateSession(mainHandler, mainHandler.getUser(), isBot);
-        mainHandler.setSession(result.getGameSession());
+        var isBot = command.getArgumentCount() > 0 && Objects.equals(command.getArgument(0), "--bot");
 
-        int waitTime = 0;
-        while (mainHandler.getSession().getGameState() == GameStatus.NOT_STARTED && waitTime < MAX_WAIT_TIME_MS) {
-            Thread.sleep(1000);
-            waitTime += 1000;
-        }
+        SessionManager.getInstance().findOrCreateSession(mainHandler, mainHandler.getUser(), isBot)
+                .whenComplete((session, error) -> {
+                    if (error == null) beginGame(mainHandler, session);
+                    else searchFailed(mainHandler, error);
+                });
+    }
 
-        if (mainHandler.getSession().getGameState() == GameStatus.NOT_STARTED) {
-            mainHandler.sendMessageToClient("Failed to start the game. Please try again later.");
-            logger.info("User {}: Game start failed due to timeout.", mainHandler.getUser().getId());
+    /**
+     * Joins a player to a game that has started and posts the rest of the set-up to the session's actor.
+     *
+     * @param mainHandler The main handler of the player.
+     * @param session     The session of the game.
+     */
+    private void beginGame(MainHandler mainHandler, GameSession session) {
+        mainHandler.setSession(session);
+        SessionActor actor = SessionManager.getInstance().getActor(session.getSessionId());
+        if (actor == null) {
+            logger.info("User {}: The game ended before it began.", mainHandler.getUser().getId());
             return;
         }
+        actor.execute(() -> setUpGame(mainHandler, session, actor));
+    }
+
+    /**
+     * Sets up the game logic of a player whose game has started and tells them about the opponent.
+     *
+     * @param mainHandler The main handler of the player.
+     * @param session     The session of the game.
+     * @param actor       The actor of the session.
+     */
+    private void setUpGame(MainHandler mainHandler, GameSession session, SessionActor actor) {
+        try {
+            mainHandler.setBoardLogic(actor.getBoardLogic());
+            mainHandler.setGameLogic(actor.getGameLogic());
 
-        mainHandler.setBoardLogic(new BoardService(result.getGameSession().getBoard()));
-        mainHandler.setGameLogic(new GameService(mainHandler.getBoardLogic()));
+            logger.info("User {}: The enemy was found. The game begins...", mainHandler.getUser().getId());
 
-        logger.info("User {}: The enemy was found. The game begins...", mainHandler.getUser().getId());
+            if (!session.getPlayer2().getIsBot()) {
+                var opponent = SessionManager.getInstance().getOpponent(mainHandler);
 
-        if (!SessionManager.getInstance().getSession(mainHandler.getSession().getSessionId()).getPlayer2().getIsBot()) {
-            var opponent = SessionManager.getInstance().getOpponent(mainHandler);
+                mainHandler.sendMessageToClient(String.format("session::%d %s %d %d %s %d",
+                        opponent.getId(), opponent.getUserPhoto(), opponent.getRating(),
+                        opponent.getMatches(), opponent.getUsername(), opponent.getRating()));
+            } else {
+                var opponent = session.getPlayer2();
 
-            mainHandler.sendMessageToClient(String.format("session::%d %s %d %d %s %d",
-                    opponent.getId(), opponent.getUserPhoto(), opponent.getRating(),
-                    opponent.getMatches(), opponent.getUsername(), opponent.getRating()));
-        } else {
-            var opponent = SessionManager.getInstance().getSession(mainHandler.getSession().getSessionId()).getPlayer2();
+                mainHandler.sendMessageToClient(String.format("session-bot::%d %s %d %d %s %d",
+                        opponent.getId(), opponent.getUserPhoto(), opponent.getRating(),
+                        opponent.getMatches(), opponent.getUsername(), opponent.getRating()));
+            }
 
-            mainHandler.sendMessageToClient(String.format("session-bot::%d %s %d %d %s %d",
-                    opponent.getId(), opponent.getUserPhoto(), opponent.getRating(),
-                    opponent.getMatches(), opponent.getUsername(), opponent.getRating()));
+            var userId = mainHandler.getUser().getId();
+            int playerNumber = (userId == session.getPlayer1().getId()) ? 1 : 2;
+
+            mainHandler.getGameLogic().display(playerNumber, mainHandler.getBoardLogic());
+        } catch (RuntimeException e) {
+            logger.error("User {}: Error starting the game", mainHandler.getUser().getId(), e);
         }
+    }
 
-        var userId = mainHandler.getUser().getId();
-        int playerNumber = (userId == mainHandler.getSession().getPlayer1().getId()) ? 1 : 2;
+    /**
+     * Tells a player that no game could be started.
+     *
+     * @param mainHandler The main handler of the player.
+     * @param error       The reason the search ended.
+     */
+    private void searchFailed(MainHandler mainHandler, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) return;
 
-        mainHandler.getGameLogic().display(playerNumber, mainHandler.getBoardLogic());
+        mainHandler.sendMessageToClient("Failed to start the game. Please try again later.");
+        if (cause instanceof TimeoutException) {
+            logger.info("User {}: Game start failed due to timeout.", mainHandler.getUser().getId());
+        } else {
+            logger.error("User {}: Game start failed", mainHandler.getUser().getId(), cause);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package io.deeplay.camp.handlers.commands;
 
 import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Command;
 import io.deeplay.camp.handlers.main.MainHandler;
 import io.deeplay.camp.password.PasswordService;
 import io.deeplay.camp.user.UserService;
@@ -32,22 +33,21 @@ public class UpdateProfileCommandHandler implements CommandHandler {
      * appropriate messages are sent to the client and the error is logged.
      * </p>
      *
-     * @param message     The command message containing the new profile information.
+     * @param command     The command carrying the new profile information.
      * @param mainHandler The main handler managing the session.
      * @throws IOException  If an I/O error occurs.
      * @throws SQLException If a SQL error occurs.
      */
     @Override
-    public void handle(String message, MainHandler mainHandler) throws IOException, SQLException {
-        String[] parts = message.split(MainHandler.splitRegex);
-        if (parts.length < 4) {
+    public void handle(Command command, MainHandler mainHandler) throws IOException, SQLException {
+        if (command.getArgumentCount() < 3) {
             mainHandler.sendMessageToClient("Invalid request. Expected format: update-profile <username> <password> <photo>");
             return;
         }
 
-        String newUsername = parts[1];
-        String newPassword = parts[2];
-        String newUserPhoto = parts[3];
+        String newUsername = command.getArgument(0);
+        String newPassword = command.getArgument(1);
+        String newUserPhoto = command.getArgument(2);
 
         User user = mainHandler.getUser();
         if (user == null) {
@@ -0,0 +1,182 @@
+package io.deeplay.camp.handlers.main;
+
+import io.deeplay.camp.protocol.BinaryProtocol;
+
+/**
+ * A command line received from a client, parsed once.
+ * <p>
+ * The line is scanned a single time when it arrives: the verb is resolved to a {@link CommandType}, the arguments are
+ * counted and the move of a {@code game-move} command is decoded. Arguments are separated by single spaces and are
+ * cut out of the line only when a handler asks for them, so dispatching a command allocates nothing but this object.
+ * </p>
+ * <p>
+ * Arguments follow the rules the handlers relied on before: two spaces in a row give an empty argument, trailing
+ * spaces give none.
+ * </p>
+ * <p>
+ * A line may start with a request id, {@code #<id> }, for example {@code #17 get-board}. The id is not part of the
+ * command; the server echoes it in front of every response to the request, so a client can send several requests
+ * without waiting and match the responses as they arrive.
+ * </p>
+ */
+public final class Command {
+    /**
+     * The move square of a {@code game-move null} command.
+     */
+    public static final int PASS = BinaryProtocol.PASS;
+
+    /**
+     * The move square of a command that is not a valid move.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * The character that starts a request id.
+     */
+    public static final char REQUEST_ID_PREFIX = '#';
+
+    /**
+     * The longest request id accepted; a longer one makes the line a bad request.
+     */
+    public static final int MAX_REQUEST_ID_LENGTH = 32;
+
+    private static final char SEPARATOR = ' ';
+
+    private final String requestId;
+    private final String line;
+    private final CommandType type;
+    private final int verbEnd;
+    private final int argumentCount;
+    private final int move;
+
+    private Command(String requestId, String line, CommandType type, int verbEnd, int argumentCount, int move) {
+        this.requestId = requestId;
+        this.line = line;
+        this.type = type;
+        this.verbEnd = verbEnd;
+        this.argumentCount = argumentCount;
+        this.move = move;
+    }
+
+    /**
+     * Parses a command line.
+     *
+     * @param line The command line, without the line terminator.
+     * @return The command; its type is null if the verb is unknown.
+     */
+    public static Command parse(String line) {
+        String requestId = null;
+        if (!line.isEmpty() && line.charAt(0) == REQUEST_ID_PREFIX) {
+            int idEnd = line.indexOf(SEPARATOR);
+            if (idEnd > 1 && idEnd <= MAX_REQUEST_ID_LENGTH + 1) {
+                requestId = line.substring(1, idEnd);
+                line = line.substring(idEnd + 1);
+            }
+        }
+        int length = line.length();
+        int verbEnd = length;
+        int lastContent = -1;
+        int separators = 0;
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) == SEPARATOR) {
+                if (verbEnd == length) verbEnd = i;
+                separators++;
+            } else {
+                lastContent = separators;
+            }
+        }
+        int argumentCount = Math.max(lastContent, 0);
+        CommandType type = CommandType.of(line, verbEnd);
+        int move = type == CommandType.GAME_MOVE && argumentCount > 0 ? parseMove(line, verbEnd + 1) : NO_MOVE;
+        return new Command(requestId, line, type, verbEnd, argumentCount, move);
+    }
+
+    /**
+     * Gets the type of the command.
+     *
+     * @return The command type, or null if the verb is unknown.
+     */
+    public CommandType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the request id the client sent with the command.
+     *
+     * @return The request id, or null if the command has none.
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Gets the command line as received, without its request id.
+     *
+     * @return The command line.
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the number of arguments after the verb.
+     *
+     * @return The argument count.
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+
+    /**
+     * Gets an argument of the command.
+     *
+     * @param index The index of the argument, starting at 0 for the first one after the verb.
+     * @return The argument, possibly empty.
+     * @throws IndexOutOfBoundsException If the command has no such argument.
+     */
+    public String getArgument(int index) {
+        if (index < 0 || index >= argumentCount) {
+            throw new IndexOutOfBoundsException("Argument " + index + " of " + argumentCount);
+        }
+        int start = verbEnd + 1;
+        for (int i = 0; i < index; i++) {
+            start = line.indexOf(SEPARATOR, start) + 1;
+        }
+        int end = line.indexOf(SEPARATOR, start);
+        return line.substring(start, end < 0 ? line.length() : end);
+    }
+
+    /**
+     * Gets everything after the verb, spaces included, for commands whose argument is free text.
+     *
+     * @return The text after the verb and its separator, or null if the line has no separator.
+     */
+    public String getText() {
+        return verbEnd < line.length() ? line.substring(verbEnd + 1) : null;
+    }
+
+    /**
+     * Gets the move of a {@code game-move} command.
+     *
+     * @return The square {@code x + 8 * y} of the move, {@link #PASS} for a pass, or {@link #NO_MOVE} if the command
+     * carries no valid move.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    @Override
+    public String toString() {
+        return requestId == null ? line : REQUEST_ID_PREFIX + requestId + SEPARATOR + line;
+    }
+
+    private static int parseMove(String line, int start) {
+        int end = line.indexOf(SEPARATOR, start);
+        if (end < 0) end = line.length();
+        if (line.startsWith("null", start) && end - start == 4) return PASS;
+        if (end - start != 2) return NO_MOVE;
+        int x = line.charAt(start) - 'a';
+        int y = '8' - line.charAt(start + 1);
+        return x >= 0 && x < 8 && y >= 0 && y < 8 ? x + 8 * y : NO_MOVE;
+    }
+}
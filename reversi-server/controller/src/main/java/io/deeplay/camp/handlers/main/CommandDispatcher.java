@@ -1,11 +1,16 @@
 package io.deeplay.camp.handlers.main;
 
-import io.deeplay.camp.handlers.commands.CommandHandler;
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.handlers.commands.*;
+import io.deeplay.camp.managers.SessionActor;
+import io.deeplay.camp.managers.SessionManager;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * CommandDispatcher is responsible for managing and dispatching commands to their respective handlers.
@@ -13,9 +18,42 @@ import java.util.Map;
  * This class maintains a registry of command handlers and dispatches incoming commands to the appropriate handler
  * based on the command type. It also logs the process and handles any unexpected errors that may occur.
  * </p>
+ * <p>
+ * Every line is parsed exactly once into a {@link Command}; the handlers read their arguments from it instead of
+ * splitting the line again.
+ * </p>
+ * <p>
+ * Command handlers keep no per-connection state: everything a command needs is reached through the
+ * {@link MainHandler} it is dispatched with, and game state lives in the session. All connections therefore share
+ * one dispatcher and one instance of each handler, so a connection costs no handler objects at all.
+ * </p>
+ * <p>
+ * Commands of one client normally run one after another in the order they arrive. A read-only command that carries a
+ * request id is the exception: it runs on its own virtual thread, up to a per-client limit, so a client that sends
+ * several queries at once gets all answers after a single round trip. Commands that change state are never run
+ * concurrently, and a query always sees the effect of every command the client sent before it.
+ * </p>
+ * <p>
+ * A command that acts on the client's game is handed to the {@link SessionActor} of the session, and the client's
+ * thread waits for it, so the commands of both players and the server's own timeouts reach the game one at a time,
+ * in the order they arrived, while each client still sees its own commands run in order.
+ * </p>
  */
 public class CommandDispatcher {
-    private final Map<String, CommandHandler> commandHandlers = new HashMap<>();
+    private static final CommandDispatcher instance = createDefault();
+    private static final Executor QUERIES = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("command-query-", 0).factory());
+
+    private final Map<CommandType, CommandHandler> commandHandlers = new EnumMap<>(CommandType.class);
+
+    /**
+     * Gets the dispatcher shared by all connections, with every command handler registered.
+     *
+     * @return The shared CommandDispatcher.
+     */
+    public static CommandDispatcher getInstance() {
+        return instance;
+    }
 
     /**
      * Registers a command handler for a specific command.
@@ -26,14 +64,14 @@ public class CommandDispatcher {
      * @param command The command to be handled.
      * @param handler The handler responsible for processing the command.
      */
-    public void registerCommandHandler(String command, CommandHandler handler) {
+    public void registerCommandHandler(CommandType command, CommandHandler handler) {
         commandHandlers.put(command, handler);
     }
 
     /**
      * Dispatches a command to the appropriate handler.
      * <p>
-     * This method extracts the command from the message, finds the corresponding handler in the registry,
+     * This method parses the message into a command, finds the corresponding handler in the registry,
      * and invokes the handler's handle method. If no handler is found, it logs the error and sends an appropriate
      * response to the client.
      * </p>
@@ -45,14 +83,89 @@ public class CommandDispatcher {
      * @throws InterruptedException If the thread is interrupted.
      */
     public void dispatchCommand(String message, MainHandler mainHandler) throws IOException, SQLException, InterruptedException {
-        String command = message.split(MainHandler.splitRegex)[0];
-        CommandHandler handler = commandHandlers.get(command);
-
-        if (handler != null) {
-            handler.handle(message, mainHandler);
-        } else {
-            mainHandler.getLogger().info("Empty request or bad request: {}", message);
-            mainHandler.sendMessageToClient("Empty request or bad request");
+        Command command = Command.parse(message);
+        CommandHandler handler = command.getType() == null ? null : commandHandlers.get(command.getType());
+
+        if (handler != null && command.getRequestId() != null && command.getType().isReadOnly()
+                && mainHandler.tryBeginQuery()) {
+            QUERIES.execute(() -> runQuery(command, handler, mainHandler));
+            return;
         }
+
+        mainHandler.beginRequest(command);
+        try {
+            if (handler != null) {
+                handle(command, handler, mainHandler);
+            } else {
+                mainHandler.getLogger().info("Empty request or bad request: {}", message);
+                mainHandler.sendMessageToClient("Empty request or bad request");
+            }
+        } finally {
+            mainHandler.endRequest();
+        }
+    }
+
+    private void runQuery(Command command, CommandHandler handler, MainHandler mainHandler) {
+        mainHandler.beginRequest(command);
+        try {
+            handle(command, handler, mainHandler);
+        } catch (IOException | SQLException | RuntimeException e) {
+            mainHandler.getLogger().error("Error handling query {}", command, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            mainHandler.endRequest();
+            mainHandler.endQuery();
+        }
+    }
+
+    /**
+     * Runs a command, on the actor of the client's session if the command acts on the game.
+     * <p>
+     * Messages the handler sends from the actor keep the request id of the command.
+     * </p>
+     */
+    private void handle(Command command, CommandHandler handler, MainHandler mainHandler)
+            throws IOException, SQLException, InterruptedException {
+        SessionActor actor = command.getType().isInGame() ? actorOf(mainHandler) : null;
+        if (actor == null) {
+            handler.handle(command, mainHandler);
+            return;
+        }
+        actor.call(() -> {
+            mainHandler.beginRequest(command);
+            try {
+                handler.handle(command, mainHandler);
+            } finally {
+                mainHandler.endRequest();
+            }
+        });
+    }
+
+    private static SessionActor actorOf(MainHandler mainHandler) {
+        GameSession session = mainHandler.getSession();
+        return session == null ? null : SessionManager.getInstance().getActor(session.getSessionId());
+    }
+
+    private static CommandDispatcher createDefault() {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        dispatcher.registerCommandHandler(CommandType.LOGIN, new LoginCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.REGISTER, new RegisterCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GAME_START, new StartCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.SESSION_START, new SessionStartCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.SEND_GLOBAL_MESSAGE, new SendMessageCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GET_GLOBAL_MESSAGES, new GetMessagesCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GAME_PAUSE, new PauseCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GAME_DISCONNECT, new DisconnectCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GAME_MOVE, new MoveCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.SEND_MESSAGE_SESSION_CHAT, new SendSessionChatCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GET_MESSAGES_SESSION_CHAT, new GetSessionChatCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GET_BOARD, new GetBoardCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.GET_VALID_MOVES, new GetValidMovesCommandHandler());
+        dispatcher.registerCommandHandler(CommandType.UPDATE_USER_PROFILE, new UpdateProfileCommandHandler());
+        CommandHandler heartbeat = new HeartbeatCommandHandler();
+        dispatcher.registerCommandHandler(CommandType.PING, heartbeat);
+        dispatcher.registerCommandHandler(CommandType.PONG, heartbeat);
+        return dispatcher;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package io.deeplay.camp.handlers.main;
+
+import java.util.Arrays;
+
+/**
+ * The commands a client can send, keyed by the verb that starts the command line.
+ * <p>
+ * The verb of an incoming line is looked up in a small perfect hash table built from the verbs below: the slot is
+ * computed from the verb length and three of its characters, so the lookup reads the line in place without cutting
+ * the verb out of it, and a single comparison confirms the match.
+ * </p>
+ */
+public enum CommandType {
+    LOGIN("login", false, false),
+    REGISTER("register", false, false),
+    GAME_START("game-start", false, false),
+    SESSION_START("session-start", false, false),
+    SEND_GLOBAL_MESSAGE("send-global-message", false, false),
+    GET_GLOBAL_MESSAGES("get-global-messages", true, false),
+    GAME_PAUSE("game-pause", false, true),
+    GAME_DISCONNECT("game-disconnect", false, false),
+    GAME_MOVE("game-move", false, true),
+    SEND_MESSAGE_SESSION_CHAT("send-message-session-chat", false, true),
+    GET_MESSAGES_SESSION_CHAT("get-messages-session-chat", true, true),
+    GET_BOARD("get-board", true, true),
+    GET_VALID_MOVES("get-valid-moves", true, true),
+    UPDATE_USER_PROFILE("update-user-profile", false, false),
+    PING("ping", true, false),
+    PONG("pong", true, false);
+
+    private static final int TABLE_SIZE = 64;
+    private static final int MAX_SEED = 1 << 16;
+    private static final CommandType[] TABLE = new CommandType[TABLE_SIZE];
+    private static final int SEED;
+
+    static {
+        int seed = 1;
+        while (!fill(seed)) {
+            if (++seed == MAX_SEED) throw new IllegalStateException("No perfect hash for the command verbs");
+        }
+        SEED = seed;
+    }
+
+    private final String verb;
+    private final boolean readOnly;
+    private final boolean inGame;
+
+    CommandType(String verb, boolean readOnly, boolean inGame) {
+        this.verb = verb;
+        this.readOnly = readOnly;
+        this.inGame = inGame;
+    }
+
+    /**
+     * Gets the verb of the command as sent by clients.
+     *
+     * @return The verb, for example {@code game-move}.
+     */
+    public String getVerb() {
+        return verb;
+    }
+
+    /**
+     * Checks whether the command only reads state, so it may run alongside other commands of the same client.
+     *
+     * @return True if the command changes neither the session nor the account of the client.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Checks whether the command acts on the game of the client, so it runs on the actor of the client's session.
+     *
+     * @return True if the command reads or changes the session, its board or its chat.
+     */
+    public boolean isInGame() {
+        return inGame;
+    }
+
+    /**
+     * Looks up the command whose verb is the start of a line.
+     *
+     * @param line   The command line.
+     * @param length The length of the verb at the start of the line.
+     * @return The command type, or null if the verb is unknown.
+     */
+    public static CommandType of(String line, int length) {
+        if (length == 0) return null;
+        CommandType type = TABLE[slot(line, length, SEED)];
+        if (type == null || type.verb.length() != length || !line.startsWith(type.verb)) return null;
+        return type;
+    }
+
+    private static boolean fill(int seed) {
+        Arrays.fill(TABLE, null);
+        for (CommandType type : values()) {
+            int slot = slot(type.verb, type.verb.length(), seed);
+            if (TABLE[slot] != null) return false;
+            TABLE[slot] = type;
+        }
+        return true;
+    }
+
+    private static int slot(String text, int length, int seed) {
+        int hash = length;
+        hash = hash * seed + text.charAt(0);
+        hash = hash * seed + text.charAt((length - 1) / 2);
+        hash = hash * seed + text.charAt(length - 1);
+        return (hash ^ (hash >>> 7)) & (TABLE_SIZE - 1);
+    }
+}
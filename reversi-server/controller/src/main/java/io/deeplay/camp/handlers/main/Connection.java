@@ -0,0 +1,74 @@
+package io.deeplay.camp.handlers.main;
+
+import io.deeplay.camp.network.ConnectionStats;
+import io.deeplay.camp.protocol.BoardUpdate;
+
+/**
+ * The transport side of a client connection.
+ * <p>
+ * Command handlers only ever send text lines to a client and close its connection; this interface hides whether the
+ * connection is served by a blocking socket with its own thread or by a selector-based front end.
+ * </p>
+ */
+public interface Connection {
+
+    /**
+     * Sends a message line to the client.
+     *
+     * @param msg The message to be sent, without the line terminator.
+     */
+    void sendMessageToClient(String msg);
+
+    /**
+     * Sends a full board or a board delta to the client.
+     * <p>
+     * Clients speaking the binary protocol get a compact frame; all others get the text line.
+     * </p>
+     *
+     * @param board The board message.
+     */
+    default void sendBoardToClient(BoardUpdate board) {
+        sendMessageToClient(board.toText());
+    }
+
+    /**
+     * Sends a chat line to the client.
+     * <p>
+     * Unlike game state, chat may be dropped when the client reads slower than messages arrive.
+     * </p>
+     *
+     * @param msg The chat line, without the line terminator.
+     */
+    default void sendChatToClient(String msg) {
+        sendMessageToClient(msg);
+    }
+
+    /**
+     * Takes a snapshot of the outbound queue of the connection.
+     *
+     * @return The queue size, dropped messages and lag of the connection.
+     */
+    ConnectionStats getStats();
+
+    /**
+     * Closes the connection. Closing an already closed connection does nothing.
+     */
+    void closeConnection();
+
+    /**
+     * Closes the connection after the messages already sent have reached the client, as on a normal logout.
+     * <p>
+     * Connections that do not queue their output close at once.
+     * </p>
+     */
+    default void closeGracefully() {
+        closeConnection();
+    }
+
+    /**
+     * Describes the remote end of the connection for logging.
+     *
+     * @return The remote address of the client.
+     */
+    String getRemoteAddress();
+}
@@ -1,10 +1,25 @@
 package io.deeplay.camp.handlers.main;
 
-import java.io.BufferedReader;
+import io.deeplay.camp.network.ConnectionStats;
+import io.deeplay.camp.network.OutboundQueue;
+import io.deeplay.camp.protocol.BinaryProtocol;
+import io.deeplay.camp.protocol.BoardUpdate;
+import io.deeplay.camp.timer.TimerService;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,15 +27,37 @@ import org.slf4j.LoggerFactory;
  * Manages the connection between the server and a client.
  * <p>
  * This class is responsible for handling the input and output streams of a socket connection.
- * It provides methods to send messages to the client, retrieve the input reader, and close the connection.
+ * It provides methods to send messages to the client, read its commands, and close the connection.
  * It also logs the process and handles any unexpected errors that may occur.
  * </p>
+ * <p>
+ * Sending never blocks the caller: messages are encoded into a per-connection queue and written by a writer task
+ * on a virtual thread, which packs everything queued in the meantime into as few socket writes as possible. A client
+ * that stops reading fills its queue, and the {@link OutboundQueue} policy first drops its chat and finally
+ * disconnects it, so a slow peer never stalls the thread of the player who sends to it.
+ * </p>
+ * <p>
+ * The connection speaks the text protocol until the client asks for the {@link BinaryProtocol binary protocol};
+ * from then on it reads and writes frames.
+ * </p>
  */
-public class ConnectionManager {
+public class ConnectionManager implements Connection {
     private static final Logger logger = LoggerFactory.getLogger(ConnectionManager.class);
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int WRITE_BATCH_BYTES = 64 * 1024;
+    private static final long GRACEFUL_CLOSE_TIMEOUT_SECONDS = 5;
+    private static final Executor WRITERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("connection-writer-", 0).factory());
+
     private final Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
+    private final OutputStream out;
+    private final InputStream in;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final OutboundQueue queue = new OutboundQueue();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private boolean writing;
+    private boolean closeRequested;
+    private volatile boolean binary;
 
     /**
      * Initializes a new ConnectionManager with the given socket.
@@ -33,35 +70,87 @@ public class ConnectionManager {
      */
     public ConnectionManager(Socket socket) throws IOException {
         this.socket = socket;
-        this.out = new PrintWriter(socket.getOutputStream(), true);
-        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        this.out = socket.getOutputStream();
+        this.in = new BufferedInputStream(socket.getInputStream());
         logger.info("Connection established with client: {}", socket.getRemoteSocketAddress());
     }
 
     /**
      * Sends a message to the client.
      * <p>
-     * This method sends a message to the client through the output stream.
+     * This method queues the message for the writer task and returns at once.
      * </p>
      *
      * @param msg The message to be sent to the client.
      */
+    @Override
     public void sendMessageToClient(String msg) {
-        out.println(msg);
-        out.flush();
-        logger.info("Sent message to client: {}", msg);
+        writeLock.lock();
+        try {
+            enqueue(binary ? BinaryProtocol.encodeText(msg) : encodeLine(msg), false);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Retrieves the input reader for the connection.
+     * Sends a chat line to the client; it may be dropped if the client falls behind.
+     *
+     * @param msg The chat line to be sent to the client.
+     */
+    @Override
+    public void sendChatToClient(String msg) {
+        writeLock.lock();
+        try {
+            enqueue(binary ? BinaryProtocol.encodeText(msg) : encodeLine(msg), true);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sends a full board or a board delta to the client, as a frame if the client speaks the binary protocol.
+     *
+     * @param board The board state to be sent to the client.
+     */
+    @Override
+    public void sendBoardToClient(BoardUpdate board) {
+        writeLock.lock();
+        try {
+            enqueue(binary ? BinaryProtocol.encodeUpdate(board) : encodeLine(board.toText()), false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next command from the client.
      * <p>
-     * This method returns the BufferedReader for reading input from the client.
+     * A negotiation line switches the connection to the binary protocol and is not returned; binary frames are
+     * returned as the text command they stand for.
      * </p>
      *
-     * @return The BufferedReader for the input stream.
+     * @return The command line, or null when the client has closed the connection.
+     * @throws IOException If reading fails or the client breaks the protocol.
      */
-    public BufferedReader getInputReader() {
-        return in;
+    public String readMessage() throws IOException {
+        while (true) {
+            if (binary) {
+                ByteBuffer frame = BinaryProtocol.readFrame(in);
+                return frame == null ? null : BinaryProtocol.decodeCommand(frame);
+            }
+            String line = readLine();
+            if (line == null || !line.equals(BinaryProtocol.NEGOTIATE)) return line;
+
+            writeLock.lock();
+            try {
+                enqueue(encodeLine(BinaryProtocol.ACCEPTED), false);
+                binary = true;
+            } finally {
+                writeLock.unlock();
+            }
+            logger.info("Client {} switched to the binary protocol", socket.getRemoteSocketAddress());
+        }
     }
 
     /**
@@ -77,20 +166,151 @@ public class ConnectionManager {
     }
 
     /**
-     * Closes the connection to the client.
+     * Retrieves the remote address of the client.
+     *
+     * @return The remote address of the client.
+     */
+    @Override
+    public String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public ConnectionStats getStats() {
+        writeLock.lock();
+        try {
+            return queue.stats(getRemoteAddress());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the connection to the client at once.
      * <p>
-     * This method closes the socket and the input and output streams. It also logs the process and handles any
+     * Messages still queued are dropped and the socket is closed, which also fails a write blocked on a client that
+     * stopped reading and a read blocked on a client that went silent. It also logs the process and handles any
      * unexpected errors that may occur.
      * </p>
      */
+    @Override
     public void closeConnection() {
+        writeLock.lock();
+        try {
+            closeRequested = true;
+            queue.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        closeSocket();
+    }
+
+    /**
+     * Closes the connection to the client once the messages already queued have been written.
+     * <p>
+     * A client that does not read them within {@value #GRACEFUL_CLOSE_TIMEOUT_SECONDS} seconds is disconnected
+     * anyway.
+     * </p>
+     */
+    @Override
+    public void closeGracefully() {
+        writeLock.lock();
+        try {
+            closeRequested = true;
+            if (writing) {
+                TimerService.getInstance().schedule(this::closeSocket, GRACEFUL_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        closeSocket();
+    }
+
+    /**
+     * Queues encoded bytes and starts the writer task if it is not running. The caller holds the write lock.
+     */
+    private void enqueue(ByteBuffer buffer, boolean droppable) {
+        if (closeRequested) return;
+        if (!queue.offer(buffer, droppable)) {
+            logger.warn("Client {} is not keeping up ({}). Disconnecting.", getRemoteAddress(),
+                    queue.stats(getRemoteAddress()));
+            queue.clear();
+            closeRequested = true;
+            WRITERS.execute(this::closeSocket);
+            return;
+        }
+        if (!writing) {
+            writing = true;
+            WRITERS.execute(this::drain);
+        }
+    }
+
+    /**
+     * Writes queued messages until the queue is empty. Everything queued at the time of a write goes out in one
+     * batch, up to {@value #WRITE_BATCH_BYTES} bytes per socket write.
+     */
+    private void drain() {
+        while (true) {
+            byte[] batch;
+            int length = 0;
+            writeLock.lock();
+            try {
+                batch = new byte[(int) Math.min(queue.getQueuedBytes(), WRITE_BATCH_BYTES)];
+                length = queue.drainTo(batch);
+                if (length == 0) {
+                    writing = false;
+                    if (!closeRequested) return;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            if (length == 0) break;
+            try {
+                out.write(batch, 0, length);
+                out.flush();
+            } catch (IOException e) {
+                logger.debug("Write failed for {}", getRemoteAddress(), e);
+                writeLock.lock();
+                try {
+                    queue.clear();
+                    writing = false;
+                    closeRequested = true;
+                } finally {
+                    writeLock.unlock();
+                }
+                break;
+            }
+        }
+        closeSocket();
+    }
+
+    private void closeSocket() {
+        if (!closed.compareAndSet(false, true)) return;
         try {
-            if (socket != null) socket.close();
-            if (out != null) out.close();
-            if (in != null) in.close();
+            socket.close();
             logger.info("Connection closed with client: {}", socket.getRemoteSocketAddress());
         } catch (IOException e) {
             logger.error("Error closing connection with client: {}", socket.getRemoteSocketAddress(), e);
         }
     }
-}
\ No newline at end of file
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+            if (line.size() == MAX_LINE_LENGTH) throw new ProtocolException("Line longer than " + MAX_LINE_LENGTH);
+            line.write(b);
+        }
+        int length = line.size();
+        byte[] bytes = line.toByteArray();
+        if (length > 0 && bytes[length - 1] == '\r') length--;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer encodeLine(String msg) {
+        byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte) '\n').flip();
+    }
+}
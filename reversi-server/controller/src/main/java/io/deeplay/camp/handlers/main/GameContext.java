@@ -15,14 +15,18 @@ import org.slf4j.LoggerFactory;
  * It provides methods to get and set these states, ensuring that the game session is managed correctly.
  * It also logs the process and handles any unexpected errors that may occur.
  * </p>
+ * <p>
+ * The fields are volatile: a game found by the matchmaker is set from the thread that paired it, or from a timer,
+ * and read by the thread serving the connection.
+ * </p>
  */
 public class GameContext {
     private static final Logger logger = LoggerFactory.getLogger(GameContext.class);
-    private GameSession session;
-    private User user;
-    private boolean isLogin = false;
-    private GameService gameLogic;
-    private BoardService boardLogic;
+    private volatile GameSession session;
+    private volatile User user;
+    private volatile boolean isLogin = false;
+    private volatile GameService gameLogic;
+    private volatile BoardService boardLogic;
 
     /**
      * Retrieves the current game session.
@@ -6,14 +6,17 @@ import io.deeplay.camp.entity.User;
 import io.deeplay.camp.Main;
 import io.deeplay.camp.board.BoardService;
 import io.deeplay.camp.game.GameService;
-import io.deeplay.camp.handlers.commands.*;
+import io.deeplay.camp.managers.ConnectionReaper;
 import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.protocol.BoardUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.Socket;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MainHandler is responsible for managing the main operations of a game session.
@@ -21,54 +24,52 @@ import java.sql.SQLException;
  * This class handles the connection with the client, dispatches commands to their respective handlers,
  * and manages the game context. It also logs the process and handles any unexpected errors that may occur.
  * </p>
+ * <p>
+ * A handler created from a socket runs its own blocking read loop in {@link #run()}. A handler created from any
+ * other {@link Connection} is driven from outside: the front end calls {@link #open()}, then
+ * {@link #handleMessage(String)} for every command line, one at a time, and finally {@link #closeConnection()}.
+ * </p>
+ * <p>
+ * While a command with a request id is handled, every message the handler sends to its own client from the thread
+ * handling it is prefixed with that id. Messages sent to other players, or from other threads, are not.
+ * </p>
  */
 public class MainHandler implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
-    private final ConnectionManager connectionManager;
+    private static final int MAX_CONCURRENT_QUERIES = 8;
+    private final Connection connection;
     private final GameContext gameContext;
     private final CommandDispatcher commandDispatcher;
-
-    public static String splitRegex = " ";
+    private final ThreadLocal<String> requestId = new ThreadLocal<>();
+    private final AtomicInteger runningQueries = new AtomicInteger();
+    private final AtomicInteger runningCommands = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile long lastActivityNanos = System.nanoTime();
+    private volatile ConnectionReaper.Watch watch;
 
     /**
      * Initializes a new MainHandler with the given socket.
      * <p>
-     * This constructor sets up the connection manager, game context, and command dispatcher.
-     * It also registers all the command handlers.
+     * This constructor sets up the connection manager and game context. Commands are dispatched by the shared
+     * {@link CommandDispatcher}.
      * </p>
      *
      * @param socket The socket representing the connection to the client.
      * @throws IOException If an I/O error occurs when creating the input or output streams.
      */
     public MainHandler(Socket socket) throws IOException {
-        this.connectionManager = new ConnectionManager(socket);
-        this.gameContext = new GameContext();
-        this.commandDispatcher = new CommandDispatcher();
-
-        registerCommandHandlers();
+        this(new ConnectionManager(socket));
     }
 
     /**
-     * Registers all the command handlers.
-     * <p>
-     * This method adds all the command handlers to the command dispatcher.
-     * </p>
+     * Initializes a new MainHandler for a connection served by a front end.
+     *
+     * @param connection The connection to the client.
      */
-    private void registerCommandHandlers() {
-        commandDispatcher.registerCommandHandler("login", new LoginCommandHandler());
-        commandDispatcher.registerCommandHandler("register", new RegisterCommandHandler());
-        commandDispatcher.registerCommandHandler("game-start", new StartCommandHandler());
-        commandDispatcher.registerCommandHandler("session-start", new SessionStartCommandHandler());
-        commandDispatcher.registerCommandHandler("send-global-message", new SendMessageCommandHandler());
-        commandDispatcher.registerCommandHandler("get-global-messages", new GetMessagesCommandHandler());
-        commandDispatcher.registerCommandHandler("game-pause", new PauseCommandHandler());
-        commandDispatcher.registerCommandHandler("game-disconnect", new DisconnectCommandHandler());
-        commandDispatcher.registerCommandHandler("game-move", new MoveCommandHandler());
-        commandDispatcher.registerCommandHandler("send-message-session-chat", new SendSessionChatCommandHandler());
-        commandDispatcher.registerCommandHandler("get-messages-session-chat", new GetSessionChatCommandHandler());
-        commandDispatcher.registerCommandHandler("get-board", new GetBoardCommandHandler());
-        commandDispatcher.registerCommandHandler("get-valid-moves", new GetValidMovesCommandHandler());
-        commandDispatcher.registerCommandHandler("update-user-profile", new UpdateProfileCommandHandler());
+    public MainHandler(Connection connection) {
+        this.connection = connection;
+        this.gameContext = new GameContext();
+        this.commandDispatcher = CommandDispatcher.getInstance();
     }
 
     /**
@@ -80,24 +81,92 @@ public class MainHandler implements Runnable {
      */
     @Override
     public void run() {
+        if (!(connection instanceof ConnectionManager connectionManager)) {
+            throw new IllegalStateException("Only socket connections have a read loop");
+        }
         try {
-            SessionManager.getInstance().addHandler(this);
-
-            logger.info("Waiting for session.");
-            connectionManager.sendMessageToClient("Waiting for session.");
+            open();
 
             String message;
 
-            while ((message = connectionManager.getInputReader().readLine()) != null) {
-                commandDispatcher.dispatchCommand(message, this);
+            while (!closed.get() && (message = connectionManager.readMessage()) != null) {
+                dispatch(message);
             }
         } catch (IOException | SQLException | InterruptedException e) {
-            logger.error("Error in MainHandler run method", e);
+            if (closed.get()) {
+                logger.debug("Connection closed while reading", e);
+            } else {
+                logger.error("Error in MainHandler run method", e);
+            }
         } finally {
             closeConnection();
         }
     }
 
+    /**
+     * Registers the handler with the session manager and the connection reaper, and greets the client.
+     */
+    public void open() {
+        SessionManager.getInstance().addHandler(this);
+        watch = ConnectionReaper.getInstance().watch(this);
+
+        logger.info("Waiting for session.");
+        connection.sendMessageToClient("Waiting for session.");
+    }
+
+    /**
+     * Handles one command line received from the client.
+     * <p>
+     * Errors are logged and do not close the connection, so one failing command does not end the client's session.
+     * </p>
+     *
+     * @param message The command line, without the line terminator.
+     */
+    public void handleMessage(String message) {
+        try {
+            dispatch(message);
+        } catch (IOException | SQLException e) {
+            logger.error("Error handling message from {}", connection.getRemoteAddress(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while handling message from {}", connection.getRemoteAddress(), e);
+        } catch (RuntimeException e) {
+            logger.error("Failed to handle message from {}", connection.getRemoteAddress(), e);
+        }
+    }
+
+    /**
+     * Records that the client has just sent something.
+     * <p>
+     * A front end calls this as soon as a line arrives, before the command waits its turn to be handled, so a client
+     * is not taken for silent while its own commands queue up.
+     * </p>
+     */
+    public void markActivity() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    /**
+     * Checks whether a command of the client is being handled right now.
+     *
+     * @return True while a command is running, for example a game start waiting for an opponent.
+     */
+    public boolean isHandlingCommand() {
+        return runningCommands.get() > 0;
+    }
+
+    private void dispatch(String message) throws IOException, SQLException, InterruptedException {
+        markActivity();
+        runningCommands.incrementAndGet();
+        try {
+            commandDispatcher.dispatchCommand(message, this);
+        } finally {
+            runningCommands.decrementAndGet();
+            // The time spent handling the command does not count as silence.
+            markActivity();
+        }
+    }
+
     // Delegated methods for GameContext
 
     /**
@@ -222,30 +291,94 @@ public class MainHandler implements Runnable {
      * @param msg The message to be sent to the client.
      */
     public void sendMessageToClient(String msg) {
-        connectionManager.sendMessageToClient(msg);
+        connection.sendMessageToClient(tag(msg));
         logger.info("Sent message to client: {}", msg);
     }
 
+    /**
+     * Sends a chat line to the client; chat may be dropped if the client falls behind.
+     *
+     * @param msg The chat line to be sent to the client.
+     */
+    public void sendChatToClient(String msg) {
+        connection.sendChatToClient(tag(msg));
+    }
+
+    /**
+     * Sends a full board or a board delta to the client, in the protocol the client speaks.
+     * <p>
+     * A board sent in response to a request with an id goes out as text, since frames carry no request id.
+     * </p>
+     *
+     * @param board The board state to be sent to the client.
+     */
+    public void sendBoardToClient(BoardUpdate board) {
+        String id = requestId.get();
+        if (id != null) {
+            connection.sendMessageToClient(tag(id, board.toText()));
+        } else {
+            connection.sendBoardToClient(board);
+        }
+        logger.debug("Sent board to client: {}", board);
+    }
+
     /**
      * Retrieves the socket for the connection.
      *
-     * @return The socket for the connection.
+     * @return The socket for the connection, or null if the connection is not served by a blocking socket.
      */
     public Socket getHandlerSocket() {
-        return connectionManager.getSocket();
+        return connection instanceof ConnectionManager connectionManager ? connectionManager.getSocket() : null;
+    }
+
+    /**
+     * Retrieves the connection to the client.
+     *
+     * @return The connection to the client.
+     */
+    public Connection getConnection() {
+        return connection;
     }
 
     /**
      * Closes the connection to the client.
      * <p>
-     * This method closes the socket and the input and output streams. It also logs the process and handles any
-     * unexpected errors that may occur.
+     * This method closes the socket and the input and output streams, and ends or forfeits the session of the client.
+     * Closing an already closed handler does nothing. It also logs the process and handles any unexpected errors
+     * that may occur.
      * </p>
      */
     public void closeConnection() {
-        logger.info("Player disconnect.");
-        SessionManager.getInstance().deleteHandler(this);
-        connectionManager.closeConnection();
+        close(false);
+    }
+
+    /**
+     * Closes the connection to the client on a normal logout.
+     * <p>
+     * Like {@link #closeConnection()}, but the messages already sent to the client, such as the end of its game, are
+     * still written before the connection closes.
+     * </p>
+     */
+    public void closeGracefully() {
+        close(true);
+    }
+
+    /**
+     * Checks whether the handler has been closed.
+     *
+     * @return True once {@link #closeConnection()} or {@link #closeGracefully()} has been called.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Gets the time the client last sent a command, or the last command of the client finished.
+     *
+     * @return The {@link System#nanoTime()} of the last activity, or of the connection if there has been none yet.
+     */
+    public long getLastActivityNanos() {
+        return lastActivityNanos;
     }
 
     /**
@@ -256,4 +389,64 @@ public class MainHandler implements Runnable {
     public Logger getLogger() {
         return logger;
     }
-}
\ No newline at end of file
+
+    /**
+     * Marks the current thread as handling a command of this client, so responses carry the command's request id.
+     *
+     * @param command The command about to be handled.
+     */
+    void beginRequest(Command command) {
+        if (command.getRequestId() != null) requestId.set(command.getRequestId());
+    }
+
+    /**
+     * Ends the request started on the current thread.
+     */
+    void endRequest() {
+        requestId.remove();
+    }
+
+    /**
+     * Reserves a slot for a query that runs alongside the other commands of this client.
+     *
+     * @return False if the client already has the maximum number of queries running.
+     */
+    boolean tryBeginQuery() {
+        int running;
+        do {
+            running = runningQueries.get();
+            if (running >= MAX_CONCURRENT_QUERIES) return false;
+        } while (!runningQueries.compareAndSet(running, running + 1));
+        return true;
+    }
+
+    /**
+     * Releases the slot of a finished query.
+     */
+    void endQuery() {
+        runningQueries.decrementAndGet();
+    }
+
+    private void close(boolean graceful) {
+        if (!closed.compareAndSet(false, true)) return;
+        logger.info("Player disconnect.");
+        ConnectionReaper.Watch current = watch;
+        if (current != null) current.cancel();
+        SessionManager.getInstance().deleteHandler(this);
+        try {
+            SessionManager.getInstance().abandonSession(this);
+        } finally {
+            if (graceful) connection.closeGracefully();
+            else connection.closeConnection();
+        }
+    }
+
+    private String tag(String msg) {
+        String id = requestId.get();
+        return id == null ? msg : tag(id, msg);
+    }
+
+    private static String tag(String id, String msg) {
+        return Command.REQUEST_ID_PREFIX + id + " " + msg;
+    }
+}
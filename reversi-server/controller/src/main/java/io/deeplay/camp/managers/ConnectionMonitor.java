@@ -0,0 +1,112 @@
+package io.deeplay.camp.managers;
+
+import io.deeplay.camp.network.ConnectionStats;
+import io.deeplay.camp.timer.Timeout;
+import io.deeplay.camp.timer.TimerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs the state of the outbound queues of all connections.
+ * <p>
+ * Every interval the monitor takes the {@link ConnectionStats} of every connected handler from the
+ * {@link SessionManager} and logs one summary line: queued messages and bytes, dropped chat, overflowing queues and
+ * the worst lag. Connections that are overflowing or lag by more than {@value #LAGGING_MILLIS} ms are logged as a
+ * warning, the slowest {@value #REPORTED_LAGGING} of them by name, so slow consumers show up in the server log before
+ * they are disconnected.
+ * </p>
+ */
+public class ConnectionMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionMonitor.class);
+
+    /**
+     * The lag above which a connection is reported by name.
+     */
+    public static final long LAGGING_MILLIS = 1000;
+
+    private static final int REPORTED_LAGGING = 5;
+    private static final ConnectionMonitor instance = new ConnectionMonitor();
+
+    private long intervalNanos;
+    private long generation;
+    private Timeout timeout;
+
+    private ConnectionMonitor() {
+    }
+
+    /**
+     * Retrieves the singleton instance of the ConnectionMonitor.
+     *
+     * @return The singleton instance of the ConnectionMonitor.
+     */
+    public static ConnectionMonitor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts reporting, or changes the interval of a running monitor.
+     *
+     * @param interval The time between two reports, or 0 to stop reporting.
+     * @param unit     The unit of the interval.
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (timeout != null) timeout.cancel();
+        generation++;
+        intervalNanos = unit.toNanos(interval);
+        if (intervalNanos > 0) schedule();
+    }
+
+    /**
+     * Summarizes the outbound queues of a set of connections in one line.
+     *
+     * @param stats The snapshots of the connections.
+     * @return The summary.
+     */
+    public static String summarize(List<ConnectionStats> stats) {
+        long queuedMessages = 0;
+        long queuedBytes = 0;
+        long dropped = 0;
+        int overflowing = 0;
+        long lag = 0;
+        long maxLag = 0;
+        for (ConnectionStats connection : stats) {
+            queuedMessages += connection.getQueuedMessages();
+            queuedBytes += connection.getQueuedBytes();
+            dropped += connection.getDroppedMessages();
+            if (connection.isOverflowing()) overflowing++;
+            lag = Math.max(lag, connection.getLagMillis());
+            maxLag = Math.max(maxLag, connection.getMaxLagMillis());
+        }
+        return stats.size() + " connections, " + queuedMessages + " messages queued (" + queuedBytes + " bytes), "
+                + dropped + " chat messages dropped, " + overflowing + " overflowing, current lag up to " + lag
+                + " ms, max lag " + maxLag + " ms";
+    }
+
+    private void schedule() {
+        long scheduled = generation;
+        timeout = TimerService.getInstance().schedule(() -> report(scheduled), intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void report(long scheduled) {
+        List<ConnectionStats> stats = SessionManager.getInstance().getConnectionStats();
+        logger.info("Outbound queues: {}", summarize(stats));
+
+        List<ConnectionStats> lagging = stats.stream()
+                .filter(connection -> connection.isOverflowing() || connection.getLagMillis() > LAGGING_MILLIS)
+                .sorted(Comparator.comparingLong(ConnectionStats::getLagMillis).reversed())
+                .toList();
+        if (!lagging.isEmpty()) {
+            logger.warn("{} slow connections, slowest: {}", lagging.size(),
+                    lagging.subList(0, Math.min(REPORTED_LAGGING, lagging.size())));
+        }
+
+        synchronized (this) {
+            // A report of an earlier start leaves the rescheduling to the current one.
+            if (scheduled == generation) schedule();
+        }
+    }
+}
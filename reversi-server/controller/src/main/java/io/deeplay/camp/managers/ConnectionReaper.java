@@ -0,0 +1,174 @@
+package io.deeplay.camp.managers;
+
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.timer.Timeout;
+import io.deeplay.camp.timer.TimerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds clients that have gone silent and disconnects them.
+ * <p>
+ * Every connection gets one entry on the {@link TimerService}, not a thread or timer of its own. When the entry
+ * fires, the reaper looks at the time the client last sent anything. A client quiet for the ping interval is sent
+ * {@value #PING}, which a live client answers with {@value #PONG}; a client quiet for the idle timeout is reaped: its
+ * handler is closed, which frees the thread blocked reading from it, removes it from the {@link SessionManager}, and
+ * ends the session it waits in or forfeits the game it plays. Commands received in the meantime only update a
+ * timestamp, so a busy connection costs the reaper nothing. A client is never reaped while one of its commands is
+ * still being handled.
+ * </p>
+ */
+public class ConnectionReaper {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionReaper.class);
+
+    /**
+     * The heartbeat the server sends to a quiet client, and the command a client may send to the server.
+     */
+    public static final String PING = "ping";
+
+    /**
+     * The answer to {@value #PING}.
+     */
+    public static final String PONG = "pong";
+
+    /**
+     * The default time without input after which a client is pinged.
+     */
+    public static final long PING_INTERVAL_SECONDS = 30;
+
+    /**
+     * The default time without input after which a client is disconnected.
+     */
+    public static final long IDLE_TIMEOUT_SECONDS = 90;
+
+    private static final ConnectionReaper instance = new ConnectionReaper();
+
+    private final AtomicLong reaped = new AtomicLong();
+    private final AtomicLong pings = new AtomicLong();
+    private final AtomicInteger watched = new AtomicInteger();
+    private volatile long pingIntervalNanos = TimeUnit.SECONDS.toNanos(PING_INTERVAL_SECONDS);
+    private volatile long idleTimeoutNanos = TimeUnit.SECONDS.toNanos(IDLE_TIMEOUT_SECONDS);
+
+    private ConnectionReaper() {
+    }
+
+    /**
+     * Retrieves the singleton instance of the ConnectionReaper.
+     *
+     * @return The singleton instance of the ConnectionReaper.
+     */
+    public static ConnectionReaper getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the heartbeat timing; connections already watched pick it up at their next check.
+     *
+     * @param pingInterval The time without input after which a client is pinged.
+     * @param idleTimeout  The time without input after which a client is disconnected, or 0 to never disconnect.
+     * @param unit         The unit of both times.
+     */
+    public void configure(long pingInterval, long idleTimeout, TimeUnit unit) {
+        if (pingInterval <= 0) throw new IllegalArgumentException("Ping interval must be positive");
+        this.pingIntervalNanos = unit.toNanos(pingInterval);
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+    }
+
+    /**
+     * Starts watching a connection.
+     *
+     * @param handler The handler of the connection.
+     * @return The watch, to be cancelled when the connection closes.
+     */
+    public Watch watch(MainHandler handler) {
+        Watch watch = new Watch(handler);
+        watched.incrementAndGet();
+        watch.schedule(pingIntervalNanos);
+        return watch;
+    }
+
+    /**
+     * Gets the number of connections reaped since the server started.
+     *
+     * @return The reaped connections.
+     */
+    public long getReapedCount() {
+        return reaped.get();
+    }
+
+    /**
+     * Gets the number of pings sent to quiet clients.
+     *
+     * @return The pings sent.
+     */
+    public long getPingCount() {
+        return pings.get();
+    }
+
+    /**
+     * Gets the number of connections being watched.
+     *
+     * @return The watched connections.
+     */
+    public int getWatchedCount() {
+        return watched.get();
+    }
+
+    private void check(Watch watch) {
+        MainHandler handler = watch.handler;
+        if (handler.isClosed()) return;
+
+        // A client whose command is still running, such as a game start waiting for an opponent, is not silent.
+        long idle = handler.isHandlingCommand() ? 0 : System.nanoTime() - handler.getLastActivityNanos();
+        long idleTimeout = idleTimeoutNanos;
+        long pingInterval = pingIntervalNanos;
+        if (idleTimeout > 0 && idle >= idleTimeout) {
+            long count = reaped.incrementAndGet();
+            logger.info("Reaping {}, silent for {} s ({} connections reaped)",
+                    handler.getConnection().getRemoteAddress(), TimeUnit.NANOSECONDS.toSeconds(idle), count);
+            handler.closeConnection();
+            return;
+        }
+        if (idle >= pingInterval) {
+            pings.incrementAndGet();
+            handler.getConnection().sendMessageToClient(PING);
+            watch.schedule(idleTimeout > 0 ? Math.min(pingInterval, idleTimeout - idle) : pingInterval);
+        } else {
+            watch.schedule(pingInterval - idle);
+        }
+    }
+
+    /**
+     * The timer entry of one connection.
+     */
+    public final class Watch {
+        private final MainHandler handler;
+        private volatile Timeout timeout;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private Watch(MainHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Stops watching the connection.
+         */
+        public void cancel() {
+            if (!cancelled.compareAndSet(false, true)) return;
+            watched.decrementAndGet();
+            Timeout current = timeout;
+            if (current != null) current.cancel();
+        }
+
+        private void schedule(long delayNanos) {
+            if (cancelled.get()) return;
+            timeout = TimerService.getInstance().schedule(() -> check(this), delayNanos, TimeUnit.NANOSECONDS);
+            if (cancelled.get()) timeout.cancel();
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package io.deeplay.camp.managers;
+
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.telemetry.LatencyHistogram;
+import io.deeplay.camp.timer.Timeout;
+import io.deeplay.camp.timer.TimerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Pairs players looking for a game with opponents of similar rating.
+ * <p>
+ * Seekers wait in first-come queues, one per rating band of {@value #BAND_WIDTH} points. A new seeker is paired with
+ * the longest-waiting player of the nearest band either of them accepts. Each seeker starts out accepting only its
+ * own band, and every widening interval, {@value #WIDEN_INTERVAL_MILLIS} ms by default, it accepts one band further on
+ * each side, until it accepts anyone. Widening is a callback on the {@link TimerService}, which also tries to pair the
+ * seeker with the bands it now reaches, so nobody polls. Within a band the seeker at the head has waited longest and
+ * so reaches furthest, so checking the heads of the bands in reach finds the best opponent.
+ * </p>
+ * <p>
+ * A pairing completes the futures of both players at once, with the session of their game. The player who waited
+ * longer plays black and moves first. The wait of every paired player is recorded, and its percentiles are logged every
+ * {@value #REPORT_EVERY} pairings.
+ * </p>
+ * <p>
+ * The queues are split into shards, one per processor, each with its own lock, and a player always waits in the shard
+ * its handler hashes to, so players arriving at once mostly take different locks. A seeker compares the best opponent
+ * of its own shard with the best of every other shard, both when it arrives and at every widening, and steals the
+ * nearest of them. Other shards are only tried and the busy ones skipped, so two shards stealing from each other never
+ * deadlock; a pair missed that way is found at the next widening.
+ * </p>
+ */
+public class Matchmaker {
+    private static final Logger logger = LoggerFactory.getLogger(Matchmaker.class);
+
+    /**
+     * The rating points covered by one queue.
+     */
+    public static final int BAND_WIDTH = 100;
+
+    /**
+     * The default wait after which a seeker accepts opponents one band further away.
+     */
+    public static final long WIDEN_INTERVAL_MILLIS = 3000;
+
+    /**
+     * The number of bands on each side after which a seeker accepts anyone.
+     */
+    public static final int MAX_REACH = 10;
+
+    /**
+     * The default longest wait before the search fails.
+     */
+    public static final long MAX_WAIT_MILLIS = 300000;
+
+    /**
+     * The number of pairings between two reports of the wait percentiles in the log.
+     */
+    public static final int REPORT_EVERY = 1000;
+
+    private static final Matchmaker instance = new Matchmaker(Runtime.getRuntime().availableProcessors());
+
+    private final Shard[] shards;
+    private final ToIntFunction<MainHandler> shardSelector;
+    private final LatencyHistogram waitMillis = new LatencyHistogram();
+    private final AtomicLong pairings = new AtomicLong();
+    private volatile long widenIntervalNanos = TimeUnit.MILLISECONDS.toNanos(WIDEN_INTERVAL_MILLIS);
+    private volatile long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS);
+
+    /**
+     * Initializes a Matchmaker that spreads the players over its shards by the hash of their handlers.
+     *
+     * @param shardCount The number of shards.
+     */
+    Matchmaker(int shardCount) {
+        this(shardCount, handler -> {
+            int hash = handler.hashCode();
+            return hash ^ (hash >>> 16);
+        });
+    }
+
+    /**
+     * Initializes a Matchmaker that places every player in the shard picked by a selector.
+     *
+     * @param shardCount    The number of shards.
+     * @param shardSelector Picks the shard of a handler; taken modulo the number of shards.
+     */
+    Matchmaker(int shardCount, ToIntFunction<MainHandler> shardSelector) {
+        this.shardSelector = shardSelector;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * Retrieves the singleton instance of the Matchmaker.
+     *
+     * @return The singleton instance of the Matchmaker.
+     */
+    public static Matchmaker getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the search timing; players already waiting pick it up at their next widening.
+     *
+     * @param widenInterval The wait after which a seeker accepts opponents one band further away.
+     * @param maxWait       The longest wait before the search fails.
+     * @param unit          The unit of both times.
+     */
+    public void configure(long widenInterval, long maxWait, TimeUnit unit) {
+        if (widenInterval <= 0 || maxWait <= 0) throw new IllegalArgumentException("Matchmaking times must be positive");
+        this.widenIntervalNanos = unit.toNanos(widenInterval);
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    /**
+     * Looks for an opponent for a player.
+     * <p>
+     * The future completes with the session of the game as soon as an opponent is found, on the thread that found
+     * it. It fails with a {@link TimeoutException} if nobody is found within the maximum wait, and is cancelled if the
+     * player leaves. A player already searching gets the future of the running search.
+     * </p>
+     *
+     * @param handler The handler of the player.
+     * @param user    The player.
+     * @return The future session.
+     */
+    public CompletableFuture<GameSession> seek(MainHandler handler, User user) {
+        Shard home = shardOf(handler);
+        Seeker seeker;
+        Seeker opponent;
+        home.lock.lock();
+        try {
+            Seeker running = home.seekers.get(handler);
+            if (running != null) return running.future;
+
+            seeker = new Seeker(handler, user);
+            opponent = take(home, seeker);
+            if (opponent == null) {
+                home.enqueue(seeker);
+                seeker.expiry = TimerService.getInstance().schedule(() -> expire(seeker), maxWaitNanos,
+                        TimeUnit.NANOSECONDS);
+                scheduleWidening(seeker);
+                return seeker.future;
+            }
+        } finally {
+            home.lock.unlock();
+        }
+        pair(opponent, seeker);
+        return seeker.future;
+    }
+
+    /**
+     * Stops the search of a player who has left.
+     *
+     * @param handler The handler of the player.
+     */
+    public void cancel(MainHandler handler) {
+        Shard home = shardOf(handler);
+        Seeker seeker;
+        home.lock.lock();
+        try {
+            seeker = home.seekers.get(handler);
+            if (seeker == null) return;
+            home.dequeue(seeker);
+        } finally {
+            home.lock.unlock();
+        }
+        seeker.future.cancel(false);
+    }
+
+    /**
+     * Gets the number of players waiting for an opponent.
+     *
+     * @return The waiting players.
+     */
+    public int getWaitingCount() {
+        int waiting = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                waiting += shard.seekers.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Gets the number of shards the queues are split into.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Gets the time paired players have waited.
+     *
+     * @return The histogram of waits in milliseconds.
+     */
+    public LatencyHistogram getWaitMillis() {
+        return waitMillis;
+    }
+
+    private Shard shardOf(MainHandler handler) {
+        return shards[Math.floorMod(shardSelector.applyAsInt(handler), shards.length)];
+    }
+
+    /**
+     * Takes the best opponent for a seeker out of its own shard and the other shards that are not busy: the one in the
+     * nearest band, the longest-waiting of those. Called with the seeker's shard locked; the shard of the best opponent
+     * so far stays locked until a better one is found, so it cannot be taken by someone else in the meantime.
+     */
+    private Seeker take(Shard home, Seeker seeker) {
+        Shard bestShard = home;
+        Seeker best = home.findOpponent(seeker);
+        try {
+            for (int i = 1; i < shards.length; i++) {
+                Shard shard = shards[(home.index + i) % shards.length];
+                if (!shard.lock.tryLock()) continue;
+                boolean keepLocked = false;
+                try {
+                    Seeker opponent = shard.findOpponent(seeker);
+                    if (opponent != null && (best == null || isBetter(seeker, opponent, best))) {
+                        if (bestShard != home) bestShard.lock.unlock();
+                        bestShard = shard;
+                        best = opponent;
+                        keepLocked = true;
+                    }
+                } finally {
+                    if (!keepLocked) shard.lock.unlock();
+                }
+            }
+            if (best != null) bestShard.dequeue(best);
+            return best;
+        } finally {
+            if (bestShard != home) bestShard.lock.unlock();
+        }
+    }
+
+    private static boolean isBetter(Seeker seeker, Seeker candidate, Seeker best) {
+        int candidateDistance = Math.abs(candidate.band - seeker.band);
+        int bestDistance = Math.abs(best.band - seeker.band);
+        return candidateDistance < bestDistance
+                || candidateDistance == bestDistance && candidate.enqueuedNanos < best.enqueuedNanos;
+    }
+
+    private void scheduleWidening(Seeker seeker) {
+        if (seeker.reach >= MAX_REACH) return;
+        seeker.widening = TimerService.getInstance().schedule(() -> widen(seeker), widenIntervalNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    private void widen(Seeker seeker) {
+        Shard home = shardOf(seeker.handler);
+        Seeker opponent;
+        home.lock.lock();
+        try {
+            if (home.seekers.get(seeker.handler) != seeker) return;
+            seeker.reach++;
+            opponent = take(home, seeker);
+            if (opponent == null) {
+                scheduleWidening(seeker);
+                return;
+            }
+            home.dequeue(seeker);
+        } finally {
+            home.lock.unlock();
+        }
+        if (opponent.enqueuedNanos <= seeker.enqueuedNanos) pair(opponent, seeker);
+        else pair(seeker, opponent);
+    }
+
+    private void expire(Seeker seeker) {
+        Shard home = shardOf(seeker.handler);
+        home.lock.lock();
+        try {
+            if (home.seekers.get(seeker.handler) != seeker) return;
+            home.dequeue(seeker);
+        } finally {
+            home.lock.unlock();
+        }
+        logger.info("User {} found no opponent within {} ms", seeker.user.getId(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seeker.enqueuedNanos));
+        seeker.future.completeExceptionally(new TimeoutException("No opponent found"));
+    }
+
+    /**
+     * Starts the game of two players taken out of the queues and tells both of them.
+     *
+     * @param first  The player who waited longer, who plays black.
+     * @param second The other player.
+     */
+    private void pair(Seeker first, Seeker second) {
+        long now = System.nanoTime();
+        waitMillis.record(TimeUnit.NANOSECONDS.toMillis(now - first.enqueuedNanos));
+        waitMillis.record(TimeUnit.NANOSECONDS.toMillis(now - second.enqueuedNanos));
+        logger.debug("Paired users {} ({}) and {} ({})", first.user.getId(), first.user.getRating(),
+                second.user.getId(), second.user.getRating());
+
+        GameSession session;
+        try {
+            session = SessionManager.getInstance().startMatch(first.handler, first.user, second.handler, second.user);
+        } catch (RuntimeException e) {
+            first.future.completeExceptionally(e);
+            second.future.completeExceptionally(e);
+            throw e;
+        }
+        first.future.complete(session);
+        second.future.complete(session);
+
+        long count = pairings.incrementAndGet();
+        if (count % REPORT_EVERY == 0) {
+            logger.info("Matchmaking: {} games paired, {} players waiting, wait p50 {} ms, p90 {} ms, p99 {} ms, max {} ms",
+                    count, getWaitingCount(), waitMillis.getPercentile(50), waitMillis.getPercentile(90),
+                    waitMillis.getPercentile(99), waitMillis.getMax());
+        }
+    }
+
+    /**
+     * A part of the queues with its own lock; every field is guarded by the lock.
+     */
+    private static final class Shard {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, ArrayDeque<Seeker>> bands = new HashMap<>();
+        private final Map<MainHandler, Seeker> seekers = new HashMap<>();
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Finds the best opponent in reach of a seeker: the nearest band first, the longest-waiting player within it.
+         */
+        private Seeker findOpponent(Seeker seeker) {
+            for (int distance = 0; distance <= MAX_REACH; distance++) {
+                Seeker below = headOf(seeker.band - distance, seeker, distance);
+                Seeker above = distance == 0 ? null : headOf(seeker.band + distance, seeker, distance);
+                if (below != null && (above == null || below.enqueuedNanos <= above.enqueuedNanos)) return below;
+                if (above != null) return above;
+            }
+            return findBeyondReach(seeker);
+        }
+
+        /**
+         * Finds the nearest opponent further than {@value Matchmaker#MAX_REACH} bands away, which only pairs if one of the two
+         * accepts anyone. There is one queue per band in use, so the scan is short.
+         */
+        private Seeker findBeyondReach(Seeker seeker) {
+            Seeker best = null;
+            int bestDistance = 0;
+            for (ArrayDeque<Seeker> queue : bands.values()) {
+                Seeker head = queue.peekFirst();
+                int distance = Math.abs(head.band - seeker.band);
+                if (head == seeker || distance <= MAX_REACH) continue;
+                if (seeker.reach < MAX_REACH && head.reach < MAX_REACH) continue;
+                if (best == null || distance < bestDistance
+                        || distance == bestDistance && head.enqueuedNanos < best.enqueuedNanos) {
+                    best = head;
+                    bestDistance = distance;
+                }
+            }
+            return best;
+        }
+
+        private Seeker headOf(int band, Seeker seeker, int distance) {
+            ArrayDeque<Seeker> queue = bands.get(band);
+            if (queue == null) return null;
+            Seeker head = queue.peekFirst();
+            if (head == null || head == seeker) return null;
+            return accepts(seeker, distance) || accepts(head, distance) ? head : null;
+        }
+
+        private static boolean accepts(Seeker seeker, int distance) {
+            return seeker.reach >= MAX_REACH || distance <= seeker.reach;
+        }
+
+        private void enqueue(Seeker seeker) {
+            bands.computeIfAbsent(seeker.band, band -> new ArrayDeque<>()).addLast(seeker);
+            seekers.put(seeker.handler, seeker);
+        }
+
+        private void dequeue(Seeker seeker) {
+            seekers.remove(seeker.handler, seeker);
+            ArrayDeque<Seeker> queue = bands.get(seeker.band);
+            if (queue != null) {
+                queue.remove(seeker);
+                if (queue.isEmpty()) bands.remove(seeker.band);
+            }
+            if (seeker.expiry != null) seeker.expiry.cancel();
+            if (seeker.widening != null) seeker.widening.cancel();
+        }
+    }
+
+    /**
+     * A player in a queue.
+     */
+    private static final class Seeker {
+        private final MainHandler handler;
+        private final User user;
+        private final int band;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<GameSession> future = new CompletableFuture<>();
+        private int reach;
+        private Timeout expiry;
+        private Timeout widening;
+
+        private Seeker(MainHandler handler, User user) {
+            this.handler = handler;
+            this.user = user;
+            this.band = Math.floorDiv(user.getRating(), BAND_WIDTH);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.deeplay.camp.managers;
+
+import io.deeplay.camp.board.BoardService;
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.game.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs everything that happens in one game, one task at a time.
+ * <p>
+ * Every session has an actor with a mailbox. Moves, chat, board queries, flag falls and forfeits are posted to it and
+ * run in the order they were posted, never two at once, so the session, its board and its clock are only ever
+ * touched by one thread at a time and take no locks. The actor owns no thread: while its mailbox holds tasks it
+ * drains them on a virtual thread, so an idle game costs nothing and games never wait for each other.
+ * </p>
+ * <p>
+ * The actor also keeps the {@link BoardService} and {@link GameService} of the game, built once when the session
+ * starts, so a move is applied to the live board instead of rebuilding the board logic from the session every time.
+ * </p>
+ */
+public class SessionActor {
+    private static final Logger logger = LoggerFactory.getLogger(SessionActor.class);
+    private static final Executor RUNNERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("session-", 0).factory());
+
+    private final GameSession session;
+    private final BoardService boardLogic;
+    private final GameService gameLogic;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Thread runner;
+
+    /**
+     * Creates the actor of a session that has not been published to other threads yet.
+     *
+     * @param session The session, with its board set.
+     */
+    SessionActor(GameSession session) {
+        this.session = session;
+        this.boardLogic = new BoardService(session.getBoard());
+        this.gameLogic = new GameService(boardLogic);
+    }
+
+    /**
+     * Posts a task to the mailbox without waiting for it.
+     * <p>
+     * A task that throws is logged and does not stop the tasks after it.
+     * </p>
+     *
+     * @param task The task.
+     */
+    public void execute(Runnable task) {
+        mailbox.add(task);
+        if (scheduled.compareAndSet(false, true)) RUNNERS.execute(this::drain);
+    }
+
+    /**
+     * Runs a task on the actor and waits until it has run.
+     * <p>
+     * Called from a task of this actor, the task runs at once, since waiting for the mailbox would wait forever.
+     * </p>
+     *
+     * @param task The task.
+     * @throws IOException          If the task throws it.
+     * @throws SQLException         If the task throws it.
+     * @throws InterruptedException If the task throws it, or the caller is interrupted while waiting.
+     */
+    public void call(Task task) throws IOException, SQLException, InterruptedException {
+        if (Thread.currentThread() == runner) {
+            task.run();
+            return;
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+        });
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof SQLException sql) throw sql;
+            if (cause instanceof InterruptedException interrupted) throw interrupted;
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Gets the session the actor runs.
+     *
+     * @return The session.
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the board logic of the game; only to be used by tasks of this actor.
+     *
+     * @return The board logic.
+     */
+    public BoardService getBoardLogic() {
+        return boardLogic;
+    }
+
+    /**
+     * Gets the game logic of the game; only to be used by tasks of this actor.
+     *
+     * @return The game logic.
+     */
+    public GameService getGameLogic() {
+        return gameLogic;
+    }
+
+    private void drain() {
+        runner = Thread.currentThread();
+        try {
+            Runnable task;
+            while ((task = mailbox.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Error in a task of session {}", session.getSessionId(), e);
+                }
+            }
+        } finally {
+            runner = null;
+            scheduled.set(false);
+        }
+        // A task posted between the last poll and the reset above found the actor still scheduled.
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) RUNNERS.execute(this::drain);
+    }
+
+    /**
+     * A task that may fail the way command handlers do.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws IOException, SQLException, InterruptedException;
+    }
+}
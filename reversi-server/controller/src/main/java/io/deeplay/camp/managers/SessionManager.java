@@ -1,18 +1,28 @@
 package io.deeplay.camp.managers;
 
 import io.deeplay.camp.TokenGenerator.TokenGenerator;
+import io.deeplay.camp.clock.GameClock;
+import io.deeplay.camp.clock.TimeControl;
 import io.deeplay.camp.entity.*;
 import io.deeplay.camp.enums.GameStatus;
 import io.deeplay.camp.elo.EloService;
 import io.deeplay.camp.gameSession.GameSessionService;
 import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.network.ConnectionStats;
+import io.deeplay.camp.protocol.BoardUpdate;
+import io.deeplay.camp.timer.Timeout;
+import io.deeplay.camp.timer.TimerService;
 import io.deeplay.camp.user.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages game sessions and client handlers.
@@ -20,15 +30,43 @@ import java.util.Optional;
  * This singleton class is responsible for creating, managing, and terminating game sessions. It also handles
  * communication between clients and manages the ELO rating updates for players.
  * </p>
+ * <p>
+ * Sessions are indexed by session ID, the handlers taking part in a session by session ID, and the handlers of
+ * players by user ID, all in concurrent hash maps, so finding a session, an opponent or the players to notify takes
+ * constant time however many games run, and no lock is taken on the way from one player's command to the other
+ * player's socket. The hash maps are striped internally, so the indexes need no sharding of their own; a broadcast to
+ * every connected player is split across the bins of the map of handlers and sent in parallel. Players looking for an
+ * opponent wait in the sharded queues of the {@link Matchmaker}, and a session is only created once two of them are
+ * paired.
+ * </p>
+ * <p>
+ * Every session runs on its own {@link SessionActor}. The commands that act on a game, the flag falls and the forfeits
+ * of players who leave are all applied by the session's actor, one after another, so no two threads ever change a
+ * game at the same time.
+ * </p>
+ * <p>
+ * The clock of a timed game is watched by a callback on the {@link TimerService}, rescheduled after every move, so a
+ * player who stops moving loses on time without having to send another command. The callback only posts the flag
+ * fall to the session's actor, so the timer thread never waits for a game.
+ * </p>
  */
 public class SessionManager {
-    private static SessionManager instance;
-    private final List<GameSession> sessions;
-    private final List<MainHandler> handlers;
+    private static final Logger logger = LoggerFactory.getLogger(SessionManager.class);
+    private static final String OPPONENT_DISCONNECT_MESSAGE = "opponent-disconnect";
+    private static final String GAME_FINISHED_MESSAGE = "game-status::finished";
+    /**
+     * The number of connected handlers above which a broadcast is split across the common fork-join pool.
+     */
+    private static final long BROADCAST_PARALLELISM_THRESHOLD = 1024;
+    private static final SessionManager instance = new SessionManager();
+    private final Map<Integer, SessionActor> sessions = new ConcurrentHashMap<>();
+    private final Map<Integer, List<MainHandler>> participants = new ConcurrentHashMap<>();
+    private final Map<Integer, MainHandler> players = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MainHandler, Boolean> handlers = new ConcurrentHashMap<>();
+    private final Map<Integer, Timeout> turnTimeouts = new ConcurrentHashMap<>();
+    private volatile TimeControl timeControl = TimeControl.NONE;
 
     private SessionManager() {
-        this.sessions = new ArrayList<>();
-        this.handlers = new ArrayList<>();
     }
 
     /**
@@ -36,42 +74,66 @@ public class SessionManager {
      *
      * @return The singleton instance of the SessionManager.
      */
-    public static synchronized SessionManager getInstance() {
-        if (instance == null) instance = new SessionManager();
+    public static SessionManager getInstance() {
         return instance;
     }
 
     /**
-     * Finds an available session or creates a new one for the given user.
+     * Sets the time control of live games.
      * <p>
-     * If the user is a bot, a new session with a bot is created. Otherwise, it tries to find an available session
-     * or creates a new one if none are available.
+     * Every game that starts afterwards gets a {@link GameClock}; games already running keep their clock.
+     * </p>
+     *
+     * @param timeControl The time control, or {@link TimeControl#NONE} for untimed games.
+     */
+    public void setTimeControl(TimeControl timeControl) {
+        this.timeControl = timeControl;
+    }
+
+    /**
+     * Finds a game for the given user.
+     * <p>
+     * If the user is a bot, a new session with a bot is created at once. Otherwise the user joins the
+     * {@link Matchmaker}, and the future completes when an opponent of similar rating is found.
      * </p>
      *
      * @param clientHandler The handler managing the client connection.
-     * @param user          The user for whom the session is being created or found.
+     * @param user          The user for whom the session is being found.
      * @param isBot         Indicates if the user is a bot.
-     * @return The result of the session creation or finding process.
+     * @return The future session of the game.
      */
-    public synchronized SessionResult findOrCreateSession(MainHandler clientHandler, User user, boolean isBot) {
+    public CompletableFuture<GameSession> findOrCreateSession(MainHandler clientHandler, User user, boolean isBot) {
         if (isBot) {
-            return createBotSession(user);
-        }
-
-        Optional<GameSession> availableSession = sessions.stream()
-                .filter(session -> session.getPlayersCount() < 2 && session.getGameState() == GameStatus.NOT_STARTED)
-                .findFirst();
-
-        if (availableSession.isPresent()) {
-            GameSession session = availableSession.get();
-            session.setPlayer2(user);
-            session.setGameState(GameStatus.IN_PROGRESS);
-            return new SessionResult(session, user);
+            players.put(user.getId(), clientHandler);
+            return CompletableFuture.completedFuture(createBotSession(clientHandler, user));
         }
+        return Matchmaker.getInstance().seek(clientHandler, user);
+    }
 
-        GameSession newSession = createNewSession(user);
-        sessions.add(newSession);
-        return new SessionResult(newSession, user);
+    /**
+     * Starts a game between two players the {@link Matchmaker} has paired.
+     * <p>
+     * Both handlers join the session's participants before the game starts, so each player can reach the other as
+     * soon as they are told the game has begun.
+     * </p>
+     *
+     * @param firstHandler  The handler of the first player, who plays black.
+     * @param firstUser     The first player.
+     * @param secondHandler The handler of the second player.
+     * @param secondUser    The second player.
+     * @return The session of the game.
+     */
+    GameSession startMatch(MainHandler firstHandler, User firstUser, MainHandler secondHandler, User secondUser) {
+        GameSession session = createNewSession(firstUser);
+        session.setPlayer2(secondUser);
+        sessions.put(session.getSessionId(), new SessionActor(session));
+        join(session, firstHandler);
+        join(session, secondHandler);
+        players.put(firstUser.getId(), firstHandler);
+        players.put(secondUser.getId(), secondHandler);
+        session.setGameState(GameStatus.IN_PROGRESS);
+        startClock(session);
+        return session;
     }
 
     /**
@@ -82,20 +144,57 @@ public class SessionManager {
      * @param msg      The message to be sent.
      */
     public void sendMessageToOpponent(MainHandler handler, GameSession session, String msg) {
-        handlers.stream()
-                .filter(playerHandler -> Objects.equals(playerHandler.getSession().getSessionId(), session.getSessionId()))
-                .filter(playerHandler -> !Objects.equals(playerHandler.getUser().getId(), handler.getUser().getId()))
-                .findFirst()
-                .ifPresent(playerHandler -> playerHandler.sendMessageToClient(msg));
+        MainHandler opponent = findOpponent(handler, session);
+        if (opponent != null) opponent.sendMessageToClient(msg);
+    }
+
+    /**
+     * Sends a full board or a board delta to the opponent of the given handler in the specified session.
+     *
+     * @param handler  The handler whose opponent receives the board.
+     * @param session  The session of the game.
+     * @param board    The board state to be sent.
+     */
+    public void sendBoardToOpponent(MainHandler handler, GameSession session, BoardUpdate board) {
+        MainHandler opponent = findOpponent(handler, session);
+        if (opponent != null) opponent.sendBoardToClient(board);
     }
 
     /**
      * Sends a message to all connected handlers.
+     * <p>
+     * With many handlers connected the map of handlers is split into shards of bins, which are sent to in parallel.
+     * </p>
      *
      * @param msg The message to be sent.
      */
     public void sendMessageToAll(String msg) {
-        handlers.forEach(playerHandler -> playerHandler.sendMessageToClient(msg));
+        handlers.forEachKey(BROADCAST_PARALLELISM_THRESHOLD, playerHandler -> playerHandler.sendMessageToClient(msg));
+    }
+
+    /**
+     * Sends a chat line to all connected handlers.
+     * <p>
+     * Every connection queues the line without blocking, and a client that has fallen behind drops it instead of
+     * delaying the others. Like {@link #sendMessageToAll(String)}, the handlers are sent to in parallel when there are
+     * many of them.
+     * </p>
+     *
+     * @param msg The chat line to be sent.
+     */
+    public void sendChatToAll(String msg) {
+        handlers.forEachKey(BROADCAST_PARALLELISM_THRESHOLD, playerHandler -> playerHandler.sendChatToClient(msg));
+    }
+
+    /**
+     * Takes a snapshot of the outbound queues of all connected handlers.
+     *
+     * @return The queue size, dropped messages and lag of every connection.
+     */
+    public List<ConnectionStats> getConnectionStats() {
+        return handlers.keySet().stream()
+                .map(playerHandler -> playerHandler.getConnection().getStats())
+                .toList();
     }
 
     /**
@@ -105,10 +204,27 @@ public class SessionManager {
      * @return The session with the specified ID, or null if not found.
      */
     public GameSession getSession(int sessionId) {
-        return sessions.stream()
-                .filter(session -> session.getSessionId() == sessionId)
-                .findFirst()
-                .orElse(null);
+        SessionActor actor = sessions.get(sessionId);
+        return actor == null ? null : actor.getSession();
+    }
+
+    /**
+     * Retrieves the actor that runs a session.
+     *
+     * @param sessionId The ID of the session.
+     * @return The actor of the session, or null if the session is not in play.
+     */
+    public SessionActor getActor(int sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * Gets the number of sessions in play.
+     *
+     * @return The number of sessions.
+     */
+    public int getSessionCount() {
+        return sessions.size();
     }
 
     /**
@@ -118,13 +234,25 @@ public class SessionManager {
      * @param msg         The message to be sent.
      */
     public void sendMessageToAllInSession(MainHandler mainHandler, String msg) {
-        handlers.stream()
-                .filter(handler -> handler.getSession().getSessionId() == mainHandler.getSession().getSessionId())
-                .filter(handler -> handler.getUser().getId() != mainHandler.getUser().getId())
-                .forEach(handler -> {
-                    handler.sendMessageToClient(msg);
-                    mainHandler.sendMessageToClient(msg);
-                });
+        for (MainHandler handler : participantsOf(mainHandler.getSession())) {
+            if (handler.getUser().getId() == mainHandler.getUser().getId()) continue;
+            handler.sendMessageToClient(msg);
+            mainHandler.sendMessageToClient(msg);
+        }
+    }
+
+    /**
+     * Sends a chat line to all handlers in the same session as the given handler.
+     *
+     * @param mainHandler The handler whose session receives the chat line.
+     * @param msg         The chat line to be sent.
+     */
+    public void sendChatToAllInSession(MainHandler mainHandler, String msg) {
+        for (MainHandler handler : participantsOf(mainHandler.getSession())) {
+            if (handler.getUser().getId() == mainHandler.getUser().getId()) continue;
+            handler.sendChatToClient(msg);
+            mainHandler.sendChatToClient(msg);
+        }
     }
 
     /**
@@ -133,14 +261,11 @@ public class SessionManager {
      * @param handler The handler sending the message.
      * @param msg     The message to be sent.
      */
-    public synchronized void sendSessionMessage(MainHandler handler, String msg) {
-        sessions.stream()
-                .filter(session -> Objects.equals(session.getSessionId(), handler.getSession().getSessionId()))
-                .findFirst()
-                .ifPresent(session -> {
-                    var sessionMsg = new SessionMessage(msg, handler.getUser().getUsername());
-                    session.addMessage(sessionMsg);
-                });
+    public void sendSessionMessage(MainHandler handler, String msg) {
+        GameSession session = getSession(handler.getSession().getSessionId());
+        if (session != null) {
+            session.addMessage(new SessionMessage(msg, handler.getUser().getUsername()));
+        }
     }
 
     /**
@@ -150,12 +275,8 @@ public class SessionManager {
      * @return The opponent user, or the user of the given handler if no opponent is found.
      */
     public User getOpponent(MainHandler mainHandler) {
-        return handlers.stream()
-                .filter(handler -> handler.getSession().getSessionId() == mainHandler.getSession().getSessionId())
-                .filter(handler -> handler.getUser().getId() != mainHandler.getUser().getId())
-                .map(MainHandler::getUser)
-                .findFirst()
-                .orElse(mainHandler.getUser());
+        MainHandler opponent = findOpponent(mainHandler, mainHandler.getSession());
+        return opponent == null ? mainHandler.getUser() : opponent.getUser();
     }
 
     /**
@@ -163,75 +284,128 @@ public class SessionManager {
      *
      * @param clientHandler The handler to be added.
      */
-    public synchronized void addHandler(MainHandler clientHandler) {
-        handlers.add(clientHandler);
+    public void addHandler(MainHandler clientHandler) {
+        handlers.put(clientHandler, Boolean.TRUE);
     }
 
     /**
-     * Removes a handler from the list of active handlers.
+     * Removes a handler from the list of active handlers, from the participants of its session and from the index of
+     * players.
      *
      * @param clientHandler The handler to be removed.
      */
-    public synchronized void deleteHandler(MainHandler clientHandler) {
+    public void deleteHandler(MainHandler clientHandler) {
         handlers.remove(clientHandler);
+        if (clientHandler.getUser() != null) players.remove(clientHandler.getUser().getId(), clientHandler);
+        GameSession session = clientHandler.getSession();
+        if (session != null) {
+            List<MainHandler> sessionHandlers = participants.get(session.getSessionId());
+            if (sessionHandlers != null) sessionHandlers.remove(clientHandler);
+        }
     }
 
     /**
      * Finishes a session and updates the ELO ratings of the players.
+     * <p>
+     * Runs on the session's actor. The session is taken out of the index first, so a game is only stored once however
+     * many of the ways a game can end happen.
+     * </p>
      *
      * @param clientHandler The handler managing the client connection.
      * @param playerWon     Indicates if the player won the session.
      * @throws SQLException If a SQL error occurs during the ELO update.
      */
-    public synchronized void finishedSession(MainHandler clientHandler, boolean playerWon) throws SQLException {
-        GameSession gameSession = sessions.stream()
-                .filter(session -> Objects.equals(session.getSessionId(), clientHandler.getSession().getSessionId()))
-                .findFirst()
-                .orElse(null);
-
-        if (gameSession == null) {
+    public void finishedSession(MainHandler clientHandler, boolean playerWon) throws SQLException {
+        SessionActor actor = sessions.remove(clientHandler.getSession().getSessionId());
+        if (actor == null) {
             return;
         }
+        GameSession gameSession = actor.getSession();
 
-        var eloService = new EloService();
-        var userService = new UserService();
+        try {
+            var eloService = new EloService();
+            var userService = new UserService();
 
-        if (!gameSession.getPlayer2().getIsBot()) {
-            updateEloForPlayers(gameSession, playerWon, eloService, userService);
-            notifyPlayersAboutNewElo(clientHandler, gameSession);
-        } else {
-            updateEloForPlayerVsBot(gameSession, playerWon, eloService, userService, clientHandler);
+            if (!gameSession.getPlayer2().getIsBot()) {
+                boolean firstPlayer = clientHandler.getUser().getId() == gameSession.getPlayer1().getId();
+                updateEloForPlayers(gameSession, playerWon == firstPlayer, eloService, userService);
+                notifyPlayersAboutNewElo(gameSession);
+            } else {
+                updateEloForPlayerVsBot(gameSession, playerWon, eloService, userService, clientHandler);
+            }
+
+            var gameSessionService = new GameSessionService();
+
+            gameSession.setResult(playerWon ? clientHandler.getUser().getId() + " win" : clientHandler.getUser().getId() + " lose");
+            gameSession.setGameState(GameStatus.FINISHED);
+
+            gameSession.getPlayer2().setId(4);
+            gameSession.getPlayer2().setUsername("Bot12");
+
+            gameSessionService.addGameSession(gameSession, gameSession.getLog());
+        } finally {
+            removeSession(gameSession);
         }
-        
-        var gameSessionService = new GameSessionService();
-        
-        gameSession.setResult(playerWon ? clientHandler.getUser().getId() + " win" : clientHandler.getUser().getId() + " lose");
-        gameSession.setGameState(GameStatus.FINISHED);
+    }
 
-        gameSession.getPlayer2().setId(4);
-        gameSession.getPlayer2().setUsername("Bot12");
-        
-        gameSessionService.addGameSession(gameSession, gameSession.getLog());
+    /**
+     * Ends the session of a client that has left.
+     * <p>
+     * A search for an opponent is cancelled at once. The rest is posted to the session's actor, after any command
+     * already queued there: a session no longer in play is removed, and a game in progress is forfeited, so the
+     * opponent is told and wins, and the result is stored like that of any finished game.
+     * </p>
+     *
+     * @param clientHandler The handler of the client that left.
+     */
+    public void abandonSession(MainHandler clientHandler) {
+        Matchmaker.getInstance().cancel(clientHandler);
+        GameSession handlerSession = clientHandler.getSession();
+        if (handlerSession == null || clientHandler.getUser() == null) return;
+
+        SessionActor actor = sessions.get(handlerSession.getSessionId());
+        if (actor == null) return;
+        actor.execute(() -> forfeit(clientHandler, actor.getSession()));
+    }
 
-        sessions.remove(gameSession);
+    /**
+     * Schedules the flag fall of the side whose clock runs, replacing the one scheduled for the previous turn.
+     *
+     * @param gameSession The session whose clock was started or pressed.
+     */
+    public void watchClock(GameSession gameSession) {
+        GameClock clock = gameSession.getClock();
+        if (clock == null) return;
+        long untilFlag = clock.getNanosUntilFlag();
+        Timeout previous;
+        if (untilFlag == TimeControl.UNLIMITED) {
+            previous = turnTimeouts.remove(gameSession.getSessionId());
+        } else {
+            // The flag falls once the limit is exceeded, so fire one tick after it is reached.
+            Timeout timeout = TimerService.getInstance().schedule(() -> postFlagFall(gameSession),
+                    untilFlag + TimeUnit.MILLISECONDS.toNanos(TimerService.TICK_MILLIS), TimeUnit.NANOSECONDS);
+            previous = turnTimeouts.put(gameSession.getSessionId(), timeout);
+        }
+        if (previous != null) previous.cancel();
     }
 
     /**
      * Retrieves the list of active handlers.
      *
-     * @return The list of active handlers.
+     * @return A snapshot of the active handlers.
      */
     public List<MainHandler> getHandlers() {
-        return handlers;
+        return List.copyOf(handlers.keySet());
     }
 
     /**
      * Creates a new session with a bot.
      *
-     * @param user The user for whom the session is being created.
-     * @return The result of the session creation process.
+     * @param clientHandler The handler of the player.
+     * @param user          The user for whom the session is being created.
+     * @return The session of the game.
      */
-    private SessionResult createBotSession(User user) {
+    private GameSession createBotSession(MainHandler clientHandler, User user) {
         GameSession newSession = new GameSession();
         newSession.setBoard(new Board());
         newSession.setPlayer1(user);
@@ -241,10 +415,175 @@ public class SessionManager {
         User userBot = new User(0, "Bot", "Bot", 1000, 1000, "");
         userBot.setIsBot(true);
         newSession.setPlayer2(userBot);
+        sessions.put(newSession.getSessionId(), new SessionActor(newSession));
+        join(newSession, clientHandler);
         newSession.setGameState(GameStatus.IN_PROGRESS);
+        startClock(newSession);
 
-        sessions.add(newSession);
-        return new SessionResult(newSession, user);
+        return newSession;
+    }
+
+    /**
+     * Adds a handler to the participants of a session.
+     *
+     * @param session       The session.
+     * @param clientHandler The handler joining it.
+     */
+    private void join(GameSession session, MainHandler clientHandler) {
+        participants.computeIfAbsent(session.getSessionId(), id -> new CopyOnWriteArrayList<>()).add(clientHandler);
+    }
+
+    /**
+     * Gets the handlers taking part in a session.
+     *
+     * @param session The session, or null.
+     * @return The handlers, empty if the session is null or has ended.
+     */
+    private List<MainHandler> participantsOf(GameSession session) {
+        if (session == null) return List.of();
+        return participants.getOrDefault(session.getSessionId(), List.of());
+    }
+
+    /**
+     * Finds the handler of the other player of a session.
+     * <p>
+     * The opponent's user ID comes from the session and its handler from the index of players; the session's
+     * participants are searched only when that handler has since moved to another session.
+     * </p>
+     *
+     * @param handler The handler of one player.
+     * @param session The session of the game, or null.
+     * @return The handler of the opponent, or null if there is none.
+     */
+    private MainHandler findOpponent(MainHandler handler, GameSession session) {
+        if (session == null) return null;
+        int userId = handler.getUser().getId();
+        User player1 = session.getPlayer1();
+        User player2 = session.getPlayer2();
+        User opponent = player1 != null && player1.getId() != userId ? player1
+                : player2 != null && player2.getId() != userId ? player2 : null;
+        if (opponent == null) return null;
+
+        MainHandler opponentHandler = players.get(opponent.getId());
+        if (opponentHandler != null && opponentHandler.getSession() != null
+                && opponentHandler.getSession().getSessionId() == session.getSessionId()) {
+            return opponentHandler;
+        }
+        for (MainHandler participant : participantsOf(session)) {
+            if (participant.getUser().getId() == opponent.getId()) return participant;
+        }
+        return null;
+    }
+
+    /**
+     * Starts the clock of black, who moves first, if live games are timed.
+     *
+     * @param session The session whose game begins.
+     */
+    private void startClock(GameSession session) {
+        TimeControl timeControl = this.timeControl;
+        if (!timeControl.isLimited()) return;
+        GameClock clock = new GameClock(timeControl);
+        clock.start(1);
+        session.setClock(clock);
+        watchClock(session);
+    }
+
+    /**
+     * Ends the session of a client that has left, on the session's actor.
+     *
+     * @param clientHandler The handler of the client that left.
+     * @param gameSession   The session of the client.
+     */
+    private void forfeit(MainHandler clientHandler, GameSession gameSession) {
+        if (sessions.get(gameSession.getSessionId()) == null) return;
+
+        GameStatus state = gameSession.getGameState();
+        if (state != GameStatus.IN_PROGRESS && state != GameStatus.PAUSED) {
+            removeSession(gameSession);
+            logger.info("Session {} ended, its player left", gameSession.getSessionId());
+            return;
+        }
+
+        if (gameSession.getClock() != null) gameSession.getClock().stop();
+        for (MainHandler handler : participantsOf(gameSession)) {
+            if (handler == clientHandler) continue;
+            handler.sendMessageToClient(OPPONENT_DISCONNECT_MESSAGE);
+            handler.sendMessageToClient(GAME_FINISHED_MESSAGE);
+        }
+        try {
+            finishedSession(clientHandler, false);
+            logger.info("Session {} forfeited by user {}", gameSession.getSessionId(), clientHandler.getUser().getId());
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Error storing forfeited session {}", gameSession.getSessionId(), e);
+        } finally {
+            removeSession(gameSession);
+        }
+    }
+
+    /**
+     * Hands a flag fall found by the timer to the actor of its session.
+     *
+     * @param session The session of the game.
+     */
+    private void postFlagFall(GameSession session) {
+        SessionActor actor = sessions.get(session.getSessionId());
+        if (actor != null) actor.execute(() -> flagFall(session));
+    }
+
+    /**
+     * Ends a game whose running side has run out of time, as the timer found it, on the session's actor.
+     * <p>
+     * The side that flagged loses. If a player's command noticed the flag fall first, or the clock was pressed in
+     * time, nothing happens.
+     * </p>
+     *
+     * @param session The session of the game.
+     */
+    private void flagFall(GameSession session) {
+        GameClock clock = session.getClock();
+        int side = clock.getRunningSide();
+        if (side == 0) {
+            turnTimeouts.remove(session.getSessionId());
+            return;
+        }
+        if (!clock.isFlagged(side)) {
+            watchClock(session);
+            return;
+        }
+        if (session.getGameState() != GameStatus.IN_PROGRESS) return;
+
+        List<MainHandler> sessionHandlers = participantsOf(session);
+        if (sessionHandlers.isEmpty() || !session.markFinished()) return;
+
+        clock.stop();
+        logger.info("Side {} ran out of time in session {}", side, session.getSessionId());
+        sessionHandlers.forEach(handler -> {
+            handler.sendMessageToClient("Player " + side + " ran out of time.");
+            handler.sendMessageToClient(GAME_FINISHED_MESSAGE);
+        });
+
+        MainHandler handler = sessionHandlers.getFirst();
+        int playerNumber = handler.getUser().getId() == session.getPlayer1().getId() ? 1 : 2;
+        try {
+            finishedSession(handler, playerNumber != side);
+        } catch (SQLException e) {
+            logger.error("Error storing session {} lost on time", session.getSessionId(), e);
+        }
+    }
+
+    /**
+     * Removes a session with its participants and cancels its pending clock callback.
+     *
+     * @param session The session to remove.
+     */
+    private void removeSession(GameSession session) {
+        int sessionId = session.getSessionId();
+        SessionActor actor = sessions.get(sessionId);
+        if (actor != null && actor.getSession() == session) sessions.remove(sessionId, actor);
+        participants.remove(sessionId);
+        Timeout timeout = turnTimeouts.remove(sessionId);
+        if (timeout != null) timeout.cancel();
     }
 
     /**
@@ -266,14 +605,14 @@ public class SessionManager {
      * Updates the ELO ratings for both players in a session.
      *
      * @param gameSession The game session.
-     * @param playerWon   Indicates if the player won the session.
+     * @param firstWon    Indicates if the first player won the session.
      * @param eloService  The ELO service for calculating ELO changes.
      * @param userService The user service for updating user ratings.
      * @throws SQLException If a SQL error occurs during the ELO update.
      */
-    private void updateEloForPlayers(GameSession gameSession, boolean playerWon, EloService eloService, UserService userService) throws SQLException {
-        User winner = playerWon ? gameSession.getPlayer1() : gameSession.getPlayer2();
-        User loser = playerWon ? gameSession.getPlayer2() : gameSession.getPlayer1();
+    private void updateEloForPlayers(GameSession gameSession, boolean firstWon, EloService eloService, UserService userService) throws SQLException {
+        User winner = firstWon ? gameSession.getPlayer1() : gameSession.getPlayer2();
+        User loser = firstWon ? gameSession.getPlayer2() : gameSession.getPlayer1();
 
         int eloChangedWinner = eloService.calculateEloChange(winner, loser, true);
         int eloChangedLoser = eloService.calculateEloChange(loser, winner, false);
@@ -288,19 +627,16 @@ public class SessionManager {
     /**
      * Notifies players about their new ELO ratings.
      *
-     * @param clientHandler The handler managing the client connection.
-     * @param gameSession   The game session.
+     * @param gameSession The game session.
      */
-    private void notifyPlayersAboutNewElo(MainHandler clientHandler, GameSession gameSession) {
-        handlers.stream()
-                .filter(handler -> handler.getSession().getSessionId() == clientHandler.getSession().getSessionId())
-                .forEach(handler -> {
-                    if (handler.getUser().getId() == gameSession.getPlayer1().getId()) {
-                        handler.sendMessageToClient("new-elo::" + gameSession.getPlayer1().getRating());
-                    } else {
-                        handler.sendMessageToClient("new-elo::" + gameSession.getPlayer2().getRating());
-                    }
-                });
+    private void notifyPlayersAboutNewElo(GameSession gameSession) {
+        participantsOf(gameSession).forEach(handler -> {
+            if (handler.getUser().getId() == gameSession.getPlayer1().getId()) {
+                handler.sendMessageToClient("new-elo::" + gameSession.getPlayer1().getRating());
+            } else {
+                handler.sendMessageToClient("new-elo::" + gameSession.getPlayer2().getRating());
+            }
+        });
     }
 
     /**
@@ -317,7 +653,7 @@ public class SessionManager {
         User player = gameSession.getPlayer1();
         gameSession.getPlayer2().setId(0);
         gameSession.getPlayer2().setUsername("Bot12");
-        
+
         int eloChanged = eloService.calculateEloChange(player, gameSession.getPlayer2(), playerWon);
 
         if (playerWon) {
@@ -325,9 +661,9 @@ public class SessionManager {
         } else {
             player.setRating(Math.max(player.getRating() - eloChanged, 0));
         }
-        
+
         userService.updateRating(player.getId(), player.getRating());
         clientHandler.setUser(player);
         clientHandler.sendMessageToClient("new-elo::" + player.getRating());
     }
-}
\ No newline at end of file
+}
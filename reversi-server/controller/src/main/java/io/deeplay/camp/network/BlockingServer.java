@@ -0,0 +1,118 @@
+package io.deeplay.camp.network;
+
+import io.deeplay.camp.handlers.main.MainHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-per-connection front end of the reversi server.
+ * <p>
+ * Every client gets its own {@link MainHandler} running a blocking read loop. With platform threads this costs a full
+ * thread stack per client. With virtual threads the same code scales to tens of thousands of clients: a virtual
+ * thread blocked on a socket read, a lock or the database unmounts from its carrier, so a handful of carrier
+ * threads serve all connections.
+ * </p>
+ */
+public class BlockingServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(BlockingServer.class);
+
+    private final InetSocketAddress address;
+    private final int backlog;
+    private final boolean virtualThreads;
+    private final ExecutorService executor;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    /**
+     * Initializes a new BlockingServer; nothing is bound until {@link #start()}.
+     *
+     * @param address        The address to listen on; port 0 picks a free port.
+     * @param backlog        The length of the accept queue.
+     * @param virtualThreads True to run each connection on a virtual thread, false for a cached pool of platform
+     *                       threads.
+     */
+    public BlockingServer(InetSocketAddress address, int backlog, boolean virtualThreads) {
+        this.address = address;
+        this.backlog = backlog;
+        this.virtualThreads = virtualThreads;
+        this.executor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Binds the listening socket and starts accepting clients.
+     *
+     * @return The port the server listens on.
+     * @throws IOException If the address cannot be bound.
+     */
+    public int start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address, backlog);
+        acceptor = new Thread(this::acceptLoop, "blocking-acceptor");
+        acceptor.start();
+        logger.info("Server started on IP: {}, Port: {}, {} threads", address.getHostString(), serverSocket.getLocalPort(),
+                virtualThreads ? "virtual" : "platform");
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of connected clients.
+     *
+     * @return The number of open connections.
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Stops accepting clients and closes every connection.
+     *
+     * @throws IOException If the listening socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) serverSocket.close();
+        for (Socket socket : sockets) socket.close();
+        executor.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket clientSocket;
+            try {
+                clientSocket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) logger.error("Error accepting client", e);
+                continue;
+            }
+            logger.debug("New client connected: {}", clientSocket.getRemoteSocketAddress());
+            sockets.add(clientSocket);
+            connectionCount.incrementAndGet();
+            executor.execute(() -> serve(clientSocket));
+        }
+    }
+
+    private void serve(Socket clientSocket) {
+        try {
+            new MainHandler(clientSocket).run();
+        } catch (IOException e) {
+            logger.error("Error opening connection with client: {}", clientSocket.getRemoteSocketAddress(), e);
+        } finally {
+            sockets.remove(clientSocket);
+            connectionCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.deeplay.camp.network;
+
+/**
+ * A snapshot of the outbound side of one client connection.
+ * <p>
+ * The lag of a message is the time from queueing it to handing its last byte to the socket. A connection whose
+ * current lag keeps growing belongs to a client that reads slower than the server sends.
+ * </p>
+ */
+public class ConnectionStats {
+    private final String remoteAddress;
+    private final long queuedBytes;
+    private final int queuedMessages;
+    private final long sentMessages;
+    private final long droppedMessages;
+    private final long lagMillis;
+    private final long maxLagMillis;
+    private final boolean overflowing;
+
+    /**
+     * Initializes a new ConnectionStats.
+     *
+     * @param remoteAddress   The remote address of the client.
+     * @param queuedBytes     The bytes waiting to be written.
+     * @param queuedMessages  The messages waiting to be written.
+     * @param sentMessages    The messages written so far.
+     * @param droppedMessages The chat messages dropped because the client fell behind.
+     * @param lagMillis       The age of the oldest queued message, or 0 if the queue is empty.
+     * @param maxLagMillis    The largest lag of any message written so far.
+     * @param overflowing     True while the queue is above its high watermark.
+     */
+    public ConnectionStats(String remoteAddress, long queuedBytes, int queuedMessages, long sentMessages,
+                           long droppedMessages, long lagMillis, long maxLagMillis, boolean overflowing) {
+        this.remoteAddress = remoteAddress;
+        this.queuedBytes = queuedBytes;
+        this.queuedMessages = queuedMessages;
+        this.sentMessages = sentMessages;
+        this.droppedMessages = droppedMessages;
+        this.lagMillis = lagMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.overflowing = overflowing;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public int getQueuedMessages() {
+        return queuedMessages;
+    }
+
+    public long getSentMessages() {
+        return sentMessages;
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public boolean isOverflowing() {
+        return overflowing;
+    }
+
+    @Override
+    public String toString() {
+        return remoteAddress + ": " + queuedMessages + " queued (" + queuedBytes + " bytes), " + sentMessages
+                + " sent, " + droppedMessages + " dropped, lag " + lagMillis + " ms, max lag " + maxLagMillis + " ms"
+                + (overflowing ? ", overflowing" : "");
+    }
+}
@@ -0,0 +1,402 @@
+package io.deeplay.camp.network;
+
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.protocol.BinaryProtocol;
+import io.deeplay.camp.protocol.BoardUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A client connection served by a {@link SelectorLoop}.
+ * <p>
+ * Bytes are read on the loop thread and split into lines; an incomplete line is kept in a small per-connection buffer
+ * that only exists while a line is actually split across reads, so an idle connection costs a few hundred bytes of
+ * heap. Complete lines are queued and handed to the {@link MainHandler} on a worker thread, strictly one at a time
+ * and in order. When too many commands are pending the connection stops reading until the worker catches up.
+ * </p>
+ * <p>
+ * Outbound lines are written directly from the sending thread while the socket accepts them. What does not fit is
+ * kept in a per-connection {@link OutboundQueue} that the loop thread flushes once the socket becomes writable; a
+ * client that lets this queue grow loses its chat first and is finally disconnected.
+ * </p>
+ * <p>
+ * After the client negotiates the {@link BinaryProtocol binary protocol} the same buffers carry frames instead of
+ * lines: the reader switches as soon as it sees the negotiation line, the writer once the acknowledgement is queued.
+ * </p>
+ */
+class NioConnection implements Connection {
+    private static final Logger logger = LoggerFactory.getLogger(NioConnection.class);
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int MAX_PENDING_COMMANDS = 64;
+
+    private final NioServer server;
+    private final SelectorLoop loop;
+    private final SocketChannel channel;
+    private final String remoteAddress;
+    private final MainHandler handler;
+    private volatile SelectionKey key;
+
+    private byte[] partialLine;
+    private int partialLength;
+    private boolean readPaused;
+    private boolean binaryInput;
+
+    private final Queue<String> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCommands = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean handlerClosed = new AtomicBoolean();
+    private volatile boolean inputClosed;
+    private boolean opened;
+
+    private final OutboundQueue outbound = new OutboundQueue();
+    private boolean binaryOutput;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Initializes a new NioConnection and its handler.
+     *
+     * @param server  The server that accepted the connection.
+     * @param loop    The selector loop serving the connection.
+     * @param channel The non-blocking channel of the connection.
+     */
+    NioConnection(NioServer server, SelectorLoop loop, SocketChannel channel) {
+        this.server = server;
+        this.loop = loop;
+        this.channel = channel;
+        this.remoteAddress = describe(channel);
+        this.handler = new MainHandler(this);
+    }
+
+    /**
+     * Registers the channel with its loop and greets the client. Runs on the loop thread.
+     *
+     * @throws IOException If the channel cannot be registered.
+     */
+    void register() throws IOException {
+        key = channel.register(loop.getSelector(), SelectionKey.OP_READ, this);
+        scheduleDrain();
+    }
+
+    /**
+     * Reads available bytes and queues every complete line or frame. Runs on the loop thread.
+     *
+     * @param buffer The read buffer of the loop.
+     */
+    void onReadable(ByteBuffer buffer) {
+        int read;
+        buffer.clear();
+        try {
+            read = channel.read(buffer);
+        } catch (IOException e) {
+            logger.debug("Read failed for {}", remoteAddress, e);
+            read = -1;
+        }
+        if (read < 0) {
+            if (key.isValid()) key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            endOfInput();
+            return;
+        }
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            if (binaryInput) {
+                readFrames(buffer);
+                return;
+            }
+            int start = buffer.position();
+            int end = indexOf(buffer, start, (byte) '\n');
+            if (end < 0) {
+                appendPartial(buffer, start, buffer.limit());
+                buffer.position(buffer.limit());
+                break;
+            }
+            String line = decodeLine(buffer, start, end);
+            buffer.position(end + 1);
+            if (line == null) return;
+            if (line.equals(BinaryProtocol.NEGOTIATE)) {
+                switchToBinary();
+            } else {
+                queueCommand(line);
+            }
+        }
+    }
+
+    /**
+     * Flushes queued outbound bytes, everything queued in one gathering write. Runs on the loop thread.
+     */
+    void onWritable() {
+        synchronized (outbound) {
+            try {
+                while (!outbound.isEmpty()) {
+                    long written = channel.write(outbound.buffers());
+                    outbound.consumed(written);
+                    if (written == 0) return;
+                }
+                if (key.isValid()) key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            } catch (IOException e) {
+                logger.debug("Write failed for {}", remoteAddress, e);
+                closeConnection();
+            }
+        }
+    }
+
+    @Override
+    public void sendMessageToClient(String msg) {
+        if (closed.get()) return;
+        synchronized (outbound) {
+            send(binaryOutput ? BinaryProtocol.encodeText(msg) : encodeLine(msg), false);
+        }
+    }
+
+    @Override
+    public void sendChatToClient(String msg) {
+        if (closed.get()) return;
+        synchronized (outbound) {
+            send(binaryOutput ? BinaryProtocol.encodeText(msg) : encodeLine(msg), true);
+        }
+    }
+
+    @Override
+    public void sendBoardToClient(BoardUpdate board) {
+        if (closed.get()) return;
+        synchronized (outbound) {
+            send(binaryOutput ? BinaryProtocol.encodeUpdate(board) : encodeLine(board.toText()), false);
+        }
+    }
+
+    @Override
+    public void closeConnection() {
+        if (!closed.compareAndSet(false, true)) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing connection with client: {}", remoteAddress, e);
+        }
+        synchronized (outbound) {
+            outbound.clear();
+        }
+        server.connectionClosed();
+        logger.info("Connection closed with client: {}", remoteAddress);
+        endOfInput();
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public ConnectionStats getStats() {
+        synchronized (outbound) {
+            return outbound.stats(remoteAddress);
+        }
+    }
+
+    /**
+     * Writes or queues encoded bytes. The caller holds the lock on {@link #outbound}.
+     */
+    private void send(ByteBuffer buffer, boolean droppable) {
+        boolean flushing = !outbound.isEmpty();
+        if (!outbound.offer(buffer, droppable)) {
+            logger.warn("Client {} is not keeping up ({}). Disconnecting.", remoteAddress, outbound.stats(remoteAddress));
+            closeConnection();
+            return;
+        }
+        if (flushing || outbound.isEmpty()) return;
+        try {
+            outbound.consumed(channel.write(outbound.buffers()));
+            if (!outbound.isEmpty()) loop.execute(this::enableWrite);
+        } catch (IOException e) {
+            logger.debug("Write failed for {}", remoteAddress, e);
+            closeConnection();
+        }
+    }
+
+    private static ByteBuffer encodeLine(String msg) {
+        byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte) '\n').flip();
+    }
+
+    private void switchToBinary() {
+        binaryInput = true;
+        synchronized (outbound) {
+            sendMessageToClient(BinaryProtocol.ACCEPTED);
+            binaryOutput = true;
+        }
+        logger.info("Client {} switched to the binary protocol", remoteAddress);
+    }
+
+    private void readFrames(ByteBuffer buffer) {
+        ByteBuffer input = buffer;
+        if (partialLine != null) {
+            appendPartial(buffer, buffer.position(), buffer.limit());
+            buffer.position(buffer.limit());
+            if (partialLine == null) return;
+            input = ByteBuffer.wrap(partialLine, 0, partialLength);
+        }
+        try {
+            ByteBuffer frame;
+            while ((frame = BinaryProtocol.nextFrame(input)) != null) {
+                queueCommand(BinaryProtocol.decodeCommand(frame));
+            }
+        } catch (ProtocolException e) {
+            logger.warn("Client {} sent an invalid frame: {}. Disconnecting.", remoteAddress, e.getMessage());
+            partialLine = null;
+            partialLength = 0;
+            closeConnection();
+            return;
+        }
+        if (input == buffer) {
+            if (buffer.hasRemaining()) appendPartial(buffer, buffer.position(), buffer.limit());
+            buffer.position(buffer.limit());
+        } else if (input.hasRemaining()) {
+            partialLength = input.remaining();
+            System.arraycopy(partialLine, input.position(), partialLine, 0, partialLength);
+        } else {
+            partialLine = null;
+            partialLength = 0;
+        }
+    }
+
+    private void enableWrite() {
+        if (key.isValid()) key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+    }
+
+    private void endOfInput() {
+        inputClosed = true;
+        if (key != null && key.isValid()) {
+            loop.execute(() -> {
+                if (key.isValid()) key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            });
+        }
+        scheduleDrain();
+    }
+
+    private void queueCommand(String line) {
+        handler.markActivity();
+        inbox.add(line);
+        if (pendingCommands.incrementAndGet() >= MAX_PENDING_COMMANDS && !readPaused) {
+            readPaused = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        scheduleDrain();
+    }
+
+    private void resumeReading() {
+        if (readPaused && !inputClosed && key.isValid()) {
+            readPaused = false;
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) return;
+        try {
+            server.getWorkers().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            logger.error("No worker available for client {}. Disconnecting.", remoteAddress);
+            closeConnection();
+        }
+    }
+
+    /**
+     * Hands queued commands to the handler on a worker thread. Only one drain runs per connection at a time.
+     */
+    private void drain() {
+        do {
+            try {
+                if (!opened) {
+                    opened = true;
+                    handler.open();
+                }
+                String line;
+                while ((line = inbox.poll()) != null) {
+                    int pending = pendingCommands.decrementAndGet();
+                    if (!closed.get()) handler.handleMessage(line);
+                    if (pending == MAX_PENDING_COMMANDS / 2) loop.execute(this::resumeReading);
+                }
+                if (inputClosed && handlerClosed.compareAndSet(false, true)) handler.closeConnection();
+            } finally {
+                draining.set(false);
+            }
+        } while (hasWork() && draining.compareAndSet(false, true));
+    }
+
+    private boolean hasWork() {
+        return !inbox.isEmpty() || (inputClosed && !handlerClosed.get());
+    }
+
+    private String decodeLine(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (partialLength + length > MAX_LINE_LENGTH) {
+            rejectLongLine();
+            return null;
+        }
+        byte[] bytes;
+        if (partialLine == null) {
+            bytes = new byte[length];
+            buffer.get(start, bytes);
+        } else {
+            bytes = Arrays.copyOf(partialLine, partialLength + length);
+            buffer.get(start, bytes, partialLength, length);
+            partialLine = null;
+            partialLength = 0;
+        }
+        int lineLength = bytes.length;
+        if (lineLength > 0 && bytes[lineLength - 1] == '\r') lineLength--;
+        return new String(bytes, 0, lineLength, StandardCharsets.UTF_8);
+    }
+
+    private void appendPartial(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        // Frames are capped by nextFrame instead, which keeps at most one incomplete frame between reads.
+        if (!binaryInput && partialLength + length > MAX_LINE_LENGTH) {
+            rejectLongLine();
+            return;
+        }
+        if (partialLine == null) {
+            partialLine = new byte[Math.max(length, 128)];
+        } else if (partialLine.length < partialLength + length) {
+            partialLine = Arrays.copyOf(partialLine, Math.max(partialLine.length * 2, partialLength + length));
+        }
+        buffer.get(start, partialLine, partialLength, length);
+        partialLength += length;
+    }
+
+    private void rejectLongLine() {
+        logger.warn("Client {} sent a line longer than {} bytes. Disconnecting.", remoteAddress, MAX_LINE_LENGTH);
+        partialLine = null;
+        partialLength = 0;
+        closeConnection();
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, byte value) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    private static String describe(SocketChannel channel) {
+        try {
+            return String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+}
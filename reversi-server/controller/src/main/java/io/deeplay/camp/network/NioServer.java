@@ -0,0 +1,150 @@
+package io.deeplay.camp.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking network front end of the reversi server.
+ * <p>
+ * A few selector threads own all client sockets: they accept connections, read commands into a shared buffer per
+ * thread and flush outbound data that could not be written right away. Complete command lines are executed by a
+ * bounded pool of worker threads, one command of a connection at a time, so the thread count is fixed no matter how
+ * many clients are connected. The protocol is the same line-based text protocol the blocking server speaks.
+ * </p>
+ */
+public class NioServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(NioServer.class);
+
+    private final InetSocketAddress address;
+    private final int backlog;
+    private final int maxConnections;
+    private final List<SelectorLoop> loops = new ArrayList<>();
+    private final ExecutorService workers;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * Initializes a new NioServer; nothing is bound until {@link #start()}.
+     *
+     * @param address         The address to listen on; port 0 picks a free port.
+     * @param backlog         The length of the accept queue.
+     * @param selectorThreads The number of selector threads.
+     * @param workerThreads   The number of threads executing commands.
+     * @param maxConnections  The number of clients served at once; further clients are disconnected on accept.
+     * @throws IOException If a selector cannot be opened.
+     */
+    public NioServer(InetSocketAddress address, int backlog, int selectorThreads, int workerThreads, int maxConnections)
+            throws IOException {
+        this.address = address;
+        this.backlog = backlog;
+        this.maxConnections = maxConnections;
+        for (int i = 0; i < selectorThreads; i++) {
+            loops.add(new SelectorLoop(this, "nio-selector-" + i));
+        }
+        AtomicInteger workerIndex = new AtomicInteger();
+        // A connection queues at most one task at a time, so the queue never holds more tasks than connections.
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxConnections), runnable -> new Thread(runnable, "nio-worker-" + workerIndex.getAndIncrement()));
+    }
+
+    /**
+     * Binds the listening socket and starts the selector threads.
+     *
+     * @return The port the server listens on.
+     * @throws IOException If the address cannot be bound.
+     */
+    public int start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, backlog);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(loops.get(0).getSelector(), SelectionKey.OP_ACCEPT);
+        loops.forEach(SelectorLoop::start);
+
+        int port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        logger.info("NIO server started on {}:{} with {} selector and {} worker threads", address.getHostString(), port,
+                loops.size(), ((ThreadPoolExecutor) workers).getMaximumPoolSize());
+        return port;
+    }
+
+    /**
+     * Gets the number of connected clients.
+     *
+     * @return The number of open connections.
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Stops accepting clients, closes every connection and stops all threads.
+     *
+     * @throws IOException If the listening socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (serverChannel != null) serverChannel.close();
+        try {
+            for (SelectorLoop loop : loops) loop.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+    }
+
+    ExecutorService getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Accepts all pending clients and spreads them over the selector loops. Runs on the first loop thread.
+     */
+    void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                if (connectionCount.incrementAndGet() > maxConnections) {
+                    connectionCount.decrementAndGet();
+                    logger.warn("Connection limit of {} reached, rejecting {}", maxConnections, channel.getRemoteAddress());
+                    channel.close();
+                    continue;
+                }
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectorLoop loop = loops.get(Math.floorMod(nextLoop.getAndIncrement(), loops.size()));
+                NioConnection connection = new NioConnection(this, loop, channel);
+                loop.execute(() -> {
+                    try {
+                        connection.register();
+                    } catch (IOException e) {
+                        logger.error("Error registering client {}", connection.getRemoteAddress(), e);
+                        connection.closeConnection();
+                    }
+                });
+                logger.debug("New client connected: {}", connection.getRemoteAddress());
+            }
+        } catch (IOException e) {
+            logger.error("Error accepting client", e);
+        }
+    }
+
+    void connectionClosed() {
+        connectionCount.decrementAndGet();
+    }
+}
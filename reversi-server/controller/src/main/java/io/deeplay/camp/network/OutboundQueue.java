@@ -0,0 +1,225 @@
+package io.deeplay.camp.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The outbound message queue of one client connection and its slow-consumer policy.
+ * <p>
+ * Messages are either game state, which is never dropped, or chat, which may be. While the queue stays below its
+ * high watermark everything is kept. Once a message would push it above the high watermark, the oldest chat messages
+ * not yet being written are dropped until the queue is back at its low watermark; chat that still does not fit is
+ * dropped as well. A queue that stays above the high watermark for longer than the overflow limit, or grows past its
+ * hard limit with game state alone, means the client cannot keep up and should be disconnected.
+ * </p>
+ * <p>
+ * The queue is not thread-safe; each connection guards it with its own lock.
+ * </p>
+ */
+public class OutboundQueue {
+    /**
+     * The default queue size above which chat is dropped.
+     */
+    public static final int HIGH_WATERMARK = 256 * 1024;
+
+    /**
+     * The default queue size chat is dropped down to, and below which an overflow ends.
+     */
+    public static final int LOW_WATERMARK = 64 * 1024;
+
+    /**
+     * The default queue size at which the client is disconnected at once.
+     */
+    public static final int MAX_BYTES = 1024 * 1024;
+
+    /**
+     * The default time a queue may stay above its high watermark.
+     */
+    public static final long MAX_OVERFLOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final int maxBytes;
+    private final long maxOverflowNanos;
+    private final LongSupplier clock;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private long queuedBytes;
+    private long overflowSince;
+    private boolean overflowing;
+    private long sentMessages;
+    private long droppedMessages;
+    private long maxLagNanos;
+
+    /**
+     * Initializes a new OutboundQueue with the default limits.
+     */
+    public OutboundQueue() {
+        this(HIGH_WATERMARK, LOW_WATERMARK, MAX_BYTES, MAX_OVERFLOW_NANOS, System::nanoTime);
+    }
+
+    /**
+     * Initializes a new OutboundQueue.
+     *
+     * @param highWatermark    The queue size above which chat is dropped.
+     * @param lowWatermark     The queue size chat is dropped down to.
+     * @param maxBytes         The queue size at which the client is disconnected.
+     * @param maxOverflowNanos The time the queue may stay above its high watermark.
+     * @param clock            The source of the current time in nanoseconds.
+     */
+    public OutboundQueue(int highWatermark, int lowWatermark, int maxBytes, long maxOverflowNanos, LongSupplier clock) {
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.maxBytes = maxBytes;
+        this.maxOverflowNanos = maxOverflowNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues an encoded message.
+     *
+     * @param buffer    The message, ready to be written.
+     * @param droppable True for chat, which may be dropped when the client falls behind.
+     * @return False if the client has fallen too far behind and should be disconnected.
+     */
+    public boolean offer(ByteBuffer buffer, boolean droppable) {
+        long now = clock.getAsLong();
+        int size = buffer.remaining();
+        if (queuedBytes + size > highWatermark) {
+            dropChat();
+            if (droppable && queuedBytes + size > highWatermark) {
+                droppedMessages++;
+                return checkOverflow(now);
+            }
+        }
+        entries.add(new Entry(buffer, droppable, now));
+        queuedBytes += size;
+        return checkOverflow(now);
+    }
+
+    /**
+     * Checks whether any bytes are waiting to be written.
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Gets the queued messages for a gathering write; the buffers are consumed in place.
+     *
+     * @return The buffers of all queued messages, oldest first.
+     */
+    public ByteBuffer[] buffers() {
+        ByteBuffer[] buffers = new ByteBuffer[entries.size()];
+        int i = 0;
+        for (Entry entry : entries) {
+            buffers[i++] = entry.buffer;
+        }
+        return buffers;
+    }
+
+    /**
+     * Copies queued bytes into an array, consuming them.
+     *
+     * @param batch The array to fill from its start.
+     * @return The number of bytes copied.
+     */
+    public int drainTo(byte[] batch) {
+        int length = 0;
+        for (Entry entry : entries) {
+            if (length == batch.length) break;
+            int count = Math.min(entry.buffer.remaining(), batch.length - length);
+            entry.buffer.get(batch, length, count);
+            length += count;
+        }
+        consumed(length);
+        return length;
+    }
+
+    /**
+     * Records that bytes from the head of the queue have been written and removes the finished messages.
+     *
+     * @param bytes The number of bytes written.
+     */
+    public void consumed(long bytes) {
+        queuedBytes -= bytes;
+        long now = clock.getAsLong();
+        while (!entries.isEmpty() && !entries.peek().buffer.hasRemaining()) {
+            Entry entry = entries.poll();
+            sentMessages++;
+            maxLagNanos = Math.max(maxLagNanos, now - entry.enqueuedNanos);
+        }
+        if (queuedBytes <= lowWatermark) overflowing = false;
+    }
+
+    /**
+     * Removes every queued message.
+     */
+    public void clear() {
+        entries.clear();
+        queuedBytes = 0;
+        overflowing = false;
+    }
+
+    /**
+     * Gets the number of queued bytes.
+     *
+     * @return The bytes waiting to be written.
+     */
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * Takes a snapshot of the queue for monitoring.
+     *
+     * @param remoteAddress The remote address of the client.
+     * @return The statistics of the queue.
+     */
+    public ConnectionStats stats(String remoteAddress) {
+        long lag = entries.isEmpty() ? 0 : clock.getAsLong() - entries.peek().enqueuedNanos;
+        return new ConnectionStats(remoteAddress, queuedBytes, entries.size(), sentMessages, droppedMessages,
+                TimeUnit.NANOSECONDS.toMillis(lag), TimeUnit.NANOSECONDS.toMillis(maxLagNanos), overflowing);
+    }
+
+    private void dropChat() {
+        Iterator<Entry> iterator = entries.iterator();
+        while (queuedBytes > lowWatermark && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.droppable && entry.buffer.position() == 0) {
+                iterator.remove();
+                queuedBytes -= entry.buffer.remaining();
+                droppedMessages++;
+            }
+        }
+    }
+
+    private boolean checkOverflow(long now) {
+        if (queuedBytes > maxBytes) return false;
+        if (queuedBytes <= highWatermark) {
+            if (queuedBytes <= lowWatermark) overflowing = false;
+            return !overflowing || now - overflowSince <= maxOverflowNanos;
+        }
+        if (!overflowing) {
+            overflowing = true;
+            overflowSince = now;
+        }
+        return now - overflowSince <= maxOverflowNanos;
+    }
+
+    private static class Entry {
+        private final ByteBuffer buffer;
+        private final boolean droppable;
+        private final long enqueuedNanos;
+
+        private Entry(ByteBuffer buffer, boolean droppable, long enqueuedNanos) {
+            this.buffer = buffer;
+            this.droppable = droppable;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
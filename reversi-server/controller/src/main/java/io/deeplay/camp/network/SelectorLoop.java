@@ -0,0 +1,137 @@
+package io.deeplay.camp.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * One selector thread of the {@link NioServer}.
+ * <p>
+ * The loop waits for readiness of its connections and performs all reads and deferred writes on its own thread.
+ * Interest changes requested by other threads are queued with {@link #execute(Runnable)} and applied between two
+ * selects, so the selection keys are only ever touched by this thread. A single direct read buffer is shared by all
+ * connections of the loop, because every read is consumed before the next one starts.
+ * </p>
+ */
+class SelectorLoop implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(SelectorLoop.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final NioServer server;
+    private final Selector selector;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Initializes a new SelectorLoop; the thread is started with {@link #start()}.
+     *
+     * @param server The server the loop belongs to.
+     * @param name   The name of the loop thread.
+     * @throws IOException If the selector cannot be opened.
+     */
+    SelectorLoop(NioServer server, String name) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    Selector getSelector() {
+        return selector;
+    }
+
+    /**
+     * Runs a task on the loop thread before its next select.
+     *
+     * @param task The task to run.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop, closes every channel registered with it and waits for the thread to end.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        server.accept();
+                        continue;
+                    }
+                    NioConnection connection = (NioConnection) key.attachment();
+                    try {
+                        if (key.isReadable()) connection.onReadable(readBuffer);
+                        if (key.isValid() && key.isWritable()) connection.onWritable();
+                    } catch (CancelledKeyException e) {
+                        logger.debug("Connection {} closed while in use", connection.getRemoteAddress());
+                    } catch (RuntimeException e) {
+                        logger.error("Error serving client {}. Disconnecting.", connection.getRemoteAddress(), e);
+                        connection.closeConnection();
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Error in selector loop {}", thread.getName(), e);
+            }
+        }
+        closeAll();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Error in selector task", e);
+            }
+        }
+    }
+
+    private void closeAll() {
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection) connection.closeConnection();
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                logger.warn("Error closing channel", e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("Error closing selector", e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.deeplay.camp.timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer for very many timeouts that rarely need to be precise, such as idle connections.
+ * <p>
+ * Timeouts are kept on a wheel of buckets that one thread advances every tick. A timeout lands in the bucket of its
+ * deadline tick, with the number of full revolutions still to wait; scheduling and cancelling are constant time and
+ * need no lock, however many timeouts are pending. A timeout fires up to one tick late, never early.
+ * </p>
+ * <p>
+ * The wheel thread only finds expired timeouts; their tasks run on an executor, by default a new virtual thread each,
+ * so a task may block without delaying the wheel. Cancelled timeouts are dropped the next time their bucket is
+ * visited.
+ * </p>
+ */
+public class HashedWheelTimer {
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Thread worker;
+    private volatile long startNanos;
+    private volatile boolean stopped;
+    private long tick;
+
+    /**
+     * Initializes a new HashedWheelTimer whose tasks run on virtual threads.
+     *
+     * @param tickDuration The length of a tick, the resolution of the timer.
+     * @param unit         The unit of the tick duration.
+     * @param wheelSize    The number of buckets; rounded up to a power of two.
+     * @param name         The name of the wheel thread.
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, String name) {
+        this(tickDuration, unit, wheelSize, name,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-task-", 0).factory()));
+    }
+
+    /**
+     * Initializes a new HashedWheelTimer.
+     *
+     * @param tickDuration The length of a tick, the resolution of the timer.
+     * @param unit         The unit of the tick duration.
+     * @param wheelSize    The number of buckets; rounded up to a power of two.
+     * @param name         The name of the wheel thread.
+     * @param executor     The executor that runs the tasks of expired timeouts.
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, String name, Executor executor) {
+        if (tickDuration <= 0) throw new IllegalArgumentException("Tick duration must be positive");
+        if (wheelSize <= 0 || wheelSize > 1 << 20) throw new IllegalArgumentException("Bad wheel size " + wheelSize);
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (size == 0) size = 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.worker = Thread.ofPlatform().name(name).daemon().unstarted(this::run);
+    }
+
+    /**
+     * Schedules a task.
+     * <p>
+     * The wheel thread is started with the first timeout.
+     * </p>
+     *
+     * @param task  The task to run once the delay has passed.
+     * @param delay The delay.
+     * @param unit  The unit of the delay.
+     * @return The timeout, which can be cancelled.
+     * @throws IllegalStateException If the timer has been stopped.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) throw new IllegalStateException("Timer stopped");
+        if (started.compareAndSet(false, true)) {
+            startNanos = System.nanoTime();
+            worker.start();
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(unit.toNanos(delay), 0);
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Gets the number of timeouts that have neither fired nor been cancelled.
+     *
+     * @return The pending timeouts.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of timeouts that have fired.
+     *
+     * @return The expired timeouts.
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * Stops the wheel thread. Pending timeouts never fire.
+     */
+    public void stop() {
+        stopped = true;
+        if (started.get()) {
+            worker.interrupt();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void cancelled() {
+        pending.decrementAndGet();
+    }
+
+    private void run() {
+        while (!stopped) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            transferAdded();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * Moves newly scheduled timeouts into the bucket of their deadline tick.
+     */
+    private void transferAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.isCancelled()) continue;
+            long deadlineTick = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+            wheel[(int) (deadlineTick & mask)].add(timeout);
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (!timeout.expire()) return;
+        pending.decrementAndGet();
+        expired.incrementAndGet();
+        try {
+            executor.execute(timeout.task);
+        } catch (RuntimeException e) {
+            logger.error("Could not run timer task", e);
+        }
+    }
+
+    /**
+     * The timeouts of one slot of the wheel, a singly linked list only the wheel thread touches.
+     */
+    private final class Bucket {
+        private Timeout head;
+
+        private void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        private void expire(long deadline) {
+            Timeout previous = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                boolean remove = timeout.isCancelled();
+                if (!remove && timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    fire(timeout);
+                    remove = true;
+                } else if (!remove) {
+                    timeout.remainingRounds--;
+                }
+                if (remove) {
+                    if (previous == null) head = next;
+                    else previous.next = next;
+                    timeout.next = null;
+                } else {
+                    previous = timeout;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.deeplay.camp.timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task scheduled on a {@link HashedWheelTimer}.
+ */
+public final class Timeout {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final HashedWheelTimer timer;
+    final Runnable task;
+    final long deadline;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    long remainingRounds;
+    Timeout next;
+
+    Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+        this.timer = timer;
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the timeout; its task will not run.
+     *
+     * @return False if the timeout had already fired or been cancelled.
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+        timer.cancelled();
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state.get() == EXPIRED;
+    }
+
+    boolean expire() {
+        return state.compareAndSet(PENDING, EXPIRED);
+    }
+}
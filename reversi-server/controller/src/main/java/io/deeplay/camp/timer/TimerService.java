@@ -0,0 +1,85 @@
+package io.deeplay.camp.timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one timer of the server.
+ * <p>
+ * Everything that waits for a point in time registers a callback here instead of sleeping a thread: connection
+ * heartbeats, players waiting for an opponent, and the clocks of timed games. All of it shares a single
+ * {@link HashedWheelTimer}, so scheduling and cancelling are constant time and hundreds of thousands of pending
+ * timeouts cost one thread and a small object each. Callbacks run on virtual threads and may block.
+ * </p>
+ */
+public class TimerService {
+    private static final Logger logger = LoggerFactory.getLogger(TimerService.class);
+
+    /**
+     * The resolution of the timer; a callback runs at most this late.
+     */
+    public static final long TICK_MILLIS = 10;
+
+    /**
+     * The number of wheel buckets, enough for timeouts of about 40 seconds to need no extra revolution.
+     */
+    public static final int WHEEL_SIZE = 4096;
+
+    private static final TimerService instance = new TimerService();
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE,
+            "timer-service");
+
+    private TimerService() {
+    }
+
+    /**
+     * Retrieves the singleton instance of the TimerService.
+     *
+     * @return The singleton instance of the TimerService.
+     */
+    public static TimerService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Schedules a callback.
+     * <p>
+     * An exception thrown by the callback is logged and does not affect other callbacks.
+     * </p>
+     *
+     * @param task  The callback to run once the delay has passed.
+     * @param delay The delay.
+     * @param unit  The unit of the delay.
+     * @return The timeout, which can be cancelled.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.newTimeout(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Timer callback failed", e);
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * Gets the number of callbacks waiting to run.
+     *
+     * @return The pending timeouts.
+     */
+    public int getPendingCount() {
+        return timer.getPendingCount();
+    }
+
+    /**
+     * Gets the number of callbacks run since the server started.
+     *
+     * @return The expired timeouts.
+     */
+    public long getExpiredCount() {
+        return timer.getExpiredCount();
+    }
+}
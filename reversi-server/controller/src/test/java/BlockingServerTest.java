@@ -0,0 +1,39 @@
+import io.deeplay.camp.network.BlockingServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingServerTest {
+
+    @Test
+    public void testServesClientsOnVirtualThreads() throws Exception {
+        try (BlockingServer server = new BlockingServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1000, true)) {
+            int port = server.start();
+            List<Socket> clients = new ArrayList<>();
+            try {
+                for (int i = 0; i < 500; i++) {
+                    clients.add(new Socket(InetAddress.getLoopbackAddress(), port));
+                }
+                for (Socket socket : clients) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    assertEquals("Waiting for session.", in.readLine());
+                    new PrintWriter(socket.getOutputStream(), true).println("unknown");
+                    assertEquals("Empty request or bad request", in.readLine());
+                }
+                assertEquals(500, server.getConnectionCount());
+            } finally {
+                for (Socket socket : clients) socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import io.deeplay.camp.handlers.main.Command;
+import io.deeplay.camp.handlers.main.CommandType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTest {
+
+    @Test
+    public void testEveryVerbIsFound() {
+        for (CommandType type : CommandType.values()) {
+            assertEquals(type, Command.parse(type.getVerb()).getType());
+            assertEquals(type, Command.parse(type.getVerb() + " x y").getType());
+            assertNull(Command.parse(type.getVerb() + "x").getType());
+            assertNull(Command.parse(type.getVerb().substring(1)).getType());
+        }
+        assertNull(Command.parse("").getType());
+        assertNull(Command.parse(" login").getType());
+        assertNull(Command.parse("pang").getType());
+    }
+
+    @Test
+    public void testArgumentsMatchSplitting() {
+        String[] lines = {"login", "login user pass", "update-user-profile name  photo", "login user pass  ",
+                "register a b c d", "game-start --bot", "login "};
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            Command command = Command.parse(line);
+            assertEquals(parts.length - 1, command.getArgumentCount(), line);
+            for (int i = 1; i < parts.length; i++) {
+                assertEquals(parts[i], command.getArgument(i - 1), line);
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> Command.parse("login user").getArgument(1));
+    }
+
+    @Test
+    public void testTextKeepsSpaces() {
+        assertEquals("hello  world ", Command.parse("send-global-message hello  world ").getText());
+        assertEquals("", Command.parse("send-global-message ").getText());
+        assertNull(Command.parse("send-global-message").getText());
+    }
+
+    @Test
+    public void testMovesAreDecoded() {
+        assertEquals(0, Command.parse("game-move a8").getMove());
+        assertEquals(3 + 8 * 5, Command.parse("game-move d3").getMove());
+        assertEquals(Command.PASS, Command.parse("game-move null").getMove());
+        assertEquals(Command.NO_MOVE, Command.parse("game-move z9").getMove());
+        assertEquals(Command.NO_MOVE, Command.parse("game-move").getMove());
+        assertEquals(Command.NO_MOVE, Command.parse("get-board d3").getMove());
+    }
+
+    @Test
+    public void testRequestIdIsSplitOff() {
+        Command command = Command.parse("#17 game-move d3");
+        assertEquals("17", command.getRequestId());
+        assertEquals(CommandType.GAME_MOVE, command.getType());
+        assertEquals("game-move d3", command.getLine());
+        assertEquals(3 + 8 * 5, command.getMove());
+        assertEquals("#17 game-move d3", command.toString());
+
+        assertNull(Command.parse("game-move d3").getRequestId());
+        assertNull(Command.parse("#17").getType());
+        assertNull(Command.parse("# get-board").getType());
+        assertNull(Command.parse("#" + "1".repeat(Command.MAX_REQUEST_ID_LENGTH + 1) + " get-board").getType());
+        assertTrue(CommandType.GET_BOARD.isReadOnly());
+        assertFalse(CommandType.GAME_MOVE.isReadOnly());
+    }
+}
@@ -0,0 +1,77 @@
+import io.deeplay.camp.handlers.main.ConnectionManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionManagerTest {
+
+    @Test
+    public void testMessagesArriveInOrderBeforeGracefulClose() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort())) {
+            ConnectionManager connection = new ConnectionManager(serverSocket.accept());
+            for (int i = 0; i < 1000; i++) {
+                connection.sendMessageToClient("message " + i);
+            }
+            connection.closeGracefully();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("message " + i, in.readLine());
+            }
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    public void testClientThatStopsReadingDoesNotBlockTheSender() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort())) {
+            ConnectionManager connection = new ConnectionManager(serverSocket.accept());
+            String message = "x".repeat(1000);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 10_000; i++) {
+                connection.sendMessageToClient(message);
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!connection.getSocket().isClosed() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(connection.getSocket().isClosed());
+        }
+    }
+
+    @Test
+    public void testCloseDisconnectsClientThatNeverReads() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             Socket client = new Socket()) {
+            client.setReceiveBufferSize(4096);
+            client.connect(serverSocket.getLocalSocketAddress());
+            Socket socket = serverSocket.accept();
+            socket.setSendBufferSize(4096);
+            ConnectionManager connection = new ConnectionManager(socket);
+            String message = "x".repeat(1000);
+            for (int i = 0; i < 200; i++) {
+                connection.sendMessageToClient(message);
+            }
+            // Let the writer fill the socket buffers and block.
+            Thread.sleep(200);
+            assertTrue(connection.getStats().getQueuedBytes() > 0);
+
+            connection.closeConnection();
+            assertTrue(connection.getSocket().isClosed());
+            assertEquals(0, connection.getStats().getQueuedBytes());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.ConnectionReaper;
+import io.deeplay.camp.network.ConnectionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionReaperTest {
+
+    @Test
+    public void testKeepsClientWhoseCommandIsStillRunning() throws Exception {
+        ConnectionReaper reaper = ConnectionReaper.getInstance();
+        reaper.configure(50, 150, TimeUnit.MILLISECONDS);
+        CountDownLatch replying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MainHandler handler = new MainHandler(new Connection() {
+            @Override
+            public void sendMessageToClient(String msg) {
+                if (!ConnectionReaper.PONG.equals(msg)) return;
+                replying.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public ConnectionStats getStats() {
+                return new ConnectionStats(getRemoteAddress(), 0, 0, 0, 0, 0, 0, false);
+            }
+
+            @Override
+            public void closeConnection() {
+            }
+
+            @Override
+            public String getRemoteAddress() {
+                return "test";
+            }
+        });
+        try {
+            handler.open();
+            Thread command = Thread.ofVirtual().start(() -> handler.handleMessage(ConnectionReaper.PING));
+            assertTrue(replying.await(5, TimeUnit.SECONDS));
+            Thread.sleep(500);
+            assertFalse(handler.isClosed());
+
+            release.countDown();
+            command.join();
+            assertFalse(handler.isClosed());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!handler.isClosed() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(handler.isClosed());
+        } finally {
+            release.countDown();
+            handler.closeConnection();
+            reaper.configure(ConnectionReaper.PING_INTERVAL_SECONDS, ConnectionReaper.IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+}
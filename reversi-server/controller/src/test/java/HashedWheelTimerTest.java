@@ -0,0 +1,86 @@
+import io.deeplay.camp.timer.HashedWheelTimer;
+import io.deeplay.camp.timer.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testTimeoutsFireInDeadlineOrderAcrossRevolutions() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 4, "test-wheel", Runnable::run);
+        try {
+            List<Integer> fired = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(3);
+            long start = System.nanoTime();
+            for (int delay : new int[]{150, 20, 70}) {
+                timer.newTimeout(() -> {
+                    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(delay));
+                    fired.add(delay);
+                    done.countDown();
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(20, 70, 150), fired);
+            assertEquals(0, timer.getPendingCount());
+            assertEquals(3, timer.getExpiredCount());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testCancelledTimeoutsNeverFire() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8, "test-wheel", Runnable::run);
+        try {
+            CountDownLatch cancelledRan = new CountDownLatch(1);
+            CountDownLatch laterRan = new CountDownLatch(1);
+            Timeout cancelled = timer.newTimeout(cancelledRan::countDown, 30, TimeUnit.MILLISECONDS);
+            timer.newTimeout(laterRan::countDown, 60, TimeUnit.MILLISECONDS);
+            assertEquals(2, timer.getPendingCount());
+
+            assertTrue(cancelled.cancel());
+            assertFalse(cancelled.cancel());
+            assertEquals(1, timer.getPendingCount());
+
+            assertTrue(laterRan.await(5, TimeUnit.SECONDS));
+            assertEquals(1, cancelledRan.getCount());
+            assertTrue(cancelled.isCancelled());
+            assertFalse(cancelled.isExpired());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testHoldsManyPendingTimeoutsOnOneThread() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512, "test-wheel", Runnable::run);
+        try {
+            int count = 200_000;
+            AtomicInteger fired = new AtomicInteger();
+            Timeout[] timeouts = new Timeout[count];
+            for (int i = 0; i < count; i++) {
+                timeouts[i] = timer.newTimeout(fired::incrementAndGet, 1000 + i % 1000, TimeUnit.MILLISECONDS);
+            }
+            for (int i = 0; i < count; i += 2) {
+                timeouts[i].cancel();
+            }
+            assertEquals(count / 2, timer.getPendingCount());
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (timer.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(count / 2, fired.get());
+            assertEquals(count / 2, timer.getExpiredCount());
+        } finally {
+            timer.stop();
+        }
+    }
+}
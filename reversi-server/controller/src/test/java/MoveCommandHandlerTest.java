@@ -0,0 +1,76 @@
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.SessionActor;
+import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.network.ConnectionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveCommandHandlerTest {
+
+    @Test
+    public void testMoveIsSentAsDeltaOfPlacedAndFlippedChips() throws Exception {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        MainHandler handler = new MainHandler(new RecordingConnection(messages));
+        handler.setUser(new User(5_000_000, "player", "", 1000, 0, ""));
+        handler.setLogin(true);
+        handler.handleMessage("game-start --bot");
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (handler.getSession() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        GameSession session = handler.getSession();
+        assertNotNull(session);
+
+        SessionActor actor = SessionManager.getInstance().getActor(session.getSessionId());
+        long[] before = new long[2];
+        actor.call(() -> {
+            before[0] = actor.getBoardLogic().getValidMoves(1);
+            before[1] = session.getBoard().getWhiteChips();
+        });
+        int square = Long.numberOfTrailingZeros(before[0]);
+        handler.handleMessage("game-move " + (char) ('a' + square % 8) + (char) ('8' - square / 8));
+
+        String delta = messages.stream().filter(message -> message.startsWith("board-delta::")).findFirst()
+                .orElseThrow();
+        String[] fields = delta.split("::");
+        assertEquals(String.valueOf(square), fields[1]);
+        assertEquals("X", fields[2]);
+        long flipped = Long.parseLong(fields[3]);
+        assertNotEquals(0, flipped);
+        assertEquals(0, flipped & ~before[1]);
+    }
+
+    private static class RecordingConnection implements Connection {
+        private final List<String> messages;
+
+        RecordingConnection(List<String> messages) {
+            this.messages = messages;
+        }
+
+        @Override
+        public void sendMessageToClient(String msg) {
+            messages.add(msg);
+        }
+
+        @Override
+        public ConnectionStats getStats() {
+            return new ConnectionStats(getRemoteAddress(), 0, 0, 0, 0, 0, 0, false);
+        }
+
+        @Override
+        public void closeConnection() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "test";
+        }
+    }
+}
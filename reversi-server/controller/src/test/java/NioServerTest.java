@@ -0,0 +1,217 @@
+import io.deeplay.camp.managers.ConnectionReaper;
+import io.deeplay.camp.network.NioServer;
+import io.deeplay.camp.protocol.BinaryProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioServerTest {
+    private static final String BAD_REQUEST = "Empty request or bad request";
+
+    @Test
+    public void testServesManyClientsWithFixedThreads() throws Exception {
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 2, 4, 1000)) {
+            int port = server.start();
+            List<Socket> clients = new ArrayList<>();
+            try {
+                for (int i = 0; i < 200; i++) {
+                    Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                    clients.add(socket);
+                }
+                for (Socket socket : clients) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    OutputStream out = socket.getOutputStream();
+                    assertEquals("Waiting for session.", in.readLine());
+
+                    out.write("unknown-com".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    out.write("mand\r\nunknown\nunknown\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    for (int j = 0; j < 3; j++) {
+                        assertEquals(BAD_REQUEST, in.readLine());
+                    }
+                }
+                assertEquals(200, server.getConnectionCount());
+            } finally {
+                for (Socket socket : clients) socket.close();
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, server.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void testRejectsClientsOverTheLimit() throws Exception {
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 1, 1, 1)) {
+            int port = server.start();
+            try (Socket first = new Socket(InetAddress.getLoopbackAddress(), port);
+                 Socket second = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+                assertEquals("Waiting for session.", in.readLine());
+                assertEquals(-1, second.getInputStream().read());
+            }
+        }
+    }
+
+    @Test
+    public void testKeepsServingClientAfterFailedCommand() throws Exception {
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 1, 2, 10)) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.start())) {
+                socket.setSoTimeout(5000);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                OutputStream out = socket.getOutputStream();
+                assertEquals("Waiting for session.", in.readLine());
+
+                out.write("get-board\nunknown\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                String line;
+                while (!BAD_REQUEST.equals(line = in.readLine())) {
+                    assertNotNull(line);
+                }
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, server.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void testSwitchesToBinaryFrames() throws Exception {
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 1, 2, 10);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.start())) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            assertEquals("Waiting for session.", readLine(in));
+
+            ByteBuffer frame = BinaryProtocol.encodeText("unknown");
+            out.write((BinaryProtocol.NEGOTIATE + "\n").getBytes(StandardCharsets.UTF_8));
+            out.write(frame.array(), 0, 3);
+            out.flush();
+            assertEquals(BinaryProtocol.ACCEPTED, readLine(in));
+            out.write(frame.array(), 3, frame.remaining() - 3);
+            out.write(toArray(BinaryProtocol.encodeMove(BinaryProtocol.PASS)));
+            out.flush();
+
+            assertEquals(BAD_REQUEST, BinaryProtocol.decodeMessage(BinaryProtocol.readFrame(in)));
+            assertNotNull(BinaryProtocol.decodeMessage(BinaryProtocol.readFrame(in)));
+        }
+    }
+
+    @Test
+    public void testClosesClientSendingMalformedFrameAndKeepsServing() throws Exception {
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 1, 2, 10)) {
+            int port = server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setSoTimeout(5000);
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                assertEquals("Waiting for session.", readLine(in));
+                out.write((BinaryProtocol.NEGOTIATE + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                assertEquals(BinaryProtocol.ACCEPTED, readLine(in));
+
+                out.write(new byte[]{1, BinaryProtocol.MOVE});
+                out.flush();
+                assertEquals(-1, in.read());
+            }
+
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setSoTimeout(5000);
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                assertEquals("Waiting for session.", readLine(in));
+                out.write((BinaryProtocol.NEGOTIATE + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                assertEquals(BinaryProtocol.ACCEPTED, readLine(in));
+
+                out.write(toArray(BinaryProtocol.encodeText("y".repeat(BinaryProtocol.MAX_FRAME_SIZE - 1))));
+                out.write(toArray(BinaryProtocol.encodeText("unknown")));
+                out.flush();
+                assertEquals(BAD_REQUEST, BinaryProtocol.decodeMessage(BinaryProtocol.readFrame(in)));
+                assertEquals(BAD_REQUEST, BinaryProtocol.decodeMessage(BinaryProtocol.readFrame(in)));
+            }
+        }
+    }
+
+    @Test
+    public void testEchoesRequestIds() throws Exception {
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 1, 2, 1000);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.start())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            assertEquals("Waiting for session.", in.readLine());
+
+            out.write("#q1 get-global-messages\n#2 unknown\nunknown\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                responses.add(in.readLine());
+            }
+            assertTrue(responses.contains("#2 " + BAD_REQUEST), responses.toString());
+            assertTrue(responses.contains(BAD_REQUEST), responses.toString());
+            assertTrue(responses.stream().anyMatch(response -> response.startsWith("#q1 ")), responses.toString());
+        }
+    }
+
+    @Test
+    public void testPingsAndThenReapsSilentClients() throws Exception {
+        ConnectionReaper reaper = ConnectionReaper.getInstance();
+        long reapedBefore = reaper.getReapedCount();
+        reaper.configure(200, 600, TimeUnit.MILLISECONDS);
+        try (NioServer server = new NioServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50, 1, 2, 1000);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.start())) {
+            socket.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("Waiting for session.", in.readLine());
+
+            List<String> heartbeats = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                heartbeats.add(line);
+            }
+            assertFalse(heartbeats.isEmpty());
+            assertTrue(heartbeats.stream().allMatch(ConnectionReaper.PING::equals), heartbeats.toString());
+            assertEquals(reapedBefore + 1, reaper.getReapedCount());
+        } finally {
+            reaper.configure(ConnectionReaper.PING_INTERVAL_SECONDS, ConnectionReaper.IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String readLine(InputStream in) throws Exception {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            assertTrue(b >= 0);
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
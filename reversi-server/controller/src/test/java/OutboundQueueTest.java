@@ -0,0 +1,88 @@
+import io.deeplay.camp.managers.ConnectionMonitor;
+import io.deeplay.camp.network.ConnectionStats;
+import io.deeplay.camp.network.OutboundQueue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+    private final AtomicLong now = new AtomicLong();
+    private final OutboundQueue queue = new OutboundQueue(1000, 400, 3000, 1_000, now::get);
+
+    @Test
+    public void testChatIsDroppedOldestFirstAndStateIsKept() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(message(i, 100), true));
+        }
+        for (int i = 5; i < 10; i++) {
+            assertTrue(queue.offer(message(i, 100), false));
+        }
+        assertEquals(1000, queue.getQueuedBytes());
+
+        assertTrue(queue.offer(message(10, 100), false));
+        assertEquals(5, queue.stats("client").getDroppedMessages());
+        assertEquals(600, queue.getQueuedBytes());
+
+        ByteBuffer[] buffers = queue.buffers();
+        assertEquals(6, buffers.length);
+        assertEquals(5, buffers[0].get(0));
+        assertEquals(10, buffers[5].get(0));
+
+        assertTrue(queue.offer(message(11, 300), true));
+        assertTrue(queue.offer(message(12, 500), true));
+        assertEquals(7, queue.stats("client").getDroppedMessages());
+        assertEquals(600, queue.getQueuedBytes());
+    }
+
+    @Test
+    public void testMonitorSummarizesAllQueues() {
+        List<ConnectionStats> stats = List.of(
+                new ConnectionStats("a", 100, 2, 10, 0, 0, 40, false),
+                new ConnectionStats("b", 1500, 7, 3, 4, 2500, 2500, true));
+        assertEquals("2 connections, 9 messages queued (1600 bytes), 4 chat messages dropped, 1 overflowing, "
+                + "current lag up to 2500 ms, max lag 2500 ms", ConnectionMonitor.summarize(stats));
+    }
+
+    @Test
+    public void testSustainedOverflowDisconnects() {
+        assertTrue(queue.offer(message(0, 1500), false));
+        assertTrue(queue.stats("client").isOverflowing());
+        now.addAndGet(500);
+        assertTrue(queue.offer(message(1, 10), false));
+        now.addAndGet(600);
+        assertFalse(queue.offer(message(2, 10), false));
+    }
+
+    @Test
+    public void testDrainingEndsTheOverflowAndRecordsLag() {
+        assertTrue(queue.offer(message(0, 1500), false));
+        now.addAndGet(700);
+        byte[] batch = new byte[1200];
+        assertEquals(1200, queue.drainTo(batch));
+        assertEquals(300, queue.getQueuedBytes());
+        assertFalse(queue.stats("client").isOverflowing());
+        assertEquals(1, queue.stats("client").getQueuedMessages());
+
+        now.addAndGet(2000);
+        assertTrue(queue.offer(message(1, 10), false));
+        assertEquals(310, queue.drainTo(batch));
+        assertTrue(queue.isEmpty());
+        assertEquals(2, queue.stats("client").getSentMessages());
+    }
+
+    @Test
+    public void testGrowingPastTheHardLimitDisconnects() {
+        assertTrue(queue.offer(message(0, 2000), false));
+        assertFalse(queue.offer(message(1, 1001), false));
+    }
+
+    private static ByteBuffer message(int id, int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(0, (byte) id);
+        return buffer;
+    }
+}
@@ -0,0 +1,109 @@
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.SessionActor;
+import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.network.ConnectionStats;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionActorTest {
+    private static int nextUserId = 4_000_000;
+
+    @Test
+    public void testRunsTasksOfBothPlayersOneAtATimeInOrder() throws Exception {
+        SessionActor actor = startBotGame();
+        GameSession session = actor.getSession();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] players = new Thread[2];
+        for (int p = 0; p < players.length; p++) {
+            String player = "p" + p;
+            players[p] = Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    String entry = player + "-" + i;
+                    actor.execute(() -> {
+                        if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                        session.addLog(entry);
+                        running.decrementAndGet();
+                    });
+                }
+            });
+        }
+        start.countDown();
+        for (Thread player : players) {
+            player.join();
+        }
+        actor.call(() -> {
+        });
+
+        List<String> log = session.getLog();
+        assertEquals(2000, log.size());
+        assertEquals(0, overlaps.get());
+        for (String player : List.of("p0", "p1")) {
+            List<String> own = log.stream().filter(entry -> entry.startsWith(player + "-")).toList();
+            for (int i = 0; i < own.size(); i++) {
+                assertEquals(player + "-" + i, own.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testCallRethrowsAndRunsNestedCallsAtOnce() throws Exception {
+        SessionActor actor = startBotGame();
+        actor.call(() -> actor.call(() -> actor.getSession().addLog("nested")));
+        assertEquals(List.of("nested"), actor.getSession().getLog());
+
+        assertThrows(SQLException.class, () -> actor.call(() -> {
+            throw new SQLException("failed");
+        }));
+        actor.execute(() -> {
+            throw new IllegalStateException("logged");
+        });
+        actor.call(() -> actor.getSession().addLog("after"));
+        assertEquals(List.of("nested", "after"), actor.getSession().getLog());
+    }
+
+    private static SessionActor startBotGame() {
+        SessionManager manager = SessionManager.getInstance();
+        User user = new User(nextUserId++, "player", "", 1000, 0, "");
+        MainHandler handler = new MainHandler(new SilentConnection());
+        handler.setUser(user);
+        GameSession session = manager.findOrCreateSession(handler, user, true).join();
+        handler.setSession(session);
+        return manager.getActor(session.getSessionId());
+    }
+
+    private static class SilentConnection implements Connection {
+        @Override
+        public void sendMessageToClient(String msg) {
+        }
+
+        @Override
+        public ConnectionStats getStats() {
+            return new ConnectionStats(getRemoteAddress(), 0, 0, 0, 0, 0, 0, false);
+        }
+
+        @Override
+        public void closeConnection() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,144 @@
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.enums.GameStatus;
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.Matchmaker;
+import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.network.ConnectionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+    private static int nextUserId = 2_000_000;
+
+    @Test
+    public void testPairsPlayersAndFindsOpponentsByIndex() {
+        SessionManager manager = SessionManager.getInstance();
+        RecordingConnection firstConnection = new RecordingConnection();
+        RecordingConnection secondConnection = new RecordingConnection();
+        MainHandler first = join(manager, firstConnection, 1000);
+        MainHandler second = join(manager, secondConnection, 1000);
+
+        GameSession session = first.getSession();
+        assertSame(session, second.getSession());
+        assertSame(session, manager.getSession(session.getSessionId()));
+        assertEquals(GameStatus.IN_PROGRESS, session.getGameState());
+        assertEquals(first.getUser().getId(), session.getPlayer1().getId());
+        assertSame(second.getUser(), manager.getOpponent(first));
+        assertSame(first.getUser(), manager.getOpponent(second));
+
+        manager.sendMessageToOpponent(first, session, "hello");
+        assertEquals(List.of("hello"), secondConnection.messages);
+        manager.sendMessageToAllInSession(second, "both");
+        assertEquals(List.of("both"), firstConnection.messages);
+        assertEquals(List.of("hello", "both"), secondConnection.messages);
+
+        manager.deleteHandler(second);
+        assertSame(first.getUser(), manager.getOpponent(first));
+    }
+
+    @Test
+    public void testMatchesNearestRatingFirstAndWidensOverTime() throws Exception {
+        SessionManager manager = SessionManager.getInstance();
+        Matchmaker matchmaker = Matchmaker.getInstance();
+        matchmaker.configure(50, 10_000, TimeUnit.MILLISECONDS);
+        try {
+            MainHandler strong = join(manager, new RecordingConnection(), 2350);
+            MainHandler weak = join(manager, new RecordingConnection(), 1710);
+            assertNull(strong.getSession());
+            assertNull(weak.getSession());
+
+            long paired = matchmaker.getWaitMillis().getCount();
+            MainHandler close = join(manager, new RecordingConnection(), 1780);
+            assertNotNull(close.getSession());
+            assertSame(weak.getSession(), close.getSession());
+            assertEquals(paired + 2, matchmaker.getWaitMillis().getCount());
+
+            MainHandler far = new MainHandler(new RecordingConnection());
+            CompletableFuture<GameSession> search = seek(manager, far, 1700);
+            assertFalse(search.isDone());
+            GameSession session = search.get(5, TimeUnit.SECONDS);
+            assertSame(session, strong.getSession());
+            assertEquals(strong.getUser().getId(), session.getPlayer1().getId());
+        } finally {
+            matchmaker.configure(Matchmaker.WIDEN_INTERVAL_MILLIS, Matchmaker.MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void testPlayersBeyondMaxReachPairOnceTheyAcceptAnyone() throws Exception {
+        SessionManager manager = SessionManager.getInstance();
+        Matchmaker matchmaker = Matchmaker.getInstance();
+        matchmaker.configure(10, 10_000, TimeUnit.MILLISECONDS);
+        try {
+            CompletableFuture<GameSession> high = seek(manager, new MainHandler(new RecordingConnection()), 9000);
+            CompletableFuture<GameSession> low = seek(manager, new MainHandler(new RecordingConnection()), -9000);
+            assertSame(high.get(5, TimeUnit.SECONDS), low.get(5, TimeUnit.SECONDS));
+        } finally {
+            matchmaker.configure(Matchmaker.WIDEN_INTERVAL_MILLIS, Matchmaker.MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void testPlayerWhoLeavesIsNotMatched() {
+        SessionManager manager = SessionManager.getInstance();
+        MainHandler leaving = new MainHandler(new RecordingConnection());
+        CompletableFuture<GameSession> search = seek(manager, leaving, -5000);
+        assertFalse(search.isDone());
+
+        manager.abandonSession(leaving);
+        manager.deleteHandler(leaving);
+        assertTrue(search.isCancelled());
+
+        MainHandler next = new MainHandler(new RecordingConnection());
+        CompletableFuture<GameSession> nextSearch = seek(manager, next, -5000);
+        assertFalse(nextSearch.isDone());
+        manager.abandonSession(next);
+        assertTrue(nextSearch.isCancelled());
+    }
+
+    private static MainHandler join(SessionManager manager, Connection connection, int rating) {
+        MainHandler handler = new MainHandler(connection);
+        seek(manager, handler, rating);
+        return handler;
+    }
+
+    private static CompletableFuture<GameSession> seek(SessionManager manager, MainHandler handler, int rating) {
+        User user = new User(nextUserId++, "player", "", rating, 0, "");
+        handler.setUser(user);
+        manager.addHandler(handler);
+        CompletableFuture<GameSession> search = manager.findOrCreateSession(handler, user, false);
+        search.thenAccept(handler::setSession);
+        return search;
+    }
+
+    private static class RecordingConnection implements Connection {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void sendMessageToClient(String msg) {
+            messages.add(msg);
+        }
+
+        @Override
+        public ConnectionStats getStats() {
+            return new ConnectionStats(getRemoteAddress(), 0, 0, messages.size(), 0, 0, 0, false);
+        }
+
+        @Override
+        public void closeConnection() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "test";
+        }
+    }
+}
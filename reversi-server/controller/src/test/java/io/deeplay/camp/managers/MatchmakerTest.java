@@ -0,0 +1,84 @@
+package io.deeplay.camp.managers;
+
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.network.ConnectionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchmakerTest {
+    private static int nextUserId = 6_000_000;
+
+    private final Map<MainHandler, Integer> homeShards = new ConcurrentHashMap<>();
+    private final Matchmaker matchmaker = new Matchmaker(2, homeShards::get);
+
+    @Test
+    public void testPairsPlayersWaitingInOtherShards() {
+        MainHandler waiting = handlerIn(1);
+        CompletableFuture<GameSession> first = matchmaker.seek(waiting, user(1000));
+        assertFalse(first.isDone());
+
+        MainHandler arriving = handlerIn(0);
+        CompletableFuture<GameSession> second = matchmaker.seek(arriving, user(1050));
+        assertTrue(second.isDone());
+        assertSame(first.join(), second.join());
+        assertEquals(0, matchmaker.getWaitingCount());
+    }
+
+    @Test
+    public void testPrefersLongerWaitingOpponentOfOtherShard() throws Exception {
+        matchmaker.configure(500, 60_000, TimeUnit.MILLISECONDS);
+        CompletableFuture<GameSession> seeker = matchmaker.seek(handlerIn(0), user(1000));
+        Thread.sleep(100);
+        // Two bands apart, so neither accepts the other, but both are one band from the seeker.
+        CompletableFuture<GameSession> otherShard = matchmaker.seek(handlerIn(1), user(1100));
+        MainHandler sameShardHandler = handlerIn(0);
+        CompletableFuture<GameSession> sameShard = matchmaker.seek(sameShardHandler, user(900));
+        assertEquals(3, matchmaker.getWaitingCount());
+
+        GameSession session = seeker.get(5, TimeUnit.SECONDS);
+        assertSame(session, otherShard.get(5, TimeUnit.SECONDS));
+        assertFalse(sameShard.isDone());
+
+        matchmaker.cancel(sameShardHandler);
+        assertTrue(sameShard.isCancelled());
+    }
+
+    private MainHandler handlerIn(int shard) {
+        MainHandler handler = new MainHandler(new SilentConnection());
+        homeShards.put(handler, shard);
+        return handler;
+    }
+
+    private static User user(int rating) {
+        return new User(nextUserId++, "player", "", rating, 0, "");
+    }
+
+    private static class SilentConnection implements Connection {
+        @Override
+        public void sendMessageToClient(String msg) {
+        }
+
+        @Override
+        public ConnectionStats getStats() {
+            return new ConnectionStats(getRemoteAddress(), 0, 0, 0, 0, 0, 0, false);
+        }
+
+        @Override
+        public void closeConnection() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "test";
+        }
+    }
+}
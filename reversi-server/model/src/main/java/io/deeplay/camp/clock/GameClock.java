@@ -0,0 +1,186 @@
+package io.deeplay.camp.clock;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A chess clock for the two sides of one game.
+ * <p>
+ * At most one side's clock runs at a time. Time is read from a monotonic source, {@link System#nanoTime()} by
+ * default, so wall-clock adjustments never steal or add time. When a turn ends the elapsed time is charged to the
+ * side that moved; a side whose remaining time drops below zero, or whose move exceeds the per-move cap, has flagged
+ * and stays flagged. Otherwise the increment is added. The running side's remaining time and flag are also visible
+ * live, before its turn ends.
+ * </p>
+ * <p>
+ * Sides are the player numbers 1 (black) and 2 (white). All methods are synchronized, so a clock can be shared by the
+ * threads serving the two players.
+ * </p>
+ */
+public class GameClock {
+    private final TimeControl timeControl;
+    private final LongSupplier nanoTime;
+    private final long[] remainingNanos = new long[3];
+    private final boolean[] flagged = new boolean[3];
+    private int runningSide;
+    private long turnStartNanos;
+
+    /**
+     * Initializes a new GameClock with both clocks stopped.
+     *
+     * @param timeControl The time rules of the game.
+     */
+    public GameClock(TimeControl timeControl) {
+        this(timeControl, System::nanoTime);
+    }
+
+    /**
+     * Initializes a new GameClock that reads time from the given source.
+     *
+     * @param timeControl The time rules of the game.
+     * @param nanoTime    A monotonic time source in nanoseconds.
+     */
+    public GameClock(TimeControl timeControl, LongSupplier nanoTime) {
+        this.timeControl = timeControl;
+        this.nanoTime = nanoTime;
+        remainingNanos[1] = timeControl.getBaseNanos();
+        remainingNanos[2] = timeControl.getBaseNanos();
+    }
+
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    /**
+     * Starts the clock of a side, stopping the other side's clock first if it runs.
+     *
+     * @param side The side to move.
+     */
+    public synchronized void start(int side) {
+        if (runningSide != 0) stop();
+        runningSide = side;
+        turnStartNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Stops the running clock and charges the elapsed time to its side.
+     *
+     * @return The time the turn took, or 0 if no clock was running.
+     */
+    public synchronized long stop() {
+        int side = runningSide;
+        if (side == 0) return 0;
+        long elapsed = nanoTime.getAsLong() - turnStartNanos;
+        runningSide = 0;
+
+        if (elapsed > timeControl.getMaxMoveNanos()) flagged[side] = true;
+        if (timeControl.hasGameClock()) {
+            remainingNanos[side] -= elapsed;
+            if (remainingNanos[side] < 0) flagged[side] = true;
+            else remainingNanos[side] += timeControl.getIncrementNanos();
+        }
+        return elapsed;
+    }
+
+    /**
+     * Ends the running side's turn and starts the opponent's clock, like pressing the button of a chess clock.
+     *
+     * @return The time the finished turn took.
+     */
+    public synchronized long press() {
+        int side = runningSide;
+        long elapsed = stop();
+        if (side != 0) start(3 - side);
+        return elapsed;
+    }
+
+    /**
+     * Gets the side whose clock runs.
+     *
+     * @return The running side, or 0 if both clocks are stopped.
+     */
+    public synchronized int getRunningSide() {
+        return runningSide;
+    }
+
+    /**
+     * Gets the remaining time of a side, including the time of a turn in progress.
+     *
+     * @param side The side.
+     * @return The remaining time, negative once the side has run out, or {@link TimeControl#UNLIMITED} without a
+     * game clock.
+     */
+    public synchronized long getRemainingNanos(int side) {
+        if (!timeControl.hasGameClock()) return TimeControl.UNLIMITED;
+        long remaining = remainingNanos[side];
+        if (side == runningSide) remaining -= nanoTime.getAsLong() - turnStartNanos;
+        return remaining;
+    }
+
+    /**
+     * Checks whether a side has run out of time, including during a turn in progress.
+     *
+     * @param side The side.
+     * @return True if the side has flagged.
+     */
+    public synchronized boolean isFlagged(int side) {
+        if (flagged[side]) return true;
+        if (side != runningSide) return false;
+        long elapsed = nanoTime.getAsLong() - turnStartNanos;
+        return elapsed > timeControl.getMaxMoveNanos()
+                || (timeControl.hasGameClock() && elapsed > remainingNanos[side]);
+    }
+
+    /**
+     * Gets the time after which the running side will have flagged if it does not move.
+     *
+     * @return The time until the flag falls, 0 if it already has, or {@link TimeControl#UNLIMITED} if no clock runs
+     * or nothing limits the turn.
+     */
+    public synchronized long getNanosUntilFlag() {
+        int side = runningSide;
+        if (side == 0) return TimeControl.UNLIMITED;
+        long limit = timeControl.getMaxMoveNanos();
+        if (timeControl.hasGameClock()) limit = Math.min(limit, remainingNanos[side]);
+        if (limit == TimeControl.UNLIMITED) return TimeControl.UNLIMITED;
+        long elapsed = nanoTime.getAsLong() - turnStartNanos;
+        return Math.max(limit - elapsed, 0);
+    }
+
+    /**
+     * Estimates the number of moves a side still has to make: half of the empty squares, rounded up for the side to
+     * move. Live games and self-play both budget with this estimate.
+     *
+     * @param blackChips The black chips on the board.
+     * @param whiteChips The white chips on the board.
+     * @return The expected number of moves of the side to move.
+     */
+    public static int estimateMovesLeft(long blackChips, long whiteChips) {
+        int empty = 64 - Long.bitCount(blackChips | whiteChips);
+        return (empty + 1) / 2;
+    }
+
+    /**
+     * Gets the time a side should spend on its next move.
+     * <p>
+     * The remaining time is spread evenly over the moves still expected, most of the increment is spent on top, and
+     * the budget never exceeds three quarters of the remaining time or the per-move cap, so a side that sticks to its
+     * budgets keeps a reserve and does not flag.
+     * </p>
+     *
+     * @param side      The side to move.
+     * @param movesLeft The number of moves the side is still expected to make.
+     * @return The move budget, or {@link TimeControl#UNLIMITED} if nothing limits the move.
+     */
+    public synchronized long getMoveBudgetNanos(int side, int movesLeft) {
+        long budget = TimeControl.UNLIMITED;
+        if (timeControl.hasGameClock()) {
+            long remaining = Math.max(getRemainingNanos(side), 0);
+            budget = Math.min(remaining / Math.max(movesLeft, 1) + timeControl.getIncrementNanos() * 3 / 4,
+                    remaining / 4 * 3);
+        }
+        if (timeControl.getMaxMoveNanos() != TimeControl.UNLIMITED) {
+            budget = Math.min(budget, timeControl.getMaxMoveNanos() / 4 * 3);
+        }
+        return budget;
+    }
+}
@@ -0,0 +1,127 @@
+package io.deeplay.camp.clock;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time rules of a game.
+ * <p>
+ * A time control gives each side a base time plus an increment added after every move, as on a chess clock, and may
+ * cap the time of a single move. Either part can be absent: {@code 60+0.5} is one minute per game plus half a second
+ * per move, {@code 5/move} is five seconds per move with no game clock, and {@code none} means no limit at all.
+ * </p>
+ */
+public final class TimeControl {
+    /**
+     * Marks a limit that is not set.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * A time control without any limit.
+     */
+    public static final TimeControl NONE = new TimeControl(UNLIMITED, 0, UNLIMITED);
+
+    private final long baseNanos;
+    private final long incrementNanos;
+    private final long maxMoveNanos;
+
+    /**
+     * Initializes a new TimeControl.
+     *
+     * @param baseNanos      The time each side starts with, or {@link #UNLIMITED} for no game clock.
+     * @param incrementNanos The time added to a side after each of its moves.
+     * @param maxMoveNanos   The maximum time of a single move, or {@link #UNLIMITED} for no cap.
+     */
+    public TimeControl(long baseNanos, long incrementNanos, long maxMoveNanos) {
+        if (baseNanos <= 0 || incrementNanos < 0 || maxMoveNanos <= 0) {
+            throw new IllegalArgumentException("Time control limits must be positive");
+        }
+        this.baseNanos = baseNanos;
+        this.incrementNanos = incrementNanos;
+        this.maxMoveNanos = maxMoveNanos;
+    }
+
+    /**
+     * Creates a time control that only caps the time of each move.
+     *
+     * @param maxMoveNanos The maximum time of a single move.
+     * @return The time control.
+     */
+    public static TimeControl perMove(long maxMoveNanos) {
+        return new TimeControl(UNLIMITED, 0, maxMoveNanos);
+    }
+
+    /**
+     * Parses a time control.
+     * <p>
+     * Accepted forms are {@code base+increment} and {@code base} in seconds, {@code seconds/move}, and {@code none}.
+     * Fractions of a second are allowed everywhere.
+     * </p>
+     *
+     * @param text The time control text.
+     * @return The time control.
+     * @throws IllegalArgumentException If the text is not a valid time control.
+     */
+    public static TimeControl parse(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (value.isEmpty() || value.equals("none")) return NONE;
+            if (value.endsWith("/move")) {
+                return perMove(secondsToNanos(value.substring(0, value.length() - "/move".length())));
+            }
+            int plus = value.indexOf('+');
+            if (plus < 0) return new TimeControl(secondsToNanos(value), 0, UNLIMITED);
+            return new TimeControl(secondsToNanos(value.substring(0, plus)), secondsToNanos(value.substring(plus + 1)),
+                    UNLIMITED);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad time control: " + text, e);
+        }
+    }
+
+    public long getBaseNanos() {
+        return baseNanos;
+    }
+
+    public long getIncrementNanos() {
+        return incrementNanos;
+    }
+
+    public long getMaxMoveNanos() {
+        return maxMoveNanos;
+    }
+
+    /**
+     * Checks whether each side has a game clock, as opposed to only a per-move cap or no limit.
+     *
+     * @return True if the base time is limited.
+     */
+    public boolean hasGameClock() {
+        return baseNanos != UNLIMITED;
+    }
+
+    /**
+     * Checks whether this time control limits anything at all.
+     *
+     * @return True if either the base time or the move time is limited.
+     */
+    public boolean isLimited() {
+        return hasGameClock() || maxMoveNanos != UNLIMITED;
+    }
+
+    @Override
+    public String toString() {
+        if (!isLimited()) return "none";
+        if (!hasGameClock()) return seconds(maxMoveNanos) + "/move";
+        return seconds(baseNanos) + "+" + seconds(incrementNanos);
+    }
+
+    private static long secondsToNanos(String seconds) {
+        return Math.round(Double.parseDouble(seconds.trim()) * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static String seconds(long nanos) {
+        double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+        return seconds == Math.rint(seconds) ? Long.toString((long) seconds) : Double.toString(seconds);
+    }
+}
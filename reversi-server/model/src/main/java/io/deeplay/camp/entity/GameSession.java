@@ -1,5 +1,6 @@
 package io.deeplay.camp.entity;
 
+import io.deeplay.camp.clock.GameClock;
 import io.deeplay.camp.enums.GameStatus;
 
 import java.util.ArrayList;
@@ -8,25 +9,32 @@ import java.util.List;
 /**
  * Represents a game session.
  * <p>
- * This class holds the state of a game session, including the current player, board, players, game state, session ID, result, log, and session chat.
+ * This class holds the state of a game session, including the current player, board, players, game state, session ID, result, log, clock, and session chat.
  * It provides methods to get and set these details, as well as to add messages to the session chat.
  * </p>
+ * <p>
+ * A session in play belongs to the actor of its game on the server: every move, chat line and timeout is applied by
+ * that actor, one at a time, so the session takes no locks. The ID and the players are set before the session is
+ * handed to anyone and may be read from any thread; the state is volatile so that it can be checked from outside.
+ * </p>
  */
 public class GameSession {
     private int currentPlayerId;
     private Board board;
     private User player1;
     private User player2;
-    private GameStatus gameState = GameStatus.NOT_STARTED;
+    private volatile GameStatus gameState = GameStatus.NOT_STARTED;
     private int sessionId;
     private String result;
     private List<String> log;
     private List<SessionMessage> sessionChat;
+    private GameClock clock;
 
     /**
      * Initializes a new GameSession with default values.
      */
     public GameSession() {
+        log = new ArrayList<>();
         sessionChat = new ArrayList<>();
     }
 
@@ -63,10 +71,10 @@ public class GameSession {
     /**
      * Gets the game log.
      *
-     * @return The game log.
+     * @return A copy of the game log, or null if the session has none.
      */
     public List<String> getLog() {
-        return log;
+        return log == null ? null : new ArrayList<>(log);
     }
 
     /**
@@ -78,12 +86,25 @@ public class GameSession {
         this.log = log;
     }
 
+    /**
+     * Appends an entry to the game log.
+     * <p>
+     * Both players of the session append to the same log, so it holds every move of the game in order.
+     * </p>
+     *
+     * @param entry The entry to append.
+     */
+    public void addLog(String entry) {
+        if (log == null) log = new ArrayList<>();
+        log.add(entry);
+    }
+
     /**
      * Gets the current game state.
      *
      * @return The current game state.
      */
-    public synchronized GameStatus getGameState() {
+    public GameStatus getGameState() {
         return gameState;
     }
 
@@ -92,10 +113,25 @@ public class GameSession {
      *
      * @param gameState The new game state.
      */
-    public synchronized void setGameState(GameStatus gameState) {
+    public void setGameState(GameStatus gameState) {
         this.gameState = gameState;
     }
 
+    /**
+     * Ends the game unless it has already ended.
+     * <p>
+     * A game can end on a winning move, on a flag fall noticed by a player's command or by the server's timer, and on
+     * a disconnect; only the first of these may finish the session.
+     * </p>
+     *
+     * @return True if this call ended the game, false if it was already finished or terminated.
+     */
+    public boolean markFinished() {
+        if (gameState == GameStatus.FINISHED || gameState == GameStatus.TERMINATED) return false;
+        gameState = GameStatus.FINISHED;
+        return true;
+    }
+
     /**
      * Gets the ID of the current player.
      *
@@ -110,7 +146,7 @@ public class GameSession {
      *
      * @param currentPlayerId The new ID of the current player.
      */
-    public synchronized void setCurrentPlayerId(int currentPlayerId) {
+    public void setCurrentPlayerId(int currentPlayerId) {
         this.currentPlayerId = currentPlayerId;
     }
 
@@ -119,7 +155,7 @@ public class GameSession {
      *
      * @param result The new result of the game.
      */
-    public synchronized void setResult(String result) {
+    public void setResult(String result) {
         this.result = result;
     }
 
@@ -146,7 +182,7 @@ public class GameSession {
      *
      * @param board The new game board.
      */
-    public synchronized void setBoard(Board board) {
+    public void setBoard(Board board) {
         this.board = board;
     }
 
@@ -164,7 +200,7 @@ public class GameSession {
      *
      * @param player1 The new first player.
      */
-    public synchronized void setPlayer1(User player1) {
+    public void setPlayer1(User player1) {
         this.player1 = player1;
     }
 
@@ -182,7 +218,7 @@ public class GameSession {
      *
      * @param player2 The new second player.
      */
-    public synchronized void setPlayer2(User player2) {
+    public void setPlayer2(User player2) {
         this.player2 = player2;
     }
 
@@ -191,7 +227,7 @@ public class GameSession {
      *
      * @return The session ID.
      */
-    public synchronized int getSessionId() {
+    public int getSessionId() {
         return sessionId;
     }
 
@@ -200,10 +236,28 @@ public class GameSession {
      *
      * @param sessionId The new session ID.
      */
-    public synchronized void setSessionId(int sessionId) {
+    public void setSessionId(int sessionId) {
         this.sessionId = sessionId;
     }
 
+    /**
+     * Gets the chess clock of the game.
+     *
+     * @return The clock, or null if the game is played without time control.
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the chess clock of the game.
+     *
+     * @param clock The new clock, or null for no time control.
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
     /**
      * Gets the session chat messages.
      *
@@ -218,7 +272,7 @@ public class GameSession {
      *
      * @param sessionChat The new session chat messages.
      */
-    public synchronized void setSessionChat(List<SessionMessage> sessionChat) {
+    public void setSessionChat(List<SessionMessage> sessionChat) {
         this.sessionChat = sessionChat;
     }
 
@@ -227,7 +281,7 @@ public class GameSession {
      *
      * @param sessionMessage The message to be added.
      */
-    public synchronized void addMessage(SessionMessage sessionMessage) {
+    public void addMessage(SessionMessage sessionMessage) {
         this.sessionChat.add(sessionMessage);
     }
 }
\ No newline at end of file
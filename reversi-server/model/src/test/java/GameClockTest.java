@@ -0,0 +1,105 @@
+import io.deeplay.camp.clock.GameClock;
+import io.deeplay.camp.clock.TimeControl;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameClockTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now;
+
+    @Test
+    public void testParse() {
+        TimeControl blitz = TimeControl.parse("60+0.5");
+        assertEquals(60 * SECOND, blitz.getBaseNanos());
+        assertEquals(SECOND / 2, blitz.getIncrementNanos());
+        assertEquals("60+0.5", blitz.toString());
+
+        TimeControl perMove = TimeControl.parse("5/move");
+        assertFalse(perMove.hasGameClock());
+        assertEquals(5 * SECOND, perMove.getMaxMoveNanos());
+
+        assertFalse(TimeControl.parse("none").isLimited());
+        assertThrows(IllegalArgumentException.class, () -> TimeControl.parse("fast"));
+    }
+
+    @Test
+    public void testPressChargesMoverAndAddsIncrement() {
+        GameClock clock = new GameClock(TimeControl.parse("10+1"), () -> now);
+        clock.start(1);
+        now += 3 * SECOND;
+        assertEquals(7 * SECOND, clock.getRemainingNanos(1));
+
+        assertEquals(3 * SECOND, clock.press());
+        assertEquals(8 * SECOND, clock.getRemainingNanos(1));
+        assertEquals(2, clock.getRunningSide());
+        assertEquals(10 * SECOND, clock.getRemainingNanos(2));
+    }
+
+    @Test
+    public void testFlagFallsLiveAndSticks() {
+        GameClock clock = new GameClock(TimeControl.parse("2+1"), () -> now);
+        clock.start(2);
+        now += 2 * SECOND + 1;
+        assertTrue(clock.isFlagged(2));
+        assertFalse(clock.isFlagged(1));
+
+        clock.press();
+        assertTrue(clock.isFlagged(2));
+        assertTrue(clock.getRemainingNanos(2) < 0);
+    }
+
+    @Test
+    public void testNanosUntilFlagTakesTheNearerLimit() {
+        GameClock clock = new GameClock(new TimeControl(10 * SECOND, 0, 4 * SECOND), () -> now);
+        assertEquals(TimeControl.UNLIMITED, clock.getNanosUntilFlag());
+
+        clock.start(1);
+        now += SECOND;
+        assertEquals(3 * SECOND, clock.getNanosUntilFlag());
+        for (int turn = 0; turn < 4; turn++) {
+            now += 3 * SECOND;
+            clock.press();
+        }
+        assertEquals(1, clock.getRunningSide());
+        assertEquals(3 * SECOND, clock.getNanosUntilFlag());
+        now += 5 * SECOND;
+        assertEquals(0, clock.getNanosUntilFlag());
+        assertEquals(TimeControl.UNLIMITED, new GameClock(TimeControl.NONE).getNanosUntilFlag());
+    }
+
+    @Test
+    public void testPerMoveCap() {
+        GameClock clock = new GameClock(TimeControl.perMove(SECOND), () -> now);
+        clock.start(1);
+        now += SECOND;
+        clock.press();
+        assertFalse(clock.isFlagged(1));
+
+        now += SECOND + 1;
+        clock.stop();
+        assertTrue(clock.isFlagged(2));
+    }
+
+    @Test
+    public void testMoveBudgetKeepsReserve() {
+        GameClock clock = new GameClock(TimeControl.parse("30+1"), () -> now);
+        long budget = clock.getMoveBudgetNanos(1, 30);
+        assertEquals(SECOND + SECOND * 3 / 4, budget);
+        assertTrue(clock.getMoveBudgetNanos(1, 1) < 30 * SECOND);
+        assertEquals(TimeControl.UNLIMITED, new GameClock(TimeControl.NONE).getMoveBudgetNanos(1, 10));
+    }
+
+    @Test
+    public void testEstimatesMovesLeftFromEmptySquares() {
+        long black = 0x0000000810000000L;
+        long white = 0x0000001008000000L;
+        assertEquals(30, GameClock.estimateMovesLeft(black, white));
+        assertEquals(30, GameClock.estimateMovesLeft(black | 1, white));
+        assertEquals(1, GameClock.estimateMovesLeft(-2L, 0));
+        assertEquals(0, GameClock.estimateMovesLeft(-1L, 0));
+    }
+}
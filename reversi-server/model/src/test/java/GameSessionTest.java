@@ -0,0 +1,31 @@
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSessionTest {
+
+    @Test
+    public void testLogIsCopiedOnRead() {
+        GameSession session = new GameSession();
+        session.addLog("p0");
+        session.addLog("p1");
+
+        List<String> log = session.getLog();
+        assertEquals(List.of("p0", "p1"), log);
+        log.clear();
+        assertEquals(2, session.getLog().size());
+    }
+
+    @Test
+    public void testOnlyTheFirstFinishCounts() {
+        GameSession session = new GameSession();
+        session.setGameState(GameStatus.IN_PROGRESS);
+        assertTrue(session.markFinished());
+        assertFalse(session.markFinished());
+        assertEquals(GameStatus.FINISHED, session.getGameState());
+    }
+}
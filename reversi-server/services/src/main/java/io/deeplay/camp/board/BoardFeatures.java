@@ -0,0 +1,205 @@
+package io.deeplay.camp.board;
+
+/**
+ * Bitboard feature kernels for position evaluation.
+ * <p>
+ * This class works on the same layout as {@link BoardService}: bit {@code x + 8 * y} is the square in column
+ * {@code x} and row {@code y}. All kernels are branch-free shift/mask sequences over whole boards, so they can be
+ * called from bots, analysis and statistics code on every node without allocating or looping over squares.
+ * </p>
+ */
+public final class BoardFeatures {
+
+    public static final long FULL_BOARD = 0xFFFFFFFFFFFFFFFFL;
+    public static final long NOT_A_FILE = 0xFEFEFEFEFEFEFEFEL;
+    public static final long NOT_H_FILE = 0x7F7F7F7F7F7F7F7FL;
+    public static final long A_FILE = 0x0101010101010101L;
+    public static final long H_FILE = 0x8080808080808080L;
+    public static final long TOP_RANK = 0x00000000000000FFL;
+    public static final long BOTTOM_RANK = 0xFF00000000000000L;
+    public static final long EDGES = A_FILE | H_FILE | TOP_RANK | BOTTOM_RANK;
+    public static final long CORNERS = 0x8100000000000081L;
+
+    private BoardFeatures() {
+    }
+
+    /**
+     * Returns every square adjacent (in any of the eight directions) to a square of the given set.
+     *
+     * @param squares The source squares.
+     * @return The neighbouring squares, not including the source squares themselves unless they neighbour each other.
+     */
+    public static long neighbours(long squares) {
+        long horizontal = ((squares << 1) & NOT_A_FILE) | ((squares >>> 1) & NOT_H_FILE);
+        long row = squares | horizontal;
+        return horizontal | (row << 8) | (row >>> 8);
+    }
+
+    /**
+     * Returns the frontier discs: discs that touch at least one empty square.
+     *
+     * @param discs The discs of one player.
+     * @param empty The empty squares of the board.
+     * @return The frontier discs of the player.
+     */
+    public static long frontier(long discs, long empty) {
+        return discs & neighbours(empty);
+    }
+
+    /**
+     * Returns the empty squares adjacent to opponent discs.
+     * <p>
+     * The bit count of this mask is the potential mobility of the player to move.
+     * </p>
+     *
+     * @param opponent The discs of the opponent.
+     * @param empty    The empty squares of the board.
+     * @return The empty squares touching the opponent.
+     */
+    public static long potentialMobility(long opponent, long empty) {
+        return empty & neighbours(opponent);
+    }
+
+    /**
+     * Returns the squares whose row is completely filled.
+     *
+     * @param occupied All discs on the board.
+     * @return The squares lying on full rows.
+     */
+    public static long fullHorizontal(long occupied) {
+        long full = occupied & (occupied >>> 1);
+        full &= full >>> 2;
+        full &= full >>> 4;
+        return (full & A_FILE) * 0xFFL;
+    }
+
+    /**
+     * Returns the squares whose column is completely filled.
+     *
+     * @param occupied All discs on the board.
+     * @return The squares lying on full columns.
+     */
+    public static long fullVertical(long occupied) {
+        long full = occupied & Long.rotateRight(occupied, 8);
+        full &= Long.rotateRight(full, 16);
+        full &= Long.rotateRight(full, 32);
+        return full;
+    }
+
+    /**
+     * Returns the squares whose down-right diagonal (a8-h1 direction) is completely filled.
+     *
+     * @param occupied All discs on the board.
+     * @return The squares lying on full down-right diagonals.
+     */
+    public static long fullDiagonal9(long occupied) {
+        long empty = ~occupied;
+        return occupied & ~(fill(empty, 9, NOT_A_FILE) | fill(empty, -9, NOT_H_FILE));
+    }
+
+    /**
+     * Returns the squares whose down-left diagonal (h8-a1 direction) is completely filled.
+     *
+     * @param occupied All discs on the board.
+     * @return The squares lying on full down-left diagonals.
+     */
+    public static long fullDiagonal7(long occupied) {
+        long empty = ~occupied;
+        return occupied & ~(fill(empty, 7, NOT_H_FILE) | fill(empty, -7, NOT_A_FILE));
+    }
+
+    /**
+     * Returns the squares whose lines are completely filled in all four directions.
+     * <p>
+     * Discs on such squares can never be flipped again.
+     * </p>
+     *
+     * @param occupied All discs on the board.
+     * @return The squares lying on full lines in every direction.
+     */
+    public static long fullLines(long occupied) {
+        return fullHorizontal(occupied) & fullVertical(occupied) & fullDiagonal9(occupied) & fullDiagonal7(occupied);
+    }
+
+    /**
+     * Returns the stable discs of a player: discs that can never be flipped for the rest of the game.
+     * <p>
+     * A disc is stable when along each of the four axes it is protected by a full line, by the board edge, or by an
+     * adjacent stable disc of the same colour. The set is grown from the edges inwards until it stops changing; each
+     * round is a fixed number of shifts over the whole board. The result is a lower bound of the true stability.
+     * </p>
+     *
+     * @param own      The discs of the player.
+     * @param opponent The discs of the opponent.
+     * @return The stable discs of the player.
+     */
+    public static long stableDiscs(long own, long opponent) {
+        long occupied = own | opponent;
+        long horizontal = fullHorizontal(occupied) | A_FILE | H_FILE;
+        long vertical = fullVertical(occupied) | TOP_RANK | BOTTOM_RANK;
+        long diagonal9 = fullDiagonal9(occupied) | EDGES;
+        long diagonal7 = fullDiagonal7(occupied) | EDGES;
+
+        long stable = own & horizontal & vertical & diagonal9 & diagonal7;
+        long previous;
+        do {
+            previous = stable;
+            long h = horizontal | ((stable << 1) & NOT_A_FILE) | ((stable >>> 1) & NOT_H_FILE);
+            long v = vertical | (stable << 8) | (stable >>> 8);
+            long d9 = diagonal9 | ((stable << 9) & NOT_A_FILE) | ((stable >>> 9) & NOT_H_FILE);
+            long d7 = diagonal7 | ((stable << 7) & NOT_H_FILE) | ((stable >>> 7) & NOT_A_FILE);
+            stable |= own & h & v & d9 & d7;
+        } while (stable != previous);
+
+        return stable;
+    }
+
+    /**
+     * Counts the stable discs of a player.
+     *
+     * @param own      The discs of the player.
+     * @param opponent The discs of the opponent.
+     * @return The number of stable discs.
+     */
+    public static int stableCount(long own, long opponent) {
+        return Long.bitCount(stableDiscs(own, opponent));
+    }
+
+    /**
+     * Counts the frontier discs of a player.
+     *
+     * @param own      The discs of the player.
+     * @param opponent The discs of the opponent.
+     * @return The number of frontier discs.
+     */
+    public static int frontierCount(long own, long opponent) {
+        return Long.bitCount(frontier(own, ~(own | opponent)));
+    }
+
+    /**
+     * Kogge-Stone occluded fill: spreads the generator along one direction across the whole board.
+     *
+     * @param generator The squares to spread.
+     * @param shift     The direction as a bit offset; positive values shift left, negative values shift right.
+     * @param wrapMask  The mask removing squares that wrapped around a board edge after a one-step shift.
+     * @return The generator together with every square reachable from it in the given direction.
+     */
+    private static long fill(long generator, int shift, long wrapMask) {
+        long propagator = wrapMask;
+        if (shift > 0) {
+            generator |= propagator & (generator << shift);
+            propagator &= propagator << shift;
+            generator |= propagator & (generator << (shift * 2));
+            propagator &= propagator << (shift * 2);
+            generator |= propagator & (generator << (shift * 4));
+        } else {
+            int s = -shift;
+            generator |= propagator & (generator >>> s);
+            propagator &= propagator >>> s;
+            generator |= propagator & (generator >>> (s * 2));
+            propagator &= propagator >>> (s * 2);
+            generator |= propagator & (generator >>> (s * 4));
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,33 @@
+package io.deeplay.camp.bot;
+
+/**
+ * Creates bots by type name.
+ * <p>
+ * This class lets configuration files and tournaments refer to bots by a short type name instead of depending on
+ * the concrete strategy classes, whose constructors are package-private.
+ * </p>
+ */
+public final class BotFactory {
+
+    private BotFactory() {
+    }
+
+    /**
+     * Creates a bot of the given type.
+     *
+     * @param type The type of the bot: random, darling, kaylebee or violetta.
+     * @param id   The id of the bot.
+     * @param name The display name of the bot.
+     * @return The new bot.
+     * @throws IllegalArgumentException If the type is unknown.
+     */
+    public static BotStrategy create(String type, int id, String name) {
+        return switch (type.trim().toLowerCase()) {
+            case "random" -> new RandomBot(id, name);
+            case "darling" -> new DarlingBot(id, name);
+            case "kaylebee" -> new KaylebeeBot(id, name);
+            case "violetta" -> new ViolettaBot(id, name);
+            default -> throw new IllegalArgumentException("Unknown bot type: " + type);
+        };
+    }
+}
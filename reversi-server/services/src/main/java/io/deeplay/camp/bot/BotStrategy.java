@@ -9,13 +9,48 @@ import java.util.List;
 public abstract class BotStrategy {
     public final int id;
     public final String name;
+    private long nodeCount;
 
     protected BotStrategy(int id, String name) {
         this.id = id;
         this.name = name;
     }
 
+    /**
+     * Gets the number of positions this bot has examined so far, for nodes-per-second telemetry.
+     *
+     * @return The total node count of this instance.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds examined positions to the node count. Searching bots call this once per move or per search.
+     *
+     * @param nodes The number of positions examined.
+     */
+    protected void countNodes(long nodes) {
+        nodeCount += nodes;
+    }
+
     public abstract Tile getMakeMove(int currentPlayerId, @NotNull BoardService boardLogic);
 
+    /**
+     * Chooses a move within a time budget given by the game clock.
+     * <p>
+     * Searching bots override this to stop deepening once the budget is spent; the budget already keeps a reserve, so
+     * a bot that returns within it does not lose on time. By default the budget is ignored.
+     * </p>
+     *
+     * @param currentPlayerId The side to move.
+     * @param boardLogic      The current position.
+     * @param budgetNanos     The time the bot should spend on this move, or {@code Long.MAX_VALUE} if unlimited.
+     * @return The chosen move, or null to pass.
+     */
+    public Tile getMakeMove(int currentPlayerId, @NotNull BoardService boardLogic, long budgetNanos) {
+        return getMakeMove(currentPlayerId, boardLogic);
+    }
+
     abstract List<Tile> getAllValidMoves(int currentPlayerId, @NotNull BoardService boardLogic);
 }
@@ -16,6 +16,7 @@ public class RandomBot extends BotStrategy {
     @Override
     public Tile getMakeMove(int currentPlayerId, @NotNull BoardService boardLogic) {
         List<Tile> allTiles = boardLogic.getAllValidTiles(currentPlayerId);
+        countNodes(allTiles.size());
 
         if (allTiles.isEmpty()) {
             return null;
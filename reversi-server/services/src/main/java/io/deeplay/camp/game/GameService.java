@@ -49,6 +49,14 @@ public class GameService implements ReversiListener {
         }
     }
 
+    public boolean moveMade(User user, int currentPlayerId, BoardService boardLogic, int x, int y) {
+        if (user instanceof Bot || !boardLogic.isValidMove(x, y, currentPlayerId)) {
+            return false;
+        }
+        boardLogic.setPiece(x, y, currentPlayerId);
+        return true;
+    }
+
     private boolean makeUserMove(int currentPlayerId, BoardService boardLogic, String move) {
         return makeMove(move, currentPlayerId, boardLogic);
     }
@@ -0,0 +1,87 @@
+import io.deeplay.camp.board.BoardFeatures;
+import io.deeplay.camp.entity.Board;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BoardFeaturesTest {
+
+    @Test
+    public void testFullLinesMatchSquareByScan() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            long occupied = random.nextLong() | random.nextLong() | random.nextLong();
+            assertEquals(scanFull(occupied, 1, 0), BoardFeatures.fullHorizontal(occupied));
+            assertEquals(scanFull(occupied, 0, 1), BoardFeatures.fullVertical(occupied));
+            assertEquals(scanFull(occupied, 1, 1), BoardFeatures.fullDiagonal9(occupied));
+            assertEquals(scanFull(occupied, -1, 1), BoardFeatures.fullDiagonal7(occupied));
+        }
+    }
+
+    @Test
+    public void testFrontierMatchesSquareByScan() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            long own = random.nextLong();
+            long opponent = random.nextLong() & ~own;
+            long empty = ~(own | opponent);
+            long expected = 0;
+            for (int square = 0; square < 64; square++) {
+                if ((own & (1L << square)) != 0 && touches(square, empty)) expected |= 1L << square;
+            }
+            assertEquals(expected, BoardFeatures.frontier(own, empty));
+        }
+    }
+
+    @Test
+    public void testStableDiscs() {
+        Board board = new Board();
+        assertEquals(0, BoardFeatures.stableCount(board.getBlackChips(), board.getWhiteChips()));
+
+        // Black owns a8, b8, a7 and b7; b7 can still be flipped along the c8-a6 diagonal.
+        long black = 0x0000000000000303L;
+        long white = 0x0000000000000004L;
+        assertEquals(0x0000000000000103L, BoardFeatures.stableDiscs(black, white));
+
+        // Every disc on a full board is stable.
+        long full = 0xAAAAAAAAAAAAAAAAL;
+        assertEquals(full, BoardFeatures.stableDiscs(full, ~full));
+    }
+
+    private static long scanFull(long occupied, int dx, int dy) {
+        long result = 0;
+        for (int square = 0; square < 64; square++) {
+            int x = square % 8;
+            int y = square / 8;
+            boolean full = true;
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int cx = x;
+                int cy = y;
+                while (cx >= 0 && cx < 8 && cy >= 0 && cy < 8) {
+                    if ((occupied & (1L << (cx + 8 * cy))) == 0) full = false;
+                    cx += sign * dx;
+                    cy += sign * dy;
+                }
+            }
+            if (full) result |= 1L << square;
+        }
+        return result;
+    }
+
+    private static boolean touches(int square, long set) {
+        int x = square % 8;
+        int y = square / 8;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if ((dx != 0 || dy != 0) && nx >= 0 && nx < 8 && ny >= 0 && ny < 8 && (set & (1L << (nx + 8 * ny))) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,20 +1,30 @@
 package io.deeplay.camp;
 
+import io.deeplay.camp.clock.TimeControl;
 import io.deeplay.camp.config.LoadServerProperties;
-import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.ConnectionMonitor;
+import io.deeplay.camp.managers.ConnectionReaper;
+import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.network.BlockingServer;
+import io.deeplay.camp.network.NioServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main class for starting the TCP server.
+ * <p>
+ * With {@code server.io-mode=nio}, the default, clients are served by the selector-based {@link NioServer} with a
+ * fixed number of threads. {@code virtual} runs one virtual thread per client on a {@link BlockingServer}, and
+ * {@code blocking} one platform thread per client.
+ * </p>
  */
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
@@ -23,12 +33,11 @@ public class Main {
     private static boolean selfPlay;
     private static int gameCountSelfPlay;
     private static final int maxLengthQueue = 50;
-    private static final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newCachedThreadPool();
 
     /**
      * Main method to start the server.
      *
-     * @param args command line arguments
+     * @param args command line arguments; {@code --resume} continues an interrupted self-play run from its checkpoint
      * @throws IOException if an I/O error occurs
      */
     public static void main(String[] args) throws IOException {
@@ -45,15 +54,51 @@ public class Main {
             
             if (selfPlay) {
                 var botGameHandler = new SelfPlay(gameCountSelfPlay);
-                botGameHandler.startBotGame();
+                botGameHandler.setResume(Arrays.asList(args).contains("--resume"));
+                botGameHandler.setTimeControl(TimeControl.parse(properties.getProperty("server.time-control", "5/move")));
+                botGameHandler.setCheckpointInterval(Integer.parseInt(properties.getProperty("server.checkpoint-interval", "10000")));
+                botGameHandler.setTelemetryInterval(Integer.parseInt(properties.getProperty("server.telemetry-interval-seconds", "10")));
+                var openingSuite = properties.getProperty("server.opening-suite", "");
+                if (!openingSuite.isBlank()) {
+                    botGameHandler.setOpeningSuite(Path.of(openingSuite));
+                }
+                var archiveDirectory = properties.getProperty("server.game-archive", "");
+                if (!archiveDirectory.isBlank()) {
+                    botGameHandler.setArchiveDirectory(Path.of(archiveDirectory));
+                }
+                var tournamentMode = properties.getProperty("server.tournament-mode", "none");
+                var distributedRole = properties.getProperty("server.distributed-role", "none");
+                var coordinatorPort = Integer.parseInt(properties.getProperty("server.coordinator-port", "9090"));
+
+                if (Objects.equals(distributedRole, "coordinator")) {
+                    botGameHandler.startCoordinator(coordinatorPort, properties.getProperty("server.tournament-bots", "random,random"),
+                            Integer.parseInt(properties.getProperty("server.batch-size", "1000")));
+                } else if (Objects.equals(distributedRole, "worker")) {
+                    botGameHandler.startWorker(properties.getProperty("server.coordinator-host", "127.0.0.1"), coordinatorPort);
+                } else if (Objects.equals(tournamentMode, "none")) {
+                    botGameHandler.startBotGame();
+                } else {
+                    botGameHandler.startTournament(tournamentMode, properties.getProperty("server.tournament-bots", "random,random"));
+                }
             } else {
-                ServerSocket serverSocket = new ServerSocket(serverPort, maxLengthQueue, InetAddress.getByName(serverIp));
-                logger.info("Server started on IP: " + serverIp + ", Port: " + serverPort);
+                SessionManager.getInstance().setTimeControl(TimeControl.parse(properties.getProperty("server.live-time-control", "none")));
+                ConnectionReaper.getInstance().configure(
+                        Long.parseLong(properties.getProperty("server.ping-interval-seconds", "30")),
+                        Long.parseLong(properties.getProperty("server.idle-timeout-seconds", "90")), TimeUnit.SECONDS);
+                ConnectionMonitor.getInstance().start(
+                        Long.parseLong(properties.getProperty("server.stats-interval-seconds", "60")), TimeUnit.SECONDS);
+
+                var address = new InetSocketAddress(InetAddress.getByName(serverIp), serverPort);
+                var backlog = Integer.parseInt(properties.getProperty("server.backlog", String.valueOf(maxLengthQueue)));
+                var ioMode = properties.getProperty("server.io-mode", "nio");
 
-                while (true) {
-                    Socket clientSocket = serverSocket.accept();
-                    logger.info("New client connected: " + clientSocket.getRemoteSocketAddress());
-                    executor.execute(new MainHandler(clientSocket));
+                switch (ioMode) {
+                    case "nio" -> new NioServer(address, backlog,
+                            Integer.parseInt(properties.getProperty("server.selector-threads", "2")),
+                            Integer.parseInt(properties.getProperty("server.worker-threads", "32")),
+                            Integer.parseInt(properties.getProperty("server.max-connections", "50000"))).start();
+                    case "virtual", "blocking" -> new BlockingServer(address, backlog, Objects.equals(ioMode, "virtual")).start();
+                    default -> logger.error("Unknown server.io-mode '{}'; expected nio, virtual or blocking.", ioMode);
                 }
             }
         } else {
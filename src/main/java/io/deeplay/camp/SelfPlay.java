@@ -1,41 +1,65 @@
 package io.deeplay.camp;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import io.deeplay.camp.entity.Board;
-import io.deeplay.camp.entity.Tile;
-import io.deeplay.camp.board.BoardService;
+import io.deeplay.camp.archive.GameArchiveWriter;
+import io.deeplay.camp.bot.BotFactory;
 import io.deeplay.camp.bot.BotStrategy;
 import io.deeplay.camp.bot.RandomBot;
+import io.deeplay.camp.clock.TimeControl;
+import io.deeplay.camp.distributed.Coordinator;
+import io.deeplay.camp.distributed.Worker;
+import io.deeplay.camp.results.PairingTotals;
+import io.deeplay.camp.results.ResultsJournal;
+import io.deeplay.camp.results.ResultsJournalReader;
+import io.deeplay.camp.telemetry.SelfPlayTelemetry;
+import io.deeplay.camp.telemetry.TelemetryReporter;
+import io.deeplay.camp.tournament.Checkpoint;
+import io.deeplay.camp.tournament.MatchStats;
+import io.deeplay.camp.tournament.OpeningSuite;
+import io.deeplay.camp.tournament.RunCheckpointer;
+import io.deeplay.camp.tournament.Sprt;
+import io.deeplay.camp.tournament.Tournament;
+import io.deeplay.camp.tournament.TournamentRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Handles self-play games between bots.
  * <p>
- * This class manages the execution of multiple games between two bots, collects the results, and saves them to a JSON file.
- * It uses a scheduled executor service to manage the game threads and a fixed thread pool for game execution.
+ * This class runs a match between two bots on a {@link TournamentRunner} and appends the results to a JSON-Lines
+ * journal. Every game is played start to finish on one worker thread, with one worker per available core.
  * </p>
  */
 public class SelfPlay {
     private static final Logger logger = LoggerFactory.getLogger(SelfPlay.class);
-    private static final int GAME_THREAD_COUNT = Runtime.getRuntime().availableProcessors() * 10;
-    private static final int SCHEDULER_THREAD_COUNT = 10;
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(SCHEDULER_THREAD_COUNT);
-    private static final ExecutorService gameExecutor = Executors.newFixedThreadPool(GAME_THREAD_COUNT);
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final long MOVE_TIME_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double SPRT_ELO0 = 0;
+    private static final double SPRT_ELO1 = 10;
+    private static final double SPRT_ALPHA = 0.05;
+    private static final double SPRT_BETA = 0.05;
+    private static final int SPRT_MIN_GAMES = 20;
+    private static final String RESULTS_FILE = "game_results.jsonl";
+    private static final int WORKER_TIMEOUT_MILLIS = 10_000;
+    private static final Path CHECKPOINT_FILE = Path.of("self_play.checkpoint.json");
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+    private static final Path TELEMETRY_FILE = Path.of("self_play.telemetry.jsonl");
+    private static final int DEFAULT_TELEMETRY_INTERVAL_SECONDS = 10;
     private final int gameCount;
-    private final AtomicInteger firstBotWins = new AtomicInteger(0);
-    private final AtomicInteger secondBotWins = new AtomicInteger(0);
-    private final AtomicInteger draws = new AtomicInteger(0);
-    private final AtomicInteger totalGamesCompleted = new AtomicInteger(0);
+    private Path archiveDirectory;
+    private OpeningSuite openings;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private boolean resume;
+    private TimeControl timeControl = TimeControl.perMove(MOVE_TIME_LIMIT_NANOS);
+    private int telemetryIntervalSeconds = DEFAULT_TELEMETRY_INTERVAL_SECONDS;
 
     /**
      * Initializes a new SelfPlay instance with the specified number of games.
@@ -47,203 +71,222 @@ public class SelfPlay {
     }
 
     /**
-     * Starts the self-play games between the bots.
-     * <p>
-     * This method divides the total games into batches, executes them, and logs the results after each batch.
-     * </p>
+     * Sets the time control of self-play games, for example {@code 1+0.01} for fast blitz runs.
+     *
+     * @param timeControl The time control; by default every move is capped at five seconds.
      */
-    public void startBotGame() {
-        int totalBatches = (int) Math.ceil((double) gameCount / 50);
-
-        for (int batch = 0; batch < totalBatches; batch++) {
-            int gamesInBatch = Math.min(50, gameCount - batch * 50);
-            List<Future<Void>> futures = new ArrayList<>();
-
-            for (int i = 0; i < gamesInBatch; i++) {
-                int gameIndex = batch * 50 + i;
-                futures.add(gameExecutor.submit(() -> playSingleGame(gameIndex % 2 == 0)));
-            }
-
-            for (Future<Void> future : futures) {
-                try {
-                    future.get();
-                } catch (InterruptedException | ExecutionException e) {
-                    logger.error(e.toString());
-                }
-            }
-
-            logger.info("Batch {} completed. Total games: {}. Bot 1 wins: {}. Bot 2 wins: {}. Draws: {}", batch + 1, totalGamesCompleted.get(), firstBotWins.get(), secondBotWins.get(), draws.get());
-        }
+    public void setTimeControl(TimeControl timeControl) {
+        this.timeControl = timeControl;
+    }
 
-        logger.info("Total games: {}. Bot 1 wins: {}. Bot 2 wins: {}. Draws: {}", gameCount, firstBotWins.get(), secondBotWins.get(), draws.get());
-        gameExecutor.shutdown();
-        scheduler.shutdown();
+    /**
+     * Enables recording of every game into a binary archive.
+     *
+     * @param archiveDirectory The archive directory, or null to disable recording.
+     */
+    public void setArchiveDirectory(Path archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
 
-        saveResultsToJson();
+    /**
+     * Makes every game pair start from an opening of the given suite, colours swapped between the two games.
+     *
+     * @param openingSuite The suite file, see {@link OpeningSuite}.
+     * @throws IOException If the suite cannot be read.
+     */
+    public void setOpeningSuite(Path openingSuite) throws IOException {
+        this.openings = OpeningSuite.load(openingSuite);
+        logger.info("Loaded {} openings from {}", openings.size(), openingSuite);
     }
 
     /**
-     * Plays a single game between the bots.
-     * <p>
-     * This method initializes the bots and the board, executes the game, and updates the win/draw counters.
-     * </p>
+     * Sets how often the state of the run is checkpointed.
      *
-     * @param firstBotStarts True if the first bot starts the game, false otherwise.
-     * @return null
+     * @param checkpointInterval The number of games of a match between two checkpoints.
      */
-    private Void playSingleGame(boolean firstBotStarts) {
-        BotStrategy firstRandomBot = new RandomBot(1, "DarlingBot");
-        BotStrategy secondRandomBot = new RandomBot(2, "ViolaBot");
-        Board board = new Board();
-        BoardService boardLogic = new BoardService(board);
-        BotStrategy currentBot = firstBotStarts ? firstRandomBot : secondRandomBot;
-
-        while (!boardLogic.checkForWin().isGameFinished()) {
-            executeBotMove(currentBot, boardLogic);
-            currentBot = currentBot.id == firstRandomBot.id ? secondRandomBot : firstRandomBot;
-        }
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
 
-        if (boardLogic.checkForWin().getUserIdWinner() == 1) {
-            firstBotWins.incrementAndGet();
-        } else if (boardLogic.checkForWin().getUserIdWinner() == 2) {
-            secondBotWins.incrementAndGet();
-        } else {
-            draws.incrementAndGet();
-        }
+    /**
+     * Sets how often live telemetry is dumped during a run.
+     *
+     * @param telemetryIntervalSeconds The time between two dumps, or 0 to disable telemetry.
+     */
+    public void setTelemetryInterval(int telemetryIntervalSeconds) {
+        this.telemetryIntervalSeconds = telemetryIntervalSeconds;
+    }
 
-        totalGamesCompleted.incrementAndGet();
-        return null;
+    /**
+     * Makes the next run continue from the last checkpoint of an identical run, if there is one.
+     *
+     * @param resume True to resume, false to start from scratch.
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
     }
 
     /**
-     * Executes a move for the given bot.
+     * Starts the self-play games between the bots.
      * <p>
-     * This method schedules the bot's move and updates the board with the move.
+     * This method plays all games on the tournament runner, logs the totals and throughput, and journals the results.
      * </p>
-     *
-     * @param botService The bot making the move.
-     * @param boardLogic The board logic to be used for making the move.
      */
-    private void executeBotMove(BotStrategy botService, BoardService boardLogic) {
-        Callable<Tile> botMoveTask = () -> botService.getMakeMove(botService.id, boardLogic);
-        Future<Tile> futureMove = scheduler.schedule(botMoveTask, 0, TimeUnit.SECONDS);
-
-        try {
-            var tile = futureMove.get(5, TimeUnit.SECONDS);
-            if (tile != null) boardLogic.makeMove(botService.id, tile);
-        } catch (TimeoutException e) {
-            logger.error("Bot {} move timed out.", botService.id);
-            gameFinished(botService.id);
-        } catch (Exception e) {
-            logger.error("Error during bot {} move", botService.id, e);
-            logger.error(e.toString());
-            gameFinished(botService.id);
-        }
+    public void startBotGame() {
+        var runner = newRunner();
+        runJournaled(runner, "self-play", List.of("DarlingBot", "ViolaBot"), checkpointer -> {
+            MatchStats stats = runner.playMatch(() -> new RandomBot(1, "DarlingBot"), () -> new RandomBot(2, "ViolaBot"), gameCount,
+                    current -> false, checkpointer.resumeState("DarlingBot", "ViolaBot"));
+
+            logger.info("Total games: {}. Bot 1 wins: {}. Bot 2 wins: {}. Draws: {}", stats.getGames(), stats.getFirstBotWins(), stats.getSecondBotWins(), stats.getDraws());
+            logger.info("Elo: {} +/- {} per game, +/- {} per pair. Pairs: {}", String.format("%+.1f", stats.getEloDifference()),
+                    String.format("%.1f", stats.getEloErrorMargin()), String.format("%.1f", stats.getPairedEloErrorMargin()),
+                    Arrays.toString(stats.getPairCounts()));
+            logger.info("Throughput: {} games/s, {} moves/s", String.format("%.1f", stats.getGamesPerSecond()), String.format("%.1f", stats.getMovesPerSecond()));
+        });
     }
 
     /**
-     * Updates the game results when a bot loses.
+     * Starts a tournament between several bots.
      * <p>
-     * This method increments the win counter for the other bot and the total games completed counter.
+     * Each pairing plays at most the configured number of games with alternating colours and stops early once the
+     * SPRT decides between "equal strength" and "first bot is at least 10 Elo stronger". The result of every pairing
+     * is journaled like a regular self-play run.
      * </p>
      *
-     * @param botNumberLose The ID of the bot that lost.
+     * @param mode     The pairing mode: round-robin or gauntlet.
+     * @param botTypes A comma-separated list of bot types, see {@link BotFactory}.
      */
-    private void gameFinished(int botNumberLose) {
-        if (botNumberLose == 1) {
-            secondBotWins.incrementAndGet();
-        } else {
-            firstBotWins.incrementAndGet();
+    public void startTournament(String mode, String botTypes) {
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        String[] types = botTypes.split(",");
+        for (int i = 0; i < types.length; i++) {
+            String type = types[i].trim();
+            int id = i + 1;
+            String name = type + "-" + id;
+            bots.add(() -> BotFactory.create(type, id, name));
+            names.add(name);
         }
-        totalGamesCompleted.incrementAndGet();
+
+        var runner = newRunner();
+        var sprt = new Sprt(SPRT_ELO0, SPRT_ELO1, SPRT_ALPHA, SPRT_BETA, SPRT_MIN_GAMES);
+        var tournamentMode = mode.equalsIgnoreCase("gauntlet") ? Tournament.Mode.GAUNTLET : Tournament.Mode.ROUND_ROBIN;
+        var tournament = new Tournament(runner, tournamentMode, sprt, gameCount);
+
+        logger.info("Starting {} tournament for {} with {}", tournamentMode, botTypes, sprt);
+        runJournaled(runner, tournamentMode.name().toLowerCase(), names, checkpointer -> {
+            tournament.setCheckpointer(checkpointer);
+            tournament.run(bots);
+        });
     }
 
     /**
-     * Saves the game results to a JSON file.
+     * Coordinates a self-play run played by separate worker processes.
      * <p>
-     * This method reads existing results from the file, adds the new results, and writes them back to the file.
+     * Only the first two bot types are used. Workers are started with {@link #startWorker(String, int)} or
+     * {@link Worker#main(String[])} on any host that can reach the port; the games they play are merged into the
+     * archive, if one is set.
      * </p>
+     *
+     * @param port      The port the coordinator listens on.
+     * @param botTypes  A comma-separated list of bot types, see {@link BotFactory}.
+     * @param batchSize The number of games handed to a worker at a time.
      */
-    private void saveResultsToJson() {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
-        File file = new File("game_results.json");
-
-        List<Results> resultsList;
-
-        if (file.exists()) {
-            try {
-                resultsList = mapper.readValue(file, new TypeReference<List<Results>>() {});
-            } catch (IOException e) {
-                logger.error("Error reading existing game results from JSON", e);
-                resultsList = new ArrayList<>();
-            }
-        } else {
-            resultsList = new ArrayList<>();
+    public void startCoordinator(int port, String botTypes, int batchSize) {
+        String[] types = botTypes.split(",");
+        String secondType = types.length > 1 ? types[1].trim() : types[0].trim();
+        try (var archive = archiveDirectory == null ? null : new GameArchiveWriter(archiveDirectory);
+             var coordinator = new Coordinator(port, types[0].trim(), secondType, gameCount, batchSize,
+                     WORKER_TIMEOUT_MILLIS, archive)) {
+            PairingTotals totals = coordinator.run();
+            logger.info("Distributed run finished. {}", totals);
+        } catch (IOException e) {
+            logger.error("Error running the self-play coordinator", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while coordinating self-play", e);
         }
+    }
 
-        Results newResults = new Results(gameCount, firstBotWins.get(), secondBotWins.get(), draws.get());
-        resultsList.add(newResults);
-
+    /**
+     * Plays self-play batches for a coordinator until it reports the run as finished.
+     *
+     * @param host The host of the coordinator.
+     * @param port The port of the coordinator.
+     */
+    public void startWorker(String host, int port) {
         try {
-            writer.writeValue(file, resultsList);
-            logger.info("Game results saved to game_results.json");
+            new Worker(host, port, WORKER_COUNT).run();
         } catch (IOException e) {
-            logger.error("Error saving game results to JSON", e);
+            logger.error("Error in self-play worker", e);
         }
     }
 
+    private TournamentRunner newRunner() {
+        var runner = new TournamentRunner(WORKER_COUNT, timeControl);
+        runner.setOpeningSuite(openings);
+        return runner;
+    }
+
     /**
-     * Represents the results of the self-play games.
+     * Plays a run on the given runner while appending its results to the journal.
      * <p>
-     * This class holds the total number of games, the number of wins for each bot, and the number of draws.
+     * The journal is opened in append mode, so results of previous runs are kept without being read back. If an
+     * archive directory is set, the moves of every game are archived as well. The run is checkpointed periodically;
+     * when resuming, the archive and the journal are first cut back to the games covered by the checkpoint. Live
+     * telemetry is dumped while the run is going. After the run the checkpoint is deleted and the all-time totals of
+     * every pairing are logged.
      * </p>
+     *
+     * @param runner The runner that plays the games.
+     * @param mode   The kind of run written to the journal header.
+     * @param bots   The names of the participating bots.
+     * @param run    The run itself, given the checkpointer to resume from.
      */
-    private static class Results {
-        public int totalGames;
-        public int firstBotWins;
-        public int secondBotWins;
-        public int draws;
-
-        public Results() {}
-
-        public Results(int totalGames, int firstBotWins, int secondBotWins, int draws) {
-            this.totalGames = totalGames;
-            this.firstBotWins = firstBotWins;
-            this.secondBotWins = secondBotWins;
-            this.draws = draws;
-        }
-
-        public int getTotalGames() {
-            return totalGames;
-        }
-
-        public void setTotalGames(int totalGames) {
-            this.totalGames = totalGames;
-        }
-
-        public int getFirstBotWins() {
-            return firstBotWins;
-        }
-
-        public void setFirstBotWins(int firstBotWins) {
-            this.firstBotWins = firstBotWins;
-        }
-
-        public int getSecondBotWins() {
-            return secondBotWins;
-        }
-
-        public void setSecondBotWins(int secondBotWins) {
-            this.secondBotWins = secondBotWins;
+    private void runJournaled(TournamentRunner runner, String mode, List<String> bots, Consumer<RunCheckpointer> run) {
+        Path path = Path.of(RESULTS_FILE);
+        String runKey = mode + " " + bots + " " + gameCount + " " + timeControl;
+        Checkpoint resumeFrom = null;
+        try {
+            resumeFrom = resume ? RunCheckpointer.load(CHECKPOINT_FILE, runKey) : null;
+            if (resumeFrom != null && resumeFrom.getJournalSize() >= 0) {
+                ResultsJournal.truncate(path, resumeFrom.getJournalSize());
+            }
+            if (resumeFrom != null && archiveDirectory != null) {
+                long kept = GameArchiveWriter.truncate(archiveDirectory, resumeFrom.getArchiveFirstSegment(), resumeFrom.getArchivedGames());
+                if (kept < resumeFrom.getArchivedGames()) {
+                    logger.warn("Archive holds only {} of {} checkpointed games", kept, resumeFrom.getArchivedGames());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading checkpoint {}, starting over", CHECKPOINT_FILE, e);
+            resumeFrom = null;
         }
 
-        public int getDraws() {
-            return draws;
+        var telemetry = new SelfPlayTelemetry(WORKER_COUNT);
+        // Delta records are only written at checkpoints, so a resumed run never journals a game twice.
+        try (var journal = new ResultsJournal(path, Integer.MAX_VALUE, 1);
+             var archive = archiveDirectory == null ? null : new GameArchiveWriter(archiveDirectory);
+             var reporter = telemetryIntervalSeconds <= 0 ? null : new TelemetryReporter(telemetry, TELEMETRY_FILE, telemetryIntervalSeconds)) {
+            if (reporter != null) runner.setTelemetry(telemetry);
+            var checkpointer = new RunCheckpointer(CHECKPOINT_FILE, checkpointInterval, runKey, resumeFrom, archive, journal);
+            journal.writeRunHeader(resumeFrom == null ? mode : mode + " (resumed)", bots);
+            runner.addListener(checkpointer);
+            run.accept(checkpointer);
+            checkpointer.complete();
+            logger.info("Game results appended to {} as run {}", RESULTS_FILE, journal.getRunId());
+        } catch (IOException e) {
+            logger.error("Error writing game results to {}", RESULTS_FILE, e);
+            return;
         }
 
-        public void setDraws(int draws) {
-            this.draws = draws;
+        try {
+            for (PairingTotals totals : new ResultsJournalReader().aggregate(path, null).values()) {
+                logger.info("All-time {}", totals);
+            }
+        } catch (IOException e) {
+            logger.error("Error reading game results from {}", RESULTS_FILE, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package io.deeplay.camp.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Iterates the games of an archive written by {@link GameArchiveWriter}.
+ * <p>
+ * Segments are memory-mapped one at a time and read in place through a single reusable {@link GameRecord}, so the
+ * reader allocates nothing per game and can stream archives far larger than the heap. A record cut short by a crash
+ * ends its segment.
+ * </p>
+ */
+public class GameArchiveReader {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchiveReader.class);
+    private final Path directory;
+
+    /**
+     * Initializes a reader for an archive directory.
+     *
+     * @param directory The archive directory.
+     */
+    public GameArchiveReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Calls the action for every archived game, in the order the games were written.
+     * <p>
+     * The record passed to the action is reused; copy what is needed before returning.
+     * </p>
+     *
+     * @param action The action to be called for each game.
+     * @return The number of games read.
+     * @throws IOException If a segment cannot be read.
+     */
+    public long forEach(Consumer<GameRecord> action) throws IOException {
+        GameRecord record = new GameRecord();
+        long games = 0;
+        for (Path path : segments()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < GameArchiveWriter.SEGMENT_HEADER_BYTES
+                        || buffer.getInt(0) != GameArchiveWriter.SEGMENT_MAGIC) {
+                    logger.warn("Skipping {}: not a game archive segment", path);
+                    continue;
+                }
+
+                int offset = GameArchiveWriter.SEGMENT_HEADER_BYTES;
+                int size;
+                while ((size = record.wrap(buffer, offset)) > 0) {
+                    action.accept(record);
+                    offset += size;
+                    games++;
+                }
+                if (offset < buffer.limit()) {
+                    logger.warn("Ignoring {} trailing bytes of {}", buffer.limit() - offset, path);
+                }
+            }
+        }
+        return games;
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(GameArchiveWriter::isSegment).sorted().toList();
+        }
+    }
+}
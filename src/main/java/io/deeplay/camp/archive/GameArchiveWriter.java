@@ -0,0 +1,278 @@
+package io.deeplay.camp.archive;
+
+import io.deeplay.camp.tournament.GameOutcome;
+import io.deeplay.camp.tournament.MatchStats;
+import io.deeplay.camp.tournament.TournamentListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Archives every finished game into segmented, append-only files.
+ * <p>
+ * Tournament workers only encode the game and put it on a lock-free queue; a single writer thread drains the queue
+ * into a large buffer and writes it to the current segment. A segment is closed once it reaches its size limit and a
+ * new one is started, so every run appends new segments and never rewrites old data.
+ * </p>
+ */
+public class GameArchiveWriter implements TournamentListener, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchiveWriter.class);
+    static final int SEGMENT_MAGIC = 0x52564741;
+    static final int SEGMENT_HEADER_BYTES = 8;
+    static final String SEGMENT_PREFIX = "games-";
+    static final String SEGMENT_SUFFIX = ".rva";
+    private static final short FORMAT_VERSION = 1;
+    private static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final int BUFFER_BYTES = 1024 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private volatile boolean syncRequested;
+    private volatile long gamesWritten;
+    private volatile long gamesSynced;
+    private final int firstSegmentIndex;
+    private FileChannel segment;
+    private int nextSegmentIndex;
+    private long segmentSize;
+
+    /**
+     * Opens an archive directory for appending.
+     *
+     * @param directory    The archive directory; it is created if it does not exist.
+     * @param segmentBytes The size after which a segment is closed and the next one started.
+     * @throws IOException If the directory cannot be created or listed.
+     */
+    public GameArchiveWriter(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        this.firstSegmentIndex = lastSegmentIndex(directory) + 1;
+        this.nextSegmentIndex = firstSegmentIndex;
+        this.writerThread = new Thread(this::drainLoop, "game-archive-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Opens an archive directory for appending with the default segment size.
+     *
+     * @param directory The archive directory; it is created if it does not exist.
+     * @throws IOException If the directory cannot be created or listed.
+     */
+    public GameArchiveWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    @Override
+    public void onGameFinished(MatchStats stats, GameOutcome outcome, boolean firstBotIsBlack) {
+        append(GameRecord.encode(outcome));
+    }
+
+    /**
+     * Queues an already encoded record, for example one received from a remote worker.
+     *
+     * @param record The record, laid out as described in {@link GameRecord}.
+     */
+    public void append(byte[] record) {
+        if (closed) return;
+        queue.offer(record);
+    }
+
+    /**
+     * Gets the index of the first segment written by this writer; earlier segments belong to previous runs.
+     *
+     * @return The index of the first segment of this writer.
+     */
+    public int getFirstSegmentIndex() {
+        return firstSegmentIndex;
+    }
+
+    /**
+     * Gets the number of games written so far. Only exact after {@link #close()} or {@link #sync()}.
+     *
+     * @return The number of games written.
+     */
+    public long getGamesWritten() {
+        return gamesWritten;
+    }
+
+    /**
+     * Waits until every record queued so far has been written and forced to disk.
+     * <p>
+     * Records must not be appended concurrently with this call, otherwise it may wait for them as well.
+     * </p>
+     */
+    public void sync() {
+        long target = gamesWritten + queue.size();
+        while (gamesSynced < target && !closed) {
+            syncRequested = true;
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Writes all queued games, syncs the current segment and stops the writer thread.
+     *
+     * @throws IOException If the last segment cannot be synced or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for the archive writer", e);
+        }
+        logger.info("Archived {} games to {}", gamesWritten, directory);
+    }
+
+    private void drainLoop() {
+        try {
+            while (true) {
+                byte[] record = queue.poll();
+                if (record == null) {
+                    flush();
+                    if (syncRequested) {
+                        if (segment != null) segment.force(false);
+                        gamesSynced = gamesWritten;
+                        syncRequested = false;
+                    }
+                    if (closed && queue.isEmpty()) break;
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                if (buffer.remaining() < record.length) flush();
+                if (segment == null || segmentSize + buffer.position() + record.length > segmentBytes) {
+                    flush();
+                    openNextSegment();
+                }
+                buffer.put(record);
+                gamesWritten++;
+            }
+            closeSegment();
+        } catch (IOException e) {
+            logger.error("Error writing game archive, recording stopped", e);
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (buffer.position() == 0) return;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentSize += segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void openNextSegment() throws IOException {
+        closeSegment();
+        Path path = directory.resolve(segmentName(nextSegmentIndex++));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        header.putInt(SEGMENT_MAGIC).putShort(FORMAT_VERSION).putShort((short) 0).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segmentSize = SEGMENT_HEADER_BYTES;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment == null) return;
+        segment.force(false);
+        segment.close();
+        segment = null;
+    }
+
+    /**
+     * Cuts the games of a run back to a given count, for example to the state recorded by a checkpoint.
+     * <p>
+     * Segments before the first segment of the run are left alone. Within the run, the segment holding the last kept
+     * game is truncated after it and all later segments are deleted. Must not be called while a writer is open on the
+     * directory.
+     * </p>
+     *
+     * @param directory    The archive directory.
+     * @param firstSegment The index of the first segment of the run.
+     * @param games        The number of games of the run to keep.
+     * @return The number of games of the run left in the archive, less than requested if the archive was shorter.
+     * @throws IOException If a segment cannot be read, truncated or deleted.
+     */
+    public static long truncate(Path directory, int firstSegment, long games) throws IOException {
+        if (!Files.isDirectory(directory)) return 0;
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(GameArchiveWriter::isSegment)
+                    .filter(path -> segmentIndex(path) >= firstSegment)
+                    .sorted()
+                    .toList();
+        }
+
+        GameRecord record = new GameRecord();
+        long kept = 0;
+        for (Path path : segments) {
+            if (kept == games) {
+                Files.delete(path);
+                continue;
+            }
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+            int offset = SEGMENT_HEADER_BYTES;
+            int size;
+            while (kept < games && (size = record.wrap(content, offset)) > 0) {
+                offset += size;
+                kept++;
+            }
+            if (offset < content.limit()) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(offset);
+                }
+            }
+        }
+        return kept;
+    }
+
+    static String segmentName(int index) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static int segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int lastSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(GameArchiveWriter::isSegment)
+                    .mapToInt(GameArchiveWriter::segmentIndex)
+                    .max()
+                    .orElse(-1);
+        }
+    }
+}
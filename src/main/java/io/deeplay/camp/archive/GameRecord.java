@@ -0,0 +1,107 @@
+package io.deeplay.camp.archive;
+
+import io.deeplay.camp.tournament.GameOutcome;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary layout of one archived game, and a reusable view over an encoded record.
+ * <p>
+ * A record is a six byte header followed by one byte per move: the number of moves, a flags byte holding the winner
+ * in the low two bits and the timeout flag in bit two, and the ids of the black and white bots as unsigned shorts.
+ * Each move byte is the square index {@code x + 8 * y}; passes are not stored. A typical game takes about 66 bytes.
+ * </p>
+ * <p>
+ * The reader moves one instance over the whole archive instead of allocating a record per game, so a record is only
+ * valid until the next one is read.
+ * </p>
+ */
+public class GameRecord {
+    public static final int HEADER_BYTES = 6;
+    private static final int WINNER_MASK = 0b11;
+    private static final int TIMEOUT_FLAG = 0b100;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * Encodes a game outcome as a record.
+     *
+     * @param outcome The outcome, including its moves and bot ids.
+     * @return The encoded record.
+     */
+    public static byte[] encode(GameOutcome outcome) {
+        byte[] moves = outcome.getMoves();
+        byte[] record = new byte[HEADER_BYTES + moves.length];
+        record[0] = (byte) moves.length;
+        record[1] = (byte) (outcome.getWinner() | (outcome.isTimeout() ? TIMEOUT_FLAG : 0));
+        record[2] = (byte) (outcome.getBlackBotId() >>> 8);
+        record[3] = (byte) outcome.getBlackBotId();
+        record[4] = (byte) (outcome.getWhiteBotId() >>> 8);
+        record[5] = (byte) outcome.getWhiteBotId();
+        System.arraycopy(moves, 0, record, HEADER_BYTES, moves.length);
+        return record;
+    }
+
+    /**
+     * Points this view at the record starting at the given position.
+     *
+     * @param buffer The buffer holding the record.
+     * @param offset The absolute position of the record.
+     * @return The size of the record in bytes, or -1 if the buffer ends inside the record.
+     */
+    int wrap(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > buffer.limit()) return -1;
+        int size = HEADER_BYTES + (buffer.get(offset) & 0xFF);
+        if (offset + size > buffer.limit()) return -1;
+        this.buffer = buffer;
+        this.offset = offset;
+        return size;
+    }
+
+    public int getMoveCount() {
+        return buffer.get(offset) & 0xFF;
+    }
+
+    /**
+     * Gets the winning colour, using the {@link GameOutcome} constants.
+     *
+     * @return The winner, or {@link GameOutcome#DRAW}.
+     */
+    public int getWinner() {
+        return buffer.get(offset + 1) & WINNER_MASK;
+    }
+
+    public boolean isTimeout() {
+        return (buffer.get(offset + 1) & TIMEOUT_FLAG) != 0;
+    }
+
+    public int getBlackBotId() {
+        return buffer.getShort(offset + 2) & 0xFFFF;
+    }
+
+    public int getWhiteBotId() {
+        return buffer.getShort(offset + 4) & 0xFFFF;
+    }
+
+    /**
+     * Gets the square of one move.
+     *
+     * @param index The index of the move, starting at 0.
+     * @return The square index {@code x + 8 * y}.
+     */
+    public int getMove(int index) {
+        return buffer.get(offset + HEADER_BYTES + index);
+    }
+
+    /**
+     * Copies the moves of this record.
+     *
+     * @return The move squares, in order.
+     */
+    public byte[] getMoves() {
+        byte[] moves = new byte[getMoveCount()];
+        buffer.get(offset + HEADER_BYTES, moves);
+        return moves;
+    }
+}
@@ -0,0 +1,44 @@
+package io.deeplay.camp.distributed;
+
+/**
+ * A range of games handed to one worker.
+ * <p>
+ * Game indices are global over the whole run, so a batch that is re-issued to another worker after a failure covers
+ * exactly the same games, with the same colour assignment.
+ * </p>
+ */
+public class Batch {
+    private final int id;
+    private final int firstGameIndex;
+    private final int gameCount;
+
+    /**
+     * Initializes a new Batch.
+     *
+     * @param id             The id of the batch, unique within a run.
+     * @param firstGameIndex The index of the first game of the batch.
+     * @param gameCount      The number of games in the batch.
+     */
+    public Batch(int id, int firstGameIndex, int gameCount) {
+        this.id = id;
+        this.firstGameIndex = firstGameIndex;
+        this.gameCount = gameCount;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getFirstGameIndex() {
+        return firstGameIndex;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    @Override
+    public String toString() {
+        return "batch " + id + " [" + firstGameIndex + ", " + (firstGameIndex + gameCount) + ")";
+    }
+}
@@ -0,0 +1,213 @@
+package io.deeplay.camp.distributed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplay.camp.archive.GameArchiveWriter;
+import io.deeplay.camp.archive.GameRecord;
+import io.deeplay.camp.results.PairingTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out self-play batches to worker processes and merges their results.
+ * <p>
+ * The run is split into batches of consecutive game indices. Each connected worker gets one batch at a time and
+ * must send a message at least once per timeout; a worker that disconnects or goes silent is dropped and its batch
+ * is put back at the front of the queue for the next worker. Results of a batch are merged only once, so a batch
+ * finished twice after a re-issue is not counted twice.
+ * </p>
+ */
+public class Coordinator implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(Coordinator.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final ServerSocket serverSocket;
+    private final String firstBotType;
+    private final String secondBotType;
+    private final int workerTimeoutMillis;
+    private final GameArchiveWriter archive;
+    private final BlockingDeque<Batch> pending = new LinkedBlockingDeque<>();
+    private final Set<Integer> completed = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch remaining;
+    private final PairingTotals totals;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+
+    /**
+     * Initializes a new Coordinator and starts listening.
+     *
+     * @param port                The port to listen on, or 0 for any free port.
+     * @param firstBotType        The type of the first bot, see {@link io.deeplay.camp.bot.BotFactory}.
+     * @param secondBotType       The type of the second bot.
+     * @param gameCount           The total number of games to play.
+     * @param batchSize           The number of games per batch; rounded up to an even number to keep colours fair.
+     * @param workerTimeoutMillis The time after which a silent worker is considered dead.
+     * @param archive             The archive for the games played by workers, or null to discard the moves.
+     * @throws IOException If the port cannot be bound.
+     */
+    public Coordinator(int port, String firstBotType, String secondBotType, int gameCount, int batchSize,
+                       int workerTimeoutMillis, GameArchiveWriter archive) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.firstBotType = firstBotType;
+        this.secondBotType = secondBotType;
+        this.workerTimeoutMillis = workerTimeoutMillis;
+        this.archive = archive;
+        this.totals = new PairingTotals(firstBotType + "-1", secondBotType + "-2");
+
+        int evenBatchSize = batchSize + batchSize % 2;
+        int id = 0;
+        for (int first = 0; first < gameCount; first += evenBatchSize) {
+            pending.add(new Batch(id++, first, Math.min(evenBatchSize, gameCount - first)));
+        }
+        this.remaining = new CountDownLatch(id);
+    }
+
+    /**
+     * Gets the port the coordinator listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts workers until every batch is finished.
+     *
+     * @return The merged results of all batches.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public PairingTotals run() throws InterruptedException {
+        logger.info("Coordinator listening on port {} with {} batches", getPort(), remaining.getCount());
+        Thread acceptor = new Thread(this::acceptLoop, "coordinator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        remaining.await();
+        logger.info("All batches finished. {}", totals);
+        return totals;
+    }
+
+    /**
+     * Stops accepting workers and closes all connections.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serveWorker(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("Error accepting worker connection", e);
+            }
+        }
+    }
+
+    private void serveWorker(Socket socket) {
+        String worker = String.valueOf(socket.getRemoteSocketAddress());
+        Batch batch = null;
+        try (socket;
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(workerTimeoutMillis);
+            JsonNode hello = WireFormat.receive(reader);
+            if (!WireFormat.HELLO.equals(hello.path("type").asText())) {
+                logger.warn("Worker {} did not say hello, closing", worker);
+                return;
+            }
+            worker = hello.path("worker").asText(worker);
+            logger.info("Worker {} connected", worker);
+
+            while ((batch = nextBatch()) != null) {
+                ObjectNode message = WireFormat.message(WireFormat.BATCH);
+                message.put("batch", batch.getId());
+                message.put("first", firstBotType);
+                message.put("second", secondBotType);
+                message.put("firstGameIndex", batch.getFirstGameIndex());
+                message.put("games", batch.getGameCount());
+                WireFormat.send(writer, message);
+
+                JsonNode reply;
+                do {
+                    reply = WireFormat.receive(reader);
+                } while (WireFormat.HEARTBEAT.equals(reply.path("type").asText()));
+
+                if (!WireFormat.RESULT.equals(reply.path("type").asText()) || reply.path("batch").asInt() != batch.getId()) {
+                    throw new IOException("Unexpected message " + reply.path("type").asText());
+                }
+                merge(batch, reply);
+                batch = null;
+            }
+            WireFormat.send(writer, WireFormat.message(WireFormat.DONE));
+            logger.info("Worker {} released", worker);
+        } catch (SocketTimeoutException e) {
+            logger.warn("Worker {} timed out", worker);
+        } catch (IOException e) {
+            logger.warn("Worker {} failed: {}", worker, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (batch != null && !completed.contains(batch.getId())) {
+                logger.warn("Re-issuing {} of worker {}", batch, worker);
+                pending.addFirst(batch);
+            }
+        }
+    }
+
+    private Batch nextBatch() throws InterruptedException {
+        while (remaining.getCount() > 0) {
+            Batch batch = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (batch != null && !completed.contains(batch.getId())) return batch;
+        }
+        return null;
+    }
+
+    private void merge(Batch batch, JsonNode result) {
+        if (!completed.add(batch.getId())) return;
+
+        synchronized (totals) {
+            totals.add(result.path("games").asLong(), result.path("firstWins").asLong(),
+                    result.path("secondWins").asLong(), result.path("draws").asLong(), result.path("moves").asLong());
+        }
+        if (archive != null) {
+            ByteBuffer records = ByteBuffer.wrap(Base64.getDecoder().decode(result.path("records").asText()));
+            while (records.hasRemaining()) {
+                byte[] record = new byte[GameRecord.HEADER_BYTES + (records.get(records.position()) & 0xFF)];
+                records.get(record);
+                archive.append(record);
+            }
+        }
+        remaining.countDown();
+        logger.info("Finished {}, {} batches left", batch, remaining.getCount());
+    }
+}
@@ -0,0 +1,50 @@
+package io.deeplay.camp.distributed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Line-based JSON messages exchanged between the coordinator and its workers.
+ * <p>
+ * Every message is one JSON object per line with a {@code type} field: {@code hello}, {@code heartbeat} and
+ * {@code result} from the worker, {@code batch} and {@code done} from the coordinator.
+ * </p>
+ */
+final class WireFormat {
+    static final String HELLO = "hello";
+    static final String HEARTBEAT = "heartbeat";
+    static final String BATCH = "batch";
+    static final String RESULT = "result";
+    static final String DONE = "done";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private WireFormat() {
+    }
+
+    static ObjectNode message(String type) {
+        ObjectNode message = mapper.createObjectNode();
+        message.put("type", type);
+        return message;
+    }
+
+    static void send(Writer writer, ObjectNode message) throws IOException {
+        synchronized (writer) {
+            writer.write(mapper.writeValueAsString(message));
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    static JsonNode receive(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) throw new EOFException("Connection closed by peer");
+        return mapper.readTree(line);
+    }
+}
@@ -0,0 +1,134 @@
+package io.deeplay.camp.distributed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplay.camp.archive.GameRecord;
+import io.deeplay.camp.bot.BotFactory;
+import io.deeplay.camp.tournament.GameOutcome;
+import io.deeplay.camp.tournament.MatchStats;
+import io.deeplay.camp.tournament.TournamentListener;
+import io.deeplay.camp.tournament.TournamentRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays self-play batches on behalf of a {@link Coordinator}.
+ * <p>
+ * The worker connects to the coordinator, plays each batch it receives on a local {@link TournamentRunner} and sends
+ * back the counters together with the encoded moves of every game. A heartbeat is sent every second, so the
+ * coordinator can tell a long batch from a dead worker.
+ * </p>
+ */
+public class Worker {
+    private static final Logger logger = LoggerFactory.getLogger(Worker.class);
+    private static final long HEARTBEAT_MILLIS = 1000;
+    private static final long MOVE_TIME_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final String host;
+    private final int port;
+    private final int threadCount;
+
+    /**
+     * Initializes a new Worker.
+     *
+     * @param host        The host of the coordinator.
+     * @param port        The port of the coordinator.
+     * @param threadCount The number of games played in parallel.
+     */
+    public Worker(String host, int port, int threadCount) {
+        this.host = host;
+        this.port = port;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Plays batches until the coordinator reports that the run is finished.
+     *
+     * @throws IOException If the connection to the coordinator fails.
+     */
+    public void run() throws IOException {
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+        try (var socket = new Socket(host, port);
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            ObjectNode hello = WireFormat.message(WireFormat.HELLO);
+            hello.put("worker", ManagementFactory.getRuntimeMXBean().getName());
+            WireFormat.send(writer, hello);
+
+            heartbeat.scheduleAtFixedRate(() -> {
+                try {
+                    WireFormat.send(writer, WireFormat.message(WireFormat.HEARTBEAT));
+                } catch (IOException e) {
+                    logger.warn("Error sending heartbeat", e);
+                }
+            }, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+
+            JsonNode message;
+            while (WireFormat.BATCH.equals((message = WireFormat.receive(reader)).path("type").asText())) {
+                WireFormat.send(writer, playBatch(message));
+            }
+            logger.info("Coordinator finished the run");
+        } finally {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    private ObjectNode playBatch(JsonNode batch) {
+        String firstType = batch.path("first").asText();
+        String secondType = batch.path("second").asText();
+        int firstGameIndex = batch.path("firstGameIndex").asInt();
+        int games = batch.path("games").asInt();
+        logger.info("Playing batch {} with {} games", batch.path("batch").asInt(), games);
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream(games * 72);
+        var runner = new TournamentRunner(threadCount, MOVE_TIME_LIMIT_NANOS);
+        runner.addListener(new TournamentListener() {
+            @Override
+            public void onGameFinished(MatchStats stats, GameOutcome outcome, boolean firstBotIsBlack) {
+                byte[] record = GameRecord.encode(outcome);
+                synchronized (records) {
+                    records.write(record, 0, record.length);
+                }
+            }
+        });
+        MatchStats stats = runner.playGames(() -> BotFactory.create(firstType, 1, firstType + "-1"),
+                () -> BotFactory.create(secondType, 2, secondType + "-2"), firstGameIndex, games);
+
+        ObjectNode result = WireFormat.message(WireFormat.RESULT);
+        result.put("batch", batch.path("batch").asInt());
+        result.put("games", stats.getGames());
+        result.put("firstWins", stats.getFirstBotWins());
+        result.put("secondWins", stats.getSecondBotWins());
+        result.put("draws", stats.getDraws());
+        result.put("moves", stats.getMoves());
+        synchronized (records) {
+            result.put("records", Base64.getEncoder().encodeToString(records.toByteArray()));
+        }
+        return result;
+    }
+
+    /**
+     * Starts a worker process.
+     *
+     * @param args The coordinator host and port, optionally followed by the number of parallel games.
+     * @throws IOException If the connection to the coordinator fails.
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        new Worker(args[0], Integer.parseInt(args[1]), threads).run();
+    }
+}
@@ -0,0 +1,169 @@
+package io.deeplay.camp.loadtest;
+
+import io.deeplay.camp.config.LoadServerProperties;
+import io.deeplay.camp.network.BlockingServer;
+import io.deeplay.camp.network.NioServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures how many idle clients the server holds and what they cost.
+ * <p>
+ * The server runs in this JVM in the configured I/O mode. A second JVM opens the clients, so each process stays
+ * within its own file descriptor limit. Every client waits for the greeting, and once all of them are connected
+ * each one sends a command and waits for the reply. The test then reports the connection count, the heap and the
+ * number of platform threads of the server, and the time the round of commands took.
+ * </p>
+ * <p>
+ * Usage: {@code ConnectionLoadTest [nio|virtual|blocking] [clients]}; both default to {@code server.io-mode} and
+ * {@code server.load-test-clients} from server.properties.
+ * </p>
+ */
+public class ConnectionLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionLoadTest.class);
+    private static final int BACKLOG = 4096;
+    private static final String GREETING = "Waiting for session.";
+
+    public static void main(String[] args) throws Exception {
+        var properties = LoadServerProperties.loadConfig();
+        String mode = args.length > 0 ? args[0] : properties.getProperty("server.io-mode", "nio");
+        int clients = args.length > 1 ? Integer.parseInt(args[1])
+                : Integer.parseInt(properties.getProperty("server.load-test-clients", "10000"));
+        run(mode, clients);
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param mode    The I/O mode of the server: nio, virtual or blocking.
+     * @param clients The number of clients to connect.
+     * @throws IOException          If the server or the client process fails.
+     * @throws InterruptedException If interrupted while waiting for the clients.
+     */
+    public static void run(String mode, int clients) throws IOException, InterruptedException {
+        var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        Closeable server;
+        IntSupplier connectionCount;
+        int port;
+        if (!List.of("nio", "virtual", "blocking").contains(mode)) {
+            throw new IllegalArgumentException("Unknown I/O mode '" + mode + "'; expected nio, virtual or blocking");
+        }
+        if (Objects.equals(mode, "nio")) {
+            var nioServer = new NioServer(address, BACKLOG, 2, 32, clients + 100);
+            port = nioServer.start();
+            server = nioServer;
+            connectionCount = nioServer::getConnectionCount;
+        } else {
+            var blockingServer = new BlockingServer(address, BACKLOG, Objects.equals(mode, "virtual"));
+            port = blockingServer.start();
+            server = blockingServer;
+            connectionCount = blockingServer::getConnectionCount;
+        }
+
+        long heapBefore = usedHeapAfterGc();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(javaBin, "-cp", System.getProperty("java.class.path"),
+                Clients.class.getName(), String.valueOf(port), String.valueOf(clients))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        try (server; BufferedReader fromClients = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String connected = fromClients.readLine();
+            if (connected == null) throw new IOException("Client process ended before connecting");
+
+            long heapAfter = usedHeapAfterGc();
+            int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+            int connections = connectionCount.getAsInt();
+            String roundTrip = fromClients.readLine();
+
+            logger.info("Load test, mode {}: {} of {} clients connected ({}). Heap {} MB -> {} MB, {} bytes per connection. "
+                            + "Platform threads {} -> {}. {}",
+                    mode, connections, clients, connected, heapBefore >> 20, heapAfter >> 20,
+                    (heapAfter - heapBefore) / Math.max(connections, 1), threadsBefore, threadsAfter, roundTrip);
+            process.getOutputStream().close();
+        } finally {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly();
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        Thread.sleep(200);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The client side of the load test, run in its own JVM.
+     * <p>
+     * All clients are plain blocking channels driven from one thread, so the client process needs no thread per
+     * connection. It prints one line once every client has its greeting and one line with the command round trip,
+     * then holds the connections until its standard input is closed.
+     * </p>
+     */
+    public static class Clients {
+        public static void main(String[] args) throws IOException {
+            var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]));
+            int count = Integer.parseInt(args[1]);
+            List<SocketChannel> channels = new ArrayList<>(count);
+            ByteBuffer buffer = ByteBuffer.allocate(256);
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < count; i++) {
+                    SocketChannel channel = SocketChannel.open(address);
+                    channels.add(channel);
+                    if (!Objects.equals(readLine(channel, buffer), GREETING)) throw new IOException("Unexpected greeting");
+                }
+                System.out.println(count + " clients in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                System.out.flush();
+
+                start = System.nanoTime();
+                ByteBuffer command = ByteBuffer.wrap("ping\n".getBytes(StandardCharsets.UTF_8));
+                for (SocketChannel channel : channels) {
+                    channel.write(command.rewind());
+                }
+                for (SocketChannel channel : channels) {
+                    readLine(channel, buffer);
+                }
+                System.out.println("command round to all clients took "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                System.out.flush();
+
+                while (System.in.read() >= 0) {
+                    // hold the connections until the parent closes our input
+                }
+            } finally {
+                for (SocketChannel channel : channels) channel.close();
+            }
+        }
+
+        private static String readLine(SocketChannel channel, ByteBuffer buffer) throws IOException {
+            buffer.clear();
+            while (true) {
+                if (channel.read(buffer) < 0) throw new IOException("Server closed the connection");
+                for (int i = 0; i < buffer.position(); i++) {
+                    if (buffer.get(i) == '\n') return new String(buffer.array(), 0, i, StandardCharsets.UTF_8);
+                }
+                if (!buffer.hasRemaining()) throw new IOException("Line too long");
+            }
+        }
+    }
+}
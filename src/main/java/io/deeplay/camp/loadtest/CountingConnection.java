@@ -0,0 +1,36 @@
+package io.deeplay.camp.loadtest;
+
+import io.deeplay.camp.handlers.main.Connection;
+import io.deeplay.camp.network.ConnectionStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A connection that only counts the messages sent to it, so benchmarks measure the server code alone.
+ */
+class CountingConnection implements Connection {
+    private final LongAdder sent;
+
+    CountingConnection(LongAdder sent) {
+        this.sent = sent;
+    }
+
+    @Override
+    public void sendMessageToClient(String msg) {
+        sent.increment();
+    }
+
+    @Override
+    public ConnectionStats getStats() {
+        return new ConnectionStats(getRemoteAddress(), 0, 0, sent.sum(), 0, 0, 0, false);
+    }
+
+    @Override
+    public void closeConnection() {
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return "benchmark";
+    }
+}
@@ -0,0 +1,90 @@
+package io.deeplay.camp.loadtest;
+
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.Matchmaker;
+import io.deeplay.camp.managers.SessionManager;
+import io.deeplay.camp.telemetry.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the {@link Matchmaker} under many players seeking at once.
+ * <p>
+ * Every seeker starts its search from its own virtual thread, with a rating drawn from a normal distribution around
+ * 1500, and the benchmark waits until all of them are paired. It reports how fast the searches were started, the time
+ * the whole crowd took, the waits of the players and how far apart the ratings of paired players were. Widening runs
+ * at the given interval instead of the server default, so players far from the rest are paired within seconds.
+ * </p>
+ * <p>
+ * Usage: {@code MatchmakingBenchmark [seekers] [widen-millis]}, default 10000 and 100.
+ * </p>
+ */
+public class MatchmakingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(MatchmakingBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        int seekers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long widenMillis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        run(seekers & ~1, widenMillis);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param seekers     The number of players, even so that everyone gets an opponent.
+     * @param widenMillis The widening interval of the searches.
+     * @throws Exception If a search fails.
+     */
+    public static void run(int seekers, long widenMillis) throws Exception {
+        SessionManager manager = SessionManager.getInstance();
+        Matchmaker matchmaker = Matchmaker.getInstance();
+        matchmaker.configure(widenMillis, Matchmaker.MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        LongAdder sent = new LongAdder();
+        Random random = new Random(42);
+        List<CompletableFuture<GameSession>> searches = new ArrayList<>(seekers);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < seekers; i++) {
+                User user = new User(3_000_000 + i, "player", "", (int) Math.round(1500 + 300 * random.nextGaussian()),
+                        0, "");
+                MainHandler handler = new MainHandler(new CountingConnection(sent));
+                handler.setUser(user);
+                manager.addHandler(handler);
+                CompletableFuture<GameSession> search = new CompletableFuture<>();
+                searches.add(search);
+                executor.execute(() -> manager.findOrCreateSession(handler, user, false).whenComplete((session, error) -> {
+                    if (error != null) search.completeExceptionally(error);
+                    else search.complete(session);
+                }));
+            }
+        }
+        long seeking = System.nanoTime() - start;
+        CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).get();
+        long elapsed = System.nanoTime() - start;
+
+        LatencyHistogram gaps = new LatencyHistogram();
+        searches.stream().map(CompletableFuture::join).distinct().forEach(session ->
+                gaps.record(Math.abs(session.getPlayer1().getRating() - session.getPlayer2().getRating())));
+        LatencyHistogram waits = matchmaker.getWaitMillis();
+        logger.info("{} seekers paired into {} games in {} ms, {} still waiting", seekers, gaps.getCount(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), matchmaker.getWaitingCount());
+        logger.info("Seek calls: {} ms for all, {} per second", TimeUnit.NANOSECONDS.toMillis(seeking),
+                seekers * TimeUnit.SECONDS.toNanos(1) / Math.max(seeking, 1));
+        logger.info("Wait: p50 {} ms, p90 {} ms, p99 {} ms, max {} ms", waits.getPercentile(50),
+                waits.getPercentile(90), waits.getPercentile(99), waits.getMax());
+        logger.info("Rating gap: p50 {}, p90 {}, p99 {}, max {}", gaps.getPercentile(50), gaps.getPercentile(90),
+                gaps.getPercentile(99), gaps.getMax());
+    }
+}
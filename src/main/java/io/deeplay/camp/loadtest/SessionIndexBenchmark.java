@@ -0,0 +1,88 @@
+package io.deeplay.camp.loadtest;
+
+import io.deeplay.camp.entity.GameSession;
+import io.deeplay.camp.entity.User;
+import io.deeplay.camp.handlers.main.MainHandler;
+import io.deeplay.camp.managers.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how the lookups of the {@link SessionManager} scale with the number of games.
+ * <p>
+ * Pairs of players are matched into sessions in steps up to the requested number of games. After every step the
+ * benchmark times the lookups a move makes, finding the session, sending to the opponent and resolving the opponent's
+ * user, for players picked at random from all games so far. Connections are stubs that only count messages, so the
+ * figures are the cost of the manager alone and should stay flat as the number of games grows.
+ * </p>
+ * <p>
+ * Usage: {@code SessionIndexBenchmark [games]}, default 100000.
+ * </p>
+ */
+public class SessionIndexBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(SessionIndexBenchmark.class);
+    private static final int LOOKUPS = 200_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        run(games);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param games The number of games to grow to.
+     */
+    public static void run(int games) {
+        SessionManager manager = SessionManager.getInstance();
+        LongAdder sent = new LongAdder();
+        List<MainHandler> players = new ArrayList<>(2 * games);
+        int userId = 1_000_000;
+        int size = Math.min(1_000, games);
+        while (true) {
+            while (players.size() < 2 * size) {
+                players.add(join(manager, new User(userId++, "player", "", 1000, 0, ""), sent));
+                players.add(join(manager, new User(userId++, "player", "", 1000, 0, ""), sent));
+            }
+
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                best = Math.min(best, timeLookups(manager, players));
+            }
+            logger.info("{} games: {} ns per move lookup ({} messages sent)", manager.getSessionCount(), best,
+                    sent.sum());
+            if (size == games) break;
+            size = Math.min(size * 10, games);
+        }
+    }
+
+    private static long timeLookups(SessionManager manager, List<MainHandler> players) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            MainHandler player = players.get(random.nextInt(players.size()));
+            GameSession session = manager.getSession(player.getSession().getSessionId());
+            manager.sendMessageToOpponent(player, session, "game-move");
+            if (manager.getOpponent(player) != player.getUser()) found++;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found != LOOKUPS) throw new IllegalStateException("Opponent missing in " + (LOOKUPS - found) + " lookups");
+        return elapsed / LOOKUPS;
+    }
+
+    private static MainHandler join(SessionManager manager, User user, LongAdder sent) {
+        MainHandler handler = new MainHandler(new CountingConnection(sent));
+        handler.setUser(user);
+        manager.addHandler(handler);
+        // The first of two equal ratings waits, the second pairs at once and completes both futures.
+        manager.findOrCreateSession(handler, user, false).thenAccept(handler::setSession);
+        return handler;
+    }
+}
@@ -0,0 +1,92 @@
+package io.deeplay.camp.results;
+
+import io.deeplay.camp.tournament.EloEstimate;
+
+/**
+ * Aggregated results of one bot pairing.
+ * <p>
+ * Instances are built by {@link ResultsJournalReader} from the incremental records of the journal and are not
+ * thread safe.
+ * </p>
+ */
+public class PairingTotals {
+    private final String firstBotName;
+    private final String secondBotName;
+    private long games;
+    private long firstBotWins;
+    private long secondBotWins;
+    private long draws;
+    private long moves;
+
+    /**
+     * Initializes empty totals for a pairing.
+     *
+     * @param firstBotName  The name of the first bot.
+     * @param secondBotName The name of the second bot.
+     */
+    public PairingTotals(String firstBotName, String secondBotName) {
+        this.firstBotName = firstBotName;
+        this.secondBotName = secondBotName;
+    }
+
+    /**
+     * Adds the counters of one incremental record.
+     *
+     * @param games         The number of games in the record.
+     * @param firstBotWins  The number of games won by the first bot.
+     * @param secondBotWins The number of games won by the second bot.
+     * @param draws         The number of drawn games.
+     * @param moves         The number of moves played.
+     */
+    public void add(long games, long firstBotWins, long secondBotWins, long draws, long moves) {
+        this.games += games;
+        this.firstBotWins += firstBotWins;
+        this.secondBotWins += secondBotWins;
+        this.draws += draws;
+        this.moves += moves;
+    }
+
+    public String getFirstBotName() {
+        return firstBotName;
+    }
+
+    public String getSecondBotName() {
+        return secondBotName;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getFirstBotWins() {
+        return firstBotWins;
+    }
+
+    public long getSecondBotWins() {
+        return secondBotWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Gets the estimated Elo difference of the first bot over the second.
+     *
+     * @return The Elo difference.
+     */
+    public double getEloDifference() {
+        return EloEstimate.eloDifference((int) firstBotWins, (int) draws, (int) secondBotWins);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s vs %s: games=%d, %s wins=%d, %s wins=%d, draws=%d, elo=%+.1f",
+                firstBotName, secondBotName, games, firstBotName, firstBotWins, secondBotName, secondBotWins, draws,
+                getEloDifference());
+    }
+}
@@ -0,0 +1,307 @@
+package io.deeplay.camp.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplay.camp.tournament.GameOutcome;
+import io.deeplay.camp.tournament.MatchStats;
+import io.deeplay.camp.tournament.TournamentListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only JSON-Lines journal of self-play results.
+ * <p>
+ * Every line is a self-contained JSON object with a {@code type} field: one {@code run} header per run, {@code delta}
+ * records carrying the games finished since the previous record of the same pairing, and one {@code result} record
+ * with the summary of each pairing. Lines are only ever appended, so a crash can at worst truncate the last line,
+ * and the file is forced to disk after every few records instead of after every write. A journal opened after such a
+ * crash first ends the truncated line, so the records of the new run start on a line of their own.
+ * </p>
+ */
+public class ResultsJournal implements TournamentListener, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ResultsJournal.class);
+    private static final int DEFAULT_DELTA_GAMES = 1000;
+    private static final int DEFAULT_SYNC_EVERY = 8;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FileChannel channel;
+    private final String runId;
+    private final int deltaGames;
+    private final int syncEvery;
+    private final Map<MatchStats, PendingDelta> pending = new ConcurrentHashMap<>();
+    private int unsyncedLines;
+
+    /**
+     * Opens a journal for appending.
+     *
+     * @param path       The journal file; it is created if it does not exist.
+     * @param deltaGames The number of games collected per pairing before a delta record is written.
+     * @param syncEvery  The number of records written between two forced syncs.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ResultsJournal(Path path, int deltaGames, int syncEvery) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (!endsWithNewline(path)) {
+            ByteBuffer newline = ByteBuffer.wrap(new byte[]{'\n'});
+            while (newline.hasRemaining()) {
+                channel.write(newline);
+            }
+        }
+        this.runId = UUID.randomUUID().toString();
+        this.deltaGames = deltaGames;
+        this.syncEvery = syncEvery;
+    }
+
+    /**
+     * Opens a journal for appending with the default batching.
+     *
+     * @param path The journal file; it is created if it does not exist.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ResultsJournal(Path path) throws IOException {
+        this(path, DEFAULT_DELTA_GAMES, DEFAULT_SYNC_EVERY);
+    }
+
+    /**
+     * Writes the header of this run.
+     *
+     * @param mode The kind of run, for example "self-play" or "round-robin".
+     * @param bots The names of the participating bots.
+     */
+    public void writeRunHeader(String mode, List<String> bots) {
+        ObjectNode record = newRecord("run");
+        record.put("time", Instant.now().toString());
+        record.put("mode", mode);
+        ArrayNode botNames = record.putArray("bots");
+        bots.forEach(botNames::add);
+        append(record, true);
+    }
+
+    @Override
+    public void onMatchStarted(MatchStats stats) {
+        pending.put(stats, new PendingDelta());
+    }
+
+    @Override
+    public void onGameFinished(MatchStats stats, GameOutcome outcome, boolean firstBotIsBlack) {
+        PendingDelta delta = pending.get(stats);
+        if (delta == null) return;
+
+        PendingDelta full = delta.add(outcome, firstBotIsBlack, deltaGames);
+        if (full != null) {
+            append(deltaRecord(stats, full), false);
+        }
+    }
+
+    @Override
+    public void onMatchFinished(MatchStats stats) {
+        PendingDelta delta = pending.remove(stats);
+        if (delta != null) {
+            PendingDelta rest = delta.drain();
+            if (rest.games > 0) append(deltaRecord(stats, rest), false);
+        }
+
+        ObjectNode record = pairingRecord("result", stats.getFirstBotName(), stats.getSecondBotName());
+        record.put("games", stats.getGames());
+        record.put("firstWins", stats.getFirstBotWins());
+        record.put("secondWins", stats.getSecondBotWins());
+        record.put("draws", stats.getDraws());
+        record.put("timeouts", stats.getTimeouts());
+        record.put("elo", stats.getEloDifference());
+        record.put("eloMargin", stats.getEloErrorMargin());
+        ArrayNode pairs = record.putArray("pairs");
+        for (long count : stats.getPairCounts()) {
+            pairs.add(count);
+        }
+        record.put("pairedEloMargin", stats.getPairedEloErrorMargin());
+        record.put("gamesPerSecond", stats.getGamesPerSecond());
+        record.put("movesPerSecond", stats.getMovesPerSecond());
+        append(record, true);
+    }
+
+    /**
+     * Takes the games of every pairing collected since its last delta record, to be written by {@link #flush(List)}.
+     * <p>
+     * Taking and writing are separate steps, so a caller can take the deltas together with its own state under its
+     * lock and write them after releasing it.
+     * </p>
+     *
+     * @return The delta records, empty if no game finished since the last ones.
+     */
+    public List<ObjectNode> takeDeltas() {
+        List<ObjectNode> records = new ArrayList<>();
+        pending.forEach((stats, delta) -> {
+            PendingDelta taken = delta.drain();
+            if (taken.games > 0) records.add(deltaRecord(stats, taken));
+        });
+        return records;
+    }
+
+    /**
+     * Appends delta records taken by {@link #takeDeltas()} and forces the journal to disk.
+     *
+     * @param deltas The delta records.
+     * @return The size of the journal after the records.
+     */
+    public synchronized long flush(List<ObjectNode> deltas) {
+        deltas.forEach(record -> append(record, false));
+        try {
+            channel.force(false);
+            unsyncedLines = 0;
+            return channel.size();
+        } catch (IOException e) {
+            logger.error("Error syncing results journal", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cuts a journal back to a given size, for example to the size recorded by a checkpoint.
+     * <p>
+     * Must not be called while a journal is open on the file.
+     * </p>
+     *
+     * @param path The journal file.
+     * @param size The size to keep.
+     * @return The size of the journal afterwards, less than requested if the journal was shorter.
+     * @throws IOException If the file cannot be truncated.
+     */
+    public static long truncate(Path path, long size) throws IOException {
+        if (!Files.exists(path)) return 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > size) channel.truncate(size);
+            return channel.size();
+        }
+    }
+
+    /**
+     * Gets the id of this run, written into every record.
+     *
+     * @return The run id.
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Forces all records to disk and closes the journal.
+     *
+     * @throws IOException If the file cannot be synced or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private ObjectNode deltaRecord(MatchStats stats, PendingDelta delta) {
+        ObjectNode record = pairingRecord("delta", stats.getFirstBotName(), stats.getSecondBotName());
+        record.put("games", delta.games);
+        record.put("firstWins", delta.firstBotWins);
+        record.put("secondWins", delta.secondBotWins);
+        record.put("draws", delta.draws);
+        record.put("moves", delta.moves);
+        return record;
+    }
+
+    private ObjectNode pairingRecord(String type, String firstBotName, String secondBotName) {
+        ObjectNode record = newRecord(type);
+        record.put("first", firstBotName);
+        record.put("second", secondBotName);
+        return record;
+    }
+
+    private ObjectNode newRecord(String type) {
+        ObjectNode record = mapper.createObjectNode();
+        record.put("type", type);
+        record.put("run", runId);
+        return record;
+    }
+
+    private static boolean endsWithNewline(Path path) throws IOException {
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = reader.size();
+            if (size == 0) return true;
+
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private synchronized void append(ObjectNode record, boolean sync) {
+        try {
+            byte[] line = (mapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            if (sync || ++unsyncedLines >= syncEvery) {
+                channel.force(false);
+                unsyncedLines = 0;
+            }
+        } catch (IOException e) {
+            logger.error("Error appending to results journal", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Games of one pairing not yet written to the journal.
+     */
+    private static class PendingDelta {
+        private int games;
+        private int firstBotWins;
+        private int secondBotWins;
+        private int draws;
+        private long moves;
+
+        synchronized PendingDelta add(GameOutcome outcome, boolean firstBotIsBlack, int limit) {
+            int firstColour = firstBotIsBlack ? GameOutcome.BLACK : GameOutcome.WHITE;
+            if (outcome.getWinner() == GameOutcome.DRAW) {
+                draws++;
+            } else if (outcome.getWinner() == firstColour) {
+                firstBotWins++;
+            } else {
+                secondBotWins++;
+            }
+            moves += outcome.getMoveCount();
+            games++;
+
+            return games >= limit ? drain() : null;
+        }
+
+        synchronized PendingDelta drain() {
+            PendingDelta snapshot = new PendingDelta();
+            snapshot.games = games;
+            snapshot.firstBotWins = firstBotWins;
+            snapshot.secondBotWins = secondBotWins;
+            snapshot.draws = draws;
+            snapshot.moves = moves;
+            games = 0;
+            firstBotWins = 0;
+            secondBotWins = 0;
+            draws = 0;
+            moves = 0;
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.deeplay.camp.results;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams a {@link ResultsJournal} file and aggregates its results.
+ * <p>
+ * The file is read one line at a time, so memory use depends on the number of distinct pairings, not on the length
+ * of the history. Lines that cannot be parsed, such as a line truncated by a crash, are skipped.
+ * </p>
+ */
+public class ResultsJournalReader {
+    private static final Logger logger = LoggerFactory.getLogger(ResultsJournalReader.class);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Aggregates all delta records of the journal by pairing.
+     *
+     * @param path  The journal file.
+     * @param runId The run to aggregate, or null to aggregate all runs.
+     * @return The totals of every pairing, keyed by "first vs second", in order of first appearance.
+     * @throws IOException If the file cannot be read.
+     */
+    public Map<String, PairingTotals> aggregate(Path path, String runId) throws IOException {
+        Map<String, PairingTotals> totals = new LinkedHashMap<>();
+        if (!Files.exists(path)) return totals;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                JsonNode record;
+                try {
+                    record = mapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping malformed journal line {}", lineNumber);
+                    continue;
+                }
+
+                if (!"delta".equals(record.path("type").asText())) continue;
+                if (runId != null && !runId.equals(record.path("run").asText())) continue;
+
+                String first = record.path("first").asText();
+                String second = record.path("second").asText();
+                totals.computeIfAbsent(first + " vs " + second, key -> new PairingTotals(first, second))
+                        .add(record.path("games").asLong(), record.path("firstWins").asLong(),
+                                record.path("secondWins").asLong(), record.path("draws").asLong(),
+                                record.path("moves").asLong());
+            }
+        }
+        return totals;
+    }
+}
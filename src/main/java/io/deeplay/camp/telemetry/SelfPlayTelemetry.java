@@ -0,0 +1,92 @@
+package io.deeplay.camp.telemetry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters and histograms of a self-play run.
+ * <p>
+ * The tournament runner records every move and every game here from its worker threads; all counters are lock-free,
+ * so recording costs a few atomic adds. A {@link TelemetryReporter} reads them periodically to derive rates.
+ * </p>
+ */
+public class SelfPlayTelemetry {
+    private final int workerCount;
+    private final long startNanos = System.nanoTime();
+    private final LatencyHistogram moveThinkNanos = new LatencyHistogram();
+    private final LatencyHistogram gameNanos = new LatencyHistogram();
+    private final LatencyHistogram gameLength = new LatencyHistogram();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    /**
+     * Initializes telemetry for a runner.
+     *
+     * @param workerCount The number of worker threads, used to compute utilisation.
+     */
+    public SelfPlayTelemetry(int workerCount) {
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Records a bot move.
+     *
+     * @param thinkNanos The time the bot took to choose the move.
+     * @param nodes      The number of positions the bot examined.
+     */
+    public void recordMove(long thinkNanos, long nodes) {
+        moveThinkNanos.record(thinkNanos);
+        moves.increment();
+        this.nodes.add(nodes);
+    }
+
+    /**
+     * Records a finished game.
+     *
+     * @param moveCount The number of moves of the game.
+     * @param nanos     The wall time the worker spent on the game.
+     */
+    public void recordGame(int moveCount, long nanos) {
+        gameLength.record(moveCount);
+        gameNanos.record(nanos);
+        busyNanos.add(nanos);
+        games.increment();
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public LatencyHistogram getMoveThinkNanos() {
+        return moveThinkNanos;
+    }
+
+    public LatencyHistogram getGameNanos() {
+        return gameNanos;
+    }
+
+    public LatencyHistogram getGameLength() {
+        return gameLength;
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public long getBusyNanos() {
+        return busyNanos.sum();
+    }
+}
@@ -0,0 +1,166 @@
+package io.deeplay.camp.telemetry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically dumps {@link SelfPlayTelemetry} as one compact JSON line per interval.
+ * <p>
+ * Each line holds the rates of the last interval (games, moves and nodes per second, worker utilisation, GC count
+ * and time) next to cumulative percentiles of move think time, game time and game length. A drop in utilisation
+ * points at starved workers, a jump in GC time at allocation pressure. On close a final line and a summary are
+ * written.
+ * </p>
+ */
+public class TelemetryReporter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryReporter.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final SelfPlayTelemetry telemetry;
+    private final BufferedWriter writer;
+    private final ScheduledExecutorService scheduler;
+    private long lastNanos;
+    private long lastGames;
+    private long lastMoves;
+    private long lastNodes;
+    private long lastBusyNanos;
+    private long lastGcCount;
+    private long lastGcMillis;
+
+    /**
+     * Starts periodic dumps.
+     *
+     * @param telemetry       The telemetry to report.
+     * @param file            The file the dumps are appended to.
+     * @param intervalSeconds The time between two dumps.
+     * @throws IOException If the file cannot be opened.
+     */
+    public TelemetryReporter(SelfPlayTelemetry telemetry, Path file, int intervalSeconds) throws IOException {
+        this.telemetry = telemetry;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.lastNanos = telemetry.getStartNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> dump("interval"), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dumps and writes the final summary.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsedNanos = System.nanoTime() - telemetry.getStartNanos();
+        dump("final");
+        writer.close();
+
+        LatencyHistogram think = telemetry.getMoveThinkNanos();
+        logger.info("Telemetry: {} games, {} moves in {} s. {} games/s, {} nodes/s, utilisation {}%. Move think p50={}us "
+                        + "p99={}us max={}us. Game length p50={} max={}",
+                telemetry.getGames(), telemetry.getMoves(), TimeUnit.NANOSECONDS.toSeconds(elapsedNanos),
+                String.format("%.1f", rate(telemetry.getGames(), elapsedNanos)),
+                String.format("%.0f", rate(telemetry.getNodes(), elapsedNanos)),
+                String.format("%.1f", utilisation(telemetry.getBusyNanos(), elapsedNanos)),
+                micros(think.getPercentile(50)), micros(think.getPercentile(99)), micros(think.getMax()),
+                telemetry.getGameLength().getPercentile(50), telemetry.getGameLength().getMax());
+    }
+
+    private synchronized void dump(String type) {
+        long now = System.nanoTime();
+        long intervalNanos = Math.max(now - lastNanos, 1);
+        long games = telemetry.getGames();
+        long moves = telemetry.getMoves();
+        long nodes = telemetry.getNodes();
+        long busyNanos = telemetry.getBusyNanos();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gc.getCollectionCount(), 0);
+            gcMillis += Math.max(gc.getCollectionTime(), 0);
+        }
+
+        ObjectNode line = mapper.createObjectNode();
+        line.put("type", type);
+        line.put("time", Instant.now().toString());
+        line.put("games", games);
+        line.put("gamesPerSecond", round(rate(games - lastGames, intervalNanos)));
+        line.put("movesPerSecond", round(rate(moves - lastMoves, intervalNanos)));
+        line.put("nodesPerSecond", round(rate(nodes - lastNodes, intervalNanos)));
+        line.put("utilisation", round(utilisation(busyNanos - lastBusyNanos, intervalNanos)));
+        line.put("gcCount", gcCount - lastGcCount);
+        line.put("gcMillis", gcMillis - lastGcMillis);
+        line.put("heapUsedMb", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20);
+        putPercentiles(line, "thinkUs", telemetry.getMoveThinkNanos(), TimeUnit.MICROSECONDS.toNanos(1));
+        putPercentiles(line, "gameUs", telemetry.getGameNanos(), TimeUnit.MICROSECONDS.toNanos(1));
+        putPercentiles(line, "gameLength", telemetry.getGameLength(), 1);
+
+        try {
+            writer.write(mapper.writeValueAsString(line));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Error writing telemetry", e);
+        }
+        logger.debug("Telemetry {}", line);
+
+        lastNanos = now;
+        lastGames = games;
+        lastMoves = moves;
+        lastNodes = nodes;
+        lastBusyNanos = busyNanos;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+    }
+
+    private void putPercentiles(ObjectNode line, String name, LatencyHistogram histogram, long unit) {
+        ObjectNode node = line.putObject(name);
+        node.put("p50", histogram.getPercentile(50) / unit);
+        node.put("p90", histogram.getPercentile(90) / unit);
+        node.put("p99", histogram.getPercentile(99) / unit);
+        node.put("max", histogram.getMax() / unit);
+    }
+
+    private double utilisation(long busyNanos, long intervalNanos) {
+        return 100.0 * busyNanos / ((double) intervalNanos * telemetry.getWorkerCount());
+    }
+
+    private static double rate(long count, long nanos) {
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
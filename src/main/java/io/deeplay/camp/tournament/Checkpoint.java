@@ -0,0 +1,72 @@
+package io.deeplay.camp.tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The saved state of a whole self-play or tournament run.
+ * <p>
+ * This class holds the key identifying the run configuration, the state of every match started so far and the
+ * position of the run in the game archive: its first segment and the number of games it had archived. The size of
+ * the results journal once the deltas of the checkpointed games were written is kept as well, or -1 if the run had
+ * no journal.
+ * </p>
+ */
+public class Checkpoint {
+    private String runKey;
+    private String time;
+    private int archiveFirstSegment;
+    private long archivedGames;
+    private long journalSize = -1;
+    private List<MatchCheckpoint> matches = new ArrayList<>();
+
+    public Checkpoint() {}
+
+    public String getRunKey() {
+        return runKey;
+    }
+
+    public void setRunKey(String runKey) {
+        this.runKey = runKey;
+    }
+
+    public String getTime() {
+        return time;
+    }
+
+    public void setTime(String time) {
+        this.time = time;
+    }
+
+    public int getArchiveFirstSegment() {
+        return archiveFirstSegment;
+    }
+
+    public void setArchiveFirstSegment(int archiveFirstSegment) {
+        this.archiveFirstSegment = archiveFirstSegment;
+    }
+
+    public long getArchivedGames() {
+        return archivedGames;
+    }
+
+    public void setArchivedGames(long archivedGames) {
+        this.archivedGames = archivedGames;
+    }
+
+    public long getJournalSize() {
+        return journalSize;
+    }
+
+    public void setJournalSize(long journalSize) {
+        this.journalSize = journalSize;
+    }
+
+    public List<MatchCheckpoint> getMatches() {
+        return matches;
+    }
+
+    public void setMatches(List<MatchCheckpoint> matches) {
+        this.matches = matches;
+    }
+}
@@ -0,0 +1,127 @@
+package io.deeplay.camp.tournament;
+
+/**
+ * Estimates the Elo difference between two bots from their match results.
+ * <p>
+ * Scores follow the usual convention of 1 for a win, 1/2 for a draw and 0 for a loss. Half a game of each kind is
+ * added to the counts so that one-sided results (all wins, all draws) still give a finite estimate and variance.
+ * </p>
+ */
+public final class EloEstimate {
+    private static final double Z_95 = 1.959963984540054;
+    private static final double PRIOR = 0.5;
+
+    private EloEstimate() {
+    }
+
+    /**
+     * Converts an Elo difference to the expected score of the stronger side.
+     *
+     * @param elo The Elo difference.
+     * @return The expected score, between 0 and 1.
+     */
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Converts an expected score to an Elo difference.
+     *
+     * @param score The expected score, strictly between 0 and 1.
+     * @return The Elo difference.
+     */
+    public static double eloFromScore(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Gets the mean score of the first bot.
+     *
+     * @param wins   The number of games won by the first bot.
+     * @param draws  The number of drawn games.
+     * @param losses The number of games lost by the first bot.
+     * @return The mean score per game.
+     */
+    public static double score(int wins, int draws, int losses) {
+        double w = wins + PRIOR;
+        double d = draws + PRIOR;
+        double l = losses + PRIOR;
+        return (w + d / 2) / (w + d + l);
+    }
+
+    /**
+     * Gets the variance of a single game score of the first bot.
+     *
+     * @param wins   The number of games won by the first bot.
+     * @param draws  The number of drawn games.
+     * @param losses The number of games lost by the first bot.
+     * @return The per-game score variance.
+     */
+    public static double variance(int wins, int draws, int losses) {
+        double w = wins + PRIOR;
+        double d = draws + PRIOR;
+        double l = losses + PRIOR;
+        double n = w + d + l;
+        double s = (w + d / 2) / n;
+        return (w * (1 - s) * (1 - s) + d * (0.5 - s) * (0.5 - s) + l * s * s) / n;
+    }
+
+    /**
+     * Gets the estimated Elo difference of the first bot over the second.
+     *
+     * @param wins   The number of games won by the first bot.
+     * @param draws  The number of drawn games.
+     * @param losses The number of games lost by the first bot.
+     * @return The Elo difference.
+     */
+    public static double eloDifference(int wins, int draws, int losses) {
+        return eloFromScore(score(wins, draws, losses));
+    }
+
+    /**
+     * Gets the half-width of the 95% confidence interval of the Elo difference.
+     *
+     * @param wins   The number of games won by the first bot.
+     * @param draws  The number of drawn games.
+     * @param losses The number of games lost by the first bot.
+     * @return The error margin in Elo.
+     */
+    public static double errorMargin(int wins, int draws, int losses) {
+        double n = wins + draws + losses + 3 * PRIOR;
+        double s = score(wins, draws, losses);
+        double delta = Z_95 * Math.sqrt(variance(wins, draws, losses) / n);
+        double low = Math.max(s - delta, 1e-6);
+        double high = Math.min(s + delta, 1 - 1e-6);
+        return (eloFromScore(high) - eloFromScore(low)) / 2;
+    }
+
+    /**
+     * Gets the half-width of the 95% confidence interval of the Elo difference from game pairs.
+     * <p>
+     * Each pair is one sample with a per-game score of 0, 1/4, 1/2, 3/4 or 1. Half a pair of each kind is added, as
+     * for single games.
+     * </p>
+     *
+     * @param pairCounts The number of pairs in which the first bot scored 0, 0.5, 1, 1.5 and 2 points.
+     * @return The error margin in Elo.
+     */
+    public static double pairedErrorMargin(long[] pairCounts) {
+        double n = 0;
+        double sum = 0;
+        for (int i = 0; i < pairCounts.length; i++) {
+            n += pairCounts[i] + PRIOR;
+            sum += (pairCounts[i] + PRIOR) * i / 4.0;
+        }
+        double s = sum / n;
+        double variance = 0;
+        for (int i = 0; i < pairCounts.length; i++) {
+            variance += (pairCounts[i] + PRIOR) * (i / 4.0 - s) * (i / 4.0 - s);
+        }
+        variance /= n;
+
+        double delta = Z_95 * Math.sqrt(variance / n);
+        double low = Math.max(s - delta, 1e-6);
+        double high = Math.min(s + delta, 1 - 1e-6);
+        return (eloFromScore(high) - eloFromScore(low)) / 2;
+    }
+}
@@ -0,0 +1,99 @@
+package io.deeplay.camp.tournament;
+
+/**
+ * Represents the outcome of a single bot game.
+ * <p>
+ * This class holds the winning colour, the moves played, the ids of both bots and the time each side spent thinking.
+ * Colours use the {@link io.deeplay.camp.board.BoardService} player numbers: 1 for black, 2 for white, 0 for a draw.
+ * Moves are stored one byte per disc placed as the square index {@code x + 8 * y}; passes are not stored since they
+ * follow from the position.
+ * </p>
+ */
+public class GameOutcome {
+    public static final int DRAW = 0;
+    public static final int BLACK = 1;
+    public static final int WHITE = 2;
+
+    private final int winner;
+    private final int moveCount;
+    private final long blackThinkNanos;
+    private final long whiteThinkNanos;
+    private final boolean timeout;
+    private final byte[] moves;
+    private final int blackBotId;
+    private final int whiteBotId;
+
+    /**
+     * Initializes a new GameOutcome.
+     *
+     * @param winner          The winning colour, or {@link #DRAW}.
+     * @param moveCount       The number of moves played, passes excluded.
+     * @param blackThinkNanos The time black spent choosing moves.
+     * @param whiteThinkNanos The time white spent choosing moves.
+     * @param timeout         True if the game ended because a bot exceeded its move time.
+     */
+    public GameOutcome(int winner, int moveCount, long blackThinkNanos, long whiteThinkNanos, boolean timeout) {
+        this(winner, new byte[0], moveCount, blackThinkNanos, whiteThinkNanos, timeout, 0, 0);
+    }
+
+    /**
+     * Initializes a new GameOutcome with the full move sequence.
+     *
+     * @param winner          The winning colour, or {@link #DRAW}.
+     * @param moves           The squares of the moves played, in order.
+     * @param moveCount       The number of moves played, passes excluded.
+     * @param blackThinkNanos The time black spent choosing moves.
+     * @param whiteThinkNanos The time white spent choosing moves.
+     * @param timeout         True if the game ended because a bot exceeded its move time.
+     * @param blackBotId      The id of the bot playing black.
+     * @param whiteBotId      The id of the bot playing white.
+     */
+    public GameOutcome(int winner, byte[] moves, int moveCount, long blackThinkNanos, long whiteThinkNanos,
+                       boolean timeout, int blackBotId, int whiteBotId) {
+        this.winner = winner;
+        this.moves = moves;
+        this.moveCount = moveCount;
+        this.blackThinkNanos = blackThinkNanos;
+        this.whiteThinkNanos = whiteThinkNanos;
+        this.timeout = timeout;
+        this.blackBotId = blackBotId;
+        this.whiteBotId = whiteBotId;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public long getBlackThinkNanos() {
+        return blackThinkNanos;
+    }
+
+    public long getWhiteThinkNanos() {
+        return whiteThinkNanos;
+    }
+
+    public boolean isTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Gets the squares of the moves played. The array is shared, not copied.
+     *
+     * @return The move squares; empty if the moves were not recorded.
+     */
+    public byte[] getMoves() {
+        return moves;
+    }
+
+    public int getBlackBotId() {
+        return blackBotId;
+    }
+
+    public int getWhiteBotId() {
+        return whiteBotId;
+    }
+}
@@ -0,0 +1,174 @@
+package io.deeplay.camp.tournament;
+
+/**
+ * The saved state of one match.
+ * <p>
+ * This class mirrors the counters of {@link MatchStats} as plain fields so that it can be written to and read from
+ * a checkpoint file. Instances are not thread safe; {@link RunCheckpointer} guards them with its own lock.
+ * </p>
+ */
+public class MatchCheckpoint {
+    private String firstBotName;
+    private String secondBotName;
+    private int games;
+    private int firstBotWins;
+    private int secondBotWins;
+    private int draws;
+    private long moves;
+    private int timeouts;
+    private long firstBotThinkNanos;
+    private long secondBotThinkNanos;
+    private long elapsedNanos;
+    private boolean finished;
+
+    public MatchCheckpoint() {}
+
+    /**
+     * Initializes an empty checkpoint for a pairing.
+     *
+     * @param firstBotName  The name of the first bot.
+     * @param secondBotName The name of the second bot.
+     */
+    public MatchCheckpoint(String firstBotName, String secondBotName) {
+        this.firstBotName = firstBotName;
+        this.secondBotName = secondBotName;
+    }
+
+    /**
+     * Adds a finished game, counted the same way as {@link MatchStats#record(GameOutcome, boolean)}.
+     *
+     * @param outcome         The outcome of the game.
+     * @param firstBotIsBlack True if the first bot played black in this game.
+     */
+    void add(GameOutcome outcome, boolean firstBotIsBlack) {
+        int firstColour = firstBotIsBlack ? GameOutcome.BLACK : GameOutcome.WHITE;
+        if (outcome.getWinner() == GameOutcome.DRAW) {
+            draws++;
+        } else if (outcome.getWinner() == firstColour) {
+            firstBotWins++;
+        } else {
+            secondBotWins++;
+        }
+        firstBotThinkNanos += firstBotIsBlack ? outcome.getBlackThinkNanos() : outcome.getWhiteThinkNanos();
+        secondBotThinkNanos += firstBotIsBlack ? outcome.getWhiteThinkNanos() : outcome.getBlackThinkNanos();
+        moves += outcome.getMoveCount();
+        if (outcome.isTimeout()) timeouts++;
+        games++;
+    }
+
+    /**
+     * Creates an independent copy of this checkpoint.
+     *
+     * @return The copy.
+     */
+    MatchCheckpoint copy() {
+        MatchCheckpoint copy = new MatchCheckpoint(firstBotName, secondBotName);
+        copy.games = games;
+        copy.firstBotWins = firstBotWins;
+        copy.secondBotWins = secondBotWins;
+        copy.draws = draws;
+        copy.moves = moves;
+        copy.timeouts = timeouts;
+        copy.firstBotThinkNanos = firstBotThinkNanos;
+        copy.secondBotThinkNanos = secondBotThinkNanos;
+        copy.elapsedNanos = elapsedNanos;
+        copy.finished = finished;
+        return copy;
+    }
+
+    public String getFirstBotName() {
+        return firstBotName;
+    }
+
+    public void setFirstBotName(String firstBotName) {
+        this.firstBotName = firstBotName;
+    }
+
+    public String getSecondBotName() {
+        return secondBotName;
+    }
+
+    public void setSecondBotName(String secondBotName) {
+        this.secondBotName = secondBotName;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public void setGames(int games) {
+        this.games = games;
+    }
+
+    public int getFirstBotWins() {
+        return firstBotWins;
+    }
+
+    public void setFirstBotWins(int firstBotWins) {
+        this.firstBotWins = firstBotWins;
+    }
+
+    public int getSecondBotWins() {
+        return secondBotWins;
+    }
+
+    public void setSecondBotWins(int secondBotWins) {
+        this.secondBotWins = secondBotWins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public void setDraws(int draws) {
+        this.draws = draws;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public void setMoves(long moves) {
+        this.moves = moves;
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(int timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public long getFirstBotThinkNanos() {
+        return firstBotThinkNanos;
+    }
+
+    public void setFirstBotThinkNanos(long firstBotThinkNanos) {
+        this.firstBotThinkNanos = firstBotThinkNanos;
+    }
+
+    public long getSecondBotThinkNanos() {
+        return secondBotThinkNanos;
+    }
+
+    public void setSecondBotThinkNanos(long secondBotThinkNanos) {
+        this.secondBotThinkNanos = secondBotThinkNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+}
@@ -0,0 +1,219 @@
+package io.deeplay.camp.tournament;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the results of a match between two bots.
+ * <p>
+ * Counters are {@link LongAdder}s so that every worker can record finished games without contention.
+ * "First" and "second" refer to the bots of the pairing, independent of the colour they played in a given game.
+ * </p>
+ * <p>
+ * Besides the per-game counts, the match keeps the pentanomial distribution of game pairs: the two games played from
+ * the same start with colours swapped, scored 0, 0.5, 1, 1.5 or 2 points for the first bot. Pairs are only counted
+ * when both games were played in this process, so a resumed match reports them for the resumed part only.
+ * </p>
+ */
+public class MatchStats {
+    private final String firstBotName;
+    private final String secondBotName;
+    private final LongAdder firstBotWins = new LongAdder();
+    private final LongAdder secondBotWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder firstBotThinkNanos = new LongAdder();
+    private final LongAdder secondBotThinkNanos = new LongAdder();
+    private final LongAdder[] pairs = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+    private volatile long elapsedNanos;
+
+    /**
+     * Initializes empty statistics for a pairing.
+     *
+     * @param firstBotName  The name of the first bot.
+     * @param secondBotName The name of the second bot.
+     */
+    public MatchStats(String firstBotName, String secondBotName) {
+        this.firstBotName = firstBotName;
+        this.secondBotName = secondBotName;
+    }
+
+    /**
+     * Records a finished game.
+     *
+     * @param outcome         The outcome of the game.
+     * @param firstBotIsBlack True if the first bot played black in this game.
+     */
+    public void record(GameOutcome outcome, boolean firstBotIsBlack) {
+        int firstColour = firstBotIsBlack ? GameOutcome.BLACK : GameOutcome.WHITE;
+
+        if (outcome.getWinner() == GameOutcome.DRAW) {
+            draws.increment();
+        } else if (outcome.getWinner() == firstColour) {
+            firstBotWins.increment();
+        } else {
+            secondBotWins.increment();
+        }
+
+        firstBotThinkNanos.add(firstBotIsBlack ? outcome.getBlackThinkNanos() : outcome.getWhiteThinkNanos());
+        secondBotThinkNanos.add(firstBotIsBlack ? outcome.getWhiteThinkNanos() : outcome.getBlackThinkNanos());
+        moves.add(outcome.getMoveCount());
+        if (outcome.isTimeout()) timeouts.increment();
+        games.increment();
+    }
+
+    /**
+     * Records a finished game pair.
+     *
+     * @param firstBotPoints The points of the first bot over both games of the pair, from 0 to 2.
+     */
+    public void recordPair(double firstBotPoints) {
+        pairs[(int) Math.round(firstBotPoints * 2)].increment();
+    }
+
+    /**
+     * Adds the counters of a saved match, so that a resumed match continues from them.
+     *
+     * @param checkpoint The saved state of the match.
+     */
+    public void restore(MatchCheckpoint checkpoint) {
+        firstBotWins.add(checkpoint.getFirstBotWins());
+        secondBotWins.add(checkpoint.getSecondBotWins());
+        draws.add(checkpoint.getDraws());
+        games.add(checkpoint.getGames());
+        moves.add(checkpoint.getMoves());
+        timeouts.add(checkpoint.getTimeouts());
+        firstBotThinkNanos.add(checkpoint.getFirstBotThinkNanos());
+        secondBotThinkNanos.add(checkpoint.getSecondBotThinkNanos());
+        elapsedNanos = checkpoint.getElapsedNanos();
+    }
+
+    public String getFirstBotName() {
+        return firstBotName;
+    }
+
+    public String getSecondBotName() {
+        return secondBotName;
+    }
+
+    public int getFirstBotWins() {
+        return firstBotWins.intValue();
+    }
+
+    public int getSecondBotWins() {
+        return secondBotWins.intValue();
+    }
+
+    public int getDraws() {
+        return draws.intValue();
+    }
+
+    public int getGames() {
+        return games.intValue();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public int getTimeouts() {
+        return timeouts.intValue();
+    }
+
+    public long getFirstBotThinkNanos() {
+        return firstBotThinkNanos.sum();
+    }
+
+    public long getSecondBotThinkNanos() {
+        return secondBotThinkNanos.sum();
+    }
+
+    /**
+     * Gets the pentanomial distribution of the game pairs.
+     *
+     * @return The number of pairs in which the first bot scored 0, 0.5, 1, 1.5 and 2 points.
+     */
+    public long[] getPairCounts() {
+        long[] counts = new long[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            counts[i] = pairs[i].sum();
+        }
+        return counts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the throughput of the match in games per second of wall time.
+     *
+     * @return The number of games finished per second.
+     */
+    public double getGamesPerSecond() {
+        return perSecond(getGames());
+    }
+
+    /**
+     * Gets the throughput of the match in moves per second of wall time.
+     *
+     * @return The number of moves played per second.
+     */
+    public double getMovesPerSecond() {
+        return perSecond(getMoves());
+    }
+
+    /**
+     * Gets the estimated Elo difference of the first bot over the second.
+     *
+     * @return The Elo difference.
+     */
+    public double getEloDifference() {
+        return EloEstimate.eloDifference(getFirstBotWins(), getDraws(), getSecondBotWins());
+    }
+
+    /**
+     * Gets the half-width of the 95% confidence interval of the Elo difference.
+     *
+     * @return The error margin in Elo.
+     */
+    public double getEloErrorMargin() {
+        return EloEstimate.errorMargin(getFirstBotWins(), getDraws(), getSecondBotWins());
+    }
+
+    /**
+     * Gets the half-width of the 95% confidence interval of the Elo difference estimated from game pairs.
+     * <p>
+     * With balanced openings this is much narrower than {@link #getEloErrorMargin()} for the same number of games,
+     * since the advantage an opening gives to one colour cancels out within each pair.
+     * </p>
+     *
+     * @return The error margin in Elo.
+     */
+    public double getPairedEloErrorMargin() {
+        return EloEstimate.pairedErrorMargin(getPairCounts());
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s vs %s: games=%d, %s wins=%d, %s wins=%d, draws=%d, timeouts=%d, elo=%+.1f +/- %.1f, "
+                        + "pairs=%s (+/- %.1f), %.1f games/s, %.1f moves/s, think %s=%dms %s=%dms",
+                firstBotName, secondBotName, getGames(), firstBotName, getFirstBotWins(), secondBotName,
+                getSecondBotWins(), getDraws(), getTimeouts(), getEloDifference(), getEloErrorMargin(),
+                Arrays.toString(getPairCounts()), getPairedEloErrorMargin(),
+                getGamesPerSecond(), getMovesPerSecond(),
+                firstBotName, TimeUnit.NANOSECONDS.toMillis(getFirstBotThinkNanos()),
+                secondBotName, TimeUnit.NANOSECONDS.toMillis(getSecondBotThinkNanos()));
+    }
+}
@@ -0,0 +1,110 @@
+package io.deeplay.camp.tournament;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A set of starting positions given as move prefixes.
+ * <p>
+ * The suite file holds one opening per line, for example {@code f4d3c6d6c5}: a column letter from a to h followed by
+ * a row digit from 1 to 8, with row 8 at the top, the same squares as the moves clients send to the server (see
+ * {@link io.deeplay.camp.protocol.BinaryProtocol#squareOf(String)}). Blank lines and lines starting with
+ * {@code #} are ignored. The file is memory-mapped once and only the line offsets are kept on the heap, so one suite
+ * is shared by all worker threads and large suites cost almost no memory.
+ * </p>
+ */
+public class OpeningSuite {
+    private final MappedByteBuffer content;
+    private final int[] lineStarts;
+    private final int size;
+
+    private OpeningSuite(MappedByteBuffer content, int[] lineStarts, int size) {
+        this.content = content;
+        this.lineStarts = lineStarts;
+        this.size = size;
+    }
+
+    /**
+     * Maps a suite file and indexes its openings.
+     *
+     * @param path The suite file.
+     * @return The suite.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If the file holds no openings.
+     */
+    public static OpeningSuite load(Path path) throws IOException {
+        MappedByteBuffer content;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int[] lineStarts = new int[64];
+        int size = 0;
+        int position = 0;
+        int limit = content.limit();
+        while (position < limit) {
+            int start = position;
+            while (position < limit && content.get(position) != '\n') position++;
+            if (isOpening(content, start, position)) {
+                if (size == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, size * 2);
+                lineStarts[size++] = start;
+            }
+            position++;
+        }
+
+        if (size == 0) throw new IllegalArgumentException("No openings in " + path);
+        return new OpeningSuite(content, lineStarts, size);
+    }
+
+    /**
+     * Gets the number of openings.
+     *
+     * @return The number of openings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes one opening.
+     *
+     * @param index The index of the opening.
+     * @return The squares {@code x + 8 * y} of its moves, in order.
+     * @throws IllegalArgumentException If the line is not valid move notation.
+     */
+    public byte[] get(int index) {
+        int position = lineStarts[index];
+        byte[] moves = new byte[60];
+        int count = 0;
+        while (position < content.limit()) {
+            int c = Character.toLowerCase(content.get(position));
+            if (c == '\n') break;
+            if (c >= 'a' && c <= 'h' && position + 1 < content.limit()) {
+                int row = '8' - content.get(position + 1);
+                if (row < 0 || row > 7 || count == moves.length) {
+                    throw new IllegalArgumentException("Bad move notation in opening " + index);
+                }
+                moves[count++] = (byte) ((c - 'a') + 8 * row);
+                position += 2;
+            } else if (Character.isWhitespace(c)) {
+                position++;
+            } else {
+                throw new IllegalArgumentException("Bad move notation in opening " + index);
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    private static boolean isOpening(MappedByteBuffer content, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte c = content.get(i);
+            if (c == '#') return false;
+            if (!Character.isWhitespace(c)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,251 @@
+package io.deeplay.camp.tournament;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplay.camp.archive.GameArchiveWriter;
+import io.deeplay.camp.archive.GameRecord;
+import io.deeplay.camp.results.ResultsJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Periodically saves the state of a run so that it can be resumed after a crash or restart.
+ * <p>
+ * The checkpointer keeps its own copy of the counters of the running match, updated under one lock, so that every
+ * checkpoint is an exact prefix of the finished games rather than a mix of counters read while workers are recording.
+ * If an archive is given, games are appended to it under the same lock and the archive is synced before each
+ * checkpoint, so the archived game count in the checkpoint matches the counters. A results journal given to the
+ * checkpointer is fed the same way and only receives delta records at checkpoints, and the checkpoint records the
+ * size of the journal after them. The lock only covers the counters and the queues; the checkpoint is written after
+ * releasing it, to a temporary file that is atomically moved over the previous one.
+ * </p>
+ * <p>
+ * On resume, finished matches are skipped and the interrupted match continues from its saved game count; the games
+ * played after the last checkpoint are played again and cut from the archive and the journal.
+ * </p>
+ */
+public class RunCheckpointer implements TournamentListener {
+    private static final Logger logger = LoggerFactory.getLogger(RunCheckpointer.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Path file;
+    private final int intervalGames;
+    private final String runKey;
+    private final GameArchiveWriter archive;
+    private final ResultsJournal journal;
+    private final Map<String, MatchCheckpoint> matches = new LinkedHashMap<>();
+    private final Object lock = new Object();
+    private final ReentrantLock saving = new ReentrantLock();
+    private MatchCheckpoint current;
+    private long currentStartNanos;
+    private long currentBaseElapsedNanos;
+    private final int archiveFirstSegment;
+    private long archivedGames;
+
+    /**
+     * Initializes a new RunCheckpointer.
+     *
+     * @param file          The checkpoint file.
+     * @param intervalGames The number of games between two checkpoints.
+     * @param runKey        Identifies the run configuration; a checkpoint of a different run is never resumed.
+     * @param resumeFrom    The checkpoint to continue from, or null to start a new run.
+     * @param archive       The archive receiving every game, or null if games are not archived.
+     */
+    public RunCheckpointer(Path file, int intervalGames, String runKey, Checkpoint resumeFrom, GameArchiveWriter archive) {
+        this(file, intervalGames, runKey, resumeFrom, archive, null);
+    }
+
+    /**
+     * Initializes a new RunCheckpointer that also feeds a results journal.
+     * <p>
+     * The journal must not be registered as a listener itself, and should not write delta records on its own, since
+     * those would be written again when the games after the last checkpoint are replayed.
+     * </p>
+     *
+     * @param file          The checkpoint file.
+     * @param intervalGames The number of games between two checkpoints.
+     * @param runKey        Identifies the run configuration; a checkpoint of a different run is never resumed.
+     * @param resumeFrom    The checkpoint to continue from, or null to start a new run.
+     * @param archive       The archive receiving every game, or null if games are not archived.
+     * @param journal       The journal receiving the results, or null if results are not journaled.
+     */
+    public RunCheckpointer(Path file, int intervalGames, String runKey, Checkpoint resumeFrom, GameArchiveWriter archive,
+                           ResultsJournal journal) {
+        this.file = file;
+        this.intervalGames = intervalGames;
+        this.runKey = runKey;
+        this.archive = archive;
+        this.journal = journal;
+        if (resumeFrom != null) {
+            for (MatchCheckpoint match : resumeFrom.getMatches()) {
+                matches.put(key(match.getFirstBotName(), match.getSecondBotName()), match);
+            }
+            archivedGames = resumeFrom.getArchivedGames();
+        }
+        this.archiveFirstSegment = resumeFrom != null ? resumeFrom.getArchiveFirstSegment()
+                : archive != null ? archive.getFirstSegmentIndex() : 0;
+    }
+
+    /**
+     * Reads a checkpoint if it belongs to the given run.
+     *
+     * @param file   The checkpoint file.
+     * @param runKey The key of the run to be resumed.
+     * @return The checkpoint, or null if there is none for this run.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    public static Checkpoint load(Path file, String runKey) throws IOException {
+        if (!Files.exists(file)) return null;
+        Checkpoint checkpoint = mapper.readValue(file.toFile(), Checkpoint.class);
+        if (!runKey.equals(checkpoint.getRunKey())) {
+            logger.warn("Checkpoint {} belongs to run '{}', not '{}'; starting over", file, checkpoint.getRunKey(), runKey);
+            return null;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Gets the saved state of a pairing.
+     *
+     * @param firstBotName  The name of the first bot.
+     * @param secondBotName The name of the second bot.
+     * @return A copy of the saved state, or null if the pairing had not started.
+     */
+    public MatchCheckpoint resumeState(String firstBotName, String secondBotName) {
+        synchronized (lock) {
+            MatchCheckpoint match = matches.get(key(firstBotName, secondBotName));
+            return match == null ? null : match.copy();
+        }
+    }
+
+    @Override
+    public void onMatchStarted(MatchStats stats) {
+        synchronized (lock) {
+            String key = key(stats.getFirstBotName(), stats.getSecondBotName());
+            current = matches.computeIfAbsent(key, k -> new MatchCheckpoint(stats.getFirstBotName(), stats.getSecondBotName()));
+            currentStartNanos = System.nanoTime();
+            currentBaseElapsedNanos = current.getElapsedNanos();
+            if (journal != null) journal.onMatchStarted(stats);
+        }
+    }
+
+    @Override
+    public void onGameFinished(MatchStats stats, GameOutcome outcome, boolean firstBotIsBlack) {
+        byte[] record = archive == null ? null : GameRecord.encode(outcome);
+        PendingSave save = null;
+        synchronized (lock) {
+            current.add(outcome, firstBotIsBlack);
+            if (journal != null) journal.onGameFinished(stats, outcome, firstBotIsBlack);
+            if (record != null) {
+                archive.append(record);
+                archivedGames++;
+            }
+            if (current.getGames() % intervalGames == 0) {
+                current.setElapsedNanos(currentBaseElapsedNanos + System.nanoTime() - currentStartNanos);
+                save = snapshot();
+            }
+        }
+        if (save != null) save(save);
+    }
+
+    @Override
+    public void onMatchFinished(MatchStats stats) {
+        PendingSave save;
+        synchronized (lock) {
+            if (journal != null) journal.onMatchFinished(stats);
+            current.setElapsedNanos(stats.getElapsedNanos());
+            current.setFinished(true);
+            save = snapshot();
+        }
+        save(save);
+    }
+
+    /**
+     * Deletes the checkpoint file once the run has completed.
+     */
+    public void complete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Error deleting checkpoint {}", file, e);
+        }
+    }
+
+    /**
+     * Copies the state to be saved; called under the lock, and takes the save lock so that checkpoints are written in
+     * the order they were taken.
+     */
+    private PendingSave snapshot() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.setRunKey(runKey);
+        checkpoint.setTime(Instant.now().toString());
+        checkpoint.setArchiveFirstSegment(archiveFirstSegment);
+        checkpoint.setArchivedGames(archivedGames);
+        List<MatchCheckpoint> snapshot = new ArrayList<>();
+        matches.values().forEach(match -> snapshot.add(match.copy()));
+        checkpoint.setMatches(snapshot);
+        List<ObjectNode> deltas = journal == null ? List.of() : journal.takeDeltas();
+        saving.lock();
+        return new PendingSave(checkpoint, deltas);
+    }
+
+    private void save(PendingSave save) {
+        try {
+            if (archive != null) archive.sync();
+            if (journal != null) save.checkpoint.setJournalSize(journal.flush(save.journalDeltas));
+            write(save.checkpoint);
+        } finally {
+            saving.unlock();
+        }
+    }
+
+    private void write(Checkpoint checkpoint) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            ByteBuffer content = ByteBuffer.wrap(mapper.writeValueAsBytes(checkpoint));
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Error writing checkpoint {}", file, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String key(String firstBotName, String secondBotName) {
+        return firstBotName + " vs " + secondBotName;
+    }
+
+    /**
+     * A checkpoint taken under the lock, with the journal deltas of the games it covers.
+     */
+    private static class PendingSave {
+        private final Checkpoint checkpoint;
+        private final List<ObjectNode> journalDeltas;
+
+        PendingSave(Checkpoint checkpoint, List<ObjectNode> journalDeltas) {
+            this.checkpoint = checkpoint;
+            this.journalDeltas = journalDeltas;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.deeplay.camp.tournament;
+
+/**
+ * Sequential Probability Ratio Test for bot matches.
+ * <p>
+ * Tests the hypothesis H0 "the first bot is {@code elo0} stronger" against H1 "the first bot is {@code elo1}
+ * stronger" with the normal approximation of the generalized SPRT. The log-likelihood ratio is recomputed from the
+ * win/draw/loss counts after every game, and the match can stop as soon as it crosses one of the bounds.
+ * </p>
+ */
+public class Sprt {
+
+    /**
+     * The state of the test after a number of games.
+     */
+    public enum Verdict {
+        CONTINUE,
+        ACCEPT_H0,
+        ACCEPT_H1
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    private final int minGames;
+
+    /**
+     * Initializes a new SPRT.
+     *
+     * @param elo0     The Elo difference of the null hypothesis.
+     * @param elo1     The Elo difference of the alternative hypothesis.
+     * @param alpha    The probability of accepting H1 when H0 is true.
+     * @param beta     The probability of accepting H0 when H1 is true.
+     * @param minGames The number of games to play before the test may stop the match.
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta, int minGames) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+        this.minGames = minGames;
+    }
+
+    /**
+     * Computes the log-likelihood ratio of H1 over H0.
+     *
+     * @param wins   The number of games won by the first bot.
+     * @param draws  The number of drawn games.
+     * @param losses The number of games lost by the first bot.
+     * @return The log-likelihood ratio.
+     */
+    public double logLikelihoodRatio(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) return 0;
+
+        double score = EloEstimate.score(wins, draws, losses);
+        double variance = EloEstimate.variance(wins, draws, losses);
+        double s0 = EloEstimate.expectedScore(elo0);
+        double s1 = EloEstimate.expectedScore(elo1);
+        return (s1 - s0) * (2 * score - s0 - s1) * games / (2 * variance);
+    }
+
+    /**
+     * Tests the current results of a match.
+     *
+     * @param stats The statistics of the match so far.
+     * @return The verdict of the test.
+     */
+    public Verdict test(MatchStats stats) {
+        if (stats.getGames() < minGames) return Verdict.CONTINUE;
+
+        double llr = logLikelihoodRatio(stats.getFirstBotWins(), stats.getDraws(), stats.getSecondBotWins());
+        if (llr >= upperBound) return Verdict.ACCEPT_H1;
+        if (llr <= lowerBound) return Verdict.ACCEPT_H0;
+        return Verdict.CONTINUE;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT[elo0=%.1f, elo1=%.1f, bounds=(%.2f, %.2f)]", elo0, elo1, lowerBound, upperBound);
+    }
+}
@@ -0,0 +1,119 @@
+package io.deeplay.camp.tournament;
+
+import io.deeplay.camp.bot.BotStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Schedules matches between several bots.
+ * <p>
+ * In round-robin mode every bot plays every other bot; in gauntlet mode the first bot plays each of the others.
+ * Every pairing is played on the {@link TournamentRunner} with alternating colours and is stopped early by the
+ * {@link Sprt} as soon as its result is statistically clear.
+ * </p>
+ */
+public class Tournament {
+    private static final Logger logger = LoggerFactory.getLogger(Tournament.class);
+
+    /**
+     * The way pairings are formed.
+     */
+    public enum Mode {
+        ROUND_ROBIN,
+        GAUNTLET
+    }
+
+    private final TournamentRunner runner;
+    private final Mode mode;
+    private final Sprt sprt;
+    private final int maxGamesPerPairing;
+    private RunCheckpointer checkpointer;
+
+    /**
+     * Initializes a new Tournament.
+     *
+     * @param runner             The runner that plays the games.
+     * @param mode               The way pairings are formed.
+     * @param sprt               The early stopping test, or null to always play {@code maxGamesPerPairing} games.
+     * @param maxGamesPerPairing The maximum number of games of each pairing.
+     */
+    public Tournament(TournamentRunner runner, Mode mode, Sprt sprt, int maxGamesPerPairing) {
+        this.runner = runner;
+        this.mode = mode;
+        this.sprt = sprt;
+        this.maxGamesPerPairing = maxGamesPerPairing;
+    }
+
+    /**
+     * Sets the checkpointer of the run, whose saved state is used to skip finished pairings and resume the
+     * interrupted one. The checkpointer must also be registered as a listener of the runner.
+     *
+     * @param checkpointer The checkpointer, or null to play every pairing from scratch.
+     */
+    public void setCheckpointer(RunCheckpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Plays all pairings of the tournament.
+     *
+     * @param bots The participants; each supplier must create a new instance on every call.
+     * @return The statistics of every pairing, in the order they were played.
+     */
+    public List<MatchStats> run(List<Supplier<BotStrategy>> bots) {
+        List<MatchStats> results = new ArrayList<>();
+
+        for (int[] pairing : pairings(bots.size())) {
+            Supplier<BotStrategy> first = bots.get(pairing[0]);
+            Supplier<BotStrategy> second = bots.get(pairing[1]);
+            MatchCheckpoint saved = checkpointer == null ? null
+                    : checkpointer.resumeState(first.get().name, second.get().name);
+            if (saved != null && saved.isFinished()) {
+                MatchStats stats = new MatchStats(saved.getFirstBotName(), saved.getSecondBotName());
+                stats.restore(saved);
+                results.add(stats);
+                logger.info("Skipping finished pairing {}", stats);
+                continue;
+            }
+
+            MatchStats stats = runner.playMatch(first, second, maxGamesPerPairing,
+                    current -> sprt != null && sprt.test(current) != Sprt.Verdict.CONTINUE, saved);
+            results.add(stats);
+
+            if (sprt != null) {
+                logger.info("{} vs {}: {} after {} games, elo {} +/- {}", stats.getFirstBotName(),
+                        stats.getSecondBotName(), sprt.test(stats), stats.getGames(),
+                        String.format("%+.1f", stats.getEloDifference()),
+                        String.format("%.1f", stats.getEloErrorMargin()));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Lists the pairings of the tournament as pairs of participant indices.
+     *
+     * @param botCount The number of participants.
+     * @return The pairings.
+     */
+    List<int[]> pairings(int botCount) {
+        List<int[]> pairings = new ArrayList<>();
+        if (mode == Mode.GAUNTLET) {
+            for (int i = 1; i < botCount; i++) {
+                pairings.add(new int[]{0, i});
+            }
+        } else {
+            for (int i = 0; i < botCount; i++) {
+                for (int j = i + 1; j < botCount; j++) {
+                    pairings.add(new int[]{i, j});
+                }
+            }
+        }
+        return pairings;
+    }
+}
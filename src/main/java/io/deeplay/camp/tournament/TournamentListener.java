@@ -0,0 +1,37 @@
+package io.deeplay.camp.tournament;
+
+/**
+ * Receives events from a {@link TournamentRunner}.
+ * <p>
+ * Game events are delivered on the worker thread that played the game, so implementations must be thread safe and
+ * should do as little work as possible there.
+ * </p>
+ */
+public interface TournamentListener {
+
+    /**
+     * Called before the first game of a match is played.
+     *
+     * @param stats The statistics of the match, still empty.
+     */
+    default void onMatchStarted(MatchStats stats) {
+    }
+
+    /**
+     * Called after a game has been recorded in the match statistics.
+     *
+     * @param stats           The statistics of the match.
+     * @param outcome         The outcome of the game.
+     * @param firstBotIsBlack True if the first bot of the pairing played black.
+     */
+    default void onGameFinished(MatchStats stats, GameOutcome outcome, boolean firstBotIsBlack) {
+    }
+
+    /**
+     * Called once all workers of a match have stopped.
+     *
+     * @param stats The final statistics of the match.
+     */
+    default void onMatchFinished(MatchStats stats) {
+    }
+}
@@ -0,0 +1,343 @@
+package io.deeplay.camp.tournament;
+
+import io.deeplay.camp.board.BoardService;
+import io.deeplay.camp.bot.BotStrategy;
+import io.deeplay.camp.clock.GameClock;
+import io.deeplay.camp.clock.TimeControl;
+import io.deeplay.camp.entity.Board;
+import io.deeplay.camp.entity.GameFinished;
+import io.deeplay.camp.entity.Tile;
+import io.deeplay.camp.telemetry.SelfPlayTelemetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Plays bot-versus-bot games at full machine throughput.
+ * <p>
+ * A fixed set of worker threads pulls game indices from a shared counter and plays each game from the first move
+ * to the last on the same thread. Bots are called directly, so a move costs no thread hand-off. Each game runs on a
+ * {@link GameClock} under the runner's time control: bots are handed a move budget derived from their remaining time,
+ * and a bot that runs out of time forfeits the game.
+ * </p>
+ */
+public class TournamentRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TournamentRunner.class);
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final int MAX_MOVES = 64;
+    private static final byte[] NO_OPENING = new byte[0];
+
+    private final int workerCount;
+    private final TimeControl timeControl;
+    private final List<TournamentListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile OpeningSuite openings;
+    private volatile SelfPlayTelemetry telemetry;
+
+    /**
+     * Initializes a new TournamentRunner.
+     *
+     * @param workerCount        The number of worker threads; one per core is enough since games are CPU bound.
+     * @param moveTimeLimitNanos The maximum time a bot may spend on one move.
+     */
+    public TournamentRunner(int workerCount, long moveTimeLimitNanos) {
+        this(workerCount, TimeControl.perMove(moveTimeLimitNanos));
+    }
+
+    /**
+     * Initializes a new TournamentRunner with a chess-clock time control.
+     *
+     * @param workerCount The number of worker threads; one per core is enough since games are CPU bound.
+     * @param timeControl The time control every game is played with.
+     */
+    public TournamentRunner(int workerCount, TimeControl timeControl) {
+        this.workerCount = workerCount;
+        this.timeControl = timeControl;
+    }
+
+    /**
+     * Registers a listener for match and game events.
+     *
+     * @param listener The listener to be added.
+     */
+    public void addListener(TournamentListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the openings games start from.
+     * <p>
+     * Games 2k and 2k + 1 of a match start from the same opening with colours swapped, so the bias of the opening
+     * cancels out within each pair.
+     * </p>
+     *
+     * @param openings The opening suite, or null to start every game from the initial position.
+     */
+    public void setOpeningSuite(OpeningSuite openings) {
+        this.openings = openings;
+    }
+
+    /**
+     * Sets the telemetry that receives every move and game played by this runner.
+     *
+     * @param telemetry The telemetry, or null to disable recording.
+     */
+    public void setTelemetry(SelfPlayTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Plays a match between two bots.
+     * <p>
+     * The first bot plays black in even games and white in odd games. Each worker creates its own bot instances, so
+     * bots do not need to be thread safe.
+     * </p>
+     *
+     * @param firstBot  Creates instances of the first bot.
+     * @param secondBot Creates instances of the second bot.
+     * @param gameCount The number of games to play.
+     * @return The statistics of the match.
+     */
+    public MatchStats playMatch(Supplier<BotStrategy> firstBot, Supplier<BotStrategy> secondBot, int gameCount) {
+        return playMatch(firstBot, secondBot, gameCount, stats -> false);
+    }
+
+    /**
+     * Plays a match between two bots until the game limit is reached or the stop rule fires.
+     * <p>
+     * Workers check the stop rule before taking the next game, so a few games already in flight may still finish
+     * after the rule fires; they are included in the returned statistics.
+     * </p>
+     *
+     * @param firstBot  Creates instances of the first bot.
+     * @param secondBot Creates instances of the second bot.
+     * @param maxGames  The maximum number of games to play.
+     * @param stopRule  Decides from the results so far whether the match can stop early.
+     * @return The statistics of the match.
+     */
+    public MatchStats playMatch(Supplier<BotStrategy> firstBot, Supplier<BotStrategy> secondBot, int maxGames,
+                                Predicate<MatchStats> stopRule) {
+        return playMatch(firstBot, secondBot, maxGames, stopRule, null);
+    }
+
+    /**
+     * Plays a match, continuing from a saved state if one is given.
+     * <p>
+     * A resumed match starts with the saved counters and continues with the next game index, so colours keep
+     * alternating as if the match had never stopped.
+     * </p>
+     *
+     * @param firstBot   Creates instances of the first bot.
+     * @param secondBot  Creates instances of the second bot.
+     * @param maxGames   The maximum number of games to play, including the games of the saved state.
+     * @param stopRule   Decides from the results so far whether the match can stop early.
+     * @param resumeFrom The saved state of the match, or null to start from scratch.
+     * @return The statistics of the match.
+     */
+    public MatchStats playMatch(Supplier<BotStrategy> firstBot, Supplier<BotStrategy> secondBot, int maxGames,
+                                Predicate<MatchStats> stopRule, MatchCheckpoint resumeFrom) {
+        return play(firstBot, secondBot, 0, maxGames, stopRule, resumeFrom);
+    }
+
+    /**
+     * Plays a range of games of a longer match.
+     * <p>
+     * Colours and openings follow the game index within the whole match, so a match split into ranges played by
+     * different runners plays the same games as one runner would.
+     * </p>
+     *
+     * @param firstBot       Creates instances of the first bot.
+     * @param secondBot      Creates instances of the second bot.
+     * @param firstGameIndex The index of the first game of the range.
+     * @param gameCount      The number of games in the range.
+     * @return The statistics of the games in the range.
+     */
+    public MatchStats playGames(Supplier<BotStrategy> firstBot, Supplier<BotStrategy> secondBot, int firstGameIndex,
+                                int gameCount) {
+        return play(firstBot, secondBot, firstGameIndex, gameCount, stats -> false, null);
+    }
+
+    private MatchStats play(Supplier<BotStrategy> firstBot, Supplier<BotStrategy> secondBot, int firstGameIndex,
+                            int maxGames, Predicate<MatchStats> stopRule, MatchCheckpoint resumeFrom) {
+        MatchStats stats = new MatchStats(firstBot.get().name, secondBot.get().name);
+        if (resumeFrom != null) {
+            stats.restore(resumeFrom);
+            logger.info("Resuming {} vs {} after {} games", stats.getFirstBotName(), stats.getSecondBotName(), stats.getGames());
+        }
+        long restoredElapsedNanos = stats.getElapsedNanos();
+        int endIndex = firstGameIndex + maxGames;
+        AtomicInteger nextGame = new AtomicInteger(firstGameIndex + stats.getGames());
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount);
+        long start = System.nanoTime();
+        listeners.forEach(listener -> listener.onMatchStarted(stats));
+
+        OpeningSuite suite = openings;
+        Map<Integer, Double> unpairedScores = new ConcurrentHashMap<>();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            futures.add(workers.submit(() -> {
+                BotStrategy first = firstBot.get();
+                BotStrategy second = secondBot.get();
+                int gameIndex;
+                while (!stopRule.test(stats) && (gameIndex = nextGame.getAndIncrement()) < endIndex) {
+                    boolean firstIsBlack = gameIndex % 2 == 0;
+                    byte[] opening = suite == null ? NO_OPENING : suite.get((gameIndex / 2) % suite.size());
+                    long gameStart = System.nanoTime();
+                    GameOutcome outcome = firstIsBlack ? playGame(first, second, opening) : playGame(second, first, opening);
+                    SelfPlayTelemetry sink = telemetry;
+                    if (sink != null) sink.recordGame(outcome.getMoveCount(), System.nanoTime() - gameStart);
+                    stats.record(outcome, firstIsBlack);
+                    recordPair(stats, unpairedScores, gameIndex / 2, firstBotScore(outcome, firstIsBlack));
+                    for (TournamentListener listener : listeners) {
+                        listener.onGameFinished(stats, outcome, firstIsBlack);
+                    }
+                    logProgress(stats);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Interrupted while waiting for tournament workers", e);
+            } catch (ExecutionException e) {
+                logger.error("Tournament worker failed", e);
+            }
+        }
+        workers.shutdown();
+
+        stats.setElapsedNanos(restoredElapsedNanos + System.nanoTime() - start);
+        listeners.forEach(listener -> listener.onMatchFinished(stats));
+        logger.info("Match finished in {} ms. {}", TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos()), stats);
+        return stats;
+    }
+
+    /**
+     * Plays a single game on the calling thread.
+     *
+     * @param black The bot playing black, which moves first.
+     * @param white The bot playing white.
+     * @return The outcome of the game.
+     */
+    public GameOutcome playGame(BotStrategy black, BotStrategy white) {
+        return playGame(black, white, NO_OPENING);
+    }
+
+    /**
+     * Plays a single game on the calling thread, starting after the given opening moves.
+     * <p>
+     * The opening moves are played for both sides, with a pass whenever the side to move has no legal move, and are
+     * recorded as moves of the game.
+     * </p>
+     *
+     * @param black   The bot playing black, which moves first.
+     * @param white   The bot playing white.
+     * @param opening The squares of the opening moves.
+     * @return The outcome of the game.
+     * @throws IllegalArgumentException If an opening move is not legal.
+     */
+    public GameOutcome playGame(BotStrategy black, BotStrategy white, byte[] opening) {
+        BoardService boardLogic = new BoardService(new Board());
+        GameClock clock = new GameClock(timeControl);
+        long[] thinkNanos = new long[3];
+        byte[] moves = new byte[MAX_MOVES];
+        int moveCount = 0;
+        int colour = GameOutcome.BLACK;
+        GameFinished finished;
+
+        for (byte square : opening) {
+            Tile tile = new Tile(square % 8, square / 8);
+            List<Tile> valid = boardLogic.getAllValidTiles(colour);
+            if (valid.isEmpty()) {
+                colour = 3 - colour;
+                valid = boardLogic.getAllValidTiles(colour);
+            }
+            if (!valid.contains(tile)) {
+                throw new IllegalArgumentException("Illegal opening move " + (char) ('a' + square % 8) + (square / 8 + 1));
+            }
+            boardLogic.makeMove(colour, tile);
+            moves[moveCount++] = square;
+            colour = 3 - colour;
+        }
+
+        while (!(finished = boardLogic.checkForWin()).isGameFinished()) {
+            BotStrategy bot = colour == GameOutcome.BLACK ? black : white;
+            Tile tile;
+            long nodesBefore = bot.getNodeCount();
+            long budgetNanos = clock.getMoveBudgetNanos(colour,
+                    GameClock.estimateMovesLeft(boardLogic.getBlackChips(), boardLogic.getWhiteChips()));
+            clock.start(colour);
+            try {
+                tile = bot.getMakeMove(colour, boardLogic, budgetNanos);
+            } catch (RuntimeException e) {
+                logger.error("Error during bot {} move", bot.name, e);
+                return forfeit(colour, moves, moveCount, thinkNanos, false, black, white);
+            }
+            long moveNanos = clock.stop();
+            thinkNanos[colour] += moveNanos;
+            SelfPlayTelemetry sink = telemetry;
+            if (sink != null) sink.recordMove(moveNanos, bot.getNodeCount() - nodesBefore);
+
+            if (clock.isFlagged(colour)) {
+                logger.error("Bot {} ran out of time.", bot.name);
+                return forfeit(colour, moves, moveCount, thinkNanos, true, black, white);
+            }
+
+            if (tile != null) {
+                boardLogic.makeMove(colour, tile);
+                moves[moveCount++] = (byte) (tile.getX() + 8 * tile.getY());
+            }
+            colour = 3 - colour;
+        }
+
+        int winner = finished.getUserIdWinner() == 3 ? GameOutcome.DRAW : finished.getUserIdWinner();
+        return new GameOutcome(winner, Arrays.copyOf(moves, moveCount), moveCount, thinkNanos[GameOutcome.BLACK],
+                thinkNanos[GameOutcome.WHITE], false, black.id, white.id);
+    }
+
+    private GameOutcome forfeit(int loser, byte[] moves, int moveCount, long[] thinkNanos, boolean timeout,
+                                BotStrategy black, BotStrategy white) {
+        return new GameOutcome(3 - loser, Arrays.copyOf(moves, moveCount), moveCount, thinkNanos[GameOutcome.BLACK],
+                thinkNanos[GameOutcome.WHITE], timeout, black.id, white.id);
+    }
+
+    private static double firstBotScore(GameOutcome outcome, boolean firstBotIsBlack) {
+        if (outcome.getWinner() == GameOutcome.DRAW) return 0.5;
+        return (outcome.getWinner() == GameOutcome.BLACK) == firstBotIsBlack ? 1 : 0;
+    }
+
+    private static void recordPair(MatchStats stats, Map<Integer, Double> unpairedScores, int pair, double score) {
+        double[] pairScore = {-1};
+        unpairedScores.compute(pair, (key, other) -> {
+            if (other == null) return score;
+            pairScore[0] = other + score;
+            return null;
+        });
+        if (pairScore[0] >= 0) stats.recordPair(pairScore[0]);
+    }
+
+    private void logProgress(MatchStats stats) {
+        int games = stats.getGames();
+        if (games % PROGRESS_INTERVAL == 0) {
+            logger.info("Games completed: {}. {} wins: {}. {} wins: {}. Draws: {}", games,
+                    stats.getFirstBotName(), stats.getFirstBotWins(),
+                    stats.getSecondBotName(), stats.getSecondBotWins(), stats.getDraws());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.deeplay.camp.archive;
+
+import io.deeplay.camp.bot.RandomBot;
+import io.deeplay.camp.tournament.GameOutcome;
+import io.deeplay.camp.tournament.TournamentRunner;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+
+    @Test
+    public void testArchivedGamesReadBackAcrossSegments() throws Exception {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            var runner = new TournamentRunner(1, Long.MAX_VALUE);
+            List<GameOutcome> played = new ArrayList<>();
+            try (var writer = new GameArchiveWriter(directory, 1024)) {
+                for (int i = 0; i < 50; i++) {
+                    GameOutcome outcome = runner.playGame(new RandomBot(1, "black"), new RandomBot(2, "white"));
+                    played.add(outcome);
+                    writer.onGameFinished(null, outcome, true);
+                }
+            }
+
+            List<GameOutcome> read = new ArrayList<>();
+            long games = new GameArchiveReader(directory).forEach(record -> read.add(new GameOutcome(
+                    record.getWinner(), record.getMoves(), record.getMoveCount(), 0, 0, record.isTimeout(),
+                    record.getBlackBotId(), record.getWhiteBotId())));
+
+            assertEquals(50, games);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.count() > 1);
+            }
+            for (int i = 0; i < played.size(); i++) {
+                assertEquals(played.get(i).getWinner(), read.get(i).getWinner());
+                assertArrayEquals(played.get(i).getMoves(), read.get(i).getMoves());
+                assertEquals(1, read.get(i).getBlackBotId());
+                assertEquals(2, read.get(i).getWhiteBotId());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
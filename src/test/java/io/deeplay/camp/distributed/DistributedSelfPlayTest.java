@@ -0,0 +1,76 @@
+package io.deeplay.camp.distributed;
+
+import io.deeplay.camp.archive.GameArchiveReader;
+import io.deeplay.camp.archive.GameArchiveWriter;
+import io.deeplay.camp.results.PairingTotals;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedSelfPlayTest {
+
+    @Test
+    public void testWorkerProcessesFinishRunAfterWorkerFailure() throws Exception {
+        Path directory = Files.createTempDirectory("distributed");
+        List<Process> workers = new ArrayList<>();
+        try {
+            PairingTotals totals;
+            try (var archive = new GameArchiveWriter(directory);
+                 var coordinator = new Coordinator(0, "random", "random", 120, 20, 5000, archive)) {
+                var run = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return coordinator.run();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+
+                try (var socket = new Socket("127.0.0.1", coordinator.getPort());
+                     var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                     var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                    WireFormat.send(writer, WireFormat.message(WireFormat.HELLO));
+                    assertEquals(WireFormat.BATCH, WireFormat.receive(reader).path("type").asText());
+                }
+
+                for (int i = 0; i < 2; i++) {
+                    workers.add(new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                            "-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                            "127.0.0.1", String.valueOf(coordinator.getPort()), "2")
+                            .redirectErrorStream(true)
+                            .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "worker-" + i + ".log"))
+                            .start());
+                }
+                totals = run.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals(120, totals.getGames());
+            assertEquals(120, totals.getFirstBotWins() + totals.getSecondBotWins() + totals.getDraws());
+            assertEquals(120, new GameArchiveReader(directory).forEach(record -> {}));
+            for (Process worker : workers) {
+                assertTrue(worker.waitFor(10, TimeUnit.SECONDS));
+                assertEquals(0, worker.exitValue());
+            }
+        } finally {
+            workers.forEach(Process::destroyForcibly);
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
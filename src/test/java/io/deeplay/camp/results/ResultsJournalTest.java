@@ -0,0 +1,79 @@
+package io.deeplay.camp.results;
+
+import io.deeplay.camp.tournament.GameOutcome;
+import io.deeplay.camp.tournament.MatchStats;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultsJournalTest {
+
+    @Test
+    public void testReaderAggregatesAcrossRuns() throws Exception {
+        Path path = Files.createTempFile("results", ".jsonl");
+        try {
+            playRun(path, 5, 2, 3);
+            playRun(path, 1, 1, 1);
+            Files.writeString(path, "{\"type\":\"delta\",\"fir", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            Map<String, PairingTotals> totals = new ResultsJournalReader().aggregate(path, null);
+            PairingTotals pairing = totals.get("first vs second");
+
+            assertEquals(1, totals.size());
+            assertEquals(13, pairing.getGames());
+            assertEquals(6, pairing.getFirstBotWins());
+            assertEquals(3, pairing.getDraws());
+            assertEquals(4, pairing.getSecondBotWins());
+            assertEquals(13 * 60, pairing.getMoves());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testRunAfterTruncatedLineStartsOnNewLine() throws Exception {
+        Path path = Files.createTempFile("results", ".jsonl");
+        try {
+            playRun(path, 2, 0, 0);
+            Files.writeString(path, "{\"type\":\"delta\",\"fir", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            try (var journal = new ResultsJournal(path, 3, 2)) {
+                MatchStats stats = new MatchStats("first", "second");
+                journal.onMatchStarted(stats);
+                finish(journal, stats, GameOutcome.DRAW);
+                journal.onMatchFinished(stats);
+            }
+
+            PairingTotals pairing = new ResultsJournalReader().aggregate(path, null).get("first vs second");
+            assertEquals(3, pairing.getGames());
+            assertEquals(2, pairing.getFirstBotWins());
+            assertEquals(1, pairing.getDraws());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void playRun(Path path, int wins, int draws, int losses) throws Exception {
+        try (var journal = new ResultsJournal(path, 3, 2)) {
+            journal.writeRunHeader("test", List.of("first", "second"));
+            MatchStats stats = new MatchStats("first", "second");
+            journal.onMatchStarted(stats);
+            for (int i = 0; i < wins; i++) finish(journal, stats, GameOutcome.BLACK);
+            for (int i = 0; i < draws; i++) finish(journal, stats, GameOutcome.DRAW);
+            for (int i = 0; i < losses; i++) finish(journal, stats, GameOutcome.WHITE);
+            journal.onMatchFinished(stats);
+        }
+    }
+
+    private static void finish(ResultsJournal journal, MatchStats stats, int winner) {
+        GameOutcome outcome = new GameOutcome(winner, 60, 0, 0, false);
+        stats.record(outcome, true);
+        journal.onGameFinished(stats, outcome, true);
+    }
+}
@@ -0,0 +1,56 @@
+package io.deeplay.camp.tournament;
+
+import io.deeplay.camp.bot.RandomBot;
+import io.deeplay.camp.protocol.BinaryProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningSuiteTest {
+
+    @Test
+    public void testGamesStartFromSuiteOpenings() throws Exception {
+        Path file = Files.createTempFile("openings", ".txt");
+        try {
+            Files.writeString(file, "# comment\nf4d3c6d6c5\n\n  F4 F3 E3 F5\n");
+            OpeningSuite suite = OpeningSuite.load(file);
+
+            assertEquals(2, suite.size());
+            assertArrayEquals(new byte[]{5 + 8 * 4, 3 + 8 * 5, 2 + 8 * 2, 3 + 8 * 2, 2 + 8 * 3}, suite.get(0));
+            assertEquals(4, suite.get(1).length);
+            String[] notation = {"f4", "d3", "c6", "d6", "c5"};
+            for (int i = 0; i < notation.length; i++) {
+                assertEquals(BinaryProtocol.squareOf(notation[i]), suite.get(0)[i]);
+            }
+
+            var runner = new TournamentRunner(2, Long.MAX_VALUE);
+            GameOutcome outcome = runner.playGame(new RandomBot(1, "black"), new RandomBot(2, "white"), suite.get(0));
+            assertArrayEquals(suite.get(0), Arrays.copyOf(outcome.getMoves(), 5));
+
+            runner.setOpeningSuite(suite);
+            MatchStats stats = runner.playMatch(() -> new RandomBot(1, "first"), () -> new RandomBot(2, "second"), 40);
+            assertEquals(20, Arrays.stream(stats.getPairCounts()).sum());
+            assertTrue(stats.getPairedEloErrorMargin() > 0);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> runner.playGame(new RandomBot(1, "black"), new RandomBot(2, "white"), new byte[]{0}));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testBundledSuiteIsLegal() throws Exception {
+        OpeningSuite suite = OpeningSuite.load(Path.of("openings-4ply.txt"));
+        var runner = new TournamentRunner(1, Long.MAX_VALUE);
+
+        assertEquals(244, suite.size());
+        for (int i = 0; i < suite.size(); i++) {
+            runner.playGame(new RandomBot(1, "black"), new RandomBot(2, "white"), suite.get(i));
+        }
+    }
+}
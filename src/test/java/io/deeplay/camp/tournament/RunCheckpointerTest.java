@@ -0,0 +1,104 @@
+package io.deeplay.camp.tournament;
+
+import io.deeplay.camp.archive.GameArchiveReader;
+import io.deeplay.camp.archive.GameArchiveWriter;
+import io.deeplay.camp.bot.RandomBot;
+import io.deeplay.camp.results.PairingTotals;
+import io.deeplay.camp.results.ResultsJournal;
+import io.deeplay.camp.results.ResultsJournalReader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunCheckpointerTest {
+
+    @Test
+    public void testResumeContinuesFromLastCheckpoint() throws Exception {
+        Path directory = Files.createTempDirectory("checkpoint");
+        Path file = directory.resolve("run.checkpoint.json");
+        Path archiveDirectory = directory.resolve("archive");
+        try {
+            var runner = new TournamentRunner(1, Long.MAX_VALUE);
+            try (var archive = new GameArchiveWriter(archiveDirectory)) {
+                var checkpointer = new RunCheckpointer(file, 10, "run", null, archive);
+                MatchStats stats = new MatchStats("first", "second");
+                checkpointer.onMatchStarted(stats);
+                for (int i = 0; i < 25; i++) {
+                    boolean firstIsBlack = i % 2 == 0;
+                    checkpointer.onGameFinished(stats, runner.playGame(new RandomBot(1, "first"), new RandomBot(2, "second")), firstIsBlack);
+                }
+            }
+
+            assertNull(RunCheckpointer.load(file, "other run"));
+            Checkpoint checkpoint = RunCheckpointer.load(file, "run");
+            assertEquals(20, checkpoint.getMatches().get(0).getGames());
+            assertEquals(20, checkpoint.getArchivedGames());
+            assertEquals(20, GameArchiveWriter.truncate(archiveDirectory, checkpoint.getArchiveFirstSegment(), checkpoint.getArchivedGames()));
+
+            MatchStats stats;
+            try (var archive = new GameArchiveWriter(archiveDirectory)) {
+                var checkpointer = new RunCheckpointer(file, 10, "run", checkpoint, archive);
+                var resumed = new TournamentRunner(2, Long.MAX_VALUE);
+                resumed.addListener(checkpointer);
+                stats = resumed.playMatch(() -> new RandomBot(1, "first"), () -> new RandomBot(2, "second"), 50,
+                        current -> false, checkpointer.resumeState("first", "second"));
+            }
+
+            assertEquals(50, stats.getGames());
+            assertEquals(50, stats.getFirstBotWins() + stats.getSecondBotWins() + stats.getDraws());
+            assertEquals(50, new GameArchiveReader(archiveDirectory).forEach(record -> {}));
+            assertTrue(RunCheckpointer.load(file, "run").getMatches().get(0).isFinished());
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testResumedRunJournalsEveryGameOnce() throws Exception {
+        Path directory = Files.createTempDirectory("checkpoint");
+        Path file = directory.resolve("run.checkpoint.json");
+        Path journalFile = directory.resolve("results.jsonl");
+        try {
+            var runner = new TournamentRunner(1, Long.MAX_VALUE);
+            try (var journal = new ResultsJournal(journalFile, Integer.MAX_VALUE, 1)) {
+                var checkpointer = new RunCheckpointer(file, 10, "run", null, null, journal);
+                MatchStats stats = new MatchStats("first", "second");
+                checkpointer.onMatchStarted(stats);
+                for (int i = 0; i < 25; i++) {
+                    boolean firstIsBlack = i % 2 == 0;
+                    GameOutcome outcome = runner.playGame(new RandomBot(1, "first"), new RandomBot(2, "second"));
+                    stats.record(outcome, firstIsBlack);
+                    checkpointer.onGameFinished(stats, outcome, firstIsBlack);
+                }
+                journal.flush(journal.takeDeltas());
+            }
+
+            Checkpoint checkpoint = RunCheckpointer.load(file, "run");
+            assertEquals(25, new ResultsJournalReader().aggregate(journalFile, null).get("first vs second").getGames());
+            assertEquals(checkpoint.getJournalSize(), ResultsJournal.truncate(journalFile, checkpoint.getJournalSize()));
+
+            try (var journal = new ResultsJournal(journalFile, Integer.MAX_VALUE, 1)) {
+                var checkpointer = new RunCheckpointer(file, 10, "run", checkpoint, null, journal);
+                var resumed = new TournamentRunner(2, Long.MAX_VALUE);
+                resumed.addListener(checkpointer);
+                resumed.playMatch(() -> new RandomBot(1, "first"), () -> new RandomBot(2, "second"), 50,
+                        current -> false, checkpointer.resumeState("first", "second"));
+            }
+
+            PairingTotals totals = new ResultsJournalReader().aggregate(journalFile, null).get("first vs second");
+            assertEquals(50, totals.getGames());
+            assertEquals(50, totals.getFirstBotWins() + totals.getSecondBotWins() + totals.getDraws());
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.deeplay.camp.tournament;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SprtTest {
+
+    @Test
+    public void testEloEstimateIsSymmetric() {
+        assertEquals(0.0, EloEstimate.eloDifference(40, 20, 40), 1e-9);
+        assertEquals(EloEstimate.eloDifference(70, 10, 20), -EloEstimate.eloDifference(20, 10, 70), 1e-9);
+        assertTrue(EloEstimate.errorMargin(400, 200, 400) < EloEstimate.errorMargin(40, 20, 40));
+    }
+
+    @Test
+    public void testSprtStopsOnClearResults() {
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05, 20);
+
+        assertEquals(Sprt.Verdict.CONTINUE, sprt.test(stats(10, 0, 0)));
+        assertEquals(Sprt.Verdict.ACCEPT_H1, sprt.test(stats(30, 0, 0)));
+        assertEquals(Sprt.Verdict.ACCEPT_H0, sprt.test(stats(1000, 100, 1100)));
+        assertEquals(Sprt.Verdict.CONTINUE, sprt.test(stats(26, 2, 24)));
+    }
+
+    @Test
+    public void testPairings() {
+        var roundRobin = new Tournament(null, Tournament.Mode.ROUND_ROBIN, null, 1);
+        var gauntlet = new Tournament(null, Tournament.Mode.GAUNTLET, null, 1);
+
+        assertEquals(6, roundRobin.pairings(4).size());
+        assertEquals(3, gauntlet.pairings(4).size());
+    }
+
+    private static MatchStats stats(int wins, int draws, int losses) {
+        MatchStats stats = new MatchStats("first", "second");
+        for (int i = 0; i < wins; i++) stats.record(new GameOutcome(GameOutcome.BLACK, 60, 0, 0, false), true);
+        for (int i = 0; i < draws; i++) stats.record(new GameOutcome(GameOutcome.DRAW, 60, 0, 0, false), true);
+        for (int i = 0; i < losses; i++) stats.record(new GameOutcome(GameOutcome.WHITE, 60, 0, 0, false), true);
+        return stats;
+    }
+}
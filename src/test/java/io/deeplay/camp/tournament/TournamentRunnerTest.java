@@ -0,0 +1,30 @@
+package io.deeplay.camp.tournament;
+
+import io.deeplay.camp.bot.BotFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentRunnerTest {
+
+    @Test
+    public void testRangeOfGamesKeepsColoursOfWholeMatch() {
+        var runner = new TournamentRunner(1, 1_000_000_000L);
+        List<Boolean> firstIsBlack = new CopyOnWriteArrayList<>();
+        runner.addListener(new TournamentListener() {
+            @Override
+            public void onGameFinished(MatchStats stats, GameOutcome outcome, boolean firstBotIsBlack) {
+                firstIsBlack.add(firstBotIsBlack);
+            }
+        });
+
+        MatchStats stats = runner.playGames(() -> BotFactory.create("random", 1, "first"),
+                () -> BotFactory.create("random", 2, "second"), 5, 3);
+
+        assertEquals(3, stats.getGames());
+        assertEquals(List.of(false, true, false), firstIsBlack);
+    }
+}
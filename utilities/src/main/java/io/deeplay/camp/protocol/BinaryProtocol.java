@@ -0,0 +1,280 @@
+package io.deeplay.camp.protocol;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary wire protocol spoken next to the text protocol on the same port.
+ * <p>
+ * A connection starts in the text protocol. A client that sends the line {@value #NEGOTIATE} receives the line
+ * {@value #ACCEPTED} and from then on both sides exchange frames only; the client must not send frames before it has
+ * read the acknowledgement. A frame is a varint body length followed by the body, whose first byte is the frame type:
+ * </p>
+ * <ul>
+ *     <li>{@link #TEXT}: a UTF-8 message or command, exactly as it would be sent as a text line.</li>
+ *     <li>{@link #MOVE}: one square byte {@code x + 8 * y}, or {@link #PASS}; stands for {@code game-move}.</li>
+ *     <li>{@link #BOARD}: a {@link BoardFrame}.</li>
+ *     <li>{@link #DELTA}: a {@link BoardDelta}.</li>
+ * </ul>
+ * <p>
+ * Varints use the usual 7 bits per byte, least significant group first.
+ * </p>
+ */
+public final class BinaryProtocol {
+    /**
+     * The text line a client sends to switch to the binary protocol.
+     */
+    public static final String NEGOTIATE = "protocol binary";
+
+    /**
+     * The text line the server answers with before it switches.
+     */
+    public static final String ACCEPTED = "protocol::binary";
+
+    public static final byte TEXT = 1;
+    public static final byte MOVE = 2;
+    public static final byte BOARD = 3;
+    public static final byte DELTA = 4;
+
+    /**
+     * The square byte of a pass.
+     */
+    public static final int PASS = 0xFF;
+
+    /**
+     * The largest accepted frame body.
+     */
+    public static final int MAX_FRAME_SIZE = 64 * 1024;
+
+    private static final String MOVE_COMMAND = "game-move";
+
+    private BinaryProtocol() {}
+
+    /**
+     * Encodes a text message or command as a frame.
+     *
+     * @param text The message.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(5 + 1 + bytes.length);
+        putVarint(buffer, 1 + bytes.length);
+        buffer.put(TEXT).put(bytes);
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes a move as a frame.
+     *
+     * @param square The square {@code x + 8 * y} of the move, or {@link #PASS}.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeMove(int square) {
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        putVarint(buffer, 2);
+        buffer.put(MOVE).put((byte) square);
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes a board state as a frame.
+     *
+     * @param board The board state.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeBoard(BoardFrame board) {
+        ByteBuffer body = ByteBuffer.allocate(1 + BoardFrame.maxSize());
+        body.put(BOARD);
+        board.writeTo(body);
+        body.flip();
+        ByteBuffer buffer = ByteBuffer.allocate(5 + body.remaining());
+        putVarint(buffer, body.remaining());
+        return buffer.put(body).flip();
+    }
+
+    /**
+     * Encodes a board delta as a frame.
+     *
+     * @param delta The board delta.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeDelta(BoardDelta delta) {
+        ByteBuffer body = ByteBuffer.allocate(1 + BoardDelta.maxSize());
+        body.put(DELTA);
+        delta.writeTo(body);
+        body.flip();
+        ByteBuffer buffer = ByteBuffer.allocate(5 + body.remaining());
+        putVarint(buffer, body.remaining());
+        return buffer.put(body).flip();
+    }
+
+    /**
+     * Encodes a full board or a board delta as a frame.
+     *
+     * @param update The board message.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeUpdate(BoardUpdate update) {
+        if (update instanceof BoardDelta delta) return encodeDelta(delta);
+        if (update instanceof BoardFrame board) return encodeBoard(board);
+        return encodeText(update.toText());
+    }
+
+    /**
+     * Takes the next complete frame from a buffer.
+     *
+     * @param buffer The received bytes, starting at a frame boundary.
+     * @return The body of the frame, with the position of the buffer moved past it, or null if the frame is not
+     * complete yet, with the position unchanged.
+     * @throws ProtocolException If the frame is empty or larger than {@link #MAX_FRAME_SIZE}.
+     */
+    public static ByteBuffer nextFrame(ByteBuffer buffer) throws ProtocolException {
+        int start = buffer.position();
+        long length = 0;
+        int shift = 0;
+        int position = start;
+        while (true) {
+            if (position == buffer.limit()) return null;
+            byte b = buffer.get(position++);
+            length |= (long) (b & 0x7F) << shift;
+            if (b >= 0) break;
+            shift += 7;
+            if (shift > 28) throw new ProtocolException("Bad frame length");
+        }
+        if (length <= 0 || length > MAX_FRAME_SIZE) throw new ProtocolException("Bad frame length " + length);
+        if (buffer.limit() - position < length) return null;
+
+        ByteBuffer body = buffer.slice(position, (int) length);
+        buffer.position(position + (int) length);
+        return body;
+    }
+
+    /**
+     * Reads the next frame from a stream.
+     *
+     * @param in The stream.
+     * @return The body of the frame, or null at the end of the stream.
+     * @throws IOException If the stream fails or ends inside a frame, or the frame is invalid.
+     */
+    public static ByteBuffer readFrame(InputStream in) throws IOException {
+        long length = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) return null;
+                throw new EOFException("End of stream inside a frame");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) break;
+            shift += 7;
+            if (shift > 28) throw new ProtocolException("Bad frame length");
+        }
+        if (length <= 0 || length > MAX_FRAME_SIZE) throw new ProtocolException("Bad frame length " + length);
+        byte[] body = in.readNBytes((int) length);
+        if (body.length < length) throw new EOFException("End of stream inside a frame");
+        return ByteBuffer.wrap(body);
+    }
+
+    /**
+     * Decodes a frame sent by a client into the text command it stands for.
+     *
+     * @param body The frame body.
+     * @return The command line.
+     * @throws ProtocolException If the frame is empty, is not a client frame or is malformed.
+     */
+    public static String decodeCommand(ByteBuffer body) throws ProtocolException {
+        if (!body.hasRemaining()) throw new ProtocolException("Empty frame");
+        byte type = body.get();
+        return switch (type) {
+            case TEXT -> decodeString(body);
+            case MOVE -> {
+                if (body.remaining() != 1) {
+                    throw new ProtocolException("Move frame with " + body.remaining() + " square bytes");
+                }
+                int square = body.get() & 0xFF;
+                if (square >= 64 && square != PASS) throw new ProtocolException("Bad square " + square);
+                yield MOVE_COMMAND + " " + (square == PASS ? "null" : notationOf(square));
+            }
+            default -> throw new ProtocolException("Unexpected client frame type " + type);
+        };
+    }
+
+    /**
+     * Decodes a frame sent by the server into the text message it stands for.
+     *
+     * @param body The frame body.
+     * @return The message line.
+     * @throws ProtocolException If the frame is empty, is not a server frame or is malformed.
+     */
+    public static String decodeMessage(ByteBuffer body) throws ProtocolException {
+        if (!body.hasRemaining()) throw new ProtocolException("Empty frame");
+        byte type = body.get();
+        try {
+            return switch (type) {
+                case TEXT -> decodeString(body);
+                case BOARD -> BoardFrame.readFrom(body).toText();
+                case DELTA -> BoardDelta.readFrom(body).toText();
+                default -> throw new ProtocolException("Unexpected server frame type " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Truncated frame of type " + type);
+        }
+    }
+
+    /**
+     * Gets the square of a move in the server's notation, where row 8 is the top row.
+     *
+     * @param notation The move, for example {@code d3}.
+     * @return The square {@code x + 8 * y}, or -1 if the notation is not a square.
+     */
+    public static int squareOf(String notation) {
+        if (notation == null || notation.length() != 2) return -1;
+        int x = notation.charAt(0) - 'a';
+        int y = '8' - notation.charAt(1);
+        if (x < 0 || x > 7 || y < 0 || y > 7) return -1;
+        return x + 8 * y;
+    }
+
+    /**
+     * Gets the notation of a square; the inverse of {@link #squareOf(String)}.
+     *
+     * @param square The square {@code x + 8 * y}.
+     * @return The move notation.
+     */
+    public static String notationOf(int square) {
+        return String.valueOf(new char[]{(char) ('a' + square % 8), (char) ('8' - square / 8)});
+    }
+
+    static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static String decodeString(ByteBuffer body) {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,195 @@
+package io.deeplay.camp.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The change a single move makes to the board, sent to clients instead of the whole board.
+ * <p>
+ * A delta names the square the chip was placed on, or a pass, the colour of the mover and the chips it flipped,
+ * followed by the legal moves, the marked squares, the scores and the next player exactly as a {@link BoardFrame}
+ * carries them. A client that holds the previous board applies the delta by placing the chip, turning the flipped
+ * chips, clearing the old marks and drawing the new ones. A client without a board asks for a full one.
+ * </p>
+ * <p>
+ * In the text protocol this is the line
+ * {@code board-delta::square::colour::flipped::score::validMoves::markedMoves::player}, where the square is
+ * {@code x + 8 * y} or {@code null} for a pass and the colour is {@code X} or {@code 0}; in the binary protocol the
+ * flipped chips travel as a list of squares, so a delta frame is usually under 20 bytes.
+ * </p>
+ */
+public class BoardDelta implements BoardUpdate {
+    /**
+     * The command of the text form.
+     */
+    public static final String BOARD_DELTA = "board-delta";
+
+    /**
+     * The square of a pass.
+     */
+    public static final int PASS = BinaryProtocol.PASS;
+
+    private static final int WHITE_MOVED = 1;
+    private static final int PASSED = 2;
+    private static final int MARKS_ARE_VALID_MOVES = 4;
+    private static final int MARKS_FOLLOW = 8;
+
+    private final int square;
+    private final boolean whiteMoved;
+    private final long flipped;
+    private final long validMoves;
+    private final long markedMoves;
+    private final int firstScore;
+    private final int secondScore;
+    private final int nextPlayerId;
+
+    /**
+     * Initializes a new BoardDelta.
+     *
+     * @param square       The square {@code x + 8 * y} the chip was placed on, or {@link #PASS}.
+     * @param whiteMoved   True if the mover plays the white chips.
+     * @param flipped      The squares of the chips the move turned.
+     * @param validMoves   The legal moves sent to the client.
+     * @param markedMoves  The empty squares drawn as possible moves, or 0 for none.
+     * @param firstScore   The chip count of the first player.
+     * @param secondScore  The chip count of the second player.
+     * @param nextPlayerId The user ID of the player to move next.
+     */
+    public BoardDelta(int square, boolean whiteMoved, long flipped, long validMoves, long markedMoves, int firstScore,
+                      int secondScore, int nextPlayerId) {
+        this.square = square;
+        this.whiteMoved = whiteMoved;
+        this.flipped = flipped;
+        this.validMoves = validMoves;
+        this.markedMoves = markedMoves;
+        this.firstScore = firstScore;
+        this.secondScore = secondScore;
+        this.nextPlayerId = nextPlayerId;
+    }
+
+    /**
+     * Computes the delta that leads to a board from the chips before the move.
+     *
+     * @param previousBlack The squares of the black chips before the move.
+     * @param previousWhite The squares of the white chips before the move.
+     * @param board         The board after the move.
+     * @return The delta; a pass if no chip was placed.
+     */
+    public static BoardDelta between(long previousBlack, long previousWhite, BoardFrame board) {
+        long placed = (board.getBlackChips() | board.getWhiteChips()) & ~(previousBlack | previousWhite);
+        boolean whiteMoved = (placed & board.getWhiteChips()) != 0;
+        long flipped = whiteMoved ? board.getWhiteChips() & previousBlack : board.getBlackChips() & previousWhite;
+        int square = placed == 0 ? PASS : Long.numberOfTrailingZeros(placed);
+        return new BoardDelta(square, whiteMoved, flipped, board.getValidMoves(), board.getMarkedMoves(),
+                board.getFirstScore(), board.getSecondScore(), board.getNextPlayerId());
+    }
+
+    public int getSquare() {
+        return square;
+    }
+
+    public boolean isPass() {
+        return square == PASS;
+    }
+
+    public boolean isWhiteMoved() {
+        return whiteMoved;
+    }
+
+    public long getFlipped() {
+        return flipped;
+    }
+
+    public long getValidMoves() {
+        return validMoves;
+    }
+
+    public long getMarkedMoves() {
+        return markedMoves;
+    }
+
+    public int getFirstScore() {
+        return firstScore;
+    }
+
+    public int getSecondScore() {
+        return secondScore;
+    }
+
+    public int getNextPlayerId() {
+        return nextPlayerId;
+    }
+
+    /**
+     * Applies the delta to the board it was computed against.
+     *
+     * @param previous The board before the move.
+     * @return The board after the move.
+     */
+    public BoardFrame applyTo(BoardFrame previous) {
+        long black = previous.getBlackChips();
+        long white = previous.getWhiteChips();
+        long turned = isPass() ? flipped : flipped | 1L << square;
+        if (whiteMoved) {
+            white |= turned;
+            black &= ~turned;
+        } else {
+            black |= turned;
+            white &= ~turned;
+        }
+        return new BoardFrame(black, white, validMoves, markedMoves, firstScore, secondScore, nextPlayerId);
+    }
+
+    /**
+     * Renders the whole text protocol line.
+     *
+     * @return The {@code board-delta} line.
+     */
+    @Override
+    public String toText() {
+        return BOARD_DELTA + "::" + (isPass() ? "null" : String.valueOf(square)) + "::" + (whiteMoved ? "0" : "X")
+                + "::" + flipped + "::" + firstScore + " " + secondScore + "::" + validMoves + "::" + markedMoves
+                + "::" + nextPlayerId;
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        int flags = (whiteMoved ? WHITE_MOVED : 0) | (isPass() ? PASSED : 0)
+                | (markedMoves == 0 ? 0 : markedMoves == validMoves ? MARKS_ARE_VALID_MOVES : MARKS_FOLLOW);
+        buffer.put((byte) flags);
+        if (!isPass()) buffer.put((byte) square);
+        buffer.put((byte) Long.bitCount(flipped));
+        for (long rest = flipped; rest != 0; rest &= rest - 1) {
+            buffer.put((byte) Long.numberOfTrailingZeros(rest));
+        }
+        buffer.putLong(validMoves);
+        if ((flags & MARKS_FOLLOW) != 0) buffer.putLong(markedMoves);
+        buffer.put((byte) firstScore);
+        buffer.put((byte) secondScore);
+        BinaryProtocol.putVarint(buffer, nextPlayerId);
+    }
+
+    static BoardDelta readFrom(ByteBuffer buffer) {
+        int flags = buffer.get();
+        int square = (flags & PASSED) != 0 ? PASS : buffer.get() & 0x3F;
+        int count = buffer.get() & 0xFF;
+        long flipped = 0;
+        for (int i = 0; i < count; i++) {
+            flipped |= 1L << (buffer.get() & 0x3F);
+        }
+        long valid = buffer.getLong();
+        long marked = (flags & MARKS_FOLLOW) != 0 ? buffer.getLong() : (flags & MARKS_ARE_VALID_MOVES) != 0 ? valid : 0;
+        int firstScore = buffer.get() & 0xFF;
+        int secondScore = buffer.get() & 0xFF;
+        int nextPlayerId = (int) BinaryProtocol.getVarint(buffer);
+        return new BoardDelta(square, (flags & WHITE_MOVED) != 0, flipped, valid, marked, firstScore, secondScore,
+                nextPlayerId);
+    }
+
+    static int maxSize() {
+        return 1 + 1 + 1 + 64 + 2 * Long.BYTES + 2 + 5;
+    }
+}
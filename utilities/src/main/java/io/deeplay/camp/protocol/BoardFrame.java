@@ -0,0 +1,143 @@
+package io.deeplay.camp.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A full board state sent to a client; after a move clients usually get a {@link BoardDelta} instead.
+ * <p>
+ * In the text protocol this is the line {@code board-after-move::Board{X 0 . * ...}::score::validMoves::player}; in
+ * the binary protocol it is the chip bitboards, the legal-move mask and the scores, about 30 bytes in all. A square
+ * is bit {@code x + 8 * y} of a mask, as on the server's board. The board text may mark some empty squares with
+ * {@code *}; usually these are the legal moves, otherwise the marked squares travel as a separate mask.
+ * </p>
+ */
+public class BoardFrame implements BoardUpdate {
+    /**
+     * The command of the text form.
+     */
+    public static final String BOARD_AFTER_MOVE = "board-after-move";
+
+    private static final int MARKS_ARE_VALID_MOVES = 1;
+    private static final int MARKS_FOLLOW = 2;
+
+    private final long blackChips;
+    private final long whiteChips;
+    private final long validMoves;
+    private final long markedMoves;
+    private final int firstScore;
+    private final int secondScore;
+    private final int nextPlayerId;
+
+    /**
+     * Initializes a new BoardFrame.
+     *
+     * @param blackChips   The squares of the black chips.
+     * @param whiteChips   The squares of the white chips.
+     * @param validMoves   The legal moves sent to the client.
+     * @param markedMoves  The empty squares drawn as possible moves, or 0 for none.
+     * @param firstScore   The chip count of the first player.
+     * @param secondScore  The chip count of the second player.
+     * @param nextPlayerId The user ID of the player to move next.
+     */
+    public BoardFrame(long blackChips, long whiteChips, long validMoves, long markedMoves, int firstScore,
+                      int secondScore, int nextPlayerId) {
+        this.blackChips = blackChips;
+        this.whiteChips = whiteChips;
+        this.validMoves = validMoves;
+        this.markedMoves = markedMoves;
+        this.firstScore = firstScore;
+        this.secondScore = secondScore;
+        this.nextPlayerId = nextPlayerId;
+    }
+
+    public long getBlackChips() {
+        return blackChips;
+    }
+
+    public long getWhiteChips() {
+        return whiteChips;
+    }
+
+    public long getValidMoves() {
+        return validMoves;
+    }
+
+    public long getMarkedMoves() {
+        return markedMoves;
+    }
+
+    public int getFirstScore() {
+        return firstScore;
+    }
+
+    public int getSecondScore() {
+        return secondScore;
+    }
+
+    public int getNextPlayerId() {
+        return nextPlayerId;
+    }
+
+    /**
+     * Renders the board the way the text protocol does: {@code X} for black, {@code 0} for white, {@code *} for a
+     * marked square and {@code .} for an empty one, each followed by a space, row by row.
+     *
+     * @return The board text, for example {@code Board{. . X 0 ...}}.
+     */
+    public String boardText() {
+        StringBuilder state = new StringBuilder(7 + 128);
+        state.append("Board{");
+        for (int square = 0; square < 64; square++) {
+            long mask = 1L << square;
+            if ((blackChips & mask) != 0) state.append("X ");
+            else if ((whiteChips & mask) != 0) state.append("0 ");
+            else if ((markedMoves & mask) != 0) state.append("* ");
+            else state.append(". ");
+        }
+        return state.append('}').toString();
+    }
+
+    /**
+     * Renders the whole text protocol line.
+     *
+     * @return The {@code board-after-move} line.
+     */
+    @Override
+    public String toText() {
+        return BOARD_AFTER_MOVE + "::" + boardText() + "::" + firstScore + " " + secondScore + "::" + validMoves + "::"
+                + nextPlayerId;
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        int flags = markedMoves == 0 ? 0 : markedMoves == validMoves ? MARKS_ARE_VALID_MOVES : MARKS_FOLLOW;
+        buffer.put((byte) flags);
+        buffer.putLong(blackChips);
+        buffer.putLong(whiteChips);
+        buffer.putLong(validMoves);
+        if (flags == MARKS_FOLLOW) buffer.putLong(markedMoves);
+        buffer.put((byte) firstScore);
+        buffer.put((byte) secondScore);
+        BinaryProtocol.putVarint(buffer, nextPlayerId);
+    }
+
+    static BoardFrame readFrom(ByteBuffer buffer) {
+        int flags = buffer.get();
+        long black = buffer.getLong();
+        long white = buffer.getLong();
+        long valid = buffer.getLong();
+        long marked = flags == MARKS_FOLLOW ? buffer.getLong() : flags == MARKS_ARE_VALID_MOVES ? valid : 0;
+        int firstScore = buffer.get() & 0xFF;
+        int secondScore = buffer.get() & 0xFF;
+        int nextPlayerId = (int) BinaryProtocol.getVarint(buffer);
+        return new BoardFrame(black, white, valid, marked, firstScore, secondScore, nextPlayerId);
+    }
+
+    static int maxSize() {
+        return 1 + 4 * Long.BYTES + 2 + 5;
+    }
+}
@@ -0,0 +1,14 @@
+package io.deeplay.camp.protocol;
+
+/**
+ * A board message from the server: either a full {@link BoardFrame} or a {@link BoardDelta} against the previous one.
+ */
+public interface BoardUpdate {
+
+    /**
+     * Renders the update as a line of the text protocol.
+     *
+     * @return The text line.
+     */
+    String toText();
+}
@@ -0,0 +1,105 @@
+import io.deeplay.camp.protocol.BinaryProtocol;
+import io.deeplay.camp.protocol.BoardDelta;
+import io.deeplay.camp.protocol.BoardFrame;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+    private static final long BLACK = 0x0000000810000000L;
+    private static final long WHITE = 0x0000001008000000L;
+    private static final long MOVES = 0x0000102004080000L;
+
+    @Test
+    public void testBoardFrameIsSmallAndDecodesToTheTextLine() throws Exception {
+        var board = new BoardFrame(BLACK, WHITE, MOVES, MOVES, 2, 2, 12345);
+        ByteBuffer frame = BinaryProtocol.encodeBoard(board);
+
+        assertTrue(frame.remaining() <= 32, "frame is " + frame.remaining() + " bytes");
+        assertTrue(board.toText().length() > 150);
+        ByteBuffer body = BinaryProtocol.nextFrame(frame);
+        assertNotNull(body);
+        assertFalse(frame.hasRemaining());
+        assertEquals(board.toText(), BinaryProtocol.decodeMessage(body));
+    }
+
+    @Test
+    public void testMarksOtherThanTheValidMovesSurvive() throws Exception {
+        var board = new BoardFrame(BLACK, WHITE, MOVES, 1L << 63, 40, 24, 0);
+        ByteBuffer body = BinaryProtocol.nextFrame(BinaryProtocol.encodeBoard(board));
+
+        String text = BinaryProtocol.decodeMessage(body);
+        assertEquals(board.toText(), text);
+        assertTrue(text.contains("* }"));
+    }
+
+    @Test
+    public void testDeltaRebuildsTheBoardAndIsSmall() throws Exception {
+        var before = new BoardFrame(BLACK, WHITE, MOVES, 0, 2, 2, 1);
+        long flipped = 1L << 27;
+        var after = new BoardFrame(BLACK | 1L << 19 | flipped, WHITE & ~flipped, 0x0000000000140000L, 0, 4, 1, 2);
+
+        BoardDelta delta = BoardDelta.between(BLACK, WHITE, after);
+        assertEquals(19, delta.getSquare());
+        assertFalse(delta.isWhiteMoved());
+        assertEquals(flipped, delta.getFlipped());
+        assertEquals(after.toText(), delta.applyTo(before).toText());
+        assertEquals("board-delta::19::X::134217728::4 1::1310720::0::2", delta.toText());
+
+        ByteBuffer frame = BinaryProtocol.encodeDelta(delta);
+        assertTrue(frame.remaining() < 20, "frame of " + frame.remaining() + " bytes");
+        assertEquals(delta.toText(), BinaryProtocol.decodeMessage(BinaryProtocol.nextFrame(frame)));
+        assertTrue(delta.toText().length() * 2 < after.toText().length());
+
+        BoardDelta pass = BoardDelta.between(after.getBlackChips(), after.getWhiteChips(), after);
+        assertTrue(pass.isPass());
+        assertEquals(after.toText(), pass.applyTo(after).toText());
+        ByteBuffer passFrame = BinaryProtocol.nextFrame(BinaryProtocol.encodeUpdate(pass));
+        assertEquals(pass.toText(), BinaryProtocol.decodeMessage(passFrame));
+    }
+
+    @Test
+    public void testIncompleteFramesWait() throws Exception {
+        ByteBuffer frame = BinaryProtocol.encodeText("x".repeat(300));
+        ByteBuffer partial = frame.slice(0, 100);
+
+        assertNull(BinaryProtocol.nextFrame(partial));
+        assertEquals(0, partial.position());
+        assertNull(BinaryProtocol.nextFrame(frame.slice(0, 1)));
+        assertEquals("x".repeat(300), BinaryProtocol.decodeCommand(BinaryProtocol.nextFrame(frame)));
+    }
+
+    @Test
+    public void testMovesUseServerNotation() throws Exception {
+        assertEquals(0, BinaryProtocol.squareOf("a8"));
+        assertEquals(63, BinaryProtocol.squareOf("h1"));
+        assertEquals(-1, BinaryProtocol.squareOf("i9"));
+        for (int square = 0; square < 64; square++) {
+            assertEquals(square, BinaryProtocol.squareOf(BinaryProtocol.notationOf(square)));
+        }
+
+        ByteBuffer move = BinaryProtocol.encodeMove(BinaryProtocol.squareOf("d3"));
+        assertEquals(3, move.remaining());
+        byte[] stream = new byte[6];
+        move.get(stream, 0, 3);
+        BinaryProtocol.encodeMove(BinaryProtocol.PASS).get(stream, 3, 3);
+        var in = new ByteArrayInputStream(stream);
+        assertEquals("game-move d3", BinaryProtocol.decodeCommand(BinaryProtocol.readFrame(in)));
+        assertEquals("game-move null", BinaryProtocol.decodeCommand(BinaryProtocol.readFrame(in)));
+        assertNull(BinaryProtocol.readFrame(in));
+    }
+
+    @Test
+    public void testMalformedFramesAreProtocolErrors() {
+        assertThrows(ProtocolException.class, () -> BinaryProtocol.decodeCommand(ByteBuffer.allocate(0)));
+        assertThrows(ProtocolException.class, () -> BinaryProtocol.decodeCommand(ByteBuffer.wrap(new byte[]{BinaryProtocol.MOVE})));
+        assertThrows(ProtocolException.class, () -> BinaryProtocol.decodeCommand(ByteBuffer.wrap(new byte[]{BinaryProtocol.MOVE, 64})));
+        assertThrows(ProtocolException.class, () -> BinaryProtocol.decodeMessage(ByteBuffer.wrap(new byte[]{BinaryProtocol.DELTA, 1})));
+        assertThrows(EOFException.class, () -> BinaryProtocol.readFrame(new ByteArrayInputStream(new byte[]{5, BinaryProtocol.TEXT, 'a'})));
+    }
+}